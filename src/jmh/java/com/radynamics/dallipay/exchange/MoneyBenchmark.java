@@ -0,0 +1,109 @@
+package com.radynamics.dallipay.exchange;
+
+import com.radynamics.dallipay.cryptoledger.MoneySums;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares MoneySums against the previous implementation, which kept all amounts in a list and re-scanned it for
+ * every sum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"100", "10000"})
+    private int count;
+
+    private Money[] amounts;
+    private Currency[] currencies;
+
+    @Setup
+    public void setup() {
+        currencies = new Currency[]{new Currency("XRP"), new Currency("BTC"), new Currency("USD"), new Currency("EUR")};
+        var random = new Random(42);
+        amounts = new Money[count];
+        for (var i = 0; i < count; i++) {
+            var ccy = currencies[i % currencies.length];
+            var factor = MoneyScale.factor(ccy);
+            amounts[i] = Money.of((double) random.nextInt(1_000_000) / factor, ccy);
+        }
+    }
+
+    @Benchmark
+    public Money[] moneySums() {
+        var sums = new MoneySums();
+        for (var amt : amounts) {
+            sums.plus(amt);
+        }
+        return sums.sum();
+    }
+
+    @Benchmark
+    public Money[] legacyMoneySums() {
+        var sums = new LegacyMoneySums();
+        for (var amt : amounts) {
+            sums.plus(amt);
+        }
+        return sums.sum();
+    }
+
+    @Benchmark
+    public Money moneyPlus() {
+        var sum = Money.zero(currencies[0]);
+        for (var amt : amounts) {
+            if (amt.getCcy().equals(sum.getCcy())) {
+                sum = sum.plus(amt);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Money legacyMoneyPlus() {
+        Double sum = 0.0;
+        for (var amt : amounts) {
+            if (amt.getCcy().equals(currencies[0])) {
+                sum = sum + amt.getNumber().doubleValue();
+            }
+        }
+        return Money.of(sum, currencies[0]);
+    }
+
+    private static class LegacyMoneySums {
+        private final ArrayList<Money> amounts = new ArrayList<>();
+
+        public void plus(Money amt) {
+            amounts.add(amt);
+        }
+
+        public Money sum(Currency ccy) {
+            Double sum = 0.0;
+            for (var amt : amounts) {
+                if (amt.getCcy().equals(ccy)) {
+                    sum += amt.getNumber().doubleValue();
+                }
+            }
+            return Money.of(sum, ccy);
+        }
+
+        public Money[] sum() {
+            var ccys = new HashSet<Currency>();
+            for (var amt : amounts) {
+                ccys.add(amt.getCcy());
+            }
+            var list = new ArrayList<Money>();
+            for (var ccy : ccys) {
+                list.add(sum(ccy));
+            }
+            return list.toArray(new Money[0]);
+        }
+    }
+}
@@ -2,11 +2,16 @@ package com.radynamics.dallipay;
 
 import com.formdev.flatlaf.FlatLaf;
 import com.formdev.flatlaf.FlatLightLaf;
+import com.radynamics.dallipay.batch.BatchProcessor;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
 import com.radynamics.dallipay.cryptoledger.Ledger;
 import com.radynamics.dallipay.cryptoledger.LedgerFactory;
 import com.radynamics.dallipay.cryptoledger.LedgerId;
 import com.radynamics.dallipay.db.ConfigRepo;
 import com.radynamics.dallipay.db.Database;
+import com.radynamics.dallipay.iso20022.JaxbContextRegistry;
+import com.radynamics.dallipay.iso20022.camt054.CamtExportFactory;
+import com.radynamics.dallipay.iso20022.pain001.PaymentInstructionReaderFactory;
 import com.radynamics.dallipay.transformation.TransformInstructionFactory;
 import com.radynamics.dallipay.ui.*;
 import org.apache.commons.lang3.ArrayUtils;
@@ -16,10 +21,13 @@ import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
@@ -40,16 +48,29 @@ public class Main {
         var db = getParam(args, "-db");
         var password = getParam(args, "-p", null);
         Database.dbFile = db == null ? Database.defaultFile() : Path.of(db).toFile();
+        JaxbContextRegistry.prewarmAsync(ArrayUtils.addAll(PaymentInstructionReaderFactory.documentClasses(), CamtExportFactory.documentClasses()));
+
+        if (ArrayUtils.contains(args, "-batch")) {
+            ReturnCode returnCode;
+            try {
+                var period = getPeriod(args);
+                returnCode = runBatch(action, inputFileName, outputFileName, walletPublicKey, getParam(args, "-l"), networkId, configFilePath, password, period);
+            } catch (DateTimeParseException e) {
+                System.err.println(String.format("Invalid date %s. Use -from and -until formatted as %s.", e.getParsedString(), DATETIME_PATTERN));
+                returnCode = ReturnCode.InvalidArguments;
+            } catch (Exception e) {
+                log.error(String.format("Error during %s", action), e);
+                System.err.println(String.format("Error during %s: %s", action, e.getMessage()));
+                returnCode = ReturnCode.Failed;
+            }
+            ExecutorProvider.shutdown();
+            Database.closeConnections();
+            System.exit(returnCode.value);
+            return;
+        }
 
         try {
-            var now = LocalDateTime.now();
-            var start = now.minusDays(7);
-            var from = getParam(args, "-from", start.format(DateFormatter)); // timerange in UTC
-            var endOfToday = com.radynamics.dallipay.iso20022.Utils.endOfToday().toLocalDateTime();
-            var until = getParam(args, "-until", endOfToday.format(DateFormatter)); // timerange in UTC
-            // TODO: validate format
-            var untilDt = LocalDateTime.parse(until, DateFormatter).atZone(ZoneId.systemDefault());
-            var period = DateTimeRange.of(LocalDateTime.parse(from, DateFormatter), untilDt.toLocalDateTime());
+            var period = getPeriod(args);
 
             try {
                 if (Taskbar.isTaskbarSupported() && Taskbar.getTaskbar().isSupported(Taskbar.Feature.ICON_IMAGE)) {
@@ -113,6 +134,82 @@ public class Main {
         }
     }
 
+    private static DateTimeRange getPeriod(String[] args) {
+        var now = LocalDateTime.now();
+        var start = now.minusDays(7);
+        var from = getParam(args, "-from", start.format(DateFormatter)); // timerange in UTC
+        var endOfToday = com.radynamics.dallipay.iso20022.Utils.endOfToday().toLocalDateTime();
+        var until = getParam(args, "-until", endOfToday.format(DateFormatter)); // timerange in UTC
+        var untilDt = LocalDateTime.parse(until, DateFormatter).atZone(ZoneId.systemDefault());
+        return DateTimeRange.of(LocalDateTime.parse(from, DateFormatter), untilDt.toLocalDateTime());
+    }
+
+    /**
+     * Processes all given input files or wallets (separated by the platform's path separator) without user interface.
+     */
+    private static ReturnCode runBatch(String action, String inputFileName, String outputFileName, String walletPublicKey, String ledgerId, String networkId, String configFilePath, String password, DateTimeRange period) {
+        var start = System.nanoTime();
+        System.setProperty("java.awt.headless", "true");
+        if (!Database.exists()) {
+            System.err.println("No database found. Please start DalliPay once interactively to accept the terms and set a password.");
+            return ReturnCode.InvalidArguments;
+        }
+        if (password == null || !Database.isReadable(password)) {
+            System.err.println("Database could not be opened. Please provide the password using -p.");
+            return ReturnCode.InvalidArguments;
+        }
+        Database.password = password;
+
+        var ledger = LedgerFactory.create(ledgerId == null ? getLastUsedLedger().orElse(LedgerId.Bitcoin) : LedgerId.of(ledgerId));
+        var transformInstruction = TransformInstructionFactory.create(ledger, configFilePath, networkId);
+        if (ledger.getNetwork() != null && !networkAvailable(ledger)) {
+            System.err.println("No connection could be established to %s.".formatted(ledger.getNetwork().getUrl()));
+            return ReturnCode.Failed;
+        }
+
+        var processor = new BatchProcessor(transformInstruction, System.err);
+        var returnCode = ReturnCode.InvalidArguments;
+        switch (action == null ? "" : action) {
+            case "pain001ToCrypto":
+                if (StringUtils.isEmpty(inputFileName)) {
+                    System.err.println("Parameter -in is required.");
+                    break;
+                }
+                returnCode = processor.validatePaymentInstructions(listInputFiles(inputFileName));
+                break;
+            case "cryptoToCamt054":
+                if (StringUtils.isEmpty(walletPublicKey) || StringUtils.isEmpty(outputFileName)) {
+                    System.err.println("Parameters -wallet and -out are required.");
+                    break;
+                }
+                returnCode = processor.exportReceived(StringUtils.split(walletPublicKey, File.pathSeparator), period, new File(outputFileName));
+                break;
+            default:
+                System.err.println(String.format("Unknown action %s. Use -a pain001ToCrypto or -a cryptoToCamt054.", action));
+                break;
+        }
+
+        log.info(String.format("Finished with %s (%s) in %sms", returnCode, returnCode.value, (System.nanoTime() - start) / 1000000));
+        return returnCode;
+    }
+
+    private static File[] listInputFiles(String value) {
+        var list = new ArrayList<File>();
+        for (var path : StringUtils.split(value, File.pathSeparator)) {
+            var f = new File(path);
+            if (f.isDirectory()) {
+                var files = f.listFiles((dir, name) -> name.toLowerCase().endsWith(".xml"));
+                if (files != null) {
+                    Arrays.sort(files);
+                    list.addAll(Arrays.asList(files));
+                }
+            } else {
+                list.add(f);
+            }
+        }
+        return list.toArray(new File[0]);
+    }
+
     private static boolean networkAvailable(Ledger ledger) {
         if (ledger.getNetwork() == null) {
             return false;
@@ -1,6 +1,10 @@
 package com.radynamics.dallipay;
 
 public enum ReturnCode {
+    Success(0),
+    Failed(1),
+    InvalidArguments(2),
+    ValidationErrors(3),
     MandatoryUpdate(11);
 
     public final int value;
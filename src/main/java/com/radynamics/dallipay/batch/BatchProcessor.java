@@ -0,0 +1,317 @@
+package com.radynamics.dallipay.batch;
+
+import com.radynamics.dallipay.DateTimeRange;
+import com.radynamics.dallipay.ReturnCode;
+import com.radynamics.dallipay.VersionController;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.cryptoledger.BalanceRefresher;
+import com.radynamics.dallipay.cryptoledger.generic.WalletInput;
+import com.radynamics.dallipay.cryptoledger.signing.NullSubmitter;
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationState;
+import com.radynamics.dallipay.cryptoledger.xrpl.XrplPriceOracle;
+import com.radynamics.dallipay.cryptoledger.xrpl.XrplPriceOracleConfig;
+import com.radynamics.dallipay.db.ConfigRepo;
+import com.radynamics.dallipay.db.Database;
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.CurrencyConverter;
+import com.radynamics.dallipay.exchange.HistoricExchangeRateLoader;
+import com.radynamics.dallipay.iso20022.AsyncValidator;
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.PaymentConverter;
+import com.radynamics.dallipay.iso20022.camt054.CamtExport;
+import com.radynamics.dallipay.iso20022.camt054.CamtExportFactory;
+import com.radynamics.dallipay.iso20022.pain001.PaymentInstructionReaderFactory;
+import com.radynamics.dallipay.iso20022.pain001.SenderHistoryValidator;
+import com.radynamics.dallipay.transformation.TransactionTranslator;
+import com.radynamics.dallipay.transformation.TransformInstruction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the pain.001 and camt.054 pipelines without user interface. All items of a batch share the same ledger,
+ * caches and executors, therefore startup costs are paid once per batch instead of once per file.
+ */
+public class BatchProcessor {
+    final static Logger log = LogManager.getLogger(BatchProcessor.class);
+    private final TransformInstruction transformInstruction;
+    private final PrintStream err;
+    private final StageTimer timer = new StageTimer();
+
+    /**
+     * Errors are written to err, progress and timings are logged.
+     */
+    public BatchProcessor(TransformInstruction transformInstruction, PrintStream err) {
+        if (transformInstruction == null) throw new IllegalArgumentException("Parameter 'transformInstruction' cannot be null");
+        if (err == null) throw new IllegalArgumentException("Parameter 'err' cannot be null");
+        this.transformInstruction = transformInstruction;
+        this.err = err;
+    }
+
+    /**
+     * Exports payments received by each wallet within period into a camt.054 file per wallet. If more than one wallet
+     * is given, output must be a directory.
+     */
+    public ReturnCode exportReceived(String[] wallets, DateTimeRange period, File output) {
+        if (wallets == null || wallets.length == 0) throw new IllegalArgumentException("Parameter 'wallets' cannot be null or empty");
+        if (period == null) throw new IllegalArgumentException("Parameter 'period' cannot be null");
+        if (output == null) throw new IllegalArgumentException("Parameter 'output' cannot be null");
+
+        var ledger = transformInstruction.getLedger();
+        var writeToDirectory = wallets.length > 1 || output.isDirectory();
+        if (writeToDirectory && !output.exists() && !output.mkdirs()) {
+            err.println(String.format("Could not create directory %s", output));
+            return ReturnCode.InvalidArguments;
+        }
+
+        CamtExport camtExport;
+        Currency targetCcy;
+        try {
+            camtExport = timer.time("prepare", () -> createCamtExport());
+            targetCcy = timer.time("prepare", () -> loadTargetCcy());
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            err.println(String.format("Preparing export failed: %s", e.getMessage()));
+            return ReturnCode.Failed;
+        }
+
+        var translator = new TransactionTranslator(transformInstruction, new CurrencyConverter());
+        translator.setTargetCcy(targetCcy);
+        var exchangeRateLoader = new HistoricExchangeRateLoader(transformInstruction, new CurrencyConverter());
+        var validator = new com.radynamics.dallipay.iso20022.camt054.PaymentValidator();
+
+        var returnCode = ReturnCode.Success;
+        var accountMappingSource = transformInstruction.getAccountMappingSource();
+        try {
+            accountMappingSource.open();
+            for (var w : wallets) {
+                var walletInput = new WalletInput(ledger, w);
+                if (!walletInput.valid()) {
+                    err.println(String.format("%s: invalid wallet", w));
+                    returnCode = ReturnCode.InvalidArguments;
+                    continue;
+                }
+
+                try {
+                    var result = timer.time("ledger", () -> ledger.listPaymentsReceived(walletInput, period));
+                    var payments = timer.time("translate", () -> translator.apply(PaymentConverter.toPayment(result.transactions(), targetCcy)));
+                    timer.time("fx", () -> CompletableFuture.allOf(exchangeRateLoader.loadAsync(payments)).join());
+                    var validation = timer.time("validate", () -> validate(validator, payments));
+                    var exportable = validation.getValid();
+
+                    var target = writeToDirectory ? new File(output, String.format("%s.xml", w)) : output;
+                    timer.time("export", () -> {
+                        var document = camtExport.getWriter().createDocument(exportable);
+                        try (var outputStream = new BufferedOutputStream(new FileOutputStream(target))) {
+                            camtExport.getConverter().toXml(document, outputStream);
+                        }
+                    });
+                    log.info(String.format("%s: %s of %s payments exported to %s", w, exportable.length, payments.length, target));
+                    if (exportable.length < payments.length && returnCode == ReturnCode.Success) {
+                        returnCode = ReturnCode.ValidationErrors;
+                    }
+                } catch (Exception e) {
+                    log.error(String.format("Export of %s failed", w), e);
+                    err.println(String.format("%s: export failed: %s", w, e.getMessage()));
+                    returnCode = ReturnCode.Failed;
+                }
+            }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            err.println(e.getMessage());
+            returnCode = ReturnCode.Failed;
+        } finally {
+            try {
+                accountMappingSource.close();
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+
+        printTimings();
+        return returnCode;
+    }
+
+    /**
+     * Reads and validates each pain.001 file as it would be done before sending. Payments are never submitted, as
+     * signing requires user interaction.
+     */
+    public ReturnCode validatePaymentInstructions(File[] inputs) {
+        if (inputs == null || inputs.length == 0) throw new IllegalArgumentException("Parameter 'inputs' cannot be null or empty");
+
+        var ledger = transformInstruction.getLedger();
+        CurrencyConverter currencyConverter;
+        try {
+            currencyConverter = timer.time("prepare", () -> {
+                var provider = transformInstruction.getExchangeRateProvider();
+                provider.load();
+                return new CurrencyConverter(provider.latestRates(), ledger.getNativeCcySymbol());
+            });
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            err.println(String.format("Loading exchange rates failed: %s", e.getMessage()));
+            return ReturnCode.Failed;
+        }
+
+        var translator = new TransactionTranslator(transformInstruction, currencyConverter);
+        try (var repo = new ConfigRepo()) {
+            translator.setDefaultSenderWallet(ledger.getId(), repo.getDefaultSenderWallet(ledger));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        var validator = new com.radynamics.dallipay.iso20022.pain001.PaymentValidator(new SenderHistoryValidator(transformInstruction.getNetwork()));
+        var submitter = new NullSubmitter();
+
+        var returnCode = ReturnCode.Success;
+        for (var input : inputs) {
+            try {
+                var reader = PaymentInstructionReaderFactory.create(ledger, input);
+                if (reader.createParameterPanel() != null) {
+                    err.println(String.format("%s: skipped, reading requires parameters to be entered", input));
+                    returnCode = ReturnCode.InvalidArguments;
+                    continue;
+                }
+
+                var payments = timer.time("read", () -> {
+                    try (var stream = new FileInputStream(input)) {
+                        return translator.apply(reader.read(stream));
+                    }
+                });
+                translator.applyDefaultSender(List.of(payments));
+
+                timer.time("ledger", () -> {
+                    new BalanceRefresher(transformInstruction.getNetwork()).refresh(payments);
+                    for (var p : payments) {
+                        p.setSubmitter(submitter);
+                        translator.applyUserCcy(p);
+                        p.refreshPaymentPath(currencyConverter);
+                        validator.getHistoryValidator().loadHistory(p.getLedger(), p.getSenderWallet());
+                    }
+                });
+
+                var validation = timer.time("validate", () -> validate(validator, payments));
+                for (var msg : validation.getErrors()) {
+                    err.println(String.format("%s: %s", input, msg));
+                }
+                log.info(String.format("%s: %s of %s payments valid", input, validation.getValid().length, payments.length));
+                if (validation.hasErrors() && returnCode == ReturnCode.Success) {
+                    returnCode = ReturnCode.ValidationErrors;
+                }
+            } catch (Exception e) {
+                log.error(String.format("Processing %s failed", input), e);
+                err.println(String.format("%s: failed: %s", input, e.getMessage()));
+                returnCode = ReturnCode.Failed;
+            }
+        }
+
+        printTimings();
+        return returnCode;
+    }
+
+    /**
+     * Validates each payment once. Payment instructions are also validated as a whole (eg. sum per sender exceeding
+     * its balance).
+     */
+    static Validation validate(com.radynamics.dallipay.iso20022.PaymentValidator validator, Payment[] payments) {
+        var futures = new AsyncValidator(validator).validate(payments);
+        CompletableFuture.allOf(futures).join();
+
+        var validation = new Validation();
+        for (var f : futures) {
+            var result = f.join();
+            var errors = errorsOf(result.right);
+            if (errors.isEmpty()) {
+                validation.valid.add(result.left);
+            } else {
+                log.info(String.format("Payment %s not valid: %s", result.left.getId(), String.join(", ", errors)));
+                validation.invalid++;
+            }
+        }
+
+        if (validator instanceof com.radynamics.dallipay.iso20022.pain001.PaymentValidator) {
+            var v = (com.radynamics.dallipay.iso20022.pain001.PaymentValidator) validator;
+            validation.batchErrors.addAll(errorsOf(v.validate(payments)));
+        }
+        return validation;
+    }
+
+    private static List<String> errorsOf(ValidationResult[] results) {
+        var list = new ArrayList<String>();
+        for (var r : results) {
+            if (r.getStatus() == ValidationState.Error) {
+                list.add(r.getMessage());
+            }
+        }
+        return list;
+    }
+
+    private CamtExport createCamtExport() throws Exception {
+        try (var repo = new ConfigRepo()) {
+            var ti = transformInstruction;
+            ti.setBookingDateFormat(repo.getBookingDateFormat());
+            ti.setValutaDateFormat(repo.getValutaDateFormat());
+            ti.setCreditorReferenceIfMissing(repo.getCreditorReferenceIfMissing());
+            return CamtExportFactory.create(repo.getDefaultExportFormat(), repo.getExportLedgerCurrencyFormat(ti.getLedger()), ti, new VersionController());
+        }
+    }
+
+    private Currency loadTargetCcy() throws Exception {
+        try (var repo = new ConfigRepo()) {
+            transformInstruction.getHistoricExchangeRateSource().init(repo);
+            var ccy = repo.getTargetCcy(transformInstruction.getTargetCcy());
+            return ccy == null || ccy.equals(XrplPriceOracleConfig.AsReceived) ? null : new Currency(ccy);
+        }
+    }
+
+    private void printTimings() {
+        log.info("Timings:");
+        for (var line : timer.format()) {
+            log.info("  " + line);
+        }
+        for (var s : ExecutorProvider.getStats()) {
+            log.info("  " + s);
+        }
+        log.info("  " + Database.getStats());
+        if (transformInstruction.getHistoricExchangeRateSource() instanceof XrplPriceOracle) {
+            var oracle = (XrplPriceOracle) transformInstruction.getHistoricExchangeRateSource();
+            log.info(String.format("  %s: %s prefetch calls, %s calls saved", oracle.getDisplayText(), oracle.getNetworkCalls(), oracle.getSavedNetworkCalls()));
+        }
+    }
+
+    public StageTimer getTimer() {
+        return timer;
+    }
+
+    static class Validation {
+        private final ArrayList<Payment> valid = new ArrayList<>();
+        private int invalid;
+        private final ArrayList<String> batchErrors = new ArrayList<>();
+
+        /**
+         * Returns all payments without errors.
+         */
+        public Payment[] getValid() {
+            return valid.toArray(new Payment[0]);
+        }
+
+        /**
+         * Returns errors concerning the payments as a whole, errors of single payments are only logged.
+         */
+        public List<String> getErrors() {
+            return batchErrors;
+        }
+
+        public boolean hasErrors() {
+            return invalid > 0 || !batchErrors.isEmpty();
+        }
+    }
+}
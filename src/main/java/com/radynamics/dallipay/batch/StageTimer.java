@@ -0,0 +1,66 @@
+package com.radynamics.dallipay.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Sums up the time spent per stage over all items of a batch.
+ */
+public class StageTimer {
+    private final LinkedHashMap<String, Stage> stages = new LinkedHashMap<>();
+
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public <T> T time(String stage, Callable<T> action) throws Exception {
+        var start = System.nanoTime();
+        try {
+            return action.call();
+        } finally {
+            add(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String stage, Action action) throws Exception {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private synchronized void add(String stage, long nanos) {
+        var s = stages.computeIfAbsent(stage, k -> new Stage());
+        s.count++;
+        s.nanos += nanos;
+    }
+
+    public synchronized Duration get(String stage) {
+        var s = stages.get(stage);
+        return s == null ? Duration.ZERO : Duration.ofNanos(s.nanos);
+    }
+
+    /**
+     * Returns one line per stage with its total time and number of runs.
+     */
+    public synchronized List<String> format() {
+        var list = new ArrayList<String>();
+        for (var e : stages.entrySet()) {
+            list.add(String.format("%-12s %8sms (%s)", e.getKey(), Duration.ofNanos(e.getValue().nanos).toMillis(), e.getValue().count));
+        }
+        return list;
+    }
+
+    public synchronized int count(String stage) {
+        var s = stages.get(stage);
+        return s == null ? 0 : s.count;
+    }
+
+    private static class Stage {
+        private int count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,304 @@
+package com.radynamics.dallipay.concurrent;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.swing.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Provides one bounded, named pool per workload instead of creating a new thread pool for every single task.
+ */
+public final class ExecutorProvider {
+    final static Logger log = LogManager.getLogger(ExecutorProvider.class);
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final EnumMap<Workload, Pool> pools = new EnumMap<>(Workload.class);
+    private static boolean virtualThreadsEnabled = Boolean.getBoolean("dallipay.virtualThreads");
+    private static ScheduledThreadPoolExecutor scheduler;
+    private static final ThreadLocal<Workload> currentWorkload = new ThreadLocal<>();
+
+    private ExecutorProvider() {
+    }
+
+    public static CompletableFuture<Void> execute(Workload workload, Runnable task) {
+        if (task == null) throw new IllegalArgumentException("Parameter 'task' cannot be null");
+        return submit(workload, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the task within the pool of the given workload. Cancelling the returned future also cancels the task, if
+     * it's still queued it will not be executed at all.
+     */
+    public static <T> CompletableFuture<T> submit(Workload workload, Supplier<T> task) {
+        if (workload == null) throw new IllegalArgumentException("Parameter 'workload' cannot be null");
+        if (task == null) throw new IllegalArgumentException("Parameter 'task' cannot be null");
+
+        var pool = get(workload);
+        var submitted = System.nanoTime();
+        var cf = new CompletableFuture<T>();
+        Future<?> future;
+        try {
+            future = pool.executor.submit(() -> {
+                if (cf.isDone()) {
+                    return;
+                }
+                pool.active.incrementAndGet();
+                try {
+                    cf.complete(task.get());
+                } catch (Throwable e) {
+                    cf.completeExceptionally(e);
+                } finally {
+                    pool.active.decrementAndGet();
+                    pool.latencyNanos.add(System.nanoTime() - submitted);
+                    pool.completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cf.completeExceptionally(e);
+            return cf;
+        }
+        cf.whenComplete((result, e) -> {
+            if (cf.isCancelled()) {
+                pool.cancelled.increment();
+                future.cancel(true);
+            }
+        });
+        return cf;
+    }
+
+    /**
+     * Runs all tasks with at most parallelism tasks at a time and waits until all are done. The calling thread takes
+     * part in processing, therefore this doesn't deadlock if called from a thread of the same pool.
+     */
+    public static void invokeAll(Workload workload, Collection<? extends Runnable> tasks, int parallelism) {
+        if (workload == null) throw new IllegalArgumentException("Parameter 'workload' cannot be null");
+        if (tasks == null) throw new IllegalArgumentException("Parameter 'tasks' cannot be null");
+        if (parallelism < 1) throw new IllegalArgumentException("Parameter 'parallelism' must be greater than 0");
+
+        var queue = new ConcurrentLinkedQueue<Runnable>(tasks);
+        var errors = new ConcurrentLinkedQueue<RuntimeException>();
+        Runnable worker = () -> {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    errors.add(e);
+                }
+            }
+        };
+
+        var helpers = new ArrayList<CompletableFuture<Void>>();
+        var started = new ArrayList<AtomicBoolean>();
+        for (var i = 0; i < Math.min(parallelism, tasks.size()) - 1; i++) {
+            var s = new AtomicBoolean();
+            started.add(s);
+            helpers.add(execute(workload, () -> {
+                s.set(true);
+                worker.run();
+            }));
+        }
+        worker.run();
+
+        // All tasks are taken. Helpers not started yet aren't needed anymore.
+        for (var i = 0; i < helpers.size(); i++) {
+            if (!started.get(i).get()) {
+                helpers.get(i).cancel(false);
+            }
+        }
+        for (var h : helpers) {
+            if (!h.isCancelled()) {
+                h.join();
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            var e = errors.poll();
+            errors.forEach(e::addSuppressed);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs task within the pool of the given workload repeatedly, each run starts delay after the previous one
+     * completed. All schedules share a single timer thread, which only triggers runs but never executes tasks itself.
+     */
+    public static ScheduledTask scheduleWithFixedDelay(Workload workload, Runnable task, Duration initialDelay, Duration delay) {
+        if (workload == null) throw new IllegalArgumentException("Parameter 'workload' cannot be null");
+        if (task == null) throw new IllegalArgumentException("Parameter 'task' cannot be null");
+        if (initialDelay == null) throw new IllegalArgumentException("Parameter 'initialDelay' cannot be null");
+        if (delay == null) throw new IllegalArgumentException("Parameter 'delay' cannot be null");
+
+        var scheduled = new ScheduledTask();
+        scheduleNext(workload, task, initialDelay, delay, scheduled);
+        return scheduled;
+    }
+
+    private static void scheduleNext(Workload workload, Runnable task, Duration wait, Duration delay, ScheduledTask scheduled) {
+        if (scheduled.isCancelled()) {
+            return;
+        }
+        scheduled.setNext(getScheduler().schedule(() -> {
+            if (scheduled.isCancelled()) {
+                return;
+            }
+            execute(workload, task).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn(e.getMessage(), e);
+                }
+                scheduleNext(workload, task, delay, delay, scheduled);
+            });
+        }, wait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor getScheduler() {
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                var t = new Thread(r, "scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    private static synchronized Pool get(Workload workload) {
+        return pools.computeIfAbsent(workload, ExecutorProvider::create);
+    }
+
+    private static Pool create(Workload workload) {
+        if (virtualThreadsEnabled && workload.isIoBound()) {
+            var executor = createVirtualThreadExecutor();
+            if (executor != null) {
+                log.info(String.format("Using virtual threads for %s", workload.getThreadName()));
+                return new Pool(workload, executor, null);
+            }
+        }
+
+        var size = workload.getPoolSize();
+        var queue = new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY);
+        var threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            var t = new Thread(() -> {
+                currentWorkload.set(workload);
+                r.run();
+            }, String.format("%s-%s", workload.getThreadName(), threadCounter.incrementAndGet()));
+            t.setDaemon(true);
+            return t;
+        };
+        var executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, queue, threadFactory, new BackpressurePolicy(workload));
+        executor.allowCoreThreadTimeOut(true);
+        return new Pool(workload, executor, executor);
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        // Only available on Java 21+, therefore resolved at runtime.
+        try {
+            var m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not supported by this runtime, falling back to platform threads.");
+            return null;
+        }
+    }
+
+    public static synchronized void setVirtualThreadsEnabled(boolean enabled) {
+        virtualThreadsEnabled = enabled;
+    }
+
+    public static synchronized ExecutorStats getStats(Workload workload) {
+        var pool = pools.get(workload);
+        if (pool == null) {
+            return new ExecutorStats(workload, 0, 0, 0, 0, Duration.ZERO);
+        }
+        return pool.stats();
+    }
+
+    public static synchronized ExecutorStats[] getStats() {
+        var list = new ArrayList<ExecutorStats>();
+        for (var pool : pools.values()) {
+            list.add(pool.stats());
+        }
+        return list.toArray(new ExecutorStats[0]);
+    }
+
+    public static synchronized void shutdown() {
+        for (var pool : pools.values()) {
+            pool.executor.shutdownNow();
+        }
+        pools.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Handles submits to a full queue. The event dispatch thread is never blocked nor used to run a task, its submit
+     * fails instead. Threads of the same pool run the task themselves, as they would otherwise wait for their own
+     * pool. All other threads wait until the queue has space again.
+     */
+    private static class BackpressurePolicy implements RejectedExecutionHandler {
+        private final Workload workload;
+
+        public BackpressurePolicy(Workload workload) {
+            this.workload = workload;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException(String.format("%s is shut down", workload.getThreadName()));
+            }
+            if (SwingUtilities.isEventDispatchThread()) {
+                throw new RejectedExecutionException(String.format("%s is saturated", workload.getThreadName()));
+            }
+            if (currentWorkload.get() == workload) {
+                r.run();
+                return;
+            }
+            try {
+                executor.getQueue().put(r);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        }
+    }
+
+    private static class Pool {
+        private final Workload workload;
+        private final ExecutorService executor;
+        private final ThreadPoolExecutor threadPoolExecutor;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+
+        public Pool(Workload workload, ExecutorService executor, ThreadPoolExecutor threadPoolExecutor) {
+            this.workload = workload;
+            this.executor = executor;
+            this.threadPoolExecutor = threadPoolExecutor;
+        }
+
+        public ExecutorStats stats() {
+            var completedCount = completed.sum();
+            var avgLatency = completedCount == 0 ? Duration.ZERO : Duration.ofNanos(latencyNanos.sum() / completedCount);
+            var queueSize = threadPoolExecutor == null ? 0 : threadPoolExecutor.getQueue().size();
+            return new ExecutorStats(workload, queueSize, active.get(), completedCount, cancelled.sum(), avgLatency);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.radynamics.dallipay.concurrent;
+
+import java.time.Duration;
+
+public class ExecutorStats {
+    private final Workload workload;
+    private final int queueSize;
+    private final int activeCount;
+    private final long completedCount;
+    private final long cancelledCount;
+    private final Duration averageLatency;
+
+    public ExecutorStats(Workload workload, int queueSize, int activeCount, long completedCount, long cancelledCount, Duration averageLatency) {
+        this.workload = workload;
+        this.queueSize = queueSize;
+        this.activeCount = activeCount;
+        this.completedCount = completedCount;
+        this.cancelledCount = cancelledCount;
+        this.averageLatency = averageLatency;
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * Average duration between submitting and completing a task, including time spent in the queue.
+     */
+    public Duration getAverageLatency() {
+        return averageLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: queued %s, active %s, completed %s, cancelled %s, avg latency %sms", workload.getThreadName(), queueSize, activeCount, completedCount, cancelledCount, averageLatency.toMillis());
+    }
+}
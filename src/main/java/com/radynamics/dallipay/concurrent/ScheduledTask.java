@@ -0,0 +1,33 @@
+package com.radynamics.dallipay.concurrent;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A task run repeatedly by {@link ExecutorProvider#scheduleWithFixedDelay}.
+ */
+public class ScheduledTask {
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> next;
+
+    ScheduledTask() {
+    }
+
+    /**
+     * Stops further runs. A run already in progress is completed.
+     */
+    public void cancel() {
+        cancelled = true;
+        var f = next;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void setNext(ScheduledFuture<?> next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,41 @@
+package com.radynamics.dallipay.concurrent;
+
+public enum Workload {
+    LedgerRpc("ledger-rpc", 16, true),
+    FxLookup("fx-lookup", 8, true),
+    Validation("validation", Math.max(2, Runtime.getRuntime().availableProcessors()), false),
+    WalletInfo("wallet-info", 8, true),
+    Background("background", 8, true),
+    // Events raised to listeners, which may block (eg. verifying a transaction onchain).
+    Listener("listener", 8, true);
+
+    private final String threadName;
+    private final int defaultPoolSize;
+    private final boolean ioBound;
+
+    Workload(String threadName, int defaultPoolSize, boolean ioBound) {
+        this.threadName = threadName;
+        this.defaultPoolSize = defaultPoolSize;
+        this.ioBound = ioBound;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Returns the pool size, which can be overridden by system property "dallipay.pool.[threadName]" (eg. -Ddallipay.pool.ledger-rpc=32).
+     */
+    public int getPoolSize() {
+        var value = System.getProperty(String.format("dallipay.pool.%s", threadName));
+        try {
+            return value == null ? defaultPoolSize : Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return defaultPoolSize;
+        }
+    }
+
+    public boolean isIoBound() {
+        return ioBound;
+    }
+}
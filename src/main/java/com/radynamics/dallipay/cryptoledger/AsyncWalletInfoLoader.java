@@ -1,11 +1,12 @@
 package com.radynamics.dallipay.cryptoledger;
 
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.iso20022.Payment;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class AsyncWalletInfoLoader {
     public CompletableFuture<PaymentWalletInfo>[] load(Payment[] payments) {
@@ -17,14 +18,8 @@ public class AsyncWalletInfoLoader {
     }
 
     public CompletableFuture<PaymentWalletInfo> load(Payment p) {
-        var completableFuture = new CompletableFuture<PaymentWalletInfo>();
-
-        Executors.newCachedThreadPool().submit(() -> {
-            completableFuture.complete(
-                    new PaymentWalletInfo(all(p.getLedger(), p.getSenderWallet()), all(p.getLedger(), p.getReceiverWallet())));
-        });
-
-        return completableFuture;
+        return ExecutorProvider.submit(Workload.WalletInfo, () ->
+                new PaymentWalletInfo(all(p.getLedger(), p.getSenderWallet()), all(p.getLedger(), p.getReceiverWallet())));
     }
 
     private static final WalletInfo[] all(Ledger ledger, Wallet wallet) {
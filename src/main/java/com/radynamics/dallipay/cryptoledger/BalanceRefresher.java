@@ -1,7 +1,12 @@
 package com.radynamics.dallipay.cryptoledger;
 
 import com.radynamics.dallipay.iso20022.Payment;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.function.Function;
 
 public class BalanceRefresher {
@@ -12,6 +17,8 @@ public class BalanceRefresher {
     }
 
     public void refreshAllSenderWallets(Payment[] payments) {
+        var index = PaymentIndex.of(payments);
+        prefetch(index.bySender());
         refresh(payments, (Payment::getSenderWallet));
     }
 
@@ -20,7 +27,10 @@ public class BalanceRefresher {
     }
 
     public void refresh(Payment[] payments) {
+        var index = PaymentIndex.of(payments);
+        prefetch(index.bySender());
         refresh(payments, (Payment::getSenderWallet));
+        prefetch(index.byReceiver());
         refresh(payments, (Payment::getReceiverWallet));
     }
 
@@ -30,6 +40,32 @@ public class BalanceRefresher {
         }
     }
 
+    private void prefetch(Collection<PaymentIndex.Partition<Payment>> partitions) {
+        // Load all wallets not known yet with one call per ledger, allowing the ledger to fetch them concurrently.
+        var wallets = new LinkedHashMap<String, Pair<Ledger, ArrayList<Wallet>>>();
+        for (var p : partitions) {
+            var wallet = p.getWallet();
+            if (wallet == null || !p.getLedger().createWalletValidator().isValidFormat(wallet)) {
+                continue;
+            }
+            if (cache.isPresent(new WalletKey(wallet))) {
+                continue;
+            }
+            var ledger = p.getLedger();
+            wallets.computeIfAbsent(ledger.getId().textId(), k -> new ImmutablePair<>(ledger, new ArrayList<>())).getValue().add(wallet);
+        }
+
+        for (var e : wallets.values()) {
+            var list = e.getValue().toArray(new Wallet[0]);
+            e.getKey().refreshBalances(list, true);
+            for (var w : list) {
+                if (!w.getBalances().isEmpty()) {
+                    cache.add(new WalletKey(w), w.getBalances());
+                }
+            }
+        }
+    }
+
     public void refresh(Ledger ledger, Wallet wallet) {
         loadOrGet(ledger, wallet, false);
     }
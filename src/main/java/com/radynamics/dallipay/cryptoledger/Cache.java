@@ -5,82 +5,154 @@ import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Cache<T> {
     private final static Logger log = LogManager.getLogger(Cache.class);
-    private final HashMap<String, CacheEntry<T>> cache = new HashMap<>();
-    private final String prefix;
+    public final static int DEFAULT_MAX_SIZE = 10000;
 
+    private final LinkedHashMap<String, CacheEntry<T>> cache;
+    private final String prefix;
     private final Duration maxAge;
+    private final int maxSize;
+    private final CacheStats stats = new CacheStats();
 
     public Cache(String prefix) {
         this(prefix, Duration.ofSeconds(60));
     }
 
     public Cache(String prefix, Duration maxAge) {
+        this(prefix, maxAge, DEFAULT_MAX_SIZE);
+    }
+
+    public Cache(String prefix, Duration maxAge, int maxSize) {
+        if (maxAge == null) throw new IllegalArgumentException("Parameter 'maxAge' cannot be null");
+        if (maxSize <= 0) throw new IllegalArgumentException("Parameter 'maxSize' must be greater than 0");
         this.prefix = prefix;
         this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        // Access ordered to evict the least recently used entry as soon as maxSize is exceeded.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<T>> eldest) {
+                if (size() <= Cache.this.maxSize) {
+                    return false;
+                }
+                stats.evicted();
+                return true;
+            }
+        };
     }
 
+    /**
+     * Adds data using the default max age of this cache. A null value is stored as "known to be missing".
+     */
     public void add(Key key, T data) {
-        cache.put(createKey(key), new CacheEntry<>(data));
+        add(key, data, maxAge);
+    }
+
+    public synchronized void add(Key key, T data, Duration maxAge) {
+        if (maxAge == null) throw new IllegalArgumentException("Parameter 'maxAge' cannot be null");
+        cache.put(createKey(key), CacheEntry.of(data, maxAge));
+    }
+
+    /**
+     * Remembers that no data exists for the given key (eg. "wallet doesn't exist") to avoid repeated lookups.
+     */
+    public synchronized void addMissing(Key key) {
+        cache.put(createKey(key), CacheEntry.missing(maxAge));
     }
 
     private String createKey(Key key) {
         return String.format("%s_%s", prefix, key.get());
     }
 
-    public boolean isPresent(Key key) {
+    public synchronized boolean isPresent(Key key) {
         return getEntry(key) != null;
     }
 
+    /**
+     * Returns true if a previous lookup for the given key remembered that no data exists.
+     */
+    public synchronized boolean isMissing(Key key) {
+        var e = getEntry(key);
+        return e != null && e.isMissing();
+    }
+
     private CacheEntry<T> getEntry(Key key) {
-        return list(key).stream().findFirst().orElse(null);
+        var k = createKey(key);
+        var e = cache.get(k);
+        if (e == null) {
+            stats.miss();
+            return null;
+        }
+        if (e.isExpired()) {
+            cache.remove(k);
+            stats.expired(1);
+            stats.miss();
+            return null;
+        }
+        stats.hit();
+        return e;
     }
 
-    public T get(Key key) {
+    /**
+     * Returns the entry for the given key or null if nothing is known about it. An entry without value means "known to
+     * be missing". Counts as a single hit or miss.
+     */
+    public synchronized CacheEntry<T> lookup(Key key) {
+        return getEntry(key);
+    }
+
+    public synchronized T get(Key key) {
         var o = getEntry(key);
         return o == null ? null : o.getValue();
     }
 
-    private ArrayList<CacheEntry<T>> list(Key key) {
-        var needle = createKey(key);
-        var list = new ArrayList<CacheEntry<T>>();
-        for (var e : cache.entrySet()) {
-            if (e.getKey().equals(needle)) {
-                list.add(e.getValue());
-            }
+    public synchronized T[] list(Key key, T[] a) {
+        var list = new ArrayList<T>();
+        var o = getEntry(key);
+        if (o != null && !o.isMissing()) {
+            list.add(o.getValue());
         }
-        return list;
-    }
-
-    public T[] list(Key key, T[] a) {
-        return list(key).stream().map(CacheEntry::getValue).collect(Collectors.toCollection(ArrayList::new)).toArray(a);
+        return list.toArray(a);
     }
 
-    public void evict(Key key) {
-        var keyString = createKey(key);
-        cache.entrySet().removeIf(entry -> entry.getKey().equals(keyString));
+    public synchronized void evict(Key key) {
+        cache.remove(createKey(key));
     }
 
     public synchronized void evictOutdated() {
         var oldSize = cache.size();
-        cache.entrySet().removeIf(entry -> entry.getValue().getAge().toSeconds() > maxAge.toSeconds());
-        log.trace(String.format("Removed %s items", oldSize - cache.size()));
+        cache.values().removeIf(CacheEntry::isExpired);
+        var removed = oldSize - cache.size();
+        stats.expired(removed);
+        log.trace(String.format("Removed %s items", removed));
     }
 
-    public void clear() {
+    public synchronized void clear() {
         cache.clear();
     }
 
+    public synchronized int size() {
+        return cache.size();
+    }
+
     public String getPrefix() {
         return prefix;
     }
 
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
     @Override
-    public String toString() {
-        return String.format("%s entries", cache.size());
+    public synchronized String toString() {
+        return String.format("%s entries (%s)", cache.size(), stats);
     }
 }
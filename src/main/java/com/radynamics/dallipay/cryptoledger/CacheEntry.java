@@ -1,21 +1,45 @@
 package com.radynamics.dallipay.cryptoledger;
 
 import java.time.Duration;
-import java.util.Date;
 
 public class CacheEntry<T> {
-    private final Date created = new Date();
+    private final long created = System.nanoTime();
     private final T value;
+    private final Duration maxAge;
+    private final boolean missing;
 
-    public CacheEntry(T value) {
+    private CacheEntry(T value, Duration maxAge, boolean missing) {
         this.value = value;
+        this.maxAge = maxAge;
+        this.missing = missing;
+    }
+
+    public static <T> CacheEntry<T> of(T value, Duration maxAge) {
+        return new CacheEntry<>(value, maxAge, value == null);
+    }
+
+    public static <T> CacheEntry<T> missing(Duration maxAge) {
+        return new CacheEntry<>(null, maxAge, true);
     }
 
     public Duration getAge() {
-        return Duration.ofMillis(new Date().getTime() - created.getTime());
+        // Monotonic clock, not affected by system time changes.
+        return Duration.ofNanos(System.nanoTime() - created);
+    }
+
+    public boolean isExpired() {
+        return maxAge != null && getAge().compareTo(maxAge) > 0;
     }
 
     public T getValue() {
         return value;
     }
+
+    public boolean isMissing() {
+        return missing;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
 }
@@ -0,0 +1,52 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheStats {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    void evicted() {
+        evictions.incrementAndGet();
+    }
+
+    void expired(long count) {
+        expirations.addAndGet(count);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public double getHitRate() {
+        var total = getHits() + getMisses();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits: %s, misses: %s, evictions: %s, expirations: %s", getHits(), getMisses(), getEvictions(), getExpirations());
+    }
+}
@@ -0,0 +1,163 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Waits for transactions to be validated. All pending confirmations of a network are resolved from a single feed of
+ * validated ledgers, therefore the load on the network doesn't grow with the number of pending transactions. The feed
+ * only runs while confirmations are pending.
+ */
+public class ConfirmationService {
+    final static Logger log = LogManager.getLogger(ConfirmationService.class);
+    private static final ConcurrentHashMap<String, ConfirmationService> instances = new ConcurrentHashMap<>();
+    private static final long UNKNOWN = -1;
+
+    private final LedgerFeed feed;
+    // Ledgers awaited for transactions without a known LastLedgerSequence.
+    private final int maxLedgers = Integer.getInteger("dallipay.confirmation.maxLedgers", 10);
+    private final HashMap<String, Pending> pending = new HashMap<>();
+    private long validatedIndex = UNKNOWN;
+    private boolean running;
+
+    public ConfirmationService(LedgerFeed feed) {
+        if (feed == null) throw new IllegalArgumentException("Parameter 'feed' cannot be null");
+        this.feed = feed;
+    }
+
+    public static ConfirmationService get(String key, Supplier<LedgerFeed> feed) {
+        if (key == null) throw new IllegalArgumentException("Parameter 'key' cannot be null");
+        return instances.computeIfAbsent(key, k -> new ConfirmationService(feed.get()));
+    }
+
+    /**
+     * Returns a future completed with the index of the ledger including transactionId. It fails with a
+     * {@link LedgerException} once a ledger at or after lastLedgerSequence was validated without it.
+     */
+    public CompletableFuture<Long> await(String transactionId, long lastLedgerSequence) {
+        if (transactionId == null) throw new IllegalArgumentException("Parameter 'transactionId' cannot be null");
+        return register(transactionId, lastLedgerSequence);
+    }
+
+    /**
+     * Returns a future completed with the index of the ledger including transactionId. It fails with a
+     * {@link LedgerException} if it's not included within the next validated ledgers.
+     */
+    public CompletableFuture<Long> await(String transactionId) {
+        if (transactionId == null) throw new IllegalArgumentException("Parameter 'transactionId' cannot be null");
+        return register(transactionId, UNKNOWN);
+    }
+
+    private synchronized CompletableFuture<Long> register(String transactionId, long lastLedgerSequence) {
+        var p = pending.get(transactionId);
+        if (p == null) {
+            p = new Pending(transactionId, lastLedgerSequence);
+            pending.put(transactionId, p);
+        } else if (lastLedgerSequence != UNKNOWN) {
+            p.lastLedgerSequence = lastLedgerSequence;
+        }
+
+        var future = new CompletableFuture<Long>();
+        p.futures.add(future);
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                unregister(transactionId, future);
+            }
+        });
+
+        if (!running) {
+            running = true;
+            feed.start(this::onLedger);
+        }
+        return future;
+    }
+
+    private synchronized void unregister(String transactionId, CompletableFuture<Long> future) {
+        var p = pending.get(transactionId);
+        if (p == null) {
+            return;
+        }
+        p.futures.remove(future);
+        if (p.futures.isEmpty()) {
+            pending.remove(transactionId);
+        }
+        stopIfIdle();
+    }
+
+    void onLedger(ValidatedLedger ledger) {
+        var validated = new ArrayList<Pending>();
+        var expired = new ArrayList<Pending>();
+        synchronized (this) {
+            if (ledger.getIndex() <= validatedIndex) {
+                return;
+            }
+            validatedIndex = ledger.getIndex();
+
+            for (var p : new ArrayList<>(pending.values())) {
+                if (ledger.contains(p.transactionId)) {
+                    validated.add(p);
+                    pending.remove(p.transactionId);
+                    continue;
+                }
+                if (p.lastLedgerSequence == UNKNOWN) {
+                    p.lastLedgerSequence = ledger.getIndex() + maxLedgers;
+                } else if (ledger.getIndex() >= p.lastLedgerSequence) {
+                    expired.add(p);
+                    pending.remove(p.transactionId);
+                }
+            }
+            stopIfIdle();
+        }
+
+        // Completed outside the lock, dependent actions may await further transactions.
+        for (var p : validated) {
+            for (var f : p.futures) {
+                f.complete(ledger.getIndex());
+            }
+        }
+        for (var p : expired) {
+            var e = new LedgerException(String.format("Transaction %s was not validated until ledger %s.", p.transactionId, p.lastLedgerSequence));
+            for (var f : p.futures) {
+                f.completeExceptionally(e);
+            }
+        }
+        if (validated.size() + expired.size() > 0) {
+            log.trace(String.format("Ledger %s: %s validated, %s expired", ledger.getIndex(), validated.size(), expired.size()));
+        }
+    }
+
+    private void stopIfIdle() {
+        if (running && pending.isEmpty()) {
+            running = false;
+            feed.stop();
+        }
+    }
+
+    /**
+     * Returns the index of the latest validated ledger seen or -1 if none was seen yet.
+     */
+    public synchronized long getValidatedIndex() {
+        return validatedIndex;
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private static class Pending {
+        private final String transactionId;
+        private long lastLedgerSequence;
+        private final ArrayList<CompletableFuture<Long>> futures = new ArrayList<>();
+
+        public Pending(String transactionId, long lastLedgerSequence) {
+            this.transactionId = transactionId;
+            this.lastLedgerSequence = lastLedgerSequence;
+        }
+    }
+}
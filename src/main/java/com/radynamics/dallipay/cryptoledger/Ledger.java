@@ -49,6 +49,8 @@ public interface Ledger {
 
     void refreshBalance(Wallet wallet, boolean useCache);
 
+    void refreshBalances(Wallet[] wallets, boolean useCache);
+
     TransactionResult listPaymentsSent(Wallet wallet, long sinceDaysAgo, int limit) throws Exception;
 
     TransactionResult listPaymentsReceived(WalletInput walletInput, DateTimeRange period) throws Exception;
@@ -0,0 +1,15 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import java.util.function.Consumer;
+
+/**
+ * Stream of validated ledgers in ascending order.
+ */
+public interface LedgerFeed {
+    /**
+     * Starts passing every ledger validated from now on to listener.
+     */
+    void start(Consumer<ValidatedLedger> listener);
+
+    void stop();
+}
@@ -1,36 +1,65 @@
 package com.radynamics.dallipay.cryptoledger;
 
 import com.radynamics.dallipay.iso20022.Payment;
-import com.radynamics.dallipay.iso20022.PaymentConverter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 
 public class LedgerPaymentHistoryProvider implements PaymentHistoryProvider {
     final static Logger log = LogManager.getLogger(LedgerPaymentHistoryProvider.class);
+    private static final int LIMIT = 1000;
+    private volatile PaymentHistoryIndex index = new PaymentHistoryIndex(new Transaction[0]);
     private Transaction[] transactions = new Transaction[0];
+    private String walletKey;
+    private ZonedDateTime loadedAt;
 
+    /**
+     * Loads payments sent by wallet. If the history of the same wallet was loaded before, only payments sent since
+     * then are fetched and merged. A failed load keeps the history loaded before.
+     */
     @Override
-    public void load(Ledger ledger, Wallet wallet, long sinceDaysAgo) {
-        try {
-            var transactionResult = ledger.listPaymentsSent(wallet, sinceDaysAgo, 1000);
-            transactions = Arrays.stream(transactionResult.transactions()).sorted(Comparator.comparing(Transaction::getBooked)).toArray(Transaction[]::new);
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
+    public synchronized void load(Ledger ledger, Wallet wallet, long sinceDaysAgo) throws Exception {
+        var key = PaymentIndex.keyOf(wallet);
+        var incremental = key.equals(walletKey) && loadedAt != null;
+        var now = ZonedDateTime.now();
+        // Payments are listed by day, therefore the day of the previous load is loaded again.
+        var days = incremental ? Math.min(sinceDaysAgo, Duration.between(loadedAt, now).toDays() + 1) : sinceDaysAgo;
+        var transactionResult = ledger.listPaymentsSent(wallet, days, LIMIT);
+
+        var merged = new LinkedHashMap<String, Transaction>();
+        var cutoff = now.minusDays(sinceDaysAgo + 1);
+        if (incremental) {
+            for (var t : transactions) {
+                if (!t.getBooked().isBefore(cutoff)) {
+                    merged.put(idOf(t, merged.size()), t);
+                }
+            }
         }
+        for (var t : transactionResult.transactions()) {
+            merged.put(idOf(t, merged.size()), t);
+        }
+
+        var sorted = merged.values().stream().sorted(Comparator.comparing(Transaction::getBooked)).toArray(Transaction[]::new);
+        // Keep the newest ones, as a full load would.
+        transactions = sorted.length <= LIMIT ? sorted : Arrays.copyOfRange(sorted, sorted.length - LIMIT, sorted.length);
+        index = new PaymentHistoryIndex(transactions);
+        walletKey = key;
+        loadedAt = now;
+        log.trace(String.format("%s payments of %s loaded, %s in history", transactionResult.transactions().length, wallet.getPublicKey(), transactions.length));
+    }
+
+    private static String idOf(Transaction t, int position) {
+        // Transactions without id can't be matched, keep all of them.
+        return t.getId() == null ? String.format("#%s", position) : t.getId();
     }
 
     @Override
     public Transaction oldestSimilarOrDefault(Payment p) {
-        var c = new PaymentComparer();
-        c.compareSender(false);
-        for (var t : transactions) {
-            if (c.similar(PaymentConverter.toPayment(t, p.getUserCcy()), p)) {
-                return t;
-            }
-        }
-        return null;
+        return index.oldestSimilarOrDefault(p);
     }
 }
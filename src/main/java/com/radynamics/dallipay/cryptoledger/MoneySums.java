@@ -2,46 +2,89 @@ package com.radynamics.dallipay.cryptoledger;
 
 import com.radynamics.dallipay.exchange.Currency;
 import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.exchange.MoneyScale;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
 
+/**
+ * Sums of amounts per currency. Each currency gets a slot with a primitive accumulator, therefore adding an amount and
+ * getting a sum don't depend on the number of amounts added.
+ */
 public class MoneySums {
-    private final ArrayList<Money> amounts = new ArrayList<>();
+    private final HashMap<Currency, Integer> slots = new HashMap<>();
+    private Currency[] currencies = new Currency[4];
+    private long[] factors = new long[4];
+    // Sum as scaled long as long as all amounts are exactly representable, as double afterwards.
+    private long[] scaled = new long[4];
+    private double[] inexact = new double[4];
+    private boolean[] exact = new boolean[4];
+    private int size;
+    private int count;
 
     public void plus(Money amt) {
         if (amt == null) throw new IllegalArgumentException("Parameter 'amt' cannot be null");
-        amounts.add(amt);
-    }
+        var slot = slotOf(amt.getCcy());
+        var value = amt.doubleValue();
+        count++;
 
-    public Money sum(Currency ccy) {
-        var sum = Money.zero(ccy);
-        for (var amt : amounts) {
-            if (amt.getCcy().equals(ccy)) {
-                sum = sum.plus(amt);
+        if (exact[slot]) {
+            // Equal currencies share the same factor, therefore the amount's scaled value can be added as is.
+            var s = amt.scaledValue();
+            if (s != MoneyScale.NOT_EXACT && MoneyScale.inRange(scaled[slot] + s)) {
+                scaled[slot] += s;
+                return;
             }
+            exact[slot] = false;
+            inexact[slot] = MoneyScale.toDouble(scaled[slot], factors[slot]);
         }
-        return sum;
+        inexact[slot] += value;
     }
 
-    public Currency[] currencies() {
-        var set = new HashSet<Currency>();
-        for (var amt : amounts) {
-            set.add(amt.getCcy());
+    private int slotOf(Currency ccy) {
+        var slot = slots.get(ccy);
+        if (slot != null) {
+            return slot;
         }
-        return set.toArray(new Currency[0]);
+
+        if (size == currencies.length) {
+            var capacity = size * 2;
+            currencies = Arrays.copyOf(currencies, capacity);
+            factors = Arrays.copyOf(factors, capacity);
+            scaled = Arrays.copyOf(scaled, capacity);
+            inexact = Arrays.copyOf(inexact, capacity);
+            exact = Arrays.copyOf(exact, capacity);
+        }
+        currencies[size] = ccy;
+        factors[size] = MoneyScale.factor(ccy);
+        exact[size] = true;
+        slots.put(ccy, size);
+        return size++;
+    }
+
+    public Money sum(Currency ccy) {
+        var slot = slots.get(ccy);
+        return slot == null ? Money.zero(ccy) : Money.of(valueOf(slot), ccy);
+    }
+
+    private double valueOf(int slot) {
+        return exact[slot] ? MoneyScale.toDouble(scaled[slot], factors[slot]) : inexact[slot];
+    }
+
+    public Currency[] currencies() {
+        return Arrays.copyOf(currencies, size);
     }
 
     public Money[] sum() {
-        var list = new ArrayList<Money>();
-        for (var ccy : currencies()) {
-            list.add(sum(ccy));
+        var list = new Money[size];
+        for (var i = 0; i < size; i++) {
+            list[i] = Money.of(valueOf(i), currencies[i]);
         }
-        return list.toArray(new Money[0]);
+        return list;
     }
 
     @Override
     public String toString() {
-        return String.format("size: %s", amounts.size());
+        return String.format("size: %s", count);
     }
 }
@@ -87,6 +87,15 @@ public class NetworkInfo {
         return ZonedDateTime.now().minusDays(40);
     }
 
+    /**
+     * Key identifying data of this network independent of the server it's accessed through.
+     */
+    public String createStorageKey(LedgerId ledgerId) {
+        if (ledgerId == null) throw new IllegalArgumentException("Parameter 'ledgerId' cannot be null");
+        // Predefined networks share their data among all servers.
+        return "%s_%s".formatted(ledgerId.textId(), networkId == null ? url.toString() : networkId);
+    }
+
     public boolean isLivenet() {
         return liveId.equals(networkId);
     }
@@ -5,16 +5,25 @@ import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class OnchainVerifier {
     private final static Logger log = LogManager.getLogger(OnchainVerifier.class);
 
     private final Ledger ledger;
+    private final ConfirmationService confirmations;
     private Transaction onchainTransaction;
 
     public OnchainVerifier(Ledger ledger) {
+        this(ledger, null);
+    }
+
+    public OnchainVerifier(Ledger ledger, ConfirmationService confirmations) {
         if (ledger == null) throw new IllegalArgumentException("Parameter 'ledger' cannot be null");
         this.ledger = ledger;
+        this.confirmations = confirmations;
     }
 
     public boolean verify(String transactionId, Transaction expected) {
@@ -28,6 +37,10 @@ public class OnchainVerifier {
     }
 
     private Transaction getOrNull(String transactionId) {
+        if (confirmations != null) {
+            return awaitOrNull(transactionId);
+        }
+
         var maxWait = Duration.ofSeconds(20);
         var waited = Duration.ZERO;
         while (waited.toMillis() <= maxWait.toMillis()) {
@@ -48,6 +61,26 @@ public class OnchainVerifier {
         return null;
     }
 
+    private Transaction awaitOrNull(String transactionId) {
+        // Registered before the first lookup to not miss a ledger validated in between.
+        var confirmation = confirmations.await(transactionId);
+        try {
+            var t = ledger.getTransaction(transactionId);
+            if (t != null) {
+                return t;
+            }
+            confirmation.get(60, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.info(String.format("Transaction %s not confirmed. %s", transactionId, e.getMessage()));
+        } catch (InterruptedException e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            confirmation.cancel(false);
+        }
+        // Also looked up if not confirmed, the feed could have missed a ledger.
+        return ledger.getTransaction(transactionId);
+    }
+
     private boolean areEqual(Transaction expected, Transaction actual) {
         if (!WalletCompare.isSame(expected.getReceiverWallet(), actual.getReceiverWallet())) {
             log.warn(String.format("Receiver is not equal for %s. Expected %s, actual %s", actual.getId(), expected.getReceiverWallet().getPublicKey(), actual.getReceiverWallet().getPublicKey()));
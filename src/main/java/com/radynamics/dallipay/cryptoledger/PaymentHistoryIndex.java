@@ -0,0 +1,111 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.PaymentConverter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Past transactions bucketed by receiver wallet, destination tag and currency with amounts sorted within each bucket.
+ * Only transactions within the amount tolerance of PaymentComparer are compared with a payment.
+ */
+public class PaymentHistoryIndex {
+    // Same as PaymentComparer for transactions without exchange rate.
+    private static final double TOLERANCE_PERCENT = 0.02;
+
+    private final Transaction[] transactions;
+    private final HashMap<String, Bucket> buckets = new HashMap<>();
+
+    /**
+     * Creates an index of transactions ordered by booked date.
+     */
+    public PaymentHistoryIndex(Transaction[] transactions) {
+        if (transactions == null) throw new IllegalArgumentException("Parameter 'transactions' cannot be null");
+        this.transactions = transactions;
+
+        var positions = new HashMap<String, ArrayList<Integer>>();
+        for (var i = 0; i < transactions.length; i++) {
+            var t = transactions[i];
+            positions.computeIfAbsent(keyOf(t.getReceiverWallet(), t.getDestinationTag(), t.getAmount().getCcy()), k -> new ArrayList<>()).add(i);
+        }
+        for (var e : positions.entrySet()) {
+            buckets.put(e.getKey(), new Bucket(transactions, e.getValue()));
+        }
+    }
+
+    private static String keyOf(Wallet receiver, String destinationTag, Currency ccy) {
+        var issuer = ccy.getIssuer() == null ? "" : ccy.getIssuer().getPublicKey();
+        return String.format("%s_%s_%s_%s", receiver == null ? "" : receiver.getPublicKey(), StringUtils.defaultString(destinationTag), ccy.getCode(), issuer);
+    }
+
+    /**
+     * Returns the oldest transaction similar to p or null.
+     */
+    public Transaction oldestSimilarOrDefault(Payment p) {
+        var amt = p.getAmountTransaction();
+        var bucket = buckets.get(keyOf(p.getReceiverWallet(), p.getDestinationTag(), amt.getCcy()));
+        if (bucket == null) {
+            return null;
+        }
+
+        var value = amt.doubleValue();
+        if (value < 0) {
+            return null;
+        }
+        // |h - value| <= h * tolerance, widened slightly as candidates are compared exactly anyway.
+        var min = Math.nextDown(value / (1 + TOLERANCE_PERCENT));
+        var max = Math.nextUp(value / (1 - TOLERANCE_PERCENT));
+
+        var c = new PaymentComparer();
+        c.compareSender(false);
+        Transaction oldest = null;
+        var oldestPosition = Integer.MAX_VALUE;
+        for (var i = bucket.firstAtLeast(min); i < bucket.amounts.length && bucket.amounts[i] <= max; i++) {
+            var position = bucket.positions[i];
+            if (position > oldestPosition) {
+                continue;
+            }
+            var t = transactions[position];
+            if (c.similar(PaymentConverter.toPayment(t, p.getUserCcy()), p)) {
+                oldest = t;
+                oldestPosition = position;
+            }
+        }
+        return oldest;
+    }
+
+    public int size() {
+        return transactions.length;
+    }
+
+    private static class Bucket {
+        private final double[] amounts;
+        private final int[] positions;
+
+        public Bucket(Transaction[] transactions, ArrayList<Integer> list) {
+            var sorted = list.stream().sorted(Comparator.comparingDouble(i -> transactions[i].getAmount().doubleValue())).mapToInt(Integer::intValue).toArray();
+            positions = sorted;
+            amounts = IntStream.of(sorted).mapToDouble(i -> transactions[i].getAmount().doubleValue()).toArray();
+        }
+
+        public int firstAtLeast(double value) {
+            var low = 0;
+            var high = amounts.length;
+            while (low < high) {
+                var mid = (low + high) >>> 1;
+                if (amounts[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.radynamics.dallipay.cryptoledger;
 import com.radynamics.dallipay.iso20022.Payment;
 
 public interface PaymentHistoryProvider {
-    void load(Ledger ledger, Wallet wallet, long sinceDaysAgo);
+    void load(Ledger ledger, Wallet wallet, long sinceDaysAgo) throws Exception;
 
     Transaction oldestSimilarOrDefault(Payment p);
 }
@@ -0,0 +1,117 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import com.radynamics.dallipay.iso20022.Payment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Groups payments by sending and receiving wallet and by ledger in one pass. Lookups are hash based, instead of
+ * comparing every payment with every wallet. Groups are ordered by first occurrence.
+ */
+public class PaymentIndex<T> {
+    private final LinkedHashMap<String, Partition<T>> senders = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Partition<T>> receivers = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Ledger> ledgers = new LinkedHashMap<>();
+
+    private PaymentIndex(T[] items, Function<T, Ledger> getLedger, Function<T, Wallet> getSender, Function<T, Wallet> getReceiver) {
+        if (items == null) throw new IllegalArgumentException("Parameter 'items' cannot be null");
+        for (var item : items) {
+            var ledger = getLedger.apply(item);
+            ledgers.putIfAbsent(ledger.getId().textId(), ledger);
+            add(senders, ledger, getSender.apply(item), item);
+            add(receivers, ledger, getReceiver.apply(item), item);
+        }
+    }
+
+    public static PaymentIndex<Payment> of(Payment[] payments) {
+        return new PaymentIndex<>(payments, Payment::getLedger, Payment::getSenderWallet, Payment::getReceiverWallet);
+    }
+
+    public static PaymentIndex<Transaction> of(Transaction[] transactions) {
+        return new PaymentIndex<>(transactions, Transaction::getLedger, Transaction::getSenderWallet, Transaction::getReceiverWallet);
+    }
+
+    private static <T> void add(LinkedHashMap<String, Partition<T>> partitions, Ledger ledger, Wallet wallet, T item) {
+        partitions.computeIfAbsent(keyOf(wallet), k -> new Partition<>(ledger, wallet)).items.add(item);
+    }
+
+    /**
+     * Returns a key identifying a wallet by its ledger and public key. All missing wallets share the same key.
+     */
+    public static String keyOf(Wallet wallet) {
+        if (wallet == null) {
+            return "";
+        }
+        var ledgerId = wallet.getLedgerId() == null ? "" : wallet.getLedgerId().textId();
+        return String.format("%s_%s", ledgerId, wallet.getPublicKey());
+    }
+
+    public ArrayList<Wallet> sendingWallets() {
+        var list = new ArrayList<Wallet>();
+        for (var p : senders.values()) {
+            list.add(p.getWallet());
+        }
+        return list;
+    }
+
+    public ArrayList<T> fromSender(Wallet wallet) {
+        var p = senders.get(keyOf(wallet));
+        return p == null ? new ArrayList<>() : new ArrayList<>(p.items);
+    }
+
+    public ArrayList<T> toReceiver(Wallet wallet) {
+        var p = receivers.get(keyOf(wallet));
+        return p == null ? new ArrayList<>() : new ArrayList<>(p.items);
+    }
+
+    public Collection<Partition<T>> bySender() {
+        return senders.values();
+    }
+
+    public Collection<Partition<T>> byReceiver() {
+        return receivers.values();
+    }
+
+    public Ledger[] ledgers() {
+        return ledgers.values().toArray(new Ledger[0]);
+    }
+
+    /**
+     * Returns the ledger of a payment sent or received by wallet.
+     */
+    public Optional<Ledger> getLedger(Wallet wallet) {
+        var key = keyOf(wallet);
+        var p = senders.containsKey(key) ? senders.get(key) : receivers.get(key);
+        return p == null ? Optional.empty() : Optional.of(p.getLedger());
+    }
+
+    public static class Partition<T> {
+        private final Ledger ledger;
+        private final Wallet wallet;
+        private final ArrayList<T> items = new ArrayList<>();
+
+        private Partition(Ledger ledger, Wallet wallet) {
+            this.ledger = ledger;
+            this.wallet = wallet;
+        }
+
+        public Ledger getLedger() {
+            return ledger;
+        }
+
+        /**
+         * Returns the wallet instance of the first item.
+         */
+        public Wallet getWallet() {
+            return wallet;
+        }
+
+        public ArrayList<T> getItems() {
+            return items;
+        }
+    }
+}
@@ -10,43 +10,19 @@ import java.util.*;
 
 public class PaymentUtils {
     public static ArrayList<Wallet> distinctSendingWallets(Payment[] payments) {
-        return distinctSendingWallets(allTransactions(payments));
+        return PaymentIndex.of(payments).sendingWallets();
     }
 
     public static ArrayList<Wallet> distinctSendingWallets(Transaction[] payments) {
-        var list = new ArrayList<Wallet>();
-        for (var p : payments) {
-            var existing = list.stream().anyMatch(w -> WalletCompare.isSame(p.getSenderWallet(), w));
-            if (!existing) {
-                list.add(p.getSenderWallet());
-            }
-        }
-        return list;
-    }
-
-    private static Transaction[] allTransactions(Payment[] payments) {
-        return Arrays.stream(payments).map(Payment::getTransaction).toArray(Transaction[]::new);
+        return PaymentIndex.of(payments).sendingWallets();
     }
 
     public static Ledger[] distinctLedgers(Payment[] payments) {
-        var list = new ArrayList<Ledger>();
-        for (var p : payments) {
-            var existing = list.stream().anyMatch(l -> p.getLedger().getId().textId().equals(l.getId().textId()));
-            if (!existing) {
-                list.add(p.getLedger());
-            }
-        }
-        return list.toArray(list.toArray(new Ledger[0]));
+        return PaymentIndex.of(payments).ledgers();
     }
 
     public static Optional<Ledger> getLedger(Wallet w, Payment[] payments) {
-        for (var p : payments) {
-            var isSameLedger = p.getLedger().getId().textId().equals(w.getLedgerId().textId());
-            if (isSameLedger && WalletCompare.isSame(p.getSenderWallet(), w) || WalletCompare.isSame(p.getReceiverWallet(), w)) {
-                return Optional.of(p.getLedger());
-            }
-        }
-        return Optional.empty();
+        return PaymentIndex.of(payments).getLedger(w);
     }
 
     public static ArrayList<Payment> fromSender(Wallet w, Payment[] payments) {
@@ -11,12 +11,19 @@ public class TransactionResult {
     private boolean hasNoTransactions;
     private boolean existsWallet;
 
-    public void add(Transaction t) {
+    public synchronized void add(Transaction t) {
         transactions.add(t);
     }
 
+    public synchronized int size() {
+        return transactions.size();
+    }
+
     public Transaction[] transactions() {
-        var array = transactions.toArray(new Transaction[0]);
+        Transaction[] array;
+        synchronized (this) {
+            array = transactions.toArray(new Transaction[0]);
+        }
         Arrays.sort(array, Comparator.comparing(Transaction::getBooked).reversed());
         return array;
     }
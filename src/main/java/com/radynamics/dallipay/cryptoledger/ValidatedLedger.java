@@ -0,0 +1,30 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A validated ledger (block) and the ids of all transactions included in it.
+ */
+public class ValidatedLedger {
+    private final long index;
+    private final Set<String> transactionIds;
+
+    public ValidatedLedger(long index, Collection<String> transactionIds) {
+        if (transactionIds == null) throw new IllegalArgumentException("Parameter 'transactionIds' cannot be null");
+        this.index = index;
+        this.transactionIds = Set.copyOf(transactionIds);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public boolean contains(String transactionId) {
+        return transactionIds.contains(transactionId);
+    }
+
+    public int size() {
+        return transactionIds.size();
+    }
+}
@@ -132,6 +132,13 @@ public class Ledger implements com.radynamics.dallipay.cryptoledger.Ledger {
         api.refreshBalance(WalletConverter.from(wallet), useCache);
     }
 
+    @Override
+    public void refreshBalances(Wallet[] wallets, boolean useCache) {
+        for (var w : wallets) {
+            refreshBalance(w, useCache);
+        }
+    }
+
     @Override
     public TransactionResult listPaymentsSent(Wallet wallet, long sinceDaysAgo, int limit) throws Exception {
         return api.listPaymentsSent(WalletConverter.from(wallet), sinceDaysAgo, limit);
@@ -0,0 +1,77 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Name of the bitcoinCore wallet holding an address. Wallets and addresses may be added in bitcoinCore directly,
+ * therefore the index is rebuilt on a miss, but at most once per maxAge.
+ */
+class AddressIndex {
+    final static Logger log = LogManager.getLogger(AddressIndex.class);
+    private final Source source;
+    private final Duration maxAge;
+    // Replaced at once, lookups never see a partially built index.
+    private volatile Map<String, String> index = Collections.emptyMap();
+    private long builtAt = Long.MIN_VALUE;
+
+    interface Source {
+        List<String> walletNames();
+
+        List<String> addresses(String walletName);
+    }
+
+    public AddressIndex(Source source, Duration maxAge) {
+        if (source == null) throw new IllegalArgumentException("Parameter 'source' cannot be null");
+        if (maxAge == null) throw new IllegalArgumentException("Parameter 'maxAge' cannot be null");
+        this.source = source;
+        this.maxAge = maxAge;
+    }
+
+    public Optional<String> walletNameOf(String address) {
+        var name = index.get(address);
+        if (name != null) {
+            return Optional.of(name);
+        }
+
+        synchronized (this) {
+            if (builtAt == Long.MIN_VALUE || System.currentTimeMillis() - builtAt >= maxAge.toMillis()) {
+                rebuild();
+            }
+        }
+        return Optional.ofNullable(index.get(address));
+    }
+
+    public synchronized void rebuild() {
+        var map = new LinkedHashMap<String, String>();
+        for (var walletName : source.walletNames()) {
+            put(map, walletName, source.addresses(walletName));
+        }
+        index = Collections.unmodifiableMap(map);
+        builtAt = System.currentTimeMillis();
+        log.trace(String.format("Indexed %s addresses", map.size()));
+    }
+
+    public synchronized void add(String walletName, List<String> addresses) {
+        var map = new LinkedHashMap<>(index);
+        put(map, walletName, addresses);
+        index = Collections.unmodifiableMap(map);
+    }
+
+    private static void put(Map<String, String> map, String walletName, List<String> addresses) {
+        for (var address : addresses) {
+            // An address held by multiple wallets (eg. same hardware wallet) is resolved to the first one.
+            map.putIfAbsent(address, walletName);
+        }
+    }
+
+    /**
+     * Returns all addresses grouped by wallet in the order bitcoinCore lists them.
+     */
+    public List<String> addresses() {
+        return new ArrayList<>(index.keySet());
+    }
+}
@@ -0,0 +1,105 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import okhttp3.HttpUrl;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Sends multiple calls of the same method to bitcoinCore as one JSON-RPC batch request.
+ */
+public class BatchJsonRpcClient {
+    final static Logger log = LogManager.getLogger(BatchJsonRpcClient.class);
+    private final Transport transport;
+    private final int batchSize = Integer.getInteger("dallipay.bitcoin.batchSize", 100);
+
+    public interface Transport {
+        String post(String body) throws IOException, InterruptedException;
+    }
+
+    public BatchJsonRpcClient(HttpUrl url) {
+        this(createHttpTransport(url));
+    }
+
+    public BatchJsonRpcClient(Transport transport) {
+        if (transport == null) throw new IllegalArgumentException("Parameter 'transport' cannot be null");
+        this.transport = transport;
+    }
+
+    /**
+     * Calls method once per entry in params and returns the results in the same order. A result is null if
+     * bitcoinCore returned an error for its call.
+     */
+    public Object[] call(String method, List<Object[]> params) throws IOException, InterruptedException {
+        var results = new Object[params.size()];
+        for (var offset = 0; offset < params.size(); offset += batchSize) {
+            var count = Math.min(batchSize, params.size() - offset);
+            call(method, params, offset, count, results);
+        }
+        return results;
+    }
+
+    private void call(String method, List<Object[]> params, int offset, int count, Object[] results) throws IOException, InterruptedException {
+        var request = new JSONArray();
+        for (var i = 0; i < count; i++) {
+            var json = new JSONObject();
+            json.put("jsonrpc", "1.0");
+            json.put("id", offset + i);
+            json.put("method", method);
+            json.put("params", new JSONArray(params.get(offset + i)));
+            request.put(json);
+        }
+
+        var response = new JSONArray(transport.post(request.toString()));
+        // Responses of a batch may arrive in any order.
+        var byId = new HashMap<Integer, JSONObject>();
+        for (var i = 0; i < response.length(); i++) {
+            var o = response.getJSONObject(i);
+            byId.put(o.getInt("id"), o);
+        }
+
+        for (var i = offset; i < offset + count; i++) {
+            var o = byId.get(i);
+            if (o == null) {
+                throw new IOException("No response for %s call %s".formatted(method, i));
+            }
+            if (!o.isNull("error")) {
+                var error = o.getJSONObject("error");
+                log.warn("%s failed for %s (%s: %s)".formatted(method, new JSONArray(params.get(i)), error.opt("code"), error.opt("message")));
+                continue;
+            }
+            results[i] = o.get("result");
+        }
+    }
+
+    private static Transport createHttpTransport(HttpUrl url) {
+        if (url == null) throw new IllegalArgumentException("Parameter 'url' cannot be null");
+        var client = HttpClient.newHttpClient();
+        var credentials = Base64.getEncoder().encodeToString("%s:%s".formatted(url.username(), url.password()).getBytes(StandardCharsets.UTF_8));
+        var uri = url.newBuilder().username("").password("").build().uri();
+        return body -> {
+            var request = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Basic " + credentials)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            // bitcoinCore answers batches with 200 even if single calls fail.
+            if (response.statusCode() != 200) {
+                throw new IOException("Batch request failed with HTTP %s".formatted(response.statusCode()));
+            }
+            return response.body();
+        };
+    }
+}
@@ -22,9 +22,11 @@ import org.apache.logging.log4j.Logger;
 import wf.bitcoin.javabitcoindrpcclient.BitcoinJSONRPCClient;
 import wf.bitcoin.javabitcoindrpcclient.BitcoindRpcClient;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -38,6 +40,10 @@ public class JsonRpcApi {
     private final Ledger ledger;
     private final NetworkInfo network;
     private final MultiWalletJsonRpcApi openedWallets;
+    // Only created if batchRpc is enabled.
+    private RawTransactionCache rawTransactions;
+    // Load raw transactions of a whole history with batch requests and decode scripts locally.
+    private final boolean batchRpc = Boolean.getBoolean("dallipay.bitcoin.batchRpc");
 
     public JsonRpcApi(Ledger ledger, NetworkInfo network) {
         this.ledger = ledger;
@@ -56,8 +62,9 @@ public class JsonRpcApi {
                     .filter(inPeriod(period))
                     .filter(outgoing())
                     .collect(Collectors.toList());
+            var rawTxs = prefetch(filtered);
             for (var t : filtered) {
-                tr.add(toTransaction(t, from));
+                tr.add(toTransaction(t, from, rawTxs));
             }
         } catch (Exception e) {
             throwException(e);
@@ -73,8 +80,9 @@ public class JsonRpcApi {
                     .filter(inPeriod(period))
                     .filter(incoming())
                     .collect(Collectors.toList());
+            var rawTxs = prefetch(filtered);
             for (var t : filtered) {
-                tr.add(toTransaction(t, walletInput.wallet()));
+                tr.add(toTransaction(t, walletInput.wallet(), rawTxs));
             }
         } catch (Exception e) {
             throwException(e);
@@ -116,7 +124,22 @@ public class JsonRpcApi {
         }
     }
 
-    private com.radynamics.dallipay.cryptoledger.Transaction toTransaction(BitcoindRpcClient.Transaction t, Wallet receivingWallet) throws DecoderException, UnsupportedEncodingException {
+    private Map<String, RawTransaction> prefetch(List<BitcoindRpcClient.Transaction> transactions) throws IOException, InterruptedException {
+        if (!batchRpc) {
+            return Map.of();
+        }
+        var txIds = transactions.stream().map(BitcoindRpcClient.Transaction::txId).collect(Collectors.toList());
+        return getRawTransactions().getAllWithInputs(txIds);
+    }
+
+    private synchronized RawTransactionCache getRawTransactions() {
+        if (rawTransactions == null) {
+            rawTransactions = new RawTransactionCache(new BatchJsonRpcClient(network.getUrl()));
+        }
+        return rawTransactions;
+    }
+
+    private com.radynamics.dallipay.cryptoledger.Transaction toTransaction(BitcoindRpcClient.Transaction t, Wallet receivingWallet, Map<String, RawTransaction> rawTxs) throws DecoderException, UnsupportedEncodingException {
         // Outgoing transactions have a negative value. We handle both incoming and outgoing with positive values.
         var amt = Money.of(Math.abs(t.amount().doubleValue()), new Currency(ledger.getNativeCcySymbol()));
         var trx = new com.radynamics.dallipay.cryptoledger.generic.Transaction(ledger, amt);
@@ -125,32 +148,85 @@ public class JsonRpcApi {
         if (t.time() != null) {
             trx.setBooked(toUserTimeZone(t.time()));
         }
+        trx.setReceiver(t.address() == null ? receivingWallet : ledger.createWallet(t.address()));
+
+        var prefetched = rawTxs.get(t.txId());
+        if (prefetched != null) {
+            trx.setSender(getSender(t.account(), t.amount(), prefetched, rawTxs).orElse(null));
+            addMemos(trx, prefetched);
+            return trx;
+        }
 
         var rawTx = openedWallets.getRawTransaction(t.txId());
         trx.setSender(getSender(t, rawTx).orElse(null));
-        trx.setReceiver(t.address() == null ? receivingWallet : ledger.createWallet(t.address()));
 
         for (var vout : rawTx.vOut()) {
             var content = openedWallets.decodeScript(vout.scriptPubKey().hex()).asm();
             final String OP_RETURN = "OP_RETURN ";
             if (content.startsWith(OP_RETURN)) {
                 var payloadDataHex = content.substring(OP_RETURN.length());
-                var memoText = Utils.hexToString(payloadDataHex);
+                addMemo(trx, Utils.hexToString(payloadDataHex));
+            }
+        }
 
-                var unwrappedMemo = PayloadConverter.fromMemo(memoText);
-                var messages = new ArrayList<>(Arrays.asList(unwrappedMemo.freeTexts()));
+        return trx;
+    }
 
-                for (var r : com.radynamics.dallipay.cryptoledger.generic.StructuredReferenceLookup.find(memoText)) {
-                    trx.addStructuredReference(r);
-                    messages.removeIf(o -> o.equals(r.getUnformatted()));
-                }
-                for (var m : messages) {
-                    trx.addMessage(m);
-                }
+    static void addMemos(com.radynamics.dallipay.cryptoledger.generic.Transaction trx, RawTransaction tx) {
+        for (var vout : tx.getVOut()) {
+            var data = ScriptDecoder.opReturnData(vout.getScriptHex());
+            if (data.isPresent()) {
+                addMemo(trx, new String(data.get(), StandardCharsets.UTF_8));
             }
         }
+    }
 
-        return trx;
+    private static void addMemo(com.radynamics.dallipay.cryptoledger.generic.Transaction trx, String memoText) {
+        var unwrappedMemo = PayloadConverter.fromMemo(memoText);
+        var messages = new ArrayList<>(Arrays.asList(unwrappedMemo.freeTexts()));
+
+        for (var r : com.radynamics.dallipay.cryptoledger.generic.StructuredReferenceLookup.find(memoText)) {
+            trx.addStructuredReference(r);
+            messages.removeIf(o -> o.equals(r.getUnformatted()));
+        }
+        for (var m : messages) {
+            trx.addMessage(m);
+        }
+    }
+
+    Optional<Wallet> getSender(String account, BigDecimal amount, RawTransaction tx, Map<String, RawTransaction> rawTxs) {
+        if (account != null) {
+            return Optional.of(ledger.createWallet(account));
+        }
+
+        if (tx.getVIn().size() == 1) {
+            return getSpentOutput(tx.getVIn().get(0), rawTxs).map(o -> ledger.createWallet(o.getAddress()));
+        }
+
+        var exactAmount = new ArrayList<Wallet>();
+        for (var in : tx.getVIn()) {
+            var out = getSpentOutput(in, rawTxs);
+            if (out.isPresent() && out.get().getValue().compareTo(amount) == 0) {
+                exactAmount.add(ledger.createWallet(out.get().getAddress()));
+            }
+        }
+        if (exactAmount.size() == 1) {
+            return Optional.of(exactAmount.get(0));
+        }
+
+        return Optional.empty();
+    }
+
+    private static Optional<RawTransaction.Out> getSpentOutput(RawTransaction.In in, Map<String, RawTransaction> rawTxs) {
+        if (in.isCoinbase()) {
+            return Optional.empty();
+        }
+        var prev = rawTxs.get(in.getTxId());
+        if (prev == null) {
+            log.warn("Transaction %s spent by input not found".formatted(in.getTxId()));
+            return Optional.empty();
+        }
+        return prev.getVOut(in.getVOut()).filter(o -> o.getAddress() != null);
     }
 
     private Optional<Wallet> getSender(BitcoindRpcClient.Transaction t, BitcoindRpcClient.RawTransaction tx) {
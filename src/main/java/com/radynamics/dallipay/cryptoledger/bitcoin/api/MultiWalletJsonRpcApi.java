@@ -2,7 +2,6 @@ package com.radynamics.dallipay.cryptoledger.bitcoin.api;
 
 import com.radynamics.dallipay.cryptoledger.NetworkInfo;
 import com.radynamics.dallipay.cryptoledger.Wallet;
-import com.radynamics.dallipay.cryptoledger.WalletCompare;
 import com.radynamics.dallipay.cryptoledger.bitcoin.Ledger;
 import com.radynamics.dallipay.cryptoledger.bitcoin.hwi.*;
 import org.apache.logging.log4j.LogManager;
@@ -19,31 +18,56 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MultiWalletJsonRpcApi {
     final static Logger log = LogManager.getLogger(MultiWalletJsonRpcApi.class);
     private final Ledger ledger;
     private final NetworkInfo network;
     private BitcoinJSONRPCClient genericClient;
-    private final HashMap<String, BitcoinJSONRPCClient> walletClients = new HashMap<>();
+    private final ConcurrentHashMap<String, BitcoinJSONRPCClient> walletClients = new ConcurrentHashMap<>();
+    private final AddressIndex addressIndex;
 
     public MultiWalletJsonRpcApi(Ledger ledger, NetworkInfo network) {
         this.ledger = ledger;
         this.network = network;
+        var maxAge = Duration.ofSeconds(Long.getLong("dallipay.bitcoin.addressIndexMaxAgeSeconds", 60));
+        this.addressIndex = new AddressIndex(new AddressIndex.Source() {
+            @Override
+            public List<String> walletNames() {
+                var names = listNames();
+                // Wallets may have been created in bitcoinCore after startup.
+                for (var name : names) {
+                    walletClients.computeIfAbsent(name, k -> createClient(network, k));
+                }
+                return names;
+            }
+
+            @Override
+            public List<String> addresses(String walletName) {
+                return addressesOf(walletClients.get(walletName));
+            }
+        }, maxAge);
     }
 
-    private void init() {
+    private synchronized void init() {
         if (genericClient != null) {
             return;
         }
 
         genericClient = new BitcoinJSONRPCClient(network.getUrl().url());
-        for (var w : listNames()) {
-            walletClients.put(w, createClient(network, w));
+        addressIndex.rebuild();
+    }
+
+    private static List<String> addressesOf(BitcoinJSONRPCClient client) {
+        var ext = new BitcoinCoreRpcClientExt(client);
+        var list = new ArrayList<String>();
+        for (var l : ext.listLabels()) {
+            list.addAll(ext.getAddressesByLabel(l));
         }
+        return list;
     }
 
     private static BitcoinJSONRPCClient createClient(NetworkInfo network, String walletName) {
@@ -96,39 +120,21 @@ public class MultiWalletJsonRpcApi {
 
     public ArrayList<Wallet> listWallets() {
         init();
+        // Always reflect the current state of bitcoinCore.
+        addressIndex.rebuild();
         var list = new ArrayList<Wallet>();
-        for (var c : walletClients.values()) {
-            var ext = new BitcoinCoreRpcClientExt(c);
-            var labels = ext.listLabels();
-            for (var l : labels) {
-                list.addAll(getAddressesByLabel(c, l));
-            }
+        for (var address : addressIndex.addresses()) {
+            list.add(ledger.createWallet(address));
         }
         return list;
     }
 
     public Optional<BitcoinJSONRPCClient> client(Wallet wallet) {
         init();
-        for (var c : walletClients.values()) {
-            var ext = new BitcoinCoreRpcClientExt(c);
-            for (var l : ext.listLabels()) {
-                for (var w : getAddressesByLabel(c, l)) {
-                    if (WalletCompare.isSame(w, wallet)) {
-                        return Optional.of(c);
-                    }
-                }
-            }
+        if (wallet == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
-    }
-
-    private List<Wallet> getAddressesByLabel(BitcoinJSONRPCClient client, String label) {
-        var ext = new BitcoinCoreRpcClientExt(client);
-        var list = new ArrayList<Wallet>();
-        for (var address : ext.getAddressesByLabel(label)) {
-            list.add(ledger.createWallet(address));
-        }
-        return list;
+        return addressIndex.walletNameOf(wallet.getPublicKey()).map(walletClients::get);
     }
 
     public BitcoindRpcClient.RawTransaction getRawTransaction(String txId) {
@@ -215,6 +221,16 @@ public class MultiWalletJsonRpcApi {
         } finally {
             // If user aborts rescan in bitcoinCore, we're able to fetch already scanned data.
             walletClients.put(walletName, walletClient);
+            indexImported(walletName, walletClient);
+        }
+    }
+
+    private void indexImported(String walletName, BitcoinJSONRPCClient walletClient) {
+        try {
+            addressIndex.add(walletName, addressesOf(walletClient));
+        } catch (BitcoinRPCException e) {
+            // Must not hide a failed import. Missing addresses are indexed on the next rebuild.
+            log.warn(String.format("Could not index addresses of %s", walletName), e);
         }
     }
 
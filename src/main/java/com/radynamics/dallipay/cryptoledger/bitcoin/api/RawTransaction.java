@@ -0,0 +1,131 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable subset of a verbose getrawtransaction result.
+ */
+public class RawTransaction {
+    private final String txId;
+    private final String blockHash;
+    private final List<In> vIn;
+    private final List<Out> vOut;
+
+    private RawTransaction(String txId, String blockHash, List<In> vIn, List<Out> vOut) {
+        this.txId = txId;
+        this.blockHash = blockHash;
+        this.vIn = vIn;
+        this.vOut = vOut;
+    }
+
+    public static RawTransaction of(JSONObject json) {
+        if (json == null) throw new IllegalArgumentException("Parameter 'json' cannot be null");
+
+        var vinJson = json.getJSONArray("vin");
+        var vIn = new In[vinJson.length()];
+        for (var i = 0; i < vIn.length; i++) {
+            var o = vinJson.getJSONObject(i);
+            // Coinbase inputs don't spend a previous output.
+            vIn[i] = o.has("coinbase") ? new In(null, -1) : new In(o.getString("txid"), o.getInt("vout"));
+        }
+
+        var voutJson = json.getJSONArray("vout");
+        var vOut = new Out[voutJson.length()];
+        for (var i = 0; i < vOut.length; i++) {
+            var o = voutJson.getJSONObject(i);
+            var script = o.getJSONObject("scriptPubKey");
+            vOut[i] = new Out(o.getInt("n"), o.getBigDecimal("value"), script.getString("hex"), script.optString("address", null));
+        }
+
+        return new RawTransaction(json.getString("txid"), json.optString("blockhash", null), List.of(vIn), List.of(vOut));
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public String getBlockHash() {
+        return blockHash;
+    }
+
+    /**
+     * Returns true if this transaction was included in a block. Confirmed transactions never change.
+     */
+    public boolean isConfirmed() {
+        return blockHash != null;
+    }
+
+    public List<In> getVIn() {
+        return vIn;
+    }
+
+    public List<Out> getVOut() {
+        return vOut;
+    }
+
+    public Optional<Out> getVOut(int n) {
+        return vOut.stream().filter(o -> o.getN() == n).findFirst();
+    }
+
+    public static class In {
+        private final String txId;
+        private final int vOut;
+
+        private In(String txId, int vOut) {
+            this.txId = txId;
+            this.vOut = vOut;
+        }
+
+        /**
+         * Returns the id of the transaction holding the output spent by this input or null for coinbase inputs.
+         */
+        public String getTxId() {
+            return txId;
+        }
+
+        public int getVOut() {
+            return vOut;
+        }
+
+        public boolean isCoinbase() {
+            return txId == null;
+        }
+    }
+
+    public static class Out {
+        private final int n;
+        private final BigDecimal value;
+        private final String scriptHex;
+        private final String address;
+
+        private Out(int n, BigDecimal value, String scriptHex, String address) {
+            this.n = n;
+            this.value = value;
+            this.scriptHex = scriptHex;
+            this.address = address;
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        public String getScriptHex() {
+            return scriptHex;
+        }
+
+        /**
+         * Returns the address of this output or null for outputs without an address (eg. OP_RETURN).
+         */
+        public String getAddress() {
+            return address;
+        }
+    }
+}
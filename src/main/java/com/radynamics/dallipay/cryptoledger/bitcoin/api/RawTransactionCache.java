@@ -0,0 +1,91 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raw transactions keyed by txid. Confirmed transactions never change and are kept, unconfirmed ones are loaded again
+ * on every request. Missing transactions are loaded with a single batch request.
+ */
+public class RawTransactionCache {
+    final static Logger log = LogManager.getLogger(RawTransactionCache.class);
+    private final BatchJsonRpcClient client;
+    private final ConcurrentHashMap<String, RawTransaction> confirmed = new ConcurrentHashMap<>();
+
+    public RawTransactionCache(BatchJsonRpcClient client) {
+        if (client == null) throw new IllegalArgumentException("Parameter 'client' cannot be null");
+        this.client = client;
+    }
+
+    /**
+     * Returns all transactions found by bitcoinCore. Unknown txids are missing in the result.
+     */
+    public Map<String, RawTransaction> getAll(Collection<String> txIds) throws IOException, InterruptedException {
+        if (txIds == null) throw new IllegalArgumentException("Parameter 'txIds' cannot be null");
+
+        var distinct = new LinkedHashSet<>(txIds);
+        var result = new HashMap<String, RawTransaction>();
+        var missing = new ArrayList<String>();
+        for (var txId : distinct) {
+            var cached = confirmed.get(txId);
+            if (cached != null) {
+                result.put(txId, cached);
+            } else {
+                missing.add(txId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        final var verbose = true;
+        var params = new ArrayList<Object[]>();
+        for (var txId : missing) {
+            params.add(new Object[]{txId, verbose});
+        }
+        var loaded = client.call("getrawtransaction", params);
+        for (var o : loaded) {
+            if (o == null) {
+                continue;
+            }
+            var tx = RawTransaction.of((JSONObject) o);
+            result.put(tx.getTxId(), tx);
+            if (tx.isConfirmed()) {
+                confirmed.put(tx.getTxId(), tx);
+            }
+        }
+        log.trace(String.format("%s of %s raw transactions loaded from cache", distinct.size() - missing.size(), distinct.size()));
+        return result;
+    }
+
+    /**
+     * Returns the given transactions and all transactions holding outputs spent by them.
+     */
+    public Map<String, RawTransaction> getAllWithInputs(Collection<String> txIds) throws IOException, InterruptedException {
+        var result = getAll(txIds);
+        var inputTxIds = new ArrayList<String>();
+        for (var tx : result.values()) {
+            for (var in : tx.getVIn()) {
+                if (!in.isCoinbase() && !result.containsKey(in.getTxId())) {
+                    inputTxIds.add(in.getTxId());
+                }
+            }
+        }
+        var all = new HashMap<>(result);
+        all.putAll(getAll(inputTxIds));
+        return all;
+    }
+
+    public int size() {
+        return confirmed.size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+
+/**
+ * Decodes output scripts (scriptPubKey) locally instead of calling bitcoinCore's decodescript.
+ */
+public class ScriptDecoder {
+    private static final int OP_0 = 0x00;
+    private static final int OP_PUSHDATA1 = 0x4c;
+    private static final int OP_PUSHDATA2 = 0x4d;
+    private static final int OP_PUSHDATA4 = 0x4e;
+    private static final int OP_1 = 0x51;
+    private static final int OP_16 = 0x60;
+    private static final int OP_RETURN = 0x6a;
+    private static final int OP_DUP = 0x76;
+    private static final int OP_EQUAL = 0x87;
+    private static final int OP_EQUALVERIFY = 0x88;
+    private static final int OP_HASH160 = 0xa9;
+    private static final int OP_CHECKSIG = 0xac;
+
+    public enum Type {
+        NullData,
+        PubKeyHash,
+        ScriptHash,
+        WitnessV0KeyHash,
+        WitnessV0ScriptHash,
+        WitnessV1Taproot,
+        NonStandard
+    }
+
+    public static Type type(String scriptHex) {
+        var s = toBytes(scriptHex);
+        if (s.length >= 1 && u(s[0]) == OP_RETURN) {
+            return Type.NullData;
+        }
+        if (s.length == 25 && u(s[0]) == OP_DUP && u(s[1]) == OP_HASH160 && s[2] == 20 && u(s[23]) == OP_EQUALVERIFY && u(s[24]) == OP_CHECKSIG) {
+            return Type.PubKeyHash;
+        }
+        if (s.length == 23 && u(s[0]) == OP_HASH160 && s[1] == 20 && u(s[22]) == OP_EQUAL) {
+            return Type.ScriptHash;
+        }
+        if (s.length == 22 && u(s[0]) == OP_0 && s[1] == 20) {
+            return Type.WitnessV0KeyHash;
+        }
+        if (s.length == 34 && u(s[0]) == OP_0 && s[1] == 32) {
+            return Type.WitnessV0ScriptHash;
+        }
+        if (s.length == 34 && u(s[0]) == OP_1 && s[1] == 32) {
+            return Type.WitnessV1Taproot;
+        }
+        return Type.NonStandard;
+    }
+
+    /**
+     * Returns the data of all pushes following OP_RETURN, or empty if scriptHex isn't a valid OP_RETURN script.
+     */
+    public static Optional<byte[]> opReturnData(String scriptHex) {
+        var s = toBytes(scriptHex);
+        if (s.length == 0 || u(s[0]) != OP_RETURN) {
+            return Optional.empty();
+        }
+
+        var data = new ByteArrayOutputStream();
+        var pos = 1;
+        while (pos < s.length) {
+            var op = u(s[pos++]);
+            int len;
+            if (op > OP_0 && op < OP_PUSHDATA1) {
+                len = op;
+            } else if (op == OP_PUSHDATA1) {
+                if (pos + 1 > s.length) return Optional.empty();
+                len = u(s[pos]);
+                pos += 1;
+            } else if (op == OP_PUSHDATA2) {
+                if (pos + 2 > s.length) return Optional.empty();
+                len = u(s[pos]) | u(s[pos + 1]) << 8;
+                pos += 2;
+            } else if (op == OP_PUSHDATA4) {
+                if (pos + 4 > s.length) return Optional.empty();
+                var l = (long) u(s[pos]) | (long) u(s[pos + 1]) << 8 | (long) u(s[pos + 2]) << 16 | (long) u(s[pos + 3]) << 24;
+                if (l > s.length) return Optional.empty();
+                len = (int) l;
+                pos += 4;
+            } else if (op == OP_0) {
+                continue;
+            } else if (op >= OP_1 && op <= OP_16) {
+                // Small integers are pushed as a single byte.
+                data.write(op - OP_1 + 1);
+                continue;
+            } else {
+                // Only pushes are relayed after OP_RETURN by bitcoinCore.
+                return Optional.empty();
+            }
+
+            if (pos + len > s.length) {
+                return Optional.empty();
+            }
+            data.write(s, pos, len);
+            pos += len;
+        }
+        return Optional.of(data.toByteArray());
+    }
+
+    private static byte[] toBytes(String scriptHex) {
+        if (scriptHex == null) throw new IllegalArgumentException("Parameter 'scriptHex' cannot be null");
+        try {
+            return Hex.decodeHex(scriptHex.toCharArray());
+        } catch (DecoderException e) {
+            throw new IllegalArgumentException("Parameter 'scriptHex' is not valid hex: %s".formatted(scriptHex), e);
+        }
+    }
+
+    private static int u(byte b) {
+        return b & 0xff;
+    }
+}
@@ -2,8 +2,9 @@ package com.radynamics.dallipay.cryptoledger.generic;
 
 import com.radynamics.dallipay.DateTimeConvert;
 import com.radynamics.dallipay.Secrets;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.Block;
-import com.radynamics.dallipay.cryptoledger.Cache;
 import com.radynamics.dallipay.cryptoledger.NetworkInfo;
 import com.radynamics.dallipay.db.ConfigRepo;
 import com.radynamics.dallipay.exchange.*;
@@ -20,17 +21,21 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 public class CryptoPriceOracle implements ExchangeRateProvider {
     private final static Logger log = LogManager.getLogger(CryptoPriceOracle.class);
     private final Currency base;
     private HttpUrl url;
     private String apiKey;
-    private final Cache<JSONObject> cache;
+    private final int parallelism = Integer.getInteger("dallipay.fx.cryptoPriceOracleParallelism", 4);
 
     private final CurrencyPair[] currencyPairs = new CurrencyPair[]{
             new CurrencyPair("XRP", "USD"), new CurrencyPair("XRP", "EUR"), new CurrencyPair("XRP", "JPY"), new CurrencyPair("XRP", "KRW"),
@@ -45,10 +50,11 @@ public class CryptoPriceOracle implements ExchangeRateProvider {
     };
 
     public static final String ID = "cryptopriceoracle";
+    // Upper bound of the service's search for a rate around the requested point in time.
+    private static final Duration MAX_SEARCH_DISTANCE = Duration.ofHours(2);
 
     public CryptoPriceOracle(Currency base) {
         this.base = base;
-        cache = new Cache<>("", Duration.ofHours(1));
     }
 
     @Override
@@ -99,20 +105,53 @@ public class CryptoPriceOracle implements ExchangeRateProvider {
 
     @Override
     public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
+        // Rates of this oracle don't depend on a block.
+        var store = getStore();
+        var stored = store.find(pair, pointInTime, null);
+        if (stored != null) {
+            return stored;
+        }
+
         try {
-            var data = getOrLoad(pair, pointInTime);
+            var data = load(pair, pointInTime);
             if (data == null) {
                 return null;
             }
 
             var at = DateTimeConvert.toUserTimeZone(ZonedDateTime.parse(data.getString("at")));
-            return new ExchangeRate(pair, data.getDouble("rate"), at);
+            var rate = new ExchangeRate(pair, data.getDouble("rate"), at);
+            store.add(pair, pointInTime, null, rate);
+            return rate;
         } catch (IOException | ExchangeException e) {
             log.info(e.getMessage(), e);
             return null;
         }
     }
 
+    @Override
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+        // The oracle only serves one point in time per request. Identical points are requested once and distinct ones
+        // concurrently.
+        var distinct = new LinkedHashMap<Instant, List<Integer>>();
+        for (var i = 0; i < points.length; i++) {
+            distinct.computeIfAbsent(points[i].getPointInTime().toInstant(), k -> new ArrayList<>()).add(i);
+        }
+
+        var rates = new ExchangeRate[points.length];
+        var tasks = new ArrayList<Runnable>();
+        for (var indices : distinct.values()) {
+            tasks.add(() -> {
+                var p = points[indices.get(0)];
+                var rate = rateAt(pair, p.getPointInTime(), p.getBlockNetwork(), p.getBlock());
+                for (var i : indices) {
+                    rates[i] = rate;
+                }
+            });
+        }
+        ExecutorProvider.invokeAll(Workload.FxLookup, tasks, parallelism);
+        return rates;
+    }
+
     private URL createUrl(CurrencyPair pair, ZonedDateTime pointInTime) throws MalformedURLException {
         // Eg. "http://localhost:3000/rate/XRP?quote=USD&at=2023-12-02T114150Z"
         var utcTime = pointInTime.withZoneSameInstant(ZoneId.of("UTC")).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
@@ -125,12 +164,11 @@ public class CryptoPriceOracle implements ExchangeRateProvider {
         return new URL(sb.toString());
     }
 
-    private JSONObject getOrLoad(CurrencyPair pair, ZonedDateTime pointInTime) throws IOException, ExchangeException {
-        var key = new RateAtTimeKey(pair, pointInTime);
-        var cached = cache.get(key);
-        if (cached != null) {
-            return cached;
-        }
+    private ExchangeRateStore getStore() {
+        return ExchangeRateStore.get("%s_%s".formatted(ID, url == null ? "" : url.host()), MAX_SEARCH_DISTANCE);
+    }
+
+    private JSONObject load(CurrencyPair pair, ZonedDateTime pointInTime) throws IOException, ExchangeException {
         var url = createUrl(pair, pointInTime);
 
         var conn = (HttpURLConnection) url.openConnection();
@@ -160,9 +198,7 @@ public class CryptoPriceOracle implements ExchangeRateProvider {
                 throw new ExchangeException(result.getJSONObject("error").getString("message"));
             }
 
-            var json = result.optJSONObject("data");
-            cache.add(key, json);
-            return json;
+            return result.optJSONObject("data");
         } catch (JSONException e) {
             log.trace(e.getMessage(), e);
             return null;
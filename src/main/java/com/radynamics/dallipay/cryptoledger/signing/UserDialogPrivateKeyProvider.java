@@ -1,6 +1,6 @@
 package com.radynamics.dallipay.cryptoledger.signing;
 
-import com.radynamics.dallipay.cryptoledger.PaymentUtils;
+import com.radynamics.dallipay.cryptoledger.PaymentIndex;
 import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
 import com.radynamics.dallipay.iso20022.Payment;
 import com.radynamics.dallipay.ui.ValidationResultDialog;
@@ -28,7 +28,8 @@ public class UserDialogPrivateKeyProvider implements PrivateKeyProvider {
 
     @Override
     public boolean collect(Payment[] payments) {
-        var sendingWallets = PaymentUtils.distinctSendingWallets(payments);
+        var index = PaymentIndex.of(payments);
+        var sendingWallets = index.sendingWallets();
         if (sendingWallets.size() == 0) {
             return true;
         }
@@ -48,7 +49,7 @@ public class UserDialogPrivateKeyProvider implements PrivateKeyProvider {
                 return false;
             }
 
-            var ledger = PaymentUtils.getLedger(w, payments).orElseThrow();
+            var ledger = index.getLedger(w).orElseThrow();
             var vs = ledger.createWalletValidator().validateSecret(ledger.createWallet(w.getPublicKey(), userInput));
             if (vs != null) {
                 ValidationResultDialog.show(parentComponent, new ValidationResult[]{vs});
@@ -14,6 +14,7 @@ import com.radynamics.dallipay.cryptoledger.signing.TransactionSubmitter;
 import com.radynamics.dallipay.cryptoledger.signing.TransactionSubmitterFactory;
 import com.radynamics.dallipay.cryptoledger.signing.UserDialogPrivateKeyProvider;
 import com.radynamics.dallipay.cryptoledger.xrpl.api.JsonRpcApi;
+import com.radynamics.dallipay.cryptoledger.xrpl.api.XrplLedgerFeed;
 import com.radynamics.dallipay.cryptoledger.xrpl.walletinfo.Xumm;
 import com.radynamics.dallipay.exchange.*;
 import com.radynamics.dallipay.iso20022.camt054.AmountRounder;
@@ -140,6 +141,17 @@ public class Ledger implements com.radynamics.dallipay.cryptoledger.Ledger {
         api.refreshBalance(WalletConverter.from(wallet), useCache);
     }
 
+    @Override
+    public void refreshBalances(Wallet[] wallets, boolean useCache) {
+        var list = new ArrayList<com.radynamics.dallipay.cryptoledger.generic.Wallet>();
+        for (var w : wallets) {
+            if (createWalletValidator().isValidFormat(w)) {
+                list.add(WalletConverter.from(w));
+            }
+        }
+        api.refreshBalances(list.toArray(new com.radynamics.dallipay.cryptoledger.generic.Wallet[0]), useCache);
+    }
+
     @Override
     public TransactionResult listPaymentsSent(Wallet wallet, long sinceDaysAgo, int limit) throws Exception {
         return api.listPaymentsSent(WalletConverter.from(wallet), sinceDaysAgo, limit);
@@ -186,6 +198,14 @@ public class Ledger implements com.radynamics.dallipay.cryptoledger.Ledger {
         return network;
     }
 
+    /**
+     * Returns the service confirming transactions on the current network. It's shared by all submitters.
+     */
+    public ConfirmationService getConfirmationService() {
+        var url = network.getUrl();
+        return ConfirmationService.get(url.toString(), () -> new XrplLedgerFeed(url));
+    }
+
     @Override
     public void setNetwork(NetworkInfo network) {
         this.network = network;
@@ -0,0 +1,91 @@
+package com.radynamics.dallipay.cryptoledger.xrpl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Rates published by a price oracle within a prefetched range, sorted by position (ledger index or epoch second).
+ * Each lookup is a binary search instead of a network call.
+ */
+public class OracleRateIndex {
+    private final long min;
+    private final long max;
+    private final long[] positions;
+    private final double[] rates;
+    private final long[] bookedMillis;
+
+    /**
+     * Creates an index of all rates published between min and max (both inclusive). Positions don't need to be sorted.
+     */
+    public OracleRateIndex(long min, long max, long[] positions, double[] rates, long[] bookedMillis) {
+        if (positions == null) throw new IllegalArgumentException("Parameter 'positions' cannot be null");
+        if (rates == null || rates.length != positions.length) throw new IllegalArgumentException("Parameter 'rates' must have the same length as positions");
+        if (bookedMillis == null || bookedMillis.length != positions.length) throw new IllegalArgumentException("Parameter 'bookedMillis' must have the same length as positions");
+        this.min = min;
+        this.max = max;
+
+        var order = IntStream.range(0, positions.length).boxed().sorted(Comparator.comparingLong(i -> positions[i])).mapToInt(Integer::intValue).toArray();
+        this.positions = new long[order.length];
+        this.rates = new double[order.length];
+        this.bookedMillis = new long[order.length];
+        for (var i = 0; i < order.length; i++) {
+            this.positions[i] = positions[order[i]];
+            this.rates[i] = rates[order[i]];
+            this.bookedMillis[i] = bookedMillis[order[i]];
+        }
+    }
+
+    /**
+     * Returns true if all rates published between from and to are known by this index.
+     */
+    public boolean covers(long from, long to) {
+        return min <= from && to <= max;
+    }
+
+    /**
+     * Returns the index of the rate published nearest to position or -1 if this index is empty. On equal distance the
+     * earlier one is returned.
+     */
+    public int nearest(long position) {
+        if (positions.length == 0) {
+            return -1;
+        }
+        var i = Arrays.binarySearch(positions, position);
+        if (i >= 0) {
+            return i;
+        }
+        var insertion = -i - 1;
+        if (insertion == 0) {
+            return 0;
+        }
+        if (insertion == positions.length) {
+            return positions.length - 1;
+        }
+        return position - positions[insertion - 1] <= positions[insertion] - position ? insertion - 1 : insertion;
+    }
+
+    public long getPosition(int index) {
+        return positions[index];
+    }
+
+    public double getRate(int index) {
+        return rates[index];
+    }
+
+    public long getBookedMillis(int index) {
+        return bookedMillis[index];
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
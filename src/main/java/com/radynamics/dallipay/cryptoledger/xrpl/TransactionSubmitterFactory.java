@@ -34,17 +34,17 @@ public class TransactionSubmitterFactory implements com.radynamics.dallipay.cryp
                 }
                 var signer = new XummSigner(ledger, apiKey);
                 signer.setStorage(new DatabaseStorage());
-                signer.setVerifier(new OnchainVerifier(ledger));
+                signer.setVerifier(new OnchainVerifier(ledger, ledger.getConfirmationService()));
                 return signer;
             }
             case GemWallet.Id: {
                 var signer = new GemWallet(ledger);
-                signer.setVerifier(new OnchainVerifier(ledger));
+                signer.setVerifier(new OnchainVerifier(ledger, ledger.getConfirmationService()));
                 return signer;
             }
             case Crossmark.Id: {
                 var signer = new Crossmark(ledger);
-                signer.setVerifier(new OnchainVerifier(ledger));
+                signer.setVerifier(new OnchainVerifier(ledger, ledger.getConfirmationService()));
                 return signer;
             }
             default:
@@ -13,26 +13,57 @@ import com.radynamics.dallipay.db.ConfigRepo;
 import com.radynamics.dallipay.exchange.CurrencyPair;
 import com.radynamics.dallipay.exchange.ExchangeRate;
 import com.radynamics.dallipay.exchange.ExchangeRateProvider;
+import com.radynamics.dallipay.exchange.ExchangeRateStore;
+import com.radynamics.dallipay.exchange.RateLookup;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.xrpl.xrpl4j.model.client.common.LedgerIndex;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class XrplPriceOracle implements ExchangeRateProvider {
     final static Logger log = LogManager.getLogger(XrplPriceOracle.class);
     private final Ledger ledger;
     private final HashMap<String, IssuedCurrency> issuedCurrencies = new HashMap<>();
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<OracleRateIndex>> prefetched = new ConcurrentHashMap<>();
+    private final BlockAxis blockAxis = new BlockAxis();
+    private final TimeAxis timeAxis = new TimeAxis();
+    private final AtomicLong networkCalls = new AtomicLong();
+    private final AtomicLong savedNetworkCalls = new AtomicLong();
+    // Points further apart than this are prefetched separately instead of loading all oracle transactions in between.
+    private Duration prefetchMaxGap = Duration.ofHours(Long.getLong("dallipay.xrpl.oraclePrefetchMaxGapHours", 24));
+
+    private static final int MAX_PREFETCHED_INDEXES = 16;
+    // Single lookups widen their search up to around 64min.
+    private static final Duration MAX_SEARCH_DISTANCE = Duration.ofMinutes(64);
 
     public static final String ID = "xrplpriceoracle";
 
     public XrplPriceOracle(NetworkInfo network) {
-        ledger = new Ledger();
+        this(createLedger(network));
+    }
+
+    XrplPriceOracle(Ledger ledger) {
+        this.ledger = ledger;
+    }
+
+    private static Ledger createLedger(NetworkInfo network) {
+        var ledger = new Ledger();
         ledger.setNetwork(network);
+        return ledger;
     }
 
     @Override
@@ -62,6 +93,7 @@ public class XrplPriceOracle implements ExchangeRateProvider {
     @Override
     public void init(ConfigRepo repo) {
         issuedCurrencies.clear();
+        prefetched.clear();
 
         var config = new XrplPriceOracleConfig(ledger.getId());
         try {
@@ -70,11 +102,15 @@ public class XrplPriceOracle implements ExchangeRateProvider {
             log.error(e.getMessage(), e);
         }
         for (var o : config.issuedCurrencies()) {
-            var nonLedgerCcy = o.getPair().getFirstCode().equals(ledger.getNativeCcySymbol()) ? o.getPair().getSecondCode() : o.getPair().getFirstCode();
-            issuedCurrencies.put(nonLedgerCcy, o);
+            add(o);
         }
     }
 
+    void add(IssuedCurrency o) {
+        var nonLedgerCcy = o.getPair().getFirstCode().equals(ledger.getNativeCcySymbol()) ? o.getPair().getSecondCode() : o.getPair().getFirstCode();
+        issuedCurrencies.put(nonLedgerCcy, o);
+    }
+
     @Override
     public void load() {
         // do nothing
@@ -87,22 +123,161 @@ public class XrplPriceOracle implements ExchangeRateProvider {
 
     @Override
     public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
-        var targetCcy = pair.getFirstCode().equals("XRP") ? pair.getSecondCode() : pair.getFirstCode();
+        var targetCcy = getTargetCcy(pair);
         var issuedCcy = issuedCurrencies.get(targetCcy);
         // Null when no oracle configuration is present for a given currency.
         if (issuedCcy == null) {
             return null;
         }
 
-        LoadStrategy loader;
-        if (blockNetwork.sameNet(ledger.getNetwork())) {
-            // Same blockchain net -> load by block number
-            loader = new BlockLoader(Convert.toLedgerBlock(block));
+        var store = getStore(issuedCcy);
+        var stored = store.find(pair, pointInTime, block);
+        if (stored != null) {
+            return stored;
+        }
+
+        var point = new RateLookup(pointInTime, blockNetwork, block);
+        var axis = createAxis(point);
+        var position = axis.of(point);
+        var index = findIndex(issuedCcy, axis, position - axis.maxOffset(), position + axis.maxOffset());
+        ExchangeRate rate;
+        if (index != null) {
+            rate = lookup(pair, index, axis, position);
+            savedNetworkCalls.incrementAndGet();
         } else {
-            // Different blockchain net (eg. livenet/testnet) -> load by pointInTime due block numbers mismatch
-            loader = new DateTimeLoader(pointInTime);
+            rate = rateAt(pair, issuedCcy, targetCcy, createLoader(point));
+        }
+        if (rate != null) {
+            store.add(pair, pointInTime, block, rate);
+        }
+        return rate;
+    }
+
+    @Override
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+        var targetCcy = getTargetCcy(pair);
+        var issuedCcy = issuedCurrencies.get(targetCcy);
+        if (issuedCcy == null) {
+            return new ExchangeRate[points.length];
+        }
+
+        return getStore(issuedCcy).ratesAt(pair, points, missing -> loadRates(pair, issuedCcy, targetCcy, missing));
+    }
+
+    private ExchangeRate[] loadRates(CurrencyPair pair, IssuedCurrency issuedCcy, String targetCcy, RateLookup[] points) {
+        var rates = new ExchangeRate[points.length];
+        var byBlock = new ArrayList<Integer>();
+        var byTime = new ArrayList<Integer>();
+        for (var i = 0; i < points.length; i++) {
+            (isSameNet(points[i]) ? byBlock : byTime).add(i);
+        }
+        prefetch(pair, issuedCcy, targetCcy, points, byBlock, blockAxis, rates);
+        prefetch(pair, issuedCcy, targetCcy, points, byTime, timeAxis, rates);
+        log.debug(String.format("%s rates of %s loaded, %s network calls in total, %s saved by prefetching", points.length, pair.getDisplayText(), networkCalls.get(), savedNetworkCalls.get()));
+        return rates;
+    }
+
+    private void prefetch(CurrencyPair pair, IssuedCurrency issuedCcy, String targetCcy, RateLookup[] points, List<Integer> indices, Axis axis, ExchangeRate[] rates) {
+        // All oracle transactions around the points are loaded at once and each point is looked up in memory. Only
+        // points far apart from each other are loaded separately, to not load all transactions in between.
+        indices.sort(Comparator.comparingLong(i -> axis.of(points[i])));
+        var start = 0;
+        for (var k = 1; k <= indices.size(); k++) {
+            if (k < indices.size() && axis.of(points[indices.get(k)]) - axis.of(points[indices.get(k - 1)]) <= 2 * axis.maxOffset() + axis.maxPrefetchGap()) {
+                continue;
+            }
+
+            var group = indices.subList(start, k);
+            var min = axis.of(points[group.get(0)]) - axis.maxOffset();
+            var max = axis.of(points[group.get(group.size() - 1)]) + axis.maxOffset();
+            var index = findIndex(issuedCcy, axis, min, max);
+            var calls = 0;
+            if (index == null) {
+                // Oracle transactions may still be published within the search distance of now. Such an index would
+                // miss them in later lookups, therefore it's only used for this group.
+                var latest = points[group.get(0)].getPointInTime();
+                for (var i : group) {
+                    latest = points[i].getPointInTime().isAfter(latest) ? points[i].getPointInTime() : latest;
+                }
+                var keep = ExchangeRateStore.isSettled(latest, MAX_SEARCH_DISTANCE, ZonedDateTime.now());
+                try {
+                    index = loadIndex(issuedCcy, targetCcy, axis, min, max, keep);
+                } catch (Exception e) {
+                    // Rates of this group stay unknown, other groups are still looked up.
+                    log.error(String.format("Could not load oracle rates of %s for %s %s - %s. %s", targetCcy, axis.getKey(), min, max, e.getMessage()), e);
+                    start = k;
+                    continue;
+                }
+                calls++;
+            }
+            for (var i : group) {
+                rates[i] = lookup(pair, index, axis, axis.of(points[i]));
+            }
+            // Every point would have needed at least one request when looked up one by one.
+            savedNetworkCalls.addAndGet(group.size() - calls);
+            start = k;
         }
+    }
+
+    private OracleRateIndex loadIndex(IssuedCurrency issuedCcy, String targetCcy, Axis axis, long min, long max, boolean keep) throws Exception {
+        networkCalls.incrementAndGet();
+        var transactions = axis.load(issuedCcy.getReceiver(), Math.max(0, min), max, issuedCcy.getIssuer(), targetCcy);
+
+        var positions = new long[transactions.length];
+        var rates = new double[transactions.length];
+        var booked = new long[transactions.length];
+        var count = 0;
+        for (var t : transactions) {
+            var rate = parseRate(t);
+            if (rate == null) {
+                continue;
+            }
+            positions[count] = axis.of(t);
+            rates[count] = rate;
+            booked[count] = t.getBooked().toInstant().toEpochMilli();
+            count++;
+        }
+        var index = new OracleRateIndex(min, max, Arrays.copyOf(positions, count), Arrays.copyOf(rates, count), Arrays.copyOf(booked, count));
+        log.trace(String.format("%s oracle rates of %s prefetched for %s %s - %s", index.size(), targetCcy, axis.getKey(), min, max));
+        if (!keep) {
+            return index;
+        }
+
+        var list = prefetched.computeIfAbsent(createIndexKey(issuedCcy, axis), k -> new CopyOnWriteArrayList<>());
+        list.add(index);
+        while (list.size() > MAX_PREFETCHED_INDEXES) {
+            list.remove(0);
+        }
+        return index;
+    }
+
+    private OracleRateIndex findIndex(IssuedCurrency issuedCcy, Axis axis, long min, long max) {
+        var list = prefetched.get(createIndexKey(issuedCcy, axis));
+        if (list == null) {
+            return null;
+        }
+        for (var index : list) {
+            if (index.covers(min, max)) {
+                return index;
+            }
+        }
+        return null;
+    }
 
+    private static String createIndexKey(IssuedCurrency issuedCcy, Axis axis) {
+        return "%s_%s_%s".formatted(issuedCcy.getReceiver().getPublicKey(), issuedCcy.getPair().getDisplayText(), axis.getKey());
+    }
+
+    private static ExchangeRate lookup(CurrencyPair pair, OracleRateIndex index, Axis axis, long position) {
+        var i = index.nearest(position);
+        if (i < 0 || Math.abs(index.getPosition(i) - position) > axis.maxOffset()) {
+            return null;
+        }
+        var booked = ZonedDateTime.ofInstant(Instant.ofEpochMilli(index.getBookedMillis(i)), ZoneId.of("UTC"));
+        return new ExchangeRate(pair, index.getRate(i), booked);
+    }
+
+    private ExchangeRate rateAt(CurrencyPair pair, IssuedCurrency issuedCcy, String targetCcy, LoadStrategy loader) {
         var transactions = new com.radynamics.dallipay.cryptoledger.Transaction[0];
         try {
             transactions = loader.loadTransactions(issuedCcy.getReceiver(), issuedCcy.getIssuer(), targetCcy);
@@ -115,8 +290,13 @@ public class XrplPriceOracle implements ExchangeRateProvider {
         }
 
         var bestMatch = loader.getBestMatch(transactions);
+        var rate = parseRate(bestMatch);
+        return rate == null ? null : new ExchangeRate(pair, rate, bestMatch.getBooked());
+    }
+
+    private static Double parseRate(Transaction t) {
         var rates = new ArrayList<Double>();
-        for (var m : bestMatch.getMessages()) {
+        for (var m : t.getMessages()) {
             var ratesText = m.split(";");
             if (ratesText.length == 0 || !NumberUtils.isCreatable(ratesText[0])) {
                 continue;
@@ -134,8 +314,144 @@ public class XrplPriceOracle implements ExchangeRateProvider {
         }
 
         final double PRECISION = 100000d;
-        var rate = Math.round(sum / rates.size() * PRECISION) / PRECISION;
-        return new ExchangeRate(pair, rate, bestMatch.getBooked());
+        return Math.round(sum / rates.size() * PRECISION) / PRECISION;
+    }
+
+    /**
+     * Number of oracle transaction requests sent by prefetching.
+     */
+    public long getNetworkCalls() {
+        return networkCalls.get();
+    }
+
+    /**
+     * Number of points answered by prefetched oracle transactions, that would have needed at least one request each
+     * otherwise.
+     */
+    public long getSavedNetworkCalls() {
+        return savedNetworkCalls.get();
+    }
+
+    public void setPrefetchMaxGap(Duration prefetchMaxGap) {
+        if (prefetchMaxGap == null) throw new IllegalArgumentException("Parameter 'prefetchMaxGap' cannot be null");
+        this.prefetchMaxGap = prefetchMaxGap;
+    }
+
+    ExchangeRateStore getStore(IssuedCurrency issuedCcy) {
+        // Rates depend on the oracle's network and wallet, a changed configuration must not return rates of another oracle.
+        return ExchangeRateStore.get("%s_%s_%s".formatted(ID, ledger.getNetwork().createStorageKey(ledger.getId()), issuedCcy.getReceiver().getPublicKey()), MAX_SEARCH_DISTANCE);
+    }
+
+    private static String getTargetCcy(CurrencyPair pair) {
+        return pair.getFirstCode().equals("XRP") ? pair.getSecondCode() : pair.getFirstCode();
+    }
+
+    private boolean isSameNet(RateLookup point) {
+        return point.getBlock() != null && point.getBlockNetwork() != null && point.getBlockNetwork().sameNet(ledger.getNetwork());
+    }
+
+    private Axis createAxis(RateLookup point) {
+        return isSameNet(point) ? blockAxis : timeAxis;
+    }
+
+    private LoadStrategy createLoader(RateLookup point) {
+        if (isSameNet(point)) {
+            // Same blockchain net -> load by block number
+            return new BlockLoader(Convert.toLedgerBlock(point.getBlock()));
+        }
+        // Different blockchain net (eg. livenet/testnet) -> load by pointInTime due block numbers mismatch
+        return new DateTimeLoader(point.getPointInTime());
+    }
+
+    /**
+     * Position of points and oracle transactions used to prefetch and match them.
+     */
+    private interface Axis {
+        String getKey();
+
+        long of(RateLookup point);
+
+        long of(Transaction t);
+
+        long maxOffset();
+
+        long maxPrefetchGap();
+
+        Transaction[] load(Wallet receiver, long min, long max, Wallet issuer, String targetCcy) throws Exception;
+    }
+
+    private class BlockAxis implements Axis {
+        @Override
+        public String getKey() {
+            return "block";
+        }
+
+        @Override
+        public long of(RateLookup point) {
+            return Convert.toLedgerBlock(point.getBlock()).getLedgerIndex().unsignedIntegerValue().longValue();
+        }
+
+        @Override
+        public long of(Transaction t) {
+            return Convert.toLedgerBlock(t.getBlock()).getLedgerIndex().unsignedIntegerValue().longValue();
+        }
+
+        @Override
+        public long maxOffset() {
+            return MAX_SEARCH_DISTANCE.toSeconds() / Ledger.AVG_LEDGER_CLOSE_TIME_SEC;
+        }
+
+        @Override
+        public long maxPrefetchGap() {
+            return prefetchMaxGap.toSeconds() / Ledger.AVG_LEDGER_CLOSE_TIME_SEC;
+        }
+
+        @Override
+        public Transaction[] load(Wallet receiver, long min, long max, Wallet issuer, String targetCcy) throws Exception {
+            var period = BlockRange.of(toBlock(min), toBlock(max));
+            return ledger.listTrustlineTransactions(receiver, period, issuer, targetCcy);
+        }
+
+        private LedgerBlock toBlock(long ledgerIndex) {
+            return new LedgerBlock(LedgerIndex.of(UnsignedInteger.valueOf(ledgerIndex)));
+        }
+    }
+
+    private class TimeAxis implements Axis {
+        @Override
+        public String getKey() {
+            return "time";
+        }
+
+        @Override
+        public long of(RateLookup point) {
+            return point.getPointInTime().toEpochSecond();
+        }
+
+        @Override
+        public long of(Transaction t) {
+            return t.getBooked().toEpochSecond();
+        }
+
+        @Override
+        public long maxOffset() {
+            return MAX_SEARCH_DISTANCE.toSeconds();
+        }
+
+        @Override
+        public long maxPrefetchGap() {
+            return prefetchMaxGap.toSeconds();
+        }
+
+        @Override
+        public Transaction[] load(Wallet receiver, long min, long max, Wallet issuer, String targetCcy) throws Exception {
+            var period = DateTimeRange.of(toDateTime(min), toDateTime(max));
+            return ledger.listTrustlineTransactions(receiver, period, issuer, targetCcy);
+        }
+
+        private ZonedDateTime toDateTime(long epochSecond) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.of("UTC"));
+        }
     }
 
     private interface LoadStrategy {
@@ -0,0 +1,163 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.radynamics.dallipay.cryptoledger.Transaction;
+import com.radynamics.dallipay.cryptoledger.TransactionResult;
+import com.radynamics.dallipay.cryptoledger.generic.Wallet;
+import org.xrpl.xrpl4j.model.transactions.Marker;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * State of an account_tx scan over a ledger range split into sub-ranges. An interrupted scan keeps the marker of each
+ * sub-range and the transactions loaded so far, and continues where it stopped when it's scanned again.
+ */
+public class AccountTransactionScan {
+    private final Wallet wallet;
+    private final List<Range> ranges;
+    private final TransactionResult result = new TransactionResult();
+
+    public AccountTransactionScan(Wallet wallet, List<Range> ranges) {
+        if (wallet == null) throw new IllegalArgumentException("Parameter 'wallet' cannot be null");
+        if (ranges == null || ranges.isEmpty()) throw new IllegalArgumentException("Parameter 'ranges' cannot be null or empty");
+        this.wallet = wallet;
+        this.ranges = ranges;
+    }
+
+    public Wallet getWallet() {
+        return wallet;
+    }
+
+    public List<Range> getRanges() {
+        return ranges;
+    }
+
+    public TransactionResult getResult() {
+        return result;
+    }
+
+    /**
+     * Lowest ledger of all ranges, -1 if unbounded.
+     */
+    public long getMin() {
+        var min = Long.MAX_VALUE;
+        for (var r : ranges) {
+            if (r.getMin() < 0) {
+                return -1;
+            }
+            min = Math.min(min, r.getMin());
+        }
+        return min;
+    }
+
+    /**
+     * Highest ledger of all ranges, -1 if unbounded.
+     */
+    public long getMax() {
+        var max = -1L;
+        for (var r : ranges) {
+            if (r.getMax() < 0) {
+                return -1;
+            }
+            max = Math.max(max, r.getMax());
+        }
+        return max;
+    }
+
+    /**
+     * Adds the transactions of a loaded page and moves the range's marker behind it in one step.
+     */
+    void pageLoaded(Range range, List<Transaction> transactions, Marker next, int scanned, long elapsedNanos) {
+        synchronized (result) {
+            for (var t : transactions) {
+                result.add(t);
+            }
+            range.pageLoaded(next, scanned, transactions.size(), elapsedNanos);
+        }
+    }
+
+    public boolean isDone() {
+        for (var r : ranges) {
+            if (!r.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getScannedCount() {
+        long count = 0;
+        for (var r : ranges) {
+            count += r.getScanned();
+        }
+        return count;
+    }
+
+    public static class Range {
+        // -1 means unbounded (ledger_index_min/max not set).
+        private final long min;
+        private final long max;
+        private volatile Marker marker;
+        private volatile boolean done;
+        private volatile int pages;
+        private volatile long scanned;
+        private volatile long included;
+        private volatile long elapsedNanos;
+
+        public Range(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public Marker getMarker() {
+            return marker;
+        }
+
+        void pageLoaded(Marker next, int transactions, long included, long elapsedNanos) {
+            this.marker = next;
+            this.pages++;
+            this.scanned += transactions;
+            this.included += included;
+            this.elapsedNanos += elapsedNanos;
+            this.done = next == null;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public long getScanned() {
+            return scanned;
+        }
+
+        public long getIncluded() {
+            return included;
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(elapsedNanos);
+        }
+
+        public double getTransactionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : scanned / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return "%s - %s: %s pages, %s trx (%s included) in %sms, %.1f trx/s%s".formatted(
+                    min, max, pages, scanned, included, getElapsed().toMillis(), getTransactionsPerSecond(), done ? "" : ", incomplete");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.google.common.primitives.UnsignedInteger;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
+import com.radynamics.dallipay.cryptoledger.Transaction;
+import com.radynamics.dallipay.cryptoledger.generic.Wallet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xrpl.xrpl4j.client.JsonRpcClientErrorException;
+import org.xrpl.xrpl4j.client.XrplClient;
+import org.xrpl.xrpl4j.model.client.accounts.AccountTransactionsRequestParams;
+import org.xrpl.xrpl4j.model.client.accounts.AccountTransactionsTransaction;
+import org.xrpl.xrpl4j.model.client.common.LedgerIndexBound;
+import org.xrpl.xrpl4j.model.transactions.Address;
+import org.xrpl.xrpl4j.model.transactions.CurrencyAmount;
+import org.xrpl.xrpl4j.model.transactions.XrpCurrencyAmount;
+
+import java.util.ArrayList;
+import java.util.function.BiFunction;
+
+/**
+ * Loads account_tx of a ledger range. Unlimited scans are split into sub-ranges loaded in parallel.
+ */
+public class AccountTransactionScanner {
+    final static Logger log = LogManager.getLogger(AccountTransactionScanner.class);
+    private final XrplClient xrplClient;
+    private int parallelism = Integer.getInteger("dallipay.xrpl.accountTxParallelism", 4);
+    private int pageSize = Integer.getInteger("dallipay.xrpl.accountTxPageSize", 200);
+    // 0 means no limit.
+    private int maxPages = Integer.getInteger("dallipay.xrpl.accountTxMaxPages", 0);
+
+    // Ranges smaller than this are not worth to be split, most of them are empty anyway.
+    private static final long MIN_RANGE_SIZE = 50000;
+
+    public AccountTransactionScanner(XrplClient xrplClient) {
+        if (xrplClient == null) throw new IllegalArgumentException("Parameter 'xrplClient' cannot be null");
+        this.xrplClient = xrplClient;
+    }
+
+    /**
+     * Creates a scan from ledger min to max (both inclusive, -1 for unbounded).
+     */
+    public AccountTransactionScan create(Wallet wallet, long min, long max, boolean split) {
+        var ranges = new ArrayList<AccountTransactionScan.Range>();
+        if (!split || min < 0 || max < 0 || max - min < MIN_RANGE_SIZE * 2 || parallelism == 1) {
+            ranges.add(new AccountTransactionScan.Range(min, max));
+            return new AccountTransactionScan(wallet, ranges);
+        }
+
+        var count = Math.min(parallelism, (max - min + 1) / MIN_RANGE_SIZE);
+        var size = (max - min + 1) / count;
+        // Newest first, as account_tx returns newest transactions first.
+        var upper = max;
+        for (var i = 0; i < count; i++) {
+            var lower = i == count - 1 ? min : upper - size + 1;
+            ranges.add(new AccountTransactionScan.Range(lower, upper));
+            upper = lower - 1;
+        }
+        return new AccountTransactionScan(wallet, ranges);
+    }
+
+    /**
+     * Loads all not yet loaded pages of the given scan into its result. Transactions are only added if convert returns
+     * non-null. Stops as soon as limit transactions are added.
+     */
+    public void scan(AccountTransactionScan scan, int limit, BiFunction<AccountTransactionsTransaction<?>, CurrencyAmount, Transaction> convert) throws JsonRpcClientErrorException {
+        var tasks = new ArrayList<Runnable>();
+        for (var r : scan.getRanges()) {
+            if (r.isDone()) {
+                continue;
+            }
+            tasks.add(() -> {
+                try {
+                    scan(scan, r, limit, convert);
+                } catch (JsonRpcClientErrorException e) {
+                    throw new ScanException(e);
+                }
+            });
+        }
+
+        var start = System.nanoTime();
+        try {
+            ExecutorProvider.invokeAll(Workload.LedgerRpc, tasks, parallelism);
+        } catch (ScanException e) {
+            throw (JsonRpcClientErrorException) e.getCause();
+        } finally {
+            for (var r : scan.getRanges()) {
+                log.trace(String.format("account_tx %s: %s", scan.getWallet().getPublicKey(), r));
+            }
+            log.debug(String.format("account_tx %s: %s trx in %s ranges loaded in %sms", scan.getWallet().getPublicKey(), scan.getScannedCount(), scan.getRanges().size(), (System.nanoTime() - start) / 1000000));
+        }
+    }
+
+    private void scan(AccountTransactionScan scan, AccountTransactionScan.Range range, int limit, BiFunction<AccountTransactionsTransaction<?>, CurrencyAmount, Transaction> convert) throws JsonRpcClientErrorException {
+        var tr = scan.getResult();
+        while (!range.isDone()) {
+            if (maxPages > 0 && range.getPages() >= maxPages) {
+                tr.setHasMaxPageCounterReached(true);
+                return;
+            }
+
+            var start = System.nanoTime();
+            var result = xrplClient.accountTransactions(createParams(scan.getWallet(), range));
+            // Collected per page, as a scan interrupted within a page continues at the marker of the last complete one.
+            var page = new ArrayList<Transaction>();
+            for (var r : result.transactions()) {
+                if (tr.size() + page.size() >= limit) {
+                    scan.pageLoaded(range, page, null, result.transactions().size(), System.nanoTime() - start);
+                    tr.setHasMarker(true);
+                    return;
+                }
+
+                if (!r.metadata().isPresent() || !r.metadata().get().transactionResult().equalsIgnoreCase("tesSUCCESS")) {
+                    continue;
+                }
+
+                var deliveredAmount = r.metadata().get().deliveredAmount().orElse(XrpCurrencyAmount.ofDrops(0));
+                var t = convert.apply(r.resultTransaction(), deliveredAmount);
+                if (t != null) {
+                    page.add(t);
+                }
+            }
+            scan.pageLoaded(range, page, result.marker().orElse(null), result.transactions().size(), System.nanoTime() - start);
+        }
+    }
+
+    private AccountTransactionsRequestParams createParams(Wallet wallet, AccountTransactionScan.Range range) {
+        var b = AccountTransactionsRequestParams.unboundedBuilder()
+                .account(Address.of(wallet.getPublicKey()))
+                .limit(UnsignedInteger.valueOf(pageSize));
+        if (range.getMin() >= 0) {
+            b.ledgerIndexMinimum(LedgerIndexBound.of((int) range.getMin()));
+        }
+        if (range.getMax() >= 0) {
+            b.ledgerIndexMaximum(LedgerIndexBound.of((int) range.getMax()));
+        }
+        if (range.getMarker() != null) {
+            b.marker(range.getMarker());
+        }
+        return b.build();
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parameter 'parallelism' must be greater than 0");
+        this.parallelism = parallelism;
+    }
+
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Parameter 'pageSize' must be greater than 0");
+        this.pageSize = pageSize;
+    }
+
+    public void setMaxPages(int maxPages) {
+        if (maxPages < 0) throw new IllegalArgumentException("Parameter 'maxPages' cannot be negative");
+        this.maxPages = maxPages;
+    }
+
+    private static class ScanException extends RuntimeException {
+        public ScanException(JsonRpcClientErrorException cause) {
+            super(cause);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.radynamics.dallipay.cryptoledger.xrpl.api;
 
 import com.google.common.primitives.UnsignedInteger;
 import com.radynamics.dallipay.DateTimeRange;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.*;
 import com.radynamics.dallipay.cryptoledger.generic.Wallet;
 import com.radynamics.dallipay.cryptoledger.generic.WalletConverter;
@@ -31,8 +33,8 @@ import org.xrpl.xrpl4j.client.faucet.FundAccountRequest;
 import org.xrpl.xrpl4j.codec.addresses.SeedCodec;
 import org.xrpl.xrpl4j.crypto.keys.Seed;
 import org.xrpl.xrpl4j.model.client.accounts.*;
-import org.xrpl.xrpl4j.model.client.common.LedgerIndexBound;
 import org.xrpl.xrpl4j.model.client.common.LedgerSpecifier;
+import org.xrpl.xrpl4j.model.client.ledger.LedgerRequestParams;
 import org.xrpl.xrpl4j.model.client.path.RipplePathFindRequestParams;
 import org.xrpl.xrpl4j.model.client.path.RipplePathFindResult;
 import org.xrpl.xrpl4j.model.client.transactions.ImmutableTransactionRequestParams;
@@ -40,14 +42,21 @@ import org.xrpl.xrpl4j.model.ledger.AccountRootObject;
 import org.xrpl.xrpl4j.model.transactions.*;
 
 import java.io.UnsupportedEncodingException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class JsonRpcApi implements TransactionSource {
     final static Logger log = LogManager.getLogger(JsonRpcApi.class);
@@ -60,20 +69,34 @@ public class JsonRpcApi implements TransactionSource {
     private final Cache<AccountLinesResult> accountTrustLineCache;
     private final Cache<RipplePathFindResultEntry> ripplePathFindCache;
     private final Cache<ImmutableBookOffersResult> bookOffersCache;
+    private final Cache<AccountTransactionScan> pendingScans;
+    private final AccountTransactionScanner accountTransactionScanner;
+    private final ReceivedPaymentStore receivedPaymentStore;
+    private final ConcurrentHashMap<String, CompletableFuture<AccountRootObject>> pendingAccountData = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<AccountLinesResult>> pendingAccountLines = new ConcurrentHashMap<>();
+    private int parallelism = Integer.getInteger("dallipay.xrpl.parallelism", 8);
 
     private final ResourceBundle res = ResourceBundle.getBundle("i18n." + this.getClass().getSimpleName());
 
     public JsonRpcApi(Ledger ledger, NetworkInfo network) {
+        this(ledger, network, new XrplClient(network.getUrl()));
+    }
+
+    JsonRpcApi(Ledger ledger, NetworkInfo network, XrplClient xrplClient) {
         this.ledger = ledger;
         this.network = network;
         this.transactionConverter = new TransactionConverter(ledger);
-        this.xrplClient = new XrplClient(network.getUrl());
-        var fallback = new OnchainLookupProvider(xrplClient);
-        this.ledgerAtTimeProvider = ledger.isKnownMainnet(network) ? new XrplfDataApi(fallback) : fallback;
+        this.xrplClient = xrplClient;
+        var ledgerAtTimeCache = LedgerAtTimeCache.get(ledger.getId(), network);
+        var fallback = new OnchainLookupProvider(xrplClient, ledgerAtTimeCache);
+        this.ledgerAtTimeProvider = ledger.isKnownMainnet(network) ? new XrplfDataApi(fallback, ledgerAtTimeCache) : fallback;
         this.accountDataCache = new Cache<>(network.getUrl().toString());
         this.accountTrustLineCache = new Cache<>(network.getUrl().toString());
         this.ripplePathFindCache = new Cache<>(network.getUrl().toString());
         this.bookOffersCache = new Cache<>(network.getUrl().toString());
+        this.pendingScans = new Cache<>(network.getUrl().toString(), Duration.ofMinutes(30), 100);
+        this.accountTransactionScanner = new AccountTransactionScanner(xrplClient);
+        this.receivedPaymentStore = new ReceivedPaymentStore(ledger, network.createStorageKey(ledger.getId()));
     }
 
     @Override
@@ -81,8 +104,9 @@ public class JsonRpcApi implements TransactionSource {
         var start = ledgerAtTimeProvider.estimatedDaysAgo(sinceDaysAgo).orElse(estimatedAgoFallback(sinceDaysAgo));
         // Use endOfToday to ensure data until latest ledger is loaded.
         var end = Utils.endOfToday();
-        var params = createAccountTransactionsRequestParams(wallet, start.getLedgerSpecifier(), end, null);
-        return listPayments(params, limit, (Payment p) -> StringUtils.equals(p.account().value(), wallet.getPublicKey()));
+        // Limited results must be the latest ones, therefore loaded in one range.
+        var scan = createScan(wallet, start.getLedgerSpecifier(), end, false);
+        return listPayments(scan, limit, (Payment p) -> StringUtils.equals(p.account().value(), wallet.getPublicKey()));
     }
 
     private LedgerAtTime estimatedAgoFallback(long sinceDaysAgo) throws LedgerAtTimeException {
@@ -103,82 +127,68 @@ public class JsonRpcApi implements TransactionSource {
 
     @Override
     public TransactionResult listPaymentsReceived(Wallet wallet, DateTimeRange period) throws Exception {
-        var params = createAccountTransactionsRequestParams(wallet, period, null);
-        return listPayments(params, 100, (Payment p) -> StringUtils.equals(p.destination().value(), wallet.getPublicKey()));
+        // Resolves the period to concrete ledgers, only the bounds are used.
+        var bounds = createScan(wallet, period, true);
+        if (bounds.getMin() < 0 || bounds.getMax() < 0) {
+            return listPaymentsReceived(wallet, bounds.getMin(), bounds.getMax());
+        }
+
+        var tr = receivedPaymentStore.list(wallet, bounds.getMin(), bounds.getMax(), (min, max) -> listPaymentsReceived(wallet, min, max));
+        if (tr.size() == 0) {
+            tr.setHasNoTransactions(true);
+            tr.setExistsWallet(exists(wallet));
+        }
+        return tr;
     }
 
-    private TransactionResult listPayments(ImmutableAccountTransactionsRequestParams.Builder params, int limit, Function<Payment, Boolean> include) throws Exception {
-        var tr = new TransactionResult();
-        loadTransactions(params, limit, tr, (AccountTransactionsTransaction<?> att, CurrencyAmount deliveredAmount) -> {
+    private TransactionResult listPaymentsReceived(Wallet wallet, long min, long max) throws Exception {
+        // Continue an interrupted scan of the same range instead of starting over.
+        var key = new ScanKey(wallet, min, max);
+        var scan = pendingScans.get(key);
+        if (scan == null) {
+            scan = accountTransactionScanner.create(wallet, min, max, true);
+            pendingScans.add(key, scan);
+        }
+        var tr = listPayments(scan, Integer.MAX_VALUE, (Payment p) -> StringUtils.equals(p.destination().value(), wallet.getPublicKey()));
+        pendingScans.evict(key);
+        return tr;
+    }
+
+    private TransactionResult listPayments(AccountTransactionScan scan, int limit, Function<Payment, Boolean> include) throws Exception {
+        loadTransactions(scan, limit, (AccountTransactionsTransaction<?> att, CurrencyAmount deliveredAmount) -> {
             if (att.transaction().transactionType() == TransactionType.PAYMENT) {
                 var p = (Payment) att.transaction();
                 if (!include.apply(p)) {
-                    return false;
+                    return null;
                 }
 
-                tr.add(transactionConverter.toTransaction(p, deliveredAmount, att));
-                return true;
+                return transactionConverter.toTransaction(p, deliveredAmount, att);
             }
-            return false;
+            return null;
         });
-        return tr;
+        return scan.getResult();
     }
 
-    private void loadTransactions(ImmutableAccountTransactionsRequestParams.Builder params, int limit, TransactionResult tr, BiFunction<AccountTransactionsTransaction<?>, CurrencyAmount, Boolean> include) throws Exception {
-        var pageCounter = 0;
-        var maxPages = 10;
-        var result = xrplClient.accountTransactions(params.build());
+    private void loadTransactions(AccountTransactionScan scan, int limit, BiFunction<AccountTransactionsTransaction<?>, CurrencyAmount, com.radynamics.dallipay.cryptoledger.Transaction> convert) throws Exception {
+        accountTransactionScanner.scan(scan, limit, convert);
 
-        if (result.transactions().size() == 0) {
+        var tr = scan.getResult();
+        if (scan.isDone() && tr.size() == 0) {
             tr.setHasNoTransactions(true);
-            tr.setExistsWallet(exists(result.account()));
-            return;
+            tr.setExistsWallet(exists(scan.getWallet()));
         }
-
-        while (tr.transactions().length < limit && pageCounter < maxPages && result.transactions().size() > 0) {
-            for (var r : result.transactions()) {
-                if (tr.transactions().length >= limit) {
-                    tr.setHasMarker(true);
-                    return;
-                }
-
-                if (!r.metadata().isPresent() || !r.metadata().get().transactionResult().equalsIgnoreCase("tesSUCCESS")) {
-                    continue;
-                }
-
-                var deliveredAmount = r.metadata().get().deliveredAmount().orElse(XrpCurrencyAmount.ofDrops(0));
-                if (!include.apply(r.resultTransaction(), deliveredAmount)) {
-                    continue;
-                }
-            }
-
-            if (pageCounter == 2 && tr.transactions().length == 0) {
-                tr.setHasNoTransactions(true);
-                return;
-            }
-
-            if (!result.marker().isPresent()) {
-                tr.setHasMarker(false);
-                return;
-            }
-            params.marker(result.marker().get());
-            result = xrplClient.accountTransactions(params.build());
-            pageCounter++;
-        }
-
-        tr.setHasMaxPageCounterReached(pageCounter >= maxPages);
     }
 
-    private ImmutableAccountTransactionsRequestParams.Builder createAccountTransactionsRequestParams(Wallet wallet, DateTimeRange period, Marker marker) throws JsonRpcClientErrorException, LedgerException, LedgerAtTimeException {
+    private AccountTransactionScan createScan(Wallet wallet, DateTimeRange period, boolean split) throws JsonRpcClientErrorException, LedgerException, LedgerAtTimeException {
         var start = ledgerAtTimeProvider.at(period.getStart()).orElse(null);
         if (start == null) {
             throw new LedgerException(String.format(res.getString("ledgerNotFoundAt"), period.getStart()));
         }
 
-        return createAccountTransactionsRequestParams(wallet, start.getLedgerSpecifier(), period.getEnd(), marker);
+        return createScan(wallet, start.getLedgerSpecifier(), period.getEnd(), split);
     }
 
-    private ImmutableAccountTransactionsRequestParams.Builder createAccountTransactionsRequestParams(Wallet wallet, LedgerSpecifier start, ZonedDateTime end, Marker marker) throws LedgerAtTimeException, LedgerException {
+    private AccountTransactionScan createScan(Wallet wallet, LedgerSpecifier start, ZonedDateTime end, boolean split) throws LedgerAtTimeException, LedgerException, JsonRpcClientErrorException {
         var endIndex = LedgerSpecifier.VALIDATED;
         if (end.isBefore(ZonedDateTime.now())) {
             var endLedger = ledgerAtTimeProvider.at(end).orElse(null);
@@ -188,29 +198,25 @@ public class JsonRpcApi implements TransactionSource {
             endIndex = endLedger.getLedgerSpecifier();
         }
 
-        return createAccountTransactionsRequestParams(wallet, start, endIndex, marker);
+        return createScan(wallet, start, endIndex, split);
     }
 
-    private ImmutableAccountTransactionsRequestParams.Builder createAccountTransactionsRequestParams(Wallet wallet, BlockRange period, Marker marker) throws LedgerAtTimeException, LedgerException {
+    private AccountTransactionScan createScan(Wallet wallet, BlockRange period, boolean split) throws JsonRpcClientErrorException {
         var start = LedgerSpecifier.of(Convert.toLedgerBlock(period.getStart()).getLedgerIndex());
         var end = LedgerSpecifier.of(Convert.toLedgerBlock(period.getEnd()).getLedgerIndex());
-        return createAccountTransactionsRequestParams(wallet, start, end, marker);
+        return createScan(wallet, start, end, split);
     }
 
-    private ImmutableAccountTransactionsRequestParams.Builder createAccountTransactionsRequestParams(Wallet wallet, LedgerSpecifier start, LedgerSpecifier end, Marker marker) throws LedgerAtTimeException, LedgerException {
-        var b = AccountTransactionsRequestParams.unboundedBuilder()
-                .account(Address.of(wallet.getPublicKey()));
-        if (start != LedgerSpecifier.VALIDATED) {
-            b.ledgerIndexMinimum(LedgerIndexBound.of(start.ledgerIndex().orElseThrow().unsignedIntegerValue().intValue()));
-        }
+    private AccountTransactionScan createScan(Wallet wallet, LedgerSpecifier start, LedgerSpecifier end, boolean split) throws JsonRpcClientErrorException {
+        long min = start == LedgerSpecifier.VALIDATED ? -1 : start.ledgerIndex().orElseThrow().unsignedIntegerValue().longValue();
+        long max = -1;
         if (end != LedgerSpecifier.VALIDATED) {
-            b.ledgerIndexMaximum(LedgerIndexBound.of(end.ledgerIndex().orElseThrow().unsignedIntegerValue().intValue()));
+            max = end.ledgerIndex().orElseThrow().unsignedIntegerValue().longValue();
+        } else if (split && min >= 0) {
+            // A concrete upper bound is needed to split the range.
+            max = xrplClient.ledger(LedgerRequestParams.builder().ledgerSpecifier(LedgerSpecifier.VALIDATED).build()).ledgerIndexSafe().unsignedIntegerValue().longValue();
         }
-
-        if (marker != null) {
-            b.marker(marker);
-        }
-        return b;
+        return accountTransactionScanner.create(wallet, min, max, split);
     }
 
     public com.radynamics.dallipay.cryptoledger.Transaction getTransaction(String transactionId) {
@@ -251,26 +257,25 @@ public class JsonRpcApi implements TransactionSource {
     }
 
     public com.radynamics.dallipay.cryptoledger.Transaction[] listTrustlineTransactions(Wallet wallet, BlockRange period, Wallet ccyIssuer, String ccy) throws Exception {
-        var tr = new TransactionResult();
-        var params = createAccountTransactionsRequestParams(wallet, period, null);
-        final int limit = 200;
-        loadTransactions(params, limit, tr, (AccountTransactionsTransaction<?> att, CurrencyAmount deliveredAmount) -> {
+        // Price oracles prefetch wide ranges, all transactions within the range are needed to find the nearest one.
+        var scan = createScan(wallet, period, true);
+        loadTransactions(scan, Integer.MAX_VALUE, (AccountTransactionsTransaction<?> att, CurrencyAmount deliveredAmount) -> {
             var t = att.transaction();
             if (!(t instanceof ImmutableTrustSet)) {
-                return false;
+                return null;
             }
             var trustSet = (ImmutableTrustSet) t;
             if (!trustSet.limitAmount().issuer().value().equals(ccyIssuer.getPublicKey()) || !trustSet.limitAmount().currency().equalsIgnoreCase(ccy)) {
-                return false;
+                return null;
             }
             try {
-                tr.add(transactionConverter.toTransaction(att, XrpCurrencyAmount.ofDrops(0)));
+                return transactionConverter.toTransaction(att, XrpCurrencyAmount.ofDrops(0));
             } catch (DecoderException | UnsupportedEncodingException e) {
                 log.error(e.getMessage(), e);
+                return null;
             }
-            return true;
         });
-        return tr.transactions();
+        return scan.getResult().transactions();
     }
 
     private boolean exists(Address wallet) {
@@ -285,53 +290,147 @@ public class JsonRpcApi implements TransactionSource {
         return getAccountData(wallet) != null;
     }
 
-    private synchronized AccountRootObject getAccountData(Wallet wallet) {
+    private AccountRootObject getAccountData(Wallet wallet) {
         accountDataCache.evictOutdated();
         var key = new WalletKey(wallet);
-        var data = accountDataCache.get(key);
-        // Contained without data means "wallet doesn't exist" (wasn't found previously)
-        if (data != null || accountDataCache.isPresent(key)) {
-            return data;
+        var cached = accountDataCache.lookup(key);
+        if (cached != null) {
+            // Contained without data means "wallet doesn't exist" (wasn't found previously)
+            return cached.getValue();
         }
-        try {
-            var requestParams = AccountInfoRequestParams.of(Address.of(wallet.getPublicKey()));
-            data = xrplClient.accountInfo(requestParams).accountData();
-            accountDataCache.add(key, data);
-            return data;
-        } catch (Exception e) {
-            if (isAccountNotFound(e)) {
-                accountDataCache.add(key, null);
-            } else {
-                log.error(e.getMessage(), e);
+        return singleFlight(pendingAccountData, key, () -> {
+            try {
+                var requestParams = AccountInfoRequestParams.of(Address.of(wallet.getPublicKey()));
+                var result = xrplClient.accountInfo(requestParams).accountData();
+                accountDataCache.add(key, result);
+                return result;
+            } catch (Exception e) {
+                if (isAccountNotFound(e)) {
+                    accountDataCache.addMissing(key);
+                } else {
+                    log.error(e.getMessage(), e);
+                }
+                return null;
             }
-            return null;
-        }
+        });
     }
 
-    private synchronized AccountLinesResult getAccountLines(Wallet wallet) {
+    private AccountLinesResult getAccountLines(Wallet wallet) {
         accountTrustLineCache.evictOutdated();
         var key = new WalletKey(wallet);
-        var data = accountTrustLineCache.get(key);
-        // Contained without data means "wallet doesn't exist" (wasn't found previously)
-        if (data != null || accountTrustLineCache.isPresent(key)) {
-            return data;
+        var cached = accountTrustLineCache.lookup(key);
+        if (cached != null) {
+            // Contained without data means "wallet doesn't exist" (wasn't found previously)
+            return cached.getValue();
         }
-        try {
+        return singleFlight(pendingAccountLines, key, () -> {
+            try {
+                var result = fetchAccountLines(wallet);
+                accountTrustLineCache.add(key, result);
+                return result;
+            } catch (JsonRpcClientErrorException e) {
+                if (isAccountNotFound(e)) {
+                    accountTrustLineCache.addMissing(key);
+                } else {
+                    log.error(e.getMessage(), e);
+                }
+                return null;
+            }
+        });
+    }
+
+    private AccountLinesResult fetchAccountLines(Wallet wallet) throws JsonRpcClientErrorException {
+        // Issuers can have thousands of trustlines, spread over multiple pages.
+        var lines = new ArrayList<TrustLine>();
+        Marker marker = null;
+        AccountLinesResult page;
+        do {
             var requestParams = AccountLinesRequestParams.builder()
                     .ledgerSpecifier(LedgerSpecifier.CURRENT)
                     .account(Address.of(wallet.getPublicKey()))
+                    .marker(Optional.ofNullable(marker))
                     .build();
-            data = xrplClient.accountLines(requestParams);
-            accountTrustLineCache.add(key, data);
+            page = xrplClient.accountLines(requestParams);
+            lines.addAll(page.lines());
+            marker = page.marker().orElse(null);
+        } while (marker != null);
+
+        if (lines.size() == page.lines().size()) {
+            return page;
+        }
+        return AccountLinesResult.builder().from(page).lines(lines).marker(Optional.empty()).build();
+    }
+
+    /**
+     * Ensures only one request per wallet is sent to the server at a time. Concurrent callers wait for and share the
+     * result of the running request.
+     */
+    private static <T> T singleFlight(ConcurrentHashMap<String, CompletableFuture<T>> pending, Key key, Supplier<T> loader) {
+        var own = new CompletableFuture<T>();
+        var running = pending.putIfAbsent(key.get(), own);
+        if (running != null) {
+            return running.join();
+        }
+
+        try {
+            var data = loader.get();
+            own.complete(data);
             return data;
-        } catch (JsonRpcClientErrorException e) {
-            if (isAccountNotFound(e)) {
-                accountTrustLineCache.add(key, null);
-            } else {
-                log.error(e.getMessage(), e);
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key.get(), own);
+        }
+    }
+
+    /**
+     * Loads account_info and account_lines of all distinct wallets concurrently into the cache. Issuers of trustlines
+     * are loaded afterwards as their transfer fee is needed to build balances.
+     */
+    public void prefetchAccounts(Wallet[] wallets) {
+        var distinct = new LinkedHashMap<String, Wallet>();
+        for (var w : wallets) {
+            distinct.putIfAbsent(w.getPublicKey(), w);
+        }
+
+        var issuers = new ConcurrentHashMap<String, Wallet>();
+        forEachParallel(distinct.values(), parallelism, w -> {
+            getAccountData(w);
+            var lines = getAccountLines(w);
+            if (lines == null) {
+                return;
             }
-            return null;
+            for (var line : lines.lines()) {
+                if (Double.parseDouble(line.balance()) >= 0 && Double.parseDouble(line.limit()) > 0) {
+                    issuers.putIfAbsent(line.account().value(), from(line.account()));
+                }
+            }
+        });
+
+        issuers.keySet().removeAll(distinct.keySet());
+        forEachParallel(issuers.values(), parallelism, this::getAccountData);
+    }
+
+    /**
+     * Runs action for all items on the ledger-rpc pool. The calling thread helps processing, therefore this may be
+     * called from a thread of the same pool.
+     */
+    static <T> void forEachParallel(Collection<T> items, int parallelism, Consumer<T> action) {
+        var tasks = new ArrayList<Runnable>();
+        for (var item : items) {
+            tasks.add(() -> action.accept(item));
         }
+        try {
+            ExecutorProvider.invokeAll(Workload.LedgerRpc, tasks, parallelism);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parameter 'parallelism' must be greater than 0");
+        this.parallelism = parallelism;
     }
 
     public boolean existsPath(Wallet sender, Wallet receiver, Money amount) {
@@ -394,10 +493,10 @@ public class JsonRpcApi implements TransactionSource {
     private synchronized ImmutableBookOffersResult getBookOffers(Currency ccy) {
         bookOffersCache.evictOutdated();
         var key = new CurrencyKey(ccy);
-        var data = bookOffersCache.get(key);
-        // Contained without data means "doesn't exist" (wasn't found previously)
-        if (data != null || bookOffersCache.isPresent(key)) {
-            return data;
+        var cached = bookOffersCache.lookup(key);
+        if (cached != null) {
+            // Contained without data means "doesn't exist" (wasn't found previously)
+            return cached.getValue();
         }
         try {
             var b = ImmutableBookOffersRequestParams.builder()
@@ -405,7 +504,7 @@ public class JsonRpcApi implements TransactionSource {
                     .takerPays(ImmutableIssuedCurrency.of(Convert.fromCurrencyCode(ccy.getCode()), Address.of(ccy.getIssuer().getPublicKey())))
                     .limit(10)
                     .build();
-            data = xrplClient.getJsonRpcClient().send(b.request(), ImmutableBookOffersResult.class);
+            var data = xrplClient.getJsonRpcClient().send(b.request(), ImmutableBookOffersResult.class);
             bookOffersCache.add(key, data);
             return data;
         } catch (Exception e) {
@@ -479,6 +578,21 @@ public class JsonRpcApi implements TransactionSource {
         }
     }
 
+    public void refreshBalances(Wallet[] wallets, boolean useCache) {
+        if (!useCache) {
+            for (var w : wallets) {
+                var key = new WalletKey(w);
+                accountDataCache.evict(key);
+                accountTrustLineCache.evict(key);
+            }
+        }
+        prefetchAccounts(wallets);
+
+        for (var w : wallets) {
+            refreshBalance(w, true);
+        }
+    }
+
     public Trustline[] listTrustlines(Wallet wallet) {
         var list = new ArrayList<Trustline>();
         var result = getAccountLines(wallet);
@@ -519,7 +633,7 @@ public class JsonRpcApi implements TransactionSource {
 
     public TransactionSubmitter createTransactionSubmitter(PrivateKeyProvider privateKeyProvider) {
         var signer = new RpcSubmitter(ledger, privateKeyProvider);
-        signer.setVerifier(new OnchainVerifier(ledger));
+        signer.setVerifier(new OnchainVerifier(ledger, ledger.getConfirmationService()));
         return signer;
     }
 
@@ -555,4 +669,17 @@ public class JsonRpcApi implements TransactionSource {
         ));
         return future.join();
     }
+
+    private static class ScanKey implements Key {
+        private final String value;
+
+        public ScanKey(Wallet wallet, long min, long max) {
+            this.value = "%s_%s_%s".formatted(wallet.getPublicKey(), min, max);
+        }
+
+        @Override
+        public String get() {
+            return value;
+        }
+    }
 }
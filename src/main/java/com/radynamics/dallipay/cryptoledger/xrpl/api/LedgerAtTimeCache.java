@@ -1,24 +1,89 @@
 package com.radynamics.dallipay.cryptoledger.xrpl.api;
 
 import com.google.common.primitives.UnsignedInteger;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
+import com.radynamics.dallipay.cryptoledger.LedgerId;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.db.Database;
+import com.radynamics.dallipay.db.LedgerAtTimeRepo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xrpl.xrpl4j.model.client.common.LedgerIndex;
 import org.xrpl.xrpl4j.model.client.common.LedgerSpecifier;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Known ledgers at points in time of a network. Samples are persisted in the database and shared by all providers of
+ * the same network, therefore periods looked up before are answered without any network call.
+ */
 public class LedgerAtTimeCache {
     final static Logger log = LogManager.getLogger(LedgerAtTimeCache.class);
+    private static final ConcurrentHashMap<String, LedgerAtTimeCache> instances = new ConcurrentHashMap<>();
+    private static final ZoneId utc = ZoneId.of("UTC");
+
+    private final String networkKey;
     private final ConcurrentHashMap<UnsignedInteger, LedgerAtTime> items = new ConcurrentHashMap<>();
+    private final LedgerAtTimeIndex index = new LedgerAtTimeIndex();
+    private final ConcurrentLinkedQueue<LedgerAtTimeIndex.Sample> unsaved = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private boolean loaded;
+
+    /**
+     * Creates a cache only held in memory.
+     */
+    public LedgerAtTimeCache() {
+        this(null);
+    }
 
-    public LedgerAtTime add(ZonedDateTime pointInTime, LedgerIndex index) {
-        var item = new LedgerAtTime(pointInTime, LedgerSpecifier.of(index));
-        items.put(index.unsignedIntegerValue(), item);
+    private LedgerAtTimeCache(String networkKey) {
+        this.networkKey = networkKey;
+        this.loaded = networkKey == null;
+    }
+
+    public static LedgerAtTimeCache get(LedgerId ledgerId, NetworkInfo network) {
+        if (network == null) throw new IllegalArgumentException("Parameter 'network' cannot be null");
+        return instances.computeIfAbsent(network.createStorageKey(ledgerId), LedgerAtTimeCache::new);
+    }
+
+    /**
+     * Adds the close time of a ledger.
+     */
+    public LedgerAtTime add(ZonedDateTime closeTime, LedgerIndex ledgerIndex) {
+        var item = new LedgerAtTime(closeTime, LedgerSpecifier.of(ledgerIndex));
+        items.put(ledgerIndex.unsignedIntegerValue(), item);
+        addSample(closeTime, ledgerIndex);
         return item;
     }
 
+    /**
+     * Adds the information, that the given ledger was the last closed one at the given point in time.
+     */
+    public void addObservation(ZonedDateTime pointInTime, LedgerIndex ledgerIndex) {
+        addSample(pointInTime, ledgerIndex);
+    }
+
+    private void addSample(ZonedDateTime pointInTime, LedgerIndex ledgerIndex) {
+        ensureLoaded();
+        var sample = new LedgerAtTimeIndex.Sample(pointInTime.toInstant().toEpochMilli(), ledgerIndex.unsignedIntegerValue().longValue());
+        if (!index.add(sample.getEpochMillis(), sample.getLedgerIndex()) || networkKey == null) {
+            return;
+        }
+        unsaved.add(sample);
+        if (saveScheduled.compareAndSet(false, true)) {
+            ExecutorProvider.execute(Workload.Background, this::save);
+        }
+    }
+
     public LedgerAtTime find(LedgerIndex index) {
         if (items.containsKey(index.unsignedIntegerValue())) {
             var item = items.get(index.unsignedIntegerValue());
@@ -28,19 +93,113 @@ public class LedgerAtTimeCache {
         return null;
     }
 
+    /**
+     * Returns the ledger at the given point in time, if it's known without doubt.
+     */
     public LedgerAtTime find(ZonedDateTime dt) {
-        for (var e : items.entrySet()) {
-            var item = e.getValue();
-            if (item.getPointInTime() == dt) {
-                log.trace(String.format("CACHE hit %s (%s)", item.getPointInTime(), item.getLedgerSpecifier().ledgerIndex().orElseThrow().unsignedIntegerValue()));
-                return item;
+        ensureLoaded();
+        var ledgerIndex = index.exact(dt.toInstant().toEpochMilli());
+        if (ledgerIndex.isEmpty()) {
+            return null;
+        }
+        var item = toLedgerAtTime(dt, ledgerIndex.getAsLong());
+        log.trace(String.format("CACHE hit %s (%s)", dt, ledgerIndex.getAsLong()));
+        return item;
+    }
+
+    /**
+     * Returns the latest known ledger closed before the given point in time, if it was closed within maxDistance.
+     */
+    public LedgerAtTime findBefore(ZonedDateTime dt, Duration maxDistance) {
+        var exact = find(dt);
+        if (exact != null) {
+            return exact;
+        }
+        var floor = index.floor(dt.toInstant().toEpochMilli());
+        if (floor == null || Duration.ofMillis(dt.toInstant().toEpochMilli() - floor.getEpochMillis()).compareTo(maxDistance) >= 0) {
+            return null;
+        }
+        log.trace(String.format("CACHE hit %s near %s (%s)", dt, toDateTime(floor.getEpochMillis()), floor.getLedgerIndex()));
+        return toLedgerAtTime(toDateTime(floor.getEpochMillis()), floor.getLedgerIndex());
+    }
+
+    /**
+     * Estimates the ledger at the given point in time by interpolating between the nearest known neighbours.
+     */
+    public Optional<LedgerIndex> estimate(ZonedDateTime dt) {
+        ensureLoaded();
+        var estimated = index.estimate(dt.toInstant().toEpochMilli());
+        return estimated.isPresent() ? Optional.of(toLedgerIndex(estimated.getAsLong())) : Optional.empty();
+    }
+
+    /**
+     * Returns the average duration per ledger around the given point in time based on the nearest known neighbours.
+     */
+    public Optional<Duration> averageLedgerDuration(ZonedDateTime dt) {
+        ensureLoaded();
+        var millis = dt.toInstant().toEpochMilli();
+        var floor = index.floor(millis);
+        var higher = index.higher(millis);
+        if (floor == null || higher == null || higher.getLedgerIndex() - floor.getLedgerIndex() < 100) {
+            return Optional.empty();
+        }
+        var avg = (higher.getEpochMillis() - floor.getEpochMillis()) / (higher.getLedgerIndex() - floor.getLedgerIndex());
+        return Optional.of(Duration.ofMillis(avg));
+    }
+
+    private LedgerAtTime toLedgerAtTime(ZonedDateTime dt, long ledgerIndex) {
+        var known = items.get(UnsignedInteger.valueOf(ledgerIndex));
+        return known != null ? known : new LedgerAtTime(dt, LedgerSpecifier.of(toLedgerIndex(ledgerIndex)));
+    }
+
+    private static LedgerIndex toLedgerIndex(long value) {
+        return LedgerIndex.of(UnsignedInteger.valueOf(value));
+    }
+
+    private static ZonedDateTime toDateTime(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), utc);
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        // Never create a database just for caching purposes.
+        if (!Database.exists()) {
+            return;
+        }
+        try (var repo = new LedgerAtTimeRepo()) {
+            for (var s : repo.list(networkKey)) {
+                index.add(s.getEpochMillis(), s.getLedgerIndex());
             }
+            log.trace(String.format("Loaded %s ledger samples for %s", index.size(), networkKey));
+        } catch (Exception e) {
+            log.warn(String.format("Could not load ledger samples for %s. %s", networkKey, e.getMessage()), e);
+        }
+    }
+
+    private void save() {
+        saveScheduled.set(false);
+        var list = new ArrayList<LedgerAtTimeIndex.Sample>();
+        LedgerAtTimeIndex.Sample s;
+        while ((s = unsaved.poll()) != null) {
+            list.add(s);
+        }
+        if (list.isEmpty() || !Database.exists()) {
+            return;
+        }
+
+        try (var repo = new LedgerAtTimeRepo()) {
+            repo.saveAll(networkKey, list.toArray(new LedgerAtTimeIndex.Sample[0]));
+            repo.commit();
+        } catch (Exception e) {
+            log.warn(String.format("Could not save ledger samples for %s. %s", networkKey, e.getMessage()), e);
         }
-        return null;
     }
 
     @Override
     public String toString() {
-        return "size: " + items.size();
+        return "size: " + index.size();
     }
 }
@@ -0,0 +1,123 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Sorted samples of (point in time, ledger index), each meaning "at this point in time the given ledger was the last
+ * closed one". Lookups are done by binary search.
+ */
+public class LedgerAtTimeIndex {
+    private long[] times = new long[64];
+    private long[] ledgerIndexes = new long[64];
+    private int size;
+
+    /**
+     * Adds a sample and returns false if the sample was already known.
+     */
+    public synchronized boolean add(long epochMillis, long ledgerIndex) {
+        var pos = Arrays.binarySearch(times, 0, size, epochMillis);
+        if (pos >= 0) {
+            if (ledgerIndexes[pos] == ledgerIndex) {
+                return false;
+            }
+            ledgerIndexes[pos] = Math.max(ledgerIndexes[pos], ledgerIndex);
+            return true;
+        }
+
+        var insertAt = -(pos + 1);
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            ledgerIndexes = Arrays.copyOf(ledgerIndexes, size * 2);
+        }
+        System.arraycopy(times, insertAt, times, insertAt + 1, size - insertAt);
+        System.arraycopy(ledgerIndexes, insertAt, ledgerIndexes, insertAt + 1, size - insertAt);
+        times[insertAt] = epochMillis;
+        ledgerIndexes[insertAt] = ledgerIndex;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the ledger index at the given point in time, if it's known without doubt.
+     */
+    public synchronized OptionalLong exact(long epochMillis) {
+        var floor = floorPos(epochMillis);
+        if (floor < 0) {
+            return OptionalLong.empty();
+        }
+        if (times[floor] == epochMillis) {
+            return OptionalLong.of(ledgerIndexes[floor]);
+        }
+        // The same ledger before and after the point in time.
+        var higher = floor + 1;
+        if (higher < size && ledgerIndexes[higher] == ledgerIndexes[floor]) {
+            return OptionalLong.of(ledgerIndexes[floor]);
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Returns the position of the latest sample at or before the given point in time or -1.
+     */
+    private int floorPos(long epochMillis) {
+        var pos = Arrays.binarySearch(times, 0, size, epochMillis);
+        return pos >= 0 ? pos : -(pos + 1) - 1;
+    }
+
+    public synchronized Sample floor(long epochMillis) {
+        var pos = floorPos(epochMillis);
+        return pos < 0 ? null : new Sample(times[pos], ledgerIndexes[pos]);
+    }
+
+    public synchronized Sample higher(long epochMillis) {
+        var pos = floorPos(epochMillis) + 1;
+        return pos >= size ? null : new Sample(times[pos], ledgerIndexes[pos]);
+    }
+
+    /**
+     * Estimates the ledger index by linear interpolation between the nearest known samples before and after the given
+     * point in time.
+     */
+    public synchronized OptionalLong estimate(long epochMillis) {
+        var floor = floorPos(epochMillis);
+        var higher = floor + 1;
+        if (floor < 0 || higher >= size) {
+            return OptionalLong.empty();
+        }
+        var duration = times[higher] - times[floor];
+        var ledgers = ledgerIndexes[higher] - ledgerIndexes[floor];
+        if (duration <= 0 || ledgers <= 0) {
+            return OptionalLong.of(ledgerIndexes[floor]);
+        }
+        var offset = Math.round((epochMillis - times[floor]) / (double) duration * ledgers);
+        return OptionalLong.of(ledgerIndexes[floor] + offset);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public static class Sample {
+        private final long epochMillis;
+        private final long ledgerIndex;
+
+        public Sample(long epochMillis, long ledgerIndex) {
+            this.epochMillis = epochMillis;
+            this.ledgerIndex = ledgerIndex;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        public long getLedgerIndex() {
+            return ledgerIndex;
+        }
+
+        @Override
+        public String toString() {
+            return "%s -> %s".formatted(epochMillis, ledgerIndex);
+        }
+    }
+}
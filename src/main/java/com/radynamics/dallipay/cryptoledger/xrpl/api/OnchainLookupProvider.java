@@ -18,11 +18,19 @@ import java.util.Optional;
 public class OnchainLookupProvider implements LedgerAtTimeProvider {
     final static Logger log = LogManager.getLogger(OnchainLookupProvider.class);
     private XrplClient xrplClient;
-    private final LedgerAtTimeCache cache = new LedgerAtTimeCache();
+    private final LedgerAtTimeCache cache;
     private LedgerAtTime latestLedgerFirstCall;
 
+    private static final Duration acceptedDistance = Duration.ofSeconds(60);
+
     public OnchainLookupProvider(XrplClient xrplClient) {
+        this(xrplClient, new LedgerAtTimeCache());
+    }
+
+    public OnchainLookupProvider(XrplClient xrplClient, LedgerAtTimeCache cache) {
+        if (cache == null) throw new IllegalArgumentException("Parameter 'cache' cannot be null");
         this.xrplClient = xrplClient;
+        this.cache = cache;
     }
 
     public Optional<LedgerAtTime> estimatedDaysAgo(long daysAgo) throws LedgerAtTimeException {
@@ -55,20 +63,33 @@ public class OnchainLookupProvider implements LedgerAtTimeProvider {
 
     private LedgerAtTime findLedger(ZonedDateTime dt) throws JsonRpcClientErrorException {
         log.trace(String.format("Find ledger at %s", dt));
-        var latestLedger = cache.find(dt);
-        if (latestLedger == null) {
-            latestLedger = getEstimatedLatestLedger();
+        var known = cache.findBefore(dt, acceptedDistance);
+        if (known != null) {
+            return known;
         }
-        if (dt.isAfter(latestLedger.getPointInTime())) {
-            log.trace(String.format("%s is after last ledger -> take last ledger at %s", dt, latestLedger.getPointInTime()));
-            return latestLedger;
+
+        // Start near the searched ledger if it can be interpolated from known neighbours.
+        LedgerAtTime bestMatch = null;
+        var estimated = cache.estimate(dt);
+        if (estimated.isPresent()) {
+            bestMatch = get(estimated.get());
+        }
+        if (bestMatch == null) {
+            var latestLedger = getEstimatedLatestLedger();
+            if (dt.isAfter(latestLedger.getPointInTime())) {
+                log.trace(String.format("%s is after last ledger -> take last ledger at %s", dt, latestLedger.getPointInTime()));
+                return latestLedger;
+            }
+            bestMatch = latestLedger;
         }
 
-        var avgDurationPerLedger = getAverageLedgerDuration(latestLedger);
+        var avgDurationPerLedger = cache.averageLedgerDuration(dt).orElse(null);
+        if (avgDurationPerLedger == null) {
+            avgDurationPerLedger = getAverageLedgerDuration(bestMatch);
+        }
 
         int iteration = 0;
         final int maxIterations = 20;
-        var bestMatch = latestLedger;
         while (!isLedgerAt(bestMatch, dt) && iteration < maxIterations) {
             var fromDifference = Duration.ofMillis(ChronoUnit.MILLIS.between(dt, bestMatch.getPointInTime()));
             var isTooEarly = fromDifference.isNegative();
@@ -159,6 +180,6 @@ public class OnchainLookupProvider implements LedgerAtTimeProvider {
         var closeTime = ledgerAtTime.getPointInTime();
         var diff = ChronoUnit.SECONDS.between(closeTime, dt);
         // accept ledger within a smaller timeframe.
-        return 0 < diff && diff < Duration.ofSeconds(60).getSeconds();
+        return 0 < diff && diff < acceptedDistance.getSeconds();
     }
 }
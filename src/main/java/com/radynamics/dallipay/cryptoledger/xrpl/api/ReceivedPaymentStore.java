@@ -0,0 +1,89 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.google.common.primitives.UnsignedInteger;
+import com.radynamics.dallipay.cryptoledger.Transaction;
+import com.radynamics.dallipay.cryptoledger.TransactionResult;
+import com.radynamics.dallipay.cryptoledger.generic.Wallet;
+import com.radynamics.dallipay.cryptoledger.xrpl.Ledger;
+import com.radynamics.dallipay.db.Database;
+import com.radynamics.dallipay.db.ReceivedPaymentRepo;
+import com.radynamics.dallipay.db.ScannedRange;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xrpl.xrpl4j.model.client.common.LedgerIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps received payments of already scanned ledger ranges in the (encrypted) database. Repeated exports of the same
+ * or an overlapping period only load ledgers not scanned before.
+ */
+public class ReceivedPaymentStore {
+    final static Logger log = LogManager.getLogger(ReceivedPaymentStore.class);
+    private final Ledger ledger;
+    private final String networkKey;
+
+    public ReceivedPaymentStore(Ledger ledger, String networkKey) {
+        if (ledger == null) throw new IllegalArgumentException("Parameter 'ledger' cannot be null");
+        if (networkKey == null) throw new IllegalArgumentException("Parameter 'networkKey' cannot be null");
+        this.ledger = ledger;
+        this.networkKey = networkKey;
+    }
+
+    public interface RangeLoader {
+        TransactionResult load(long min, long max) throws Exception;
+    }
+
+    /**
+     * Returns all payments received in ledgers min to max (both inclusive, validated ledgers only).
+     */
+    public TransactionResult list(Wallet wallet, long min, long max, RangeLoader loader) throws Exception {
+        // Never create a database just for caching purposes.
+        if (!Database.exists()) {
+            return loader.load(min, max);
+        }
+
+        ScannedRange scanned;
+        try (var repo = new ReceivedPaymentRepo()) {
+            scanned = repo.getScannedRange(networkKey, wallet).orElse(null);
+        } catch (Exception e) {
+            log.warn(String.format("Could not read scanned range of %s. %s", wallet.getPublicKey(), e.getMessage()), e);
+            return loader.load(min, max);
+        }
+
+        var missing = scanned == null ? new ScannedRange[]{new ScannedRange(min, max)} : scanned.missing(min, max);
+        var loaded = new ArrayList<Transaction>();
+        for (var r : missing) {
+            var tr = loader.load(r.getFromBlock(), r.getToBlock());
+            // Only completely scanned ranges can be stored.
+            if (tr.hasMaxPageCounterReached() || tr.hasMarker()) {
+                log.debug(String.format("Range %s of %s not completely loaded, not stored.", r, wallet.getPublicKey()));
+                return loader.load(min, max);
+            }
+            loaded.addAll(List.of(tr.transactions()));
+        }
+        log.trace(String.format("%s: %s stored, loaded %s ranges with %s trx", wallet.getPublicKey(), scanned, missing.length, loaded.size()));
+
+        try (var repo = new ReceivedPaymentRepo()) {
+            if (missing.length > 0) {
+                repo.saveAll(networkKey, wallet, loaded.toArray(new Transaction[0]), b -> Convert.toLedgerBlock(b).getLedgerIndex().unsignedIntegerValue().longValue());
+                repo.saveScannedRange(networkKey, wallet, scanned == null ? new ScannedRange(min, max) : scanned.extend(min, max));
+                repo.commit();
+            }
+
+            var result = new TransactionResult();
+            for (var t : repo.list(ledger, networkKey, wallet, min, max, ReceivedPaymentStore::toBlock)) {
+                result.add(t);
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn(String.format("Could not store received payments of %s. %s", wallet.getPublicKey(), e.getMessage()), e);
+            return loader.load(min, max);
+        }
+    }
+
+    private static LedgerBlock toBlock(long ledgerIndex) {
+        return new LedgerBlock(LedgerIndex.of(UnsignedInteger.valueOf(ledgerIndex)));
+    }
+}
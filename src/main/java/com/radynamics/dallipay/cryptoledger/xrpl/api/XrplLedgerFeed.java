@@ -0,0 +1,129 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.ScheduledTask;
+import com.radynamics.dallipay.concurrent.Workload;
+import com.radynamics.dallipay.cryptoledger.LedgerFeed;
+import com.radynamics.dallipay.cryptoledger.ValidatedLedger;
+import okhttp3.HttpUrl;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Feed of validated ledgers loaded by one "ledger" request per closed ledger, including the hashes of its
+ * transactions.
+ */
+public class XrplLedgerFeed implements LedgerFeed {
+    final static Logger log = LogManager.getLogger(XrplLedgerFeed.class);
+    private final HttpUrl url;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Duration interval = Duration.ofMillis(Long.getLong("dallipay.xrpl.ledgerFeedIntervalMillis", 1000));
+    // Ledgers missed in between (eg. after a network outage) are loaded up to this count.
+    private final int maxCatchUp = 20;
+
+    private ScheduledTask task;
+    private Consumer<ValidatedLedger> listener;
+    private long last = -1;
+
+    public XrplLedgerFeed(HttpUrl url) {
+        if (url == null) throw new IllegalArgumentException("Parameter 'url' cannot be null");
+        this.url = url;
+    }
+
+    @Override
+    public synchronized void start(Consumer<ValidatedLedger> listener) {
+        if (listener == null) throw new IllegalArgumentException("Parameter 'listener' cannot be null");
+        if (task != null) {
+            return;
+        }
+        this.listener = listener;
+        last = -1;
+        task = ExecutorProvider.scheduleWithFixedDelay(Workload.LedgerRpc, this::poll, Duration.ZERO, interval);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void poll() {
+        Consumer<ValidatedLedger> l;
+        long from;
+        synchronized (this) {
+            if (task == null) {
+                return;
+            }
+            l = listener;
+            from = last;
+        }
+
+        try {
+            var latest = load("validated");
+            if (latest.getIndex() <= from) {
+                return;
+            }
+            var ledgers = new ArrayList<ValidatedLedger>();
+            if (from != -1) {
+                for (var i = Math.max(from + 1, latest.getIndex() - maxCatchUp); i < latest.getIndex(); i++) {
+                    ledgers.add(load(i));
+                }
+            }
+            ledgers.add(latest);
+
+            synchronized (this) {
+                last = latest.getIndex();
+            }
+            for (var ledger : ledgers) {
+                l.accept(ledger);
+            }
+        } catch (Exception e) {
+            log.warn(String.format("Loading validated ledger failed. %s", e.getMessage()), e);
+        }
+    }
+
+    private ValidatedLedger load(Object ledgerIndex) throws IOException, InterruptedException {
+        var params = new JSONObject();
+        params.put("ledger_index", ledgerIndex);
+        params.put("transactions", true);
+        params.put("expand", false);
+        var json = new JSONObject();
+        json.put("method", "ledger");
+        json.put("params", new JSONArray().put(params));
+
+        var request = HttpRequest.newBuilder()
+                .uri(url.uri())
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.toString()))
+                .build();
+        return toValidatedLedger(new JSONObject(client.send(request, HttpResponse.BodyHandlers.ofString()).body()));
+    }
+
+    static ValidatedLedger toValidatedLedger(JSONObject response) throws IOException {
+        var result = response.getJSONObject("result");
+        if (!"success".equals(result.optString("status")) || !result.optBoolean("validated")) {
+            throw new IOException(String.format("Ledger request failed. %s", result.optString("error_message", result.optString("error"))));
+        }
+
+        var hashes = new ArrayList<String>();
+        var transactions = result.getJSONObject("ledger").optJSONArray("transactions");
+        if (transactions != null) {
+            for (var i = 0; i < transactions.length(); i++) {
+                hashes.add(transactions.getString(i));
+            }
+        }
+        return new ValidatedLedger(result.getLong("ledger_index"), hashes);
+    }
+}
@@ -24,11 +24,17 @@ import java.util.Optional;
 public class XrplfDataApi implements LedgerAtTimeProvider {
     private final static Logger log = LogManager.getLogger(XrplfDataApi.class);
     private final static ApiRateLimitLogger apiRateLimit = new ApiRateLimitLogger("XrplfDataApi");
-    private final LedgerAtTimeCache cache = new LedgerAtTimeCache();
+    private final LedgerAtTimeCache cache;
     private final OnchainLookupProvider fallback;
 
     public XrplfDataApi(OnchainLookupProvider fallback) {
+        this(fallback, new LedgerAtTimeCache());
+    }
+
+    public XrplfDataApi(OnchainLookupProvider fallback, LedgerAtTimeCache cache) {
+        if (cache == null) throw new IllegalArgumentException("Parameter 'cache' cannot be null");
         this.fallback = fallback;
+        this.cache = cache;
     }
 
     @Override
@@ -42,10 +48,6 @@ public class XrplfDataApi implements LedgerAtTimeProvider {
     }
 
     private Optional<LedgerAtTime> getLedgerIndexAt(ZonedDateTime dt) throws LedgerAtTimeException {
-        if (fallback != null && apiRateLimit.limited()) {
-            return fallback.at(dt);
-        }
-
         final var utc = ZoneId.of("UTC");
         var inUtc = dt.withZoneSameInstant(utc);
         log.trace(String.format("Find ledger at %s", inUtc));
@@ -53,11 +55,16 @@ public class XrplfDataApi implements LedgerAtTimeProvider {
         if (ledger != null) {
             return Optional.of(ledger);
         }
+
+        if (fallback != null && apiRateLimit.limited()) {
+            return fallback.at(dt);
+        }
         try {
             var json = get(new URL("https://data.xrplf.org/v1/ledgers/ledger_index?date=%s".formatted(inUtc.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")))));
             var closed = ZonedDateTime.parse(json.getString("closed")).withZoneSameInstant(utc);
             var ledgerIndex = LedgerIndex.of(UnsignedInteger.valueOf(json.getLong("ledger_index")));
             log.trace(String.format("ledgerIndex at %s: %s", closed, ledgerIndex));
+            cache.addObservation(inUtc, ledgerIndex);
             return Optional.of(cache.add(closed, ledgerIndex));
         } catch (IOException e) {
             throw new LedgerAtTimeException(e.getMessage(), e);
@@ -8,9 +8,9 @@ import com.radynamics.dallipay.cryptoledger.signing.PrivateKeyProvider;
 import com.radynamics.dallipay.cryptoledger.signing.TransactionStateListener;
 import com.radynamics.dallipay.cryptoledger.signing.TransactionSubmitter;
 import com.radynamics.dallipay.cryptoledger.signing.TransactionSubmitterInfo;
+import com.radynamics.dallipay.cryptoledger.xrpl.Ledger;
 import com.radynamics.dallipay.cryptoledger.xrpl.api.Convert;
 import com.radynamics.dallipay.cryptoledger.xrpl.api.PaymentBuilder;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xrpl.xrpl4j.client.JsonRpcClientErrorException;
@@ -23,6 +23,7 @@ import org.xrpl.xrpl4j.model.client.accounts.AccountInfoRequestParams;
 import org.xrpl.xrpl4j.model.client.common.LedgerSpecifier;
 import org.xrpl.xrpl4j.model.client.ledger.LedgerRequestParams;
 import org.xrpl.xrpl4j.model.client.transactions.ImmutableTransactionRequestParams;
+import org.xrpl.xrpl4j.model.transactions.Address;
 import org.xrpl.xrpl4j.model.transactions.Hash256;
 import org.xrpl.xrpl4j.model.transactions.ImmutablePayment;
 import org.xrpl.xrpl4j.model.transactions.Payment;
@@ -39,6 +40,9 @@ public class RpcSubmitter implements TransactionSubmitter {
     private OnchainVerifier verifier;
     private final TransactionSubmitterInfo info;
     private final ArrayList<TransactionStateListener> stateListener = new ArrayList<>();
+    // Transactions of a sender submitted without waiting for the previous ones to be validated.
+    private final int submitAhead = Integer.getInteger("dallipay.xrpl.submitAhead", 10);
+    private final int lastLedgerOffset = Integer.getInteger("dallipay.xrpl.lastLedgerOffset", 20);
 
     private final ResourceBundle res = ResourceBundle.getBundle("i18n.TransactionSubmitter");
 
@@ -67,123 +71,119 @@ public class RpcSubmitter implements TransactionSubmitter {
     @Override
     public void submit(com.radynamics.dallipay.cryptoledger.Transaction[] transactions) {
         var xrplClient = new XrplClient(ledger.getNetwork().getUrl());
-        var sendingWallets = PaymentUtils.distinctSendingWallets(transactions);
-        // Process by sending wallet to keep sequence number handling simple (prevent terPRE_SEQ).
-        for (var sendingWallet : sendingWallets) {
-            var trxByWallet = PaymentUtils.fromSender(sendingWallet, transactions);
-            var sequences = new ImmutablePair<>(UnsignedInteger.ZERO, UnsignedInteger.ZERO);
-            for (var trx : trxByWallet) {
-                var t = (Transaction) trx;
-                try {
-                    sequences = submit(xrplClient, t, sequences);
-                } catch (Exception e) {
+        var pipeline = new SubmitPipeline<>(new XrplChannel(xrplClient), ledger.getConfirmationService(), submitAhead, lastLedgerOffset, Duration.ofSeconds(30));
+        // Sequence numbers are assigned per sending wallet.
+        for (var sender : PaymentIndex.of(transactions).bySender()) {
+            var trxByWallet = new ArrayList<Transaction>();
+            for (var trx : sender.getItems()) {
+                trxByWallet.add((Transaction) trx);
+            }
+            pipeline.run(sender.getWallet().getPublicKey(), trxByWallet, new SubmitPipeline.Callback<>() {
+                @Override
+                public void onSubmitted(Transaction t, String hash) {
+                    t.setId(hash);
+                    t.setBooked(ZonedDateTime.now());
+                }
+
+                @Override
+                public void onValidated(Transaction t, SubmitPipeline.Status status) {
+                    if (!status.isSuccess()) {
+                        t.refreshTransmission(new LedgerException(String.format("Ledger submit failed with result %s", status.getResult())));
+                        raiseFailure(t);
+                        return;
+                    }
+
+                    if (verifier.verify(t.getId(), t)) {
+                        t.setBlock(Convert.toLedgerBlock(verifier.getOnchainTransaction().getBlock()));
+                        t.refreshTransmission();
+                        raiseSuccess(t);
+                    } else {
+                        t.refreshTransmission(new OnchainVerificationException(res.getString("verifyFailed")));
+                        raiseFailure(t);
+                    }
+                }
+
+                @Override
+                public void onFailed(Transaction t, Exception e) {
                     log.error(e.getMessage(), e);
                     t.refreshTransmission(e);
                     raiseFailure(t);
                 }
-            }
+            });
         }
     }
 
-    private ImmutablePair<UnsignedInteger, UnsignedInteger> submit(XrplClient xrplClient, Transaction t, ImmutablePair<UnsignedInteger, UnsignedInteger> sequences) throws Exception {
-        var previousLastLedgerSequence = sequences.getLeft();
-        var accountSequenceOffset = sequences.getRight();
-
-        // Get the latest validated ledger index
-        var validatedLedger = xrplClient.ledger(LedgerRequestParams.builder().ledgerSpecifier(LedgerSpecifier.VALIDATED).build())
-                .ledgerIndex()
-                .orElseThrow(() -> new RuntimeException("LedgerIndex not available."));
+    class XrplChannel implements SubmitPipeline.Channel<Transaction> {
+        private final XrplClient xrplClient;
 
-        // Workaround for https://github.com/XRPLF/xrpl4j/issues/84
-        var lastLedgerSequence = UnsignedInteger.valueOf(validatedLedger.plus(UnsignedInteger.valueOf(4)).unsignedIntegerValue().intValue());
-        if (previousLastLedgerSequence == UnsignedInteger.ZERO) {
-            accountSequenceOffset = UnsignedInteger.ZERO;
-        } else {
-            accountSequenceOffset = accountSequenceOffset.plus(UnsignedInteger.ONE);
+        public XrplChannel(XrplClient xrplClient) {
+            this.xrplClient = xrplClient;
         }
-        previousLastLedgerSequence = lastLedgerSequence;
-
-        var pb = PaymentBuilder.builder().payment(t);
-
-        var requestParams = AccountInfoRequestParams.builder()
-                .ledgerSpecifier(LedgerSpecifier.VALIDATED)
-                .account(pb.getSender())
-                .build();
-        var accountInfoResult = xrplClient.accountInfo(requestParams);
-        var sequence = accountInfoResult.accountData().sequence().plus(accountSequenceOffset);
-
-        var builder = pb.build();
-        builder.sequence(sequence);
-        builder.lastLedgerSequence(lastLedgerSequence);
-
-        var transactionHash = submit(xrplClient, builder);
-        if (transactionHash != null) {
-            t.setId(transactionHash);
-            t.setBooked(ZonedDateTime.now());
-
-            if (verifier.verify(transactionHash, t)) {
-                t.setBlock(Convert.toLedgerBlock(verifier.getOnchainTransaction().getBlock()));
-                t.refreshTransmission();
-                raiseSuccess(t);
-            } else {
-                t.refreshTransmission(new OnchainVerificationException(res.getString("verifyFailed")));
-                raiseFailure(t);
-            }
-        }
-
-        return new ImmutablePair<>(previousLastLedgerSequence, accountSequenceOffset);
-    }
 
-    private String submit(XrplClient xrplClient, ImmutablePayment.Builder builder) throws LedgerException, JsonRpcClientErrorException, JsonProcessingException {
-        var publicKey = builder.build().account().value();
-        var privateKey = privateKeyProvider.get(publicKey);
-        if (privateKey == null) {
-            throw new LedgerException("PrivateKey missing");
+        @Override
+        public long validatedLedgerIndex() throws JsonRpcClientErrorException {
+            return xrplClient.ledger(LedgerRequestParams.builder().ledgerSpecifier(LedgerSpecifier.VALIDATED).build())
+                    .ledgerIndex()
+                    .orElseThrow(() -> new RuntimeException("LedgerIndex not available."))
+                    .unsignedIntegerValue().longValue();
         }
 
-        var signed = sign(builder, privateKey);
-
-        var prelimResult = xrplClient.submit(signed);
-        if (!prelimResult.engineResult().equalsIgnoreCase("tesSUCCESS")) {
-            throw new LedgerException(String.format("Ledger submit failed with result %s %s", prelimResult.engineResult(), prelimResult.engineResultMessage()));
+        @Override
+        public long accountSequence(String account) throws JsonRpcClientErrorException {
+            var requestParams = AccountInfoRequestParams.builder()
+                    .ledgerSpecifier(LedgerSpecifier.VALIDATED)
+                    .account(Address.of(account))
+                    .build();
+            return xrplClient.accountInfo(requestParams).accountData().sequence().longValue();
         }
 
-        var transactionHash = signed.hash().value();
-
-        var interval = Duration.ofMillis(500);
-        wait(interval);
+        @Override
+        public SubmitPipeline.Signed sign(Transaction t, long sequence, long lastLedgerSequence) throws LedgerException {
+            var builder = PaymentBuilder.builder().payment(t).build();
+            builder.sequence(UnsignedInteger.valueOf(sequence));
+            builder.lastLedgerSequence(UnsignedInteger.valueOf(lastLedgerSequence));
 
-        final Duration timeout = Duration.ofSeconds(10);
-        var remaining = timeout;
-        while (!remaining.isNegative()) {
-            if (isValidated(xrplClient, transactionHash)) {
-                return transactionHash;
+            var publicKey = builder.build().account().value();
+            var privateKey = privateKeyProvider.get(publicKey);
+            if (privateKey == null) {
+                throw new LedgerException("PrivateKey missing");
             }
 
-            wait(interval);
-            remaining = remaining.minus(interval);
+            var signed = RpcSubmitter.this.sign(builder, privateKey);
+            return new SubmitPipeline.Signed(signed.hash().value(), signed);
         }
 
-        throw new LedgerException("Transaction was submitted but was not validated within %s seconds.".formatted(timeout.toSeconds()));
-    }
+        @Override
+        public String submit(SubmitPipeline.Signed signed) throws JsonRpcClientErrorException, JsonProcessingException {
+            var prelimResult = xrplClient.submit((SingleSignedTransaction<Payment>) signed.getTransaction());
+            if (!prelimResult.engineResult().equalsIgnoreCase("tesSUCCESS")) {
+                log.info(String.format("Preliminary result of %s is %s %s", signed.getHash(), prelimResult.engineResult(), prelimResult.engineResultMessage()));
+            }
+            return prelimResult.engineResult();
+        }
 
-    private boolean isValidated(XrplClient xrplClient, String transactionHash) {
-        var params = ImmutableTransactionRequestParams.builder()
-                .transaction(Hash256.of(transactionHash));
-        try {
-            var result = xrplClient.transaction(params.build(), org.xrpl.xrpl4j.model.transactions.Transaction.class);
-            return result.validated();
-        } catch (JsonRpcClientErrorException e) {
-            log.trace(e.getMessage(), e);
-            return false;
+        @Override
+        public SubmitPipeline.Status status(String hash) throws JsonRpcClientErrorException {
+            var params = ImmutableTransactionRequestParams.builder()
+                    .transaction(Hash256.of(hash));
+            try {
+                var result = xrplClient.transaction(params.build(), org.xrpl.xrpl4j.model.transactions.Transaction.class);
+                if (!result.validated() || result.metadata().isEmpty() || result.ledgerIndex().isEmpty()) {
+                    return SubmitPipeline.Status.notValidated();
+                }
+                return SubmitPipeline.Status.validated(result.metadata().get().transactionResult(), result.ledgerIndex().get().unsignedIntegerValue().longValue());
+            } catch (JsonRpcClientErrorException e) {
+                // Any other error doesn't tell whether the transaction was applied and must not let it expire.
+                if (!isTxnNotFound(e)) {
+                    throw e;
+                }
+                log.trace(e.getMessage(), e);
+                return SubmitPipeline.Status.notValidated();
+            }
         }
-    }
 
-    private void wait(Duration sleep) {
-        try {
-            Thread.sleep(sleep.toMillis());
-        } catch (InterruptedException e) {
-            // ignore
+        private boolean isTxnNotFound(JsonRpcClientErrorException e) {
+            return "Transaction not found.".equals(e.getMessage()) || "txnNotFound".equals(e.getMessage());
         }
     }
 
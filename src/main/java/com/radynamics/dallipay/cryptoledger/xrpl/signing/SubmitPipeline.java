@@ -0,0 +1,358 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.signing;
+
+import com.radynamics.dallipay.cryptoledger.ConfirmationService;
+import com.radynamics.dallipay.cryptoledger.LedgerException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Submits transactions of one account without waiting for each to be validated. Sequence numbers are assigned
+ * locally, up to window transactions are in flight and all of them are confirmed together by a
+ * {@link ConfirmationService}.
+ */
+public class SubmitPipeline<T> {
+    private final static Logger log = LogManager.getLogger(SubmitPipeline.class);
+    private final Channel<T> channel;
+    private final ConfirmationService confirmations;
+    private final int window;
+    private final int lastLedgerOffset;
+    private final Duration maxWait;
+    private final Duration retryDelay;
+    private final int maxAttempts = 3;
+
+    public interface Channel<T> {
+        long validatedLedgerIndex() throws Exception;
+
+        long accountSequence(String account) throws Exception;
+
+        Signed sign(T item, long sequence, long lastLedgerSequence) throws Exception;
+
+        /**
+         * Returns the preliminary engine result.
+         */
+        String submit(Signed signed) throws Exception;
+
+        Status status(String hash) throws Exception;
+    }
+
+    public interface Callback<T> {
+        void onSubmitted(T item, String hash);
+
+        void onValidated(T item, Status status);
+
+        void onFailed(T item, Exception e);
+    }
+
+    /**
+     * If no confirmation arrives within maxWait, the status of all transactions in flight is requested directly.
+     */
+    public SubmitPipeline(Channel<T> channel, ConfirmationService confirmations, int window, int lastLedgerOffset, Duration maxWait) {
+        if (channel == null) throw new IllegalArgumentException("Parameter 'channel' cannot be null");
+        if (confirmations == null) throw new IllegalArgumentException("Parameter 'confirmations' cannot be null");
+        if (window < 1) throw new IllegalArgumentException("Parameter 'window' must be greater than 0");
+        if (lastLedgerOffset < 1) throw new IllegalArgumentException("Parameter 'lastLedgerOffset' must be greater than 0");
+        if (maxWait == null) throw new IllegalArgumentException("Parameter 'maxWait' cannot be null");
+        this.channel = channel;
+        this.confirmations = confirmations;
+        this.window = window;
+        this.lastLedgerOffset = lastLedgerOffset;
+        this.maxWait = maxWait;
+        this.retryDelay = Duration.ofMillis(Math.min(maxWait.toMillis(), 1000));
+    }
+
+    /**
+     * Submits all items sent by account in the given order and returns after each of them was either validated or
+     * failed.
+     */
+    public void run(String account, List<T> items, Callback<T> callback) {
+        var queue = new ArrayDeque<Entry<T>>();
+        for (var item : items) {
+            queue.add(new Entry<>(item));
+        }
+        var inflight = new ArrayList<Entry<T>>();
+
+        try {
+            var nextSequence = -1L;
+            // Set if a transaction expired. Later sequences can't be applied anymore and are submitted again once expired too.
+            var gap = false;
+            var failedRounds = 0;
+            while (!queue.isEmpty() || !inflight.isEmpty()) {
+                try {
+                    if (nextSequence == -1 || gap && inflight.isEmpty()) {
+                        nextSequence = channel.accountSequence(account);
+                        gap = false;
+                    }
+
+                    if (!gap) {
+                        var validated = channel.validatedLedgerIndex();
+                        while (!queue.isEmpty() && inflight.size() < window) {
+                            var e = queue.poll();
+                            if (submit(e, nextSequence, validated + lastLedgerOffset, callback)) {
+                                inflight.add(e);
+                                nextSequence++;
+                            }
+                        }
+                    }
+                    failedRounds = 0;
+                } catch (Exception e) {
+                    // Transactions in flight are still confirmed or expire, only transactions not submitted yet fail.
+                    failedRounds++;
+                    log.warn(String.format("Preparing submit failed (%s of %s). %s", failedRounds, maxAttempts, e.getMessage()), e);
+                    if (failedRounds >= maxAttempts) {
+                        for (var entry : queue) {
+                            callback.onFailed(entry.item, e);
+                        }
+                        queue.clear();
+                    } else if (inflight.isEmpty()) {
+                        Thread.sleep(retryDelay.toMillis());
+                    }
+                }
+                if (inflight.isEmpty()) {
+                    continue;
+                }
+
+                var confirmed = awaitFirst(inflight);
+                var validated = -1L;
+                if (!confirmed) {
+                    try {
+                        validated = channel.validatedLedgerIndex();
+                    } catch (Exception e) {
+                        log.warn(String.format("Could not get validated ledger. %s", e.getMessage()), e);
+                        continue;
+                    }
+                }
+                gap = confirm(inflight, queue, validated, callback) || gap;
+            }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            for (var entry : inflight) {
+                entry.confirmation.cancel(false);
+                callback.onFailed(entry.item, e);
+            }
+            for (var entry : queue) {
+                callback.onFailed(entry.item, e);
+            }
+        }
+    }
+
+    private boolean submit(Entry<T> e, long sequence, long lastLedgerSequence, Callback<T> callback) {
+        e.attempts++;
+        e.sequence = sequence;
+        e.lastLedgerSequence = lastLedgerSequence;
+        e.blocked = false;
+        e.included = false;
+        e.statusPending = false;
+
+        Signed signed;
+        try {
+            signed = channel.sign(e.item, sequence, lastLedgerSequence);
+        } catch (Exception ex) {
+            callback.onFailed(e.item, ex);
+            return false;
+        }
+        e.hash = signed.getHash();
+        callback.onSubmitted(e.item, e.hash);
+        // Awaited before submitting to not miss the ledger including it.
+        e.confirmation = confirmations.await(e.hash, lastLedgerSequence);
+
+        String engineResult;
+        try {
+            engineResult = channel.submit(signed);
+        } catch (Exception ex) {
+            // Possibly received by the server, the outcome is known once validated or expired.
+            log.warn(String.format("Submit of %s failed. %s", e.hash, ex.getMessage()), ex);
+            return true;
+        }
+
+        if (consumesSequence(engineResult)) {
+            return true;
+        }
+        e.confirmation.cancel(false);
+        callback.onFailed(e.item, new LedgerException(String.format("Ledger submit failed with result %s", engineResult)));
+        return false;
+    }
+
+    /**
+     * Waits for the transaction with the lowest sequence. Returns false if it was neither confirmed nor expired within
+     * maxWait.
+     */
+    private boolean awaitFirst(ArrayList<Entry<T>> inflight) {
+        try {
+            var first = inflight.get(0);
+            if (first.statusPending) {
+                // Confirmed before, but its status wasn't known yet.
+                Thread.sleep(retryDelay.toMillis());
+                return true;
+            }
+            first.confirmation.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            // Expired
+            return true;
+        } catch (TimeoutException e) {
+            log.info(String.format("No confirmation within %ss, requesting status of %s transactions", maxWait.toSeconds(), inflight.size()));
+            return false;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Handles transactions confirmed or expired in order of their sequence. If validated is given (not -1), all
+     * transactions in flight are checked against it instead.
+     */
+    private boolean confirm(ArrayList<Entry<T>> inflight, ArrayDeque<Entry<T>> queue, long validated, Callback<T> callback) {
+        var fallback = validated != -1;
+        var gap = false;
+        var resubmit = new ArrayList<Entry<T>>();
+        // Ordered by sequence, an expired transaction blocks all following ones.
+        for (var e : new ArrayList<>(inflight)) {
+            // A later sequence is never validated before and never expires before an earlier one.
+            if (!fallback && !e.confirmation.isDone()) {
+                break;
+            }
+
+            if (e.confirmation.isDone() && !e.confirmation.isCompletedExceptionally()) {
+                // Included in a validated ledger, therefore it never expires. Its status is requested until known.
+                e.included = true;
+            }
+
+            // Requested once per transaction for its result, also verifies expiry in case the feed missed a ledger.
+            Status status;
+            try {
+                status = channel.status(e.hash);
+            } catch (Exception ex) {
+                // Not known whether it was applied, therefore it must not be treated as expired.
+                log.warn(String.format("Could not get status of %s. %s", e.hash, ex.getMessage()), ex);
+                e.statusPending = e.confirmation.isDone();
+                continue;
+            }
+
+            if (status.isValidated()) {
+                inflight.remove(e);
+                e.confirmation.cancel(false);
+                callback.onValidated(e.item, status);
+                continue;
+            }
+            var expired = !e.included && (fallback ? validated > e.lastLedgerSequence : e.confirmation.isCompletedExceptionally());
+            if (!expired) {
+                e.statusPending = e.included;
+                continue;
+            }
+
+            // Can never be included in a ledger anymore.
+            inflight.remove(e);
+            e.confirmation.cancel(false);
+            if (e.blocked && e.attempts < maxAttempts) {
+                resubmit.add(e);
+                continue;
+            }
+            callback.onFailed(e.item, new LedgerException(String.format("Transaction was submitted but was not validated until ledger %s.", e.lastLedgerSequence)));
+            gap = true;
+            for (var other : inflight) {
+                if (other.sequence > e.sequence) {
+                    other.blocked = true;
+                }
+            }
+        }
+
+        if (!resubmit.isEmpty()) {
+            // Blocked transactions may expire in different rounds, they're submitted again in their previous order
+            // before any transaction not submitted yet.
+            while (!queue.isEmpty() && queue.peek().attempts > 0) {
+                resubmit.add(queue.poll());
+            }
+            resubmit.sort(Comparator.comparingLong(o -> o.sequence));
+            for (var i = resubmit.size() - 1; i >= 0; i--) {
+                queue.addFirst(resubmit.get(i));
+            }
+        }
+        return gap || !resubmit.isEmpty();
+    }
+
+    private static boolean consumesSequence(String engineResult) {
+        // tec results are included in a ledger (fee claimed), tes/ter are queued or held. All others are never applied.
+        return engineResult.startsWith("tes") || engineResult.startsWith("tec") || engineResult.startsWith("ter");
+    }
+
+    public static class Signed {
+        private final String hash;
+        private final Object transaction;
+
+        public Signed(String hash, Object transaction) {
+            if (hash == null) throw new IllegalArgumentException("Parameter 'hash' cannot be null");
+            this.hash = hash;
+            this.transaction = transaction;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public Object getTransaction() {
+            return transaction;
+        }
+    }
+
+    public static class Status {
+        private final boolean validated;
+        private final String result;
+        private final Long ledgerIndex;
+
+        private Status(boolean validated, String result, Long ledgerIndex) {
+            this.validated = validated;
+            this.result = result;
+            this.ledgerIndex = ledgerIndex;
+        }
+
+        public static Status validated(String result, long ledgerIndex) {
+            return new Status(true, result, ledgerIndex);
+        }
+
+        public static Status notValidated() {
+            return new Status(false, null, null);
+        }
+
+        public boolean isValidated() {
+            return validated;
+        }
+
+        public boolean isSuccess() {
+            return "tesSUCCESS".equalsIgnoreCase(result);
+        }
+
+        public String getResult() {
+            return result;
+        }
+
+        public Long getLedgerIndex() {
+            return ledgerIndex;
+        }
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private int attempts;
+        private long sequence;
+        private long lastLedgerSequence;
+        private String hash;
+        private boolean blocked;
+        private boolean included;
+        private boolean statusPending;
+        private CompletableFuture<Long> confirmation;
+
+        public Entry(T item) {
+            this.item = item;
+        }
+    }
+}
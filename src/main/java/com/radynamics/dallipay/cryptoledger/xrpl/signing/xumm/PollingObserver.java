@@ -1,5 +1,8 @@
 package com.radynamics.dallipay.cryptoledger.xrpl.signing.xumm;
 
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.ScheduledTask;
+import com.radynamics.dallipay.concurrent.Workload;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
@@ -7,48 +10,95 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Comparator;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Observes all open payloads within a single loop. Every payload is polled with an increasing interval and at most
+ * maxPollsPerTick payloads are polled at a time, thereby threads and requests don't grow with the number of payloads.
+ */
 public class PollingObserver<T> {
     private final static Logger log = LogManager.getLogger(PollingObserver.class);
 
     private final ArrayList<Observed> elements = new ArrayList<>();
+    private final ArrayList<CompletableFuture<Void>> idle = new ArrayList<>();
     private final XummApi api;
     private Duration timeout = Duration.ofMinutes(10);
+    private Duration initialPollInterval = Duration.ofSeconds(1);
+    private Duration maxPollInterval = Duration.ofMillis(Integer.getInteger("dallipay.xumm.maxPollIntervalMillis", 5000));
+    private final int maxPollsPerTick = Integer.getInteger("dallipay.xumm.maxPollsPerTick", 10);
+    private final int pollParallelism = Integer.getInteger("dallipay.xumm.pollParallelism", 4);
     private final ArrayList<StateListener<T>> stateListener = new ArrayList<>();
+    private ScheduledTask loop;
 
     public PollingObserver(XummApi api) {
         this.api = api;
     }
 
     public void observe(T payload, UUID payloadId) {
-        var o = new Observed(payload, payloadId);
-        elements.add(o);
-
-        startPolling(o);
-        startTimeoutTask(o);
-    }
-
-    private void startPolling(Observed o) {
-        var task = new TimerTask() {
-            public void run() {
-                try {
-                    var response = api.status(o.payloadId);
-                    if (response == null) {
-                        return;
-                    }
-                    processResponse(o, response);
-                } catch (IOException | InterruptedException | XummException e) {
-                    stopObserving(o);
-                    raiseException(o.payload, e);
+        var now = System.currentTimeMillis();
+        // Start polling after initial delay because we assume user needs at least that time to sign a transaction on smartphone.
+        var o = new Observed(payload, payloadId, now + initialPollInterval.toMillis(), now + timeout.toMillis());
+        synchronized (this) {
+            elements.add(o);
+            if (loop == null) {
+                var tick = Duration.ofMillis(Math.max(10, initialPollInterval.toMillis() / 2));
+                loop = ExecutorProvider.scheduleWithFixedDelay(Workload.Background, this::tick, tick, tick);
+            }
+        }
+    }
+
+    private void tick() {
+        var now = System.currentTimeMillis();
+        var expired = new ArrayList<Observed>();
+        var due = new ArrayList<Observed>();
+        synchronized (this) {
+            if (elements.isEmpty()) {
+                stopLoop();
+                return;
+            }
+            for (var o : elements) {
+                if (now >= o.deadline) {
+                    expired.add(o);
+                } else if (now >= o.nextPoll) {
+                    due.add(o);
                 }
             }
-        };
+        }
 
-        // Start polling after initial delay because we assume user needs at least that time to sign a transaction on smartphone.
-        o.pollingTimer.scheduleAtFixedRate(task, 1000, 1000);
+        for (var o : expired) {
+            if (stopObserving(o)) {
+                raise(() -> raiseExpired(o.payload));
+            }
+        }
+
+        // Longest waiting first, remaining ones are polled within the next ticks.
+        due.sort(Comparator.comparingLong(o -> o.nextPoll));
+        var polls = new ArrayList<Runnable>();
+        for (var i = 0; i < Math.min(maxPollsPerTick, due.size()); i++) {
+            var o = due.get(i);
+            polls.add(() -> poll(o));
+        }
+        if (!polls.isEmpty()) {
+            ExecutorProvider.invokeAll(Workload.Background, polls, pollParallelism);
+        }
+    }
+
+    private void poll(Observed o) {
+        try {
+            var response = api.status(o.payloadId);
+            o.interval = Math.min(maxPollInterval.toMillis(), Math.round(o.interval * 1.5));
+            o.nextPoll = System.currentTimeMillis() + o.interval;
+            if (response == null) {
+                return;
+            }
+            processResponse(o, response);
+        } catch (IOException | InterruptedException | XummException e) {
+            if (stopObserving(o)) {
+                raise(() -> raiseException(o.payload, e));
+            }
+        }
     }
 
     private void processResponse(Observed o, JSONObject json) {
@@ -61,14 +111,16 @@ public class PollingObserver<T> {
         var expired = meta.getBoolean("expired");
 
         if (resolved && !signed) {
-            raiseRejected(o.payload);
-            stopObserving(o);
+            if (stopObserving(o)) {
+                raise(() -> raiseRejected(o.payload));
+            }
             return;
         }
 
         if (expired) {
-            raiseExpired(o.payload);
-            stopObserving(o);
+            if (stopObserving(o)) {
+                raise(() -> raiseExpired(o.payload));
+            }
             return;
         }
 
@@ -82,48 +134,80 @@ public class PollingObserver<T> {
         var success = dispatchedResult.equals("tesSUCCESS");
 
         if (!success) {
-            raiseRejected(o.payload);
-            stopObserving(o);
+            if (stopObserving(o)) {
+                raise(() -> raiseRejected(o.payload));
+            }
             return;
         }
 
         var txid = response.getString("txid");
 
         if (resolved && signed) {
-            raiseAccepted(o.payload, txid);
-            stopObserving(o);
+            if (stopObserving(o)) {
+                raise(() -> raiseAccepted(o.payload, txid));
+            }
             return;
         }
     }
 
-    private void startTimeoutTask(Observed o) {
-        var timeoutTask = new TimerTask() {
-            public void run() {
-                if (!elements.contains(o)) {
-                    return;
-                }
+    private void raise(Runnable event) {
+        // Listeners may block (eg. verifying a transaction onchain). Raised on their own pool, as blocking polling
+        // threads would delay polling and timeouts of all other payloads.
+        ExecutorProvider.execute(Workload.Listener, event);
+    }
 
-                stopObserving(o);
-                raiseExpired(o.payload);
+    /**
+     * Returns false if o was not observed anymore.
+     */
+    private boolean stopObserving(Observed o) {
+        ArrayList<CompletableFuture<Void>> completed = null;
+        synchronized (this) {
+            if (!elements.remove(o)) {
+                return false;
+            }
+            if (elements.isEmpty()) {
+                completed = new ArrayList<>(idle);
+                idle.clear();
             }
-        };
-        o.timeoutTimer.schedule(timeoutTask, timeout.toMillis());
+        }
+        log.info("Stop observing " + o.payloadId);
+        if (completed != null) {
+            completed.forEach(f -> f.complete(null));
+        }
+        return true;
     }
 
-    private void stopObserving(Observed o) {
-        log.info("Stop observing " + o.payloadId);
-        o.pollingTimer.cancel();
-        o.timeoutTimer.cancel();
-        elements.remove(o);
+    private void stopLoop() {
+        if (loop != null) {
+            loop.cancel();
+            loop = null;
+        }
     }
 
-    public int countListening() {
+    public synchronized int countListening() {
         return elements.size();
     }
 
+    /**
+     * Returns a future completed once no payload is observed anymore.
+     */
+    public synchronized CompletableFuture<Void> whenIdle() {
+        if (elements.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var f = new CompletableFuture<Void>();
+        idle.add(f);
+        return f;
+    }
+
     public void shutdown() {
-        for (var i = elements.size() - 1; i >= 0; i--) {
-            stopObserving(elements.get(i));
+        ArrayList<Observed> all;
+        synchronized (this) {
+            all = new ArrayList<>(elements);
+            stopLoop();
+        }
+        for (var o : all) {
+            stopObserving(o);
         }
     }
 
@@ -163,15 +247,29 @@ public class PollingObserver<T> {
         this.timeout = timeout;
     }
 
+    /**
+     * Every payload is polled first after initial, the interval grows by half on every poll up to max.
+     */
+    public void setPollInterval(Duration initial, Duration max) {
+        if (initial == null) throw new IllegalArgumentException("Parameter 'initial' cannot be null");
+        if (max == null) throw new IllegalArgumentException("Parameter 'max' cannot be null");
+        this.initialPollInterval = initial;
+        this.maxPollInterval = max;
+    }
+
     private class Observed {
-        public T payload;
-        public UUID payloadId;
-        public Timer timeoutTimer = new Timer();
-        public Timer pollingTimer = new Timer();
+        public final T payload;
+        public final UUID payloadId;
+        public final long deadline;
+        public volatile long nextPoll;
+        public volatile long interval;
 
-        public Observed(T payload, UUID payloadId) {
+        public Observed(T payload, UUID payloadId, long nextPoll, long deadline) {
             this.payload = payload;
             this.payloadId = payloadId;
+            this.nextPoll = nextPoll;
+            this.deadline = deadline;
+            this.interval = initialPollInterval.toMillis();
         }
     }
 }
@@ -145,16 +145,8 @@ public class XummSigner implements TransactionSubmitter, StateListener<Transacti
 
         auth
                 .thenRunAsync(() -> submitAndObserve(t, json, pathfinding))
-                .thenRun(() -> {
-                    try {
-                        // Wait before stop observing
-                        while (observer.countListening() > 0) {
-                            Thread.sleep(200);
-                        }
-                    } catch (InterruptedException e) {
-                        log.error(e.getMessage(), e);
-                    }
-                })
+                // Wait before stop observing
+                .thenCompose(unused -> observer.whenIdle())
                 .whenComplete((result, throwable) -> observer.shutdown())
                 .exceptionally((e) -> {
                     log.error(e.getMessage(), e);
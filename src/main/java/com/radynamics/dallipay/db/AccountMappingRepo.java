@@ -58,7 +58,7 @@ public class AccountMappingRepo implements AutoCloseable {
 
         var includePartyId = partyId.length() > 0;
         var filterPartyId = includePartyId ? "AND partyId = ?" : "";
-        var ps = conn.prepareStatement(String.format("SELECT * FROM accountmapping WHERE ledgerId = ? AND bankAccount = ? %s LIMIT 1", filterPartyId));
+        var ps = Database.prepareCached(conn, String.format("SELECT * FROM accountmapping WHERE ledgerId = ? AND bankAccount = ? %s LIMIT 1", filterPartyId));
         ps.setInt(1, ledger.getId().numericId());
         ps.setString(2, account.getUnformatted());
         if (includePartyId) {
@@ -76,7 +76,7 @@ public class AccountMappingRepo implements AutoCloseable {
 
         var includePartyId = partyId.length() > 0;
         var filterPartyId = includePartyId ? "AND partyId = ?" : "";
-        var ps = conn.prepareStatement(String.format("SELECT * FROM accountmapping WHERE ledgerId = ? AND walletPublicKey = ? %s LIMIT 1", filterPartyId));
+        var ps = Database.prepareCached(conn, String.format("SELECT * FROM accountmapping WHERE ledgerId = ? AND walletPublicKey = ? %s LIMIT 1", filterPartyId));
         ps.setInt(1, ledger.getId().numericId());
         ps.setString(2, wallet.getPublicKey());
         if (includePartyId) {
@@ -262,7 +262,7 @@ public class ConfigRepo implements AutoCloseable {
     }
 
     private Optional<String> single(String key) throws Exception {
-        var ps = conn.prepareStatement("SELECT value FROM config WHERE key = ?");
+        var ps = Database.prepareCached(conn, "SELECT value FROM config WHERE key = ?");
         ps.setString(1, key);
 
         return Database.singleString(ps.executeQuery(), "value");
@@ -271,7 +271,7 @@ public class ConfigRepo implements AutoCloseable {
     private void saveOrUpdate(String key, String value) throws Exception {
         String sql = "INSERT OR REPLACE INTO config (id, key, value) \n"
                 + "	    VALUES ((SELECT id FROM config WHERE key = ?), ?, ?);";
-        var ps = conn.prepareStatement(sql);
+        var ps = Database.prepareCached(conn, sql);
         ps.setString(1, key);
         ps.setString(2, key);
         ps.setString(3, value);
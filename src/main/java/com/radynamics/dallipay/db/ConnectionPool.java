@@ -0,0 +1,299 @@
+package com.radynamics.dallipay.db;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps opened connections of one database file for reuse, as opening an encrypted database derives the key again.
+ * Connections handed out are returned to the pool on close() instead of being closed, statements created through
+ * them are closed at the same time. Checkout never blocks, if no connection is idle a new one is opened.
+ */
+class ConnectionPool {
+    final static Logger log = LogManager.getLogger(ConnectionPool.class);
+
+    private static final int STATEMENT_CACHE_SIZE = 50;
+
+    private final File dbFile;
+    private final String password;
+    private final int maxIdle;
+    private final ConnectionFactory factory;
+    private final ArrayDeque<Entry> idle = new ArrayDeque<>();
+    private boolean initialized;
+    private boolean closed;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder openNanos = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutNanos = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    interface ConnectionFactory {
+        Connection open() throws Exception;
+    }
+
+    interface Initializer {
+        void run(Connection conn) throws Exception;
+    }
+
+    ConnectionPool(File dbFile, String password, int maxIdle, ConnectionFactory factory) {
+        if (factory == null) throw new IllegalArgumentException("Parameter 'factory' cannot be null");
+        if (maxIdle < 0) throw new IllegalArgumentException("Parameter 'maxIdle' cannot be negative");
+        this.dbFile = dbFile;
+        this.password = password;
+        this.maxIdle = maxIdle;
+        this.factory = factory;
+    }
+
+    boolean matches(File dbFile, String password) {
+        return Objects.equals(this.dbFile, dbFile) && Objects.equals(this.password, password);
+    }
+
+    /**
+     * Returns an idle or newly opened connection, null if the database can't be opened with the password. The
+     * initializer (eg. schema migration) only runs for the very first connection of this pool.
+     */
+    Connection checkout(Initializer initializer) throws Exception {
+        var start = System.nanoTime();
+        try {
+            Entry e;
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                e = idle.poll();
+            }
+            if (e == null) {
+                e = open(initializer);
+            }
+            return e == null ? null : e.createHandle();
+        } finally {
+            checkouts.increment();
+            checkoutNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private Entry open(Initializer initializer) throws Exception {
+        var start = System.nanoTime();
+        var conn = factory.open();
+        if (conn == null) {
+            return null;
+        }
+        opened.increment();
+        openNanos.add(System.nanoTime() - start);
+
+        synchronized (this) {
+            try {
+                if (!initialized) {
+                    initializer.run(conn);
+                    initialized = true;
+                }
+            } catch (Exception e) {
+                conn.rollback();
+                conn.close();
+                throw e;
+            }
+        }
+        return new Entry(conn);
+    }
+
+    private void release(Entry e) {
+        try {
+            // Uncommitted changes are discarded, same as closing a connection.
+            e.conn.rollback();
+        } catch (SQLException ex) {
+            log.warn(ex.getMessage(), ex);
+            e.closePhysically();
+            return;
+        }
+
+        synchronized (this) {
+            if (!closed && idle.size() < maxIdle) {
+                idle.push(e);
+                return;
+            }
+        }
+        e.closePhysically();
+    }
+
+    /**
+     * Closes all idle connections. Connections in use are closed when they're returned.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            for (var e : idle) {
+                e.closePhysically();
+            }
+            idle.clear();
+        }
+    }
+
+    synchronized ConnectionPoolStats getStats() {
+        return new ConnectionPoolStats(idle.size(), opened.sum(), average(openNanos, opened), checkouts.sum(), average(checkoutNanos, checkouts), queries.sum(), average(queryNanos, queries));
+    }
+
+    private static Duration average(LongAdder nanos, LongAdder count) {
+        var c = count.sum();
+        return c == 0 ? Duration.ZERO : Duration.ofNanos(nanos.sum() / c);
+    }
+
+    /**
+     * Returns a prepared statement kept open for reuse by all users of the given pooled connection.
+     */
+    static PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        if (!Proxy.isProxyClass(conn.getClass()) || !(Proxy.getInvocationHandler(conn) instanceof Handle)) {
+            return conn.prepareStatement(sql);
+        }
+        var handle = (Handle) Proxy.getInvocationHandler(conn);
+        return handle.prepareCached(sql);
+    }
+
+    private class Entry {
+        private final Connection conn;
+        private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) {
+                    return false;
+                }
+                try {
+                    eldest.getValue().close();
+                } catch (SQLException e) {
+                    log.warn(e.getMessage(), e);
+                }
+                return true;
+            }
+        };
+
+        public Entry(Connection conn) {
+            this.conn = conn;
+        }
+
+        public Connection createHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, new Handle(this));
+        }
+
+        private void closePhysically() {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                log.warn(e.getMessage(), e);
+            }
+        }
+    }
+
+    private class Handle implements InvocationHandler {
+        private final Entry entry;
+        private final ArrayList<Statement> statements = new ArrayList<>();
+        private boolean released;
+
+        public Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        closeStatements();
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || entry.conn.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "pooled " + entry.conn;
+            }
+
+            if (released) {
+                throw new SQLException("Connection already returned to pool");
+            }
+            var result = invokeTarget(entry.conn, method, args);
+            if (result instanceof Statement) {
+                // The physical connection stays open, therefore statements not closed by their user are closed on release.
+                statements.add((Statement) result);
+            }
+            if (result instanceof PreparedStatement) {
+                return timed((PreparedStatement) result, false);
+            }
+            return result;
+        }
+
+        private void closeStatements() {
+            for (var st : statements) {
+                try {
+                    st.close();
+                } catch (SQLException e) {
+                    log.warn(e.getMessage(), e);
+                }
+            }
+            statements.clear();
+        }
+
+        private PreparedStatement prepareCached(String sql) throws SQLException {
+            if (released) {
+                throw new SQLException("Connection already returned to pool");
+            }
+            var ps = entry.statements.get(sql);
+            if (ps == null) {
+                ps = timed(entry.conn.prepareStatement(sql), true);
+                entry.statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+    }
+
+    private PreparedStatement timed(PreparedStatement ps, boolean cached) {
+        InvocationHandler h = (proxy, method, args) -> {
+            // Cached statements stay open until their connection is closed.
+            if (cached && method.getName().equals("close")) {
+                return null;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invokeTarget(ps, method, args);
+            }
+            var start = System.nanoTime();
+            try {
+                return invokeTarget(ps, method, args);
+            } finally {
+                queries.increment();
+                queryNanos.add(System.nanoTime() - start);
+            }
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class}, h);
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
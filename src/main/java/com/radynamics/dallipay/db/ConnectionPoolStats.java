@@ -0,0 +1,63 @@
+package com.radynamics.dallipay.db;
+
+import java.time.Duration;
+
+public class ConnectionPoolStats {
+    private final int idleCount;
+    private final long openedCount;
+    private final Duration averageOpen;
+    private final long checkoutCount;
+    private final Duration averageCheckout;
+    private final long queryCount;
+    private final Duration averageQuery;
+
+    public ConnectionPoolStats(int idleCount, long openedCount, Duration averageOpen, long checkoutCount, Duration averageCheckout, long queryCount, Duration averageQuery) {
+        this.idleCount = idleCount;
+        this.openedCount = openedCount;
+        this.averageOpen = averageOpen;
+        this.checkoutCount = checkoutCount;
+        this.averageCheckout = averageCheckout;
+        this.queryCount = queryCount;
+        this.averageQuery = averageQuery;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    public long getOpenedCount() {
+        return openedCount;
+    }
+
+    /**
+     * Average duration to physically open a connection, including key derivation.
+     */
+    public Duration getAverageOpen() {
+        return averageOpen;
+    }
+
+    public long getCheckoutCount() {
+        return checkoutCount;
+    }
+
+    /**
+     * Average duration of Database.connect(), including opening a new connection if none was idle.
+     */
+    public Duration getAverageCheckout() {
+        return averageCheckout;
+    }
+
+    public long getQueryCount() {
+        return queryCount;
+    }
+
+    public Duration getAverageQuery() {
+        return averageQuery;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("db: idle %s, opened %s (avg %sms), checkouts %s (avg %sms), queries %s (avg %.2fms)",
+                idleCount, openedCount, averageOpen.toMillis(), checkoutCount, averageCheckout.toMillis(), queryCount, averageQuery.toNanos() / 1e6);
+    }
+}
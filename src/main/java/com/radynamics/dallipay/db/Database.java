@@ -12,12 +12,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Optional;
 
 public class Database {
     final static Logger log = LogManager.getLogger(Database.class);
     public static File dbFile = defaultFile();
     public static String password = null;
+    private static ConnectionPool pool;
 
     public static File defaultFile() {
         var home = SystemUtils.IS_OS_WINDOWS ? System.getenv("APPDATA") : System.getProperty("user.home");
@@ -29,34 +31,70 @@ public class Database {
             createDefaultDirectory();
         }
 
-        Connection conn = null;
         try {
-            conn = connect(password);
+            var conn = getPool().checkout(Database::initialize);
             if (conn == null) {
                 log.error(String.format("Could not open db %s", dbFile));
-                return null;
             }
-            conn.setAutoCommit(false);
-            createTables(conn);
-            var m = new DbMigration(conn);
-            m.migrateToLatest();
-
             return conn;
         } catch (Exception e) {
             log.error(e.getMessage(), e);
-            try {
+            return null;
+        }
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        // A changed file or password (eg. after login) requires new connections.
+        if (pool == null || !pool.matches(dbFile, password)) {
+            if (pool != null) {
+                pool.close();
+            }
+            var file = dbFile;
+            var pwd = password;
+            pool = new ConnectionPool(file, pwd, Integer.getInteger("dallipay.db.maxIdleConnections", 4), () -> {
+                var conn = connect(file, pwd);
                 if (conn != null) {
-                    conn.rollback();
-                    conn.close();
+                    conn.setAutoCommit(false);
                 }
-            } catch (SQLException e2) {
-                log.error(e2.getMessage(), e2);
-            }
-            return null;
+                return conn;
+            });
+        }
+        return pool;
+    }
+
+    static void initialize(Connection conn) throws Exception {
+        createTables(conn);
+        var m = new DbMigration(conn);
+        m.migrateToLatest();
+    }
+
+    /**
+     * Closes all idle connections. Connections are opened again on next use.
+     */
+    public static synchronized void closeConnections() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
 
+    public static synchronized ConnectionPoolStats getStats() {
+        return pool == null ? new ConnectionPoolStats(0, 0, Duration.ZERO, 0, Duration.ZERO, 0, Duration.ZERO) : pool.getStats();
+    }
+
+    /**
+     * Returns a prepared statement reused by later calls with the same sql on the same pooled connection. Callers
+     * must not close it.
+     */
+    static PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        return ConnectionPool.prepareCached(conn, sql);
+    }
+
     private static Connection connect(String password) throws SQLException {
+        return connect(dbFile, password);
+    }
+
+    private static Connection connect(File dbFile, String password) throws SQLException {
         String url = String.format("jdbc:sqlite:file:%s", dbFile);
         try {
             return SQLiteMCSqlCipherConfig.getV4Defaults().withKey(password).createConnection(url);
@@ -80,6 +118,8 @@ public class Database {
         var conn = Database.connect();
         conn.createStatement().execute(String.format("PRAGMA rekey='%s'", newPassword));
         conn.close();
+        // Pooled connections were opened with the previous key.
+        closeConnections();
         password = newPassword;
     }
 
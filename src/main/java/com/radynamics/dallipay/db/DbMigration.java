@@ -20,6 +20,9 @@ public class DbMigration {
         ensureVersion(2, this::migrateTo2);
         ensureVersion(3, this::migrateTo3);
         ensureVersion(4, this::migrateTo4);
+        ensureVersion(5, this::migrateTo5);
+        ensureVersion(6, this::migrateTo6);
+        ensureVersion(7, this::migrateTo7);
 
         conn.commit();
     }
@@ -74,6 +77,63 @@ public class DbMigration {
         return null;
     }
 
+    private Void migrateTo5() throws SQLException {
+        var ps = conn.prepareStatement("CREATE TABLE IF NOT EXISTS ledgerattime (\n"
+                + "	   networkKey text NOT NULL,\n"
+                + "	   pointInTime integer NOT NULL,\n"
+                + "	   ledgerIndex integer NOT NULL,\n"
+                + "	   PRIMARY KEY (networkKey, pointInTime)\n"
+                + ");");
+        ps.execute();
+        return null;
+    }
+
+    private Void migrateTo6() throws SQLException {
+        var ps = conn.prepareStatement("CREATE TABLE IF NOT EXISTS receivedpayment (\n"
+                + "	   networkKey text NOT NULL,\n"
+                + "	   walletPublicKey text NOT NULL,\n"
+                + "	   id text NOT NULL,\n"
+                + "	   blockNo integer NOT NULL,\n"
+                + "	   booked integer NOT NULL,\n"
+                + "	   amount real NOT NULL,\n"
+                + "	   ccy text NOT NULL,\n"
+                + "	   ccyIssuer text,\n"
+                + "	   sender text,\n"
+                + "	   receiver text,\n"
+                + "	   destinationTag text,\n"
+                + "	   invoiceId text,\n"
+                + "	   messages text NOT NULL,\n"
+                + "	   refs text NOT NULL,\n"
+                + "	   PRIMARY KEY (networkKey, walletPublicKey, id)\n"
+                + ");");
+        ps.execute();
+        ps = conn.prepareStatement("CREATE INDEX IF NOT EXISTS receivedpayment_block ON receivedpayment (networkKey, walletPublicKey, blockNo)");
+        ps.execute();
+        ps = conn.prepareStatement("CREATE TABLE IF NOT EXISTS receivedpaymentscan (\n"
+                + "	   networkKey text NOT NULL,\n"
+                + "	   walletPublicKey text NOT NULL,\n"
+                + "	   fromBlock integer NOT NULL,\n"
+                + "	   toBlock integer NOT NULL,\n"
+                + "	   PRIMARY KEY (networkKey, walletPublicKey)\n"
+                + ");");
+        ps.execute();
+        return null;
+    }
+
+    private Void migrateTo7() throws SQLException {
+        var ps = conn.prepareStatement("CREATE TABLE IF NOT EXISTS exchangerate (\n"
+                + "	   providerKey text NOT NULL,\n"
+                + "	   pair text NOT NULL,\n"
+                + "	   pointInTime integer NOT NULL,\n"
+                + "	   block text,\n"
+                + "	   rate real NOT NULL,\n"
+                + "	   rateAt integer NOT NULL,\n"
+                + "	   PRIMARY KEY (providerKey, pair, pointInTime)\n"
+                + ");");
+        ps.execute();
+        return null;
+    }
+
     private void insertConfig(String key, String value) throws SQLException {
         var ps = conn.prepareStatement("INSERT INTO config (key, value) VALUES (?, ?)");
         ps.setString(1, key);
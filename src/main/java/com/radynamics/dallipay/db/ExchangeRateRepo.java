@@ -0,0 +1,60 @@
+package com.radynamics.dallipay.db;
+
+import com.radynamics.dallipay.exchange.ExchangeRateStore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+public class ExchangeRateRepo implements AutoCloseable {
+    private final Connection conn;
+
+    ExchangeRateRepo(Connection conn) {
+        if (conn == null) throw new IllegalArgumentException("Parameter 'conn' cannot be null");
+        this.conn = conn;
+    }
+
+    public ExchangeRateRepo() {
+        this(Database.connect());
+    }
+
+    @Override
+    public void close() throws Exception {
+        conn.close();
+    }
+
+    public ExchangeRateStore.Entry[] list(String providerKey, String pair) throws SQLException {
+        try (var ps = conn.prepareStatement("SELECT pointInTime, block, rate, rateAt FROM exchangerate WHERE providerKey = ? AND pair = ? ORDER BY pointInTime")) {
+            ps.setString(1, providerKey);
+            ps.setString(2, pair);
+
+            try (var rs = ps.executeQuery()) {
+                var list = new ArrayList<ExchangeRateStore.Entry>();
+                while (rs.next()) {
+                    list.add(new ExchangeRateStore.Entry(pair, rs.getLong("pointInTime"), rs.getString("block"), rs.getDouble("rate"), rs.getLong("rateAt")));
+                }
+                return list.toArray(new ExchangeRateStore.Entry[0]);
+            }
+        }
+    }
+
+    public void saveAll(String providerKey, ExchangeRateStore.Entry[] entries) throws SQLException {
+        try (var ps = conn.prepareStatement("INSERT INTO exchangerate (providerKey, pair, pointInTime, block, rate, rateAt) VALUES (?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (providerKey, pair, pointInTime) DO UPDATE SET block = excluded.block, rate = excluded.rate, rateAt = excluded.rateAt")) {
+            for (var e : entries) {
+                ps.setString(1, providerKey);
+                ps.setString(2, e.getPair());
+                ps.setLong(3, e.getPointInTime());
+                ps.setString(4, e.getBlock());
+                ps.setDouble(5, e.getRate());
+                ps.setLong(6, e.getRateAt());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    public void commit() throws SQLException {
+        conn.commit();
+    }
+}
@@ -0,0 +1,54 @@
+package com.radynamics.dallipay.db;
+
+import com.radynamics.dallipay.cryptoledger.xrpl.api.LedgerAtTimeIndex;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+public class LedgerAtTimeRepo implements AutoCloseable {
+    private final Connection conn;
+
+    private LedgerAtTimeRepo(Connection conn) {
+        if (conn == null) throw new IllegalArgumentException("Parameter 'conn' cannot be null");
+        this.conn = conn;
+    }
+
+    public LedgerAtTimeRepo() {
+        this(Database.connect());
+    }
+
+    @Override
+    public void close() throws Exception {
+        conn.close();
+    }
+
+    public LedgerAtTimeIndex.Sample[] list(String networkKey) throws SQLException {
+        var ps = conn.prepareStatement("SELECT pointInTime, ledgerIndex FROM ledgerattime WHERE networkKey = ? ORDER BY pointInTime");
+        ps.setString(1, networkKey);
+
+        var rs = ps.executeQuery();
+        var list = new ArrayList<LedgerAtTimeIndex.Sample>();
+        while (rs.next()) {
+            list.add(new LedgerAtTimeIndex.Sample(rs.getLong("pointInTime"), rs.getLong("ledgerIndex")));
+        }
+        return list.toArray(new LedgerAtTimeIndex.Sample[0]);
+    }
+
+    public void saveAll(String networkKey, LedgerAtTimeIndex.Sample[] samples) throws SQLException {
+        // Multiple ledgers can close within the same second, the latest one is the ledger at that point in time.
+        var ps = conn.prepareStatement("INSERT INTO ledgerattime (networkKey, pointInTime, ledgerIndex) VALUES (?, ?, ?) "
+                + "ON CONFLICT (networkKey, pointInTime) DO UPDATE SET ledgerIndex = MAX(ledgerIndex, excluded.ledgerIndex)");
+        for (var s : samples) {
+            ps.setString(1, networkKey);
+            ps.setLong(2, s.getEpochMillis());
+            ps.setLong(3, s.getLedgerIndex());
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+
+    public void commit() throws SQLException {
+        conn.commit();
+    }
+}
@@ -0,0 +1,148 @@
+package com.radynamics.dallipay.db;
+
+import com.radynamics.dallipay.cryptoledger.Block;
+import com.radynamics.dallipay.cryptoledger.Ledger;
+import com.radynamics.dallipay.cryptoledger.Transaction;
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.iso20022.creditorreference.ReferenceType;
+import com.radynamics.dallipay.iso20022.creditorreference.StructuredReferenceFactory;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class ReceivedPaymentRepo implements AutoCloseable {
+    private final Connection conn;
+    private static final ZoneId utc = ZoneId.of("UTC");
+
+    private ReceivedPaymentRepo(Connection conn) {
+        if (conn == null) throw new IllegalArgumentException("Parameter 'conn' cannot be null");
+        this.conn = conn;
+    }
+
+    public ReceivedPaymentRepo() {
+        this(Database.connect());
+    }
+
+    @Override
+    public void close() throws Exception {
+        conn.close();
+    }
+
+    public Optional<ScannedRange> getScannedRange(String networkKey, Wallet wallet) throws SQLException {
+        var ps = conn.prepareStatement("SELECT fromBlock, toBlock FROM receivedpaymentscan WHERE networkKey = ? AND walletPublicKey = ?");
+        ps.setString(1, networkKey);
+        ps.setString(2, wallet.getPublicKey());
+
+        var rs = ps.executeQuery();
+        return rs.next() ? Optional.of(new ScannedRange(rs.getLong("fromBlock"), rs.getLong("toBlock"))) : Optional.empty();
+    }
+
+    public void saveScannedRange(String networkKey, Wallet wallet, ScannedRange range) throws SQLException {
+        var ps = conn.prepareStatement("INSERT OR REPLACE INTO receivedpaymentscan (networkKey, walletPublicKey, fromBlock, toBlock) VALUES (?, ?, ?, ?)");
+        ps.setString(1, networkKey);
+        ps.setString(2, wallet.getPublicKey());
+        ps.setLong(3, range.getFromBlock());
+        ps.setLong(4, range.getToBlock());
+        Database.executeUpdate(ps, 1);
+    }
+
+    public void saveAll(String networkKey, Wallet wallet, Transaction[] transactions, Function<Block, Long> toBlockNo) throws SQLException {
+        var ps = conn.prepareStatement("INSERT OR REPLACE INTO receivedpayment (networkKey, walletPublicKey, id, blockNo, booked, amount, ccy, ccyIssuer, sender, receiver, destinationTag, invoiceId, messages, refs) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        for (var t : transactions) {
+            var ccy = t.getAmount().getCcy();
+            ps.setString(1, networkKey);
+            ps.setString(2, wallet.getPublicKey());
+            ps.setString(3, t.getId());
+            ps.setLong(4, toBlockNo.apply(t.getBlock()));
+            ps.setLong(5, t.getBooked().toInstant().toEpochMilli());
+            ps.setDouble(6, t.getAmount().getNumber().doubleValue());
+            ps.setString(7, ccy.getCode());
+            setNullableString(ps, 8, ccy.getIssuer() == null ? null : ccy.getIssuer().getPublicKey());
+            setNullableString(ps, 9, t.getSenderWallet() == null ? null : t.getSenderWallet().getPublicKey());
+            setNullableString(ps, 10, t.getReceiverWallet() == null ? null : t.getReceiverWallet().getPublicKey());
+            setNullableString(ps, 11, t.getDestinationTag());
+            setNullableString(ps, 12, t.getInvoiceId());
+            ps.setString(13, new JSONArray(t.getMessages()).toString());
+            var refs = new JSONArray();
+            for (var r : t.getStructuredReferences()) {
+                var json = new JSONObject();
+                json.put("type", r.getType().name());
+                json.put("value", r.getUnformatted());
+                refs.put(json);
+            }
+            ps.setString(14, refs.toString());
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    public Transaction[] list(Ledger ledger, String networkKey, Wallet wallet, long fromBlock, long toBlock, Function<Long, Block> toBlockInstance) throws SQLException {
+        var ps = conn.prepareStatement("SELECT * FROM receivedpayment WHERE networkKey = ? AND walletPublicKey = ? AND blockNo BETWEEN ? AND ? ORDER BY blockNo");
+        ps.setString(1, networkKey);
+        ps.setString(2, wallet.getPublicKey());
+        ps.setLong(3, fromBlock);
+        ps.setLong(4, toBlock);
+
+        var rs = ps.executeQuery();
+        var list = new ArrayList<Transaction>();
+        while (rs.next()) {
+            list.add(read(ledger, rs, toBlockInstance));
+        }
+        return list.toArray(new Transaction[0]);
+    }
+
+    private Transaction read(Ledger ledger, ResultSet rs, Function<Long, Block> toBlockInstance) throws SQLException {
+        var issuer = rs.getString("ccyIssuer");
+        var ccy = issuer == null ? new Currency(rs.getString("ccy")) : new Currency(rs.getString("ccy"), ledger.createWallet(issuer, ""));
+        var t = new com.radynamics.dallipay.cryptoledger.generic.Transaction(ledger, Money.of(rs.getDouble("amount"), ccy));
+        t.setId(rs.getString("id"));
+        t.setBlock(toBlockInstance.apply(rs.getLong("blockNo")));
+        t.setBooked(ZonedDateTime.ofInstant(Instant.ofEpochMilli(rs.getLong("booked")), utc));
+        var sender = rs.getString("sender");
+        if (sender != null) {
+            t.setSender(ledger.createWallet(sender, ""));
+        }
+        var receiver = rs.getString("receiver");
+        if (receiver != null) {
+            t.setReceiver(ledger.createWallet(receiver, ""));
+        }
+        t.setDestinationTag(rs.getString("destinationTag"));
+        t.setInvoiceId(rs.getString("invoiceId"));
+        var messages = new JSONArray(rs.getString("messages"));
+        for (var i = 0; i < messages.length(); i++) {
+            t.addMessage(messages.getString(i));
+        }
+        var refs = new JSONArray(rs.getString("refs"));
+        for (var i = 0; i < refs.length(); i++) {
+            var r = refs.getJSONObject(i);
+            t.addStructuredReference(StructuredReferenceFactory.create(ReferenceType.valueOf(r.getString("type")), r.getString("value")));
+        }
+        return t;
+    }
+
+    public void commit() throws SQLException {
+        conn.commit();
+    }
+}
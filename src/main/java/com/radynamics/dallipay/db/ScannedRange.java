@@ -0,0 +1,67 @@
+package com.radynamics.dallipay.db;
+
+import java.util.ArrayList;
+
+/**
+ * Contiguous range of blocks (both inclusive) whose transactions are completely stored locally.
+ */
+public class ScannedRange {
+    private final long fromBlock;
+    private final long toBlock;
+
+    public ScannedRange(long fromBlock, long toBlock) {
+        if (fromBlock < 0) throw new IllegalArgumentException("Parameter 'fromBlock' cannot be negative");
+        if (toBlock < fromBlock) throw new IllegalArgumentException("Parameter 'toBlock' cannot be less than 'fromBlock'");
+        this.fromBlock = fromBlock;
+        this.toBlock = toBlock;
+    }
+
+    public long getFromBlock() {
+        return fromBlock;
+    }
+
+    public long getToBlock() {
+        return toBlock;
+    }
+
+    /**
+     * Returns true if the given range overlaps or directly adjoins this range.
+     */
+    public boolean touches(long from, long to) {
+        return from <= toBlock + 1 && to >= fromBlock - 1;
+    }
+
+    /**
+     * Returns the parts of the given range not covered by this range.
+     */
+    public ScannedRange[] missing(long from, long to) {
+        var list = new ArrayList<ScannedRange>();
+        if (!touches(from, to)) {
+            list.add(new ScannedRange(from, to));
+            return list.toArray(new ScannedRange[0]);
+        }
+        if (from < fromBlock) {
+            list.add(new ScannedRange(from, fromBlock - 1));
+        }
+        if (to > toBlock) {
+            list.add(new ScannedRange(toBlock + 1, to));
+        }
+        return list.toArray(new ScannedRange[0]);
+    }
+
+    /**
+     * Returns the range covered after the given range was scanned too. Disjoint ranges can't be merged, in that case
+     * only the given range is known to be complete.
+     */
+    public ScannedRange extend(long from, long to) {
+        if (!touches(from, to)) {
+            return new ScannedRange(from, to);
+        }
+        return new ScannedRange(Math.min(fromBlock, from), Math.max(toBlock, to));
+    }
+
+    @Override
+    public String toString() {
+        return "%s - %s".formatted(fromBlock, toBlock);
+    }
+}
@@ -20,6 +20,8 @@ public class Bitrue implements ExchangeRateProvider {
     private final static Logger log = LogManager.getLogger(Bitrue.class);
     private final HashMap<String, CurrencyPair> currencyPairs = new HashMap<>();
     private final ArrayList<ExchangeRate> exchangeRates = new ArrayList<>();
+    // Tickers aren't requested historic points, therefore they're only kept in memory for a limited time.
+    private static final ExchangeRateStore tickers = new ExchangeRateStore();
 
     public static final String ID = "bitrue";
 
@@ -70,6 +72,11 @@ public class Bitrue implements ExchangeRateProvider {
                 log.error(String.format("Could not load rates for currencyPair %s", symbol), e);
             }
         }
+        // Tickers are recorded, so rates around points in time the app was running are known later on.
+        for (var r : exchangeRates) {
+            tickers.add(r.getPair(), r.getPointInTime(), null, r);
+        }
+        tickers.prune(ExchangeRateStore.TICKER_RETENTION);
     }
 
     private JSONObject load(String symbol) throws IOException, ExchangeException {
@@ -102,6 +109,15 @@ public class Bitrue implements ExchangeRateProvider {
 
     @Override
     public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
-        return null;
+        return tickers.findNearest(pair, pointInTime, ExchangeRateStore.TICKER_MAX_DISTANCE);
+    }
+
+    @Override
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+        var rates = new ExchangeRate[points.length];
+        for (var i = 0; i < points.length; i++) {
+            rates[i] = rateAt(pair, points[i].getPointInTime(), points[i].getBlockNetwork(), points[i].getBlock());
+        }
+        return rates;
     }
 }
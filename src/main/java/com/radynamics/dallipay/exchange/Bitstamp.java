@@ -22,6 +22,8 @@ public class Bitstamp implements ExchangeRateProvider {
     final static Logger log = LogManager.getLogger(Bitstamp.class);
     private CurrencyPair[] currencyPairs;
     private ArrayList<ExchangeRate> exchangeRates = new ArrayList<>();
+    // Tickers aren't requested historic points, therefore they're only kept in memory for a limited time.
+    private static final ExchangeRateStore tickers = new ExchangeRateStore();
 
     public static final String ID = "bitstamp";
 
@@ -78,6 +80,11 @@ public class Bitstamp implements ExchangeRateProvider {
                 log.error(String.format("Could not load rates for currencyPair %s", key), e);
             }
         }
+        // Tickers are recorded, so rates around points in time the app was running are known later on.
+        for (var r : exchangeRates) {
+            tickers.add(r.getPair(), r.getPointInTime(), null, r);
+        }
+        tickers.prune(ExchangeRateStore.TICKER_RETENTION);
     }
 
     private JSONObject load(String currencyPair) throws IOException, ExchangeException {
@@ -109,6 +116,15 @@ public class Bitstamp implements ExchangeRateProvider {
 
     @Override
     public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
-        return null;
+        return tickers.findNearest(pair, pointInTime, ExchangeRateStore.TICKER_MAX_DISTANCE);
+    }
+
+    @Override
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+        var rates = new ExchangeRate[points.length];
+        for (var i = 0; i < points.length; i++) {
+            rates[i] = rateAt(pair, points[i].getPointInTime(), points[i].getBlockNetwork(), points[i].getBlock());
+        }
+        return rates;
     }
 }
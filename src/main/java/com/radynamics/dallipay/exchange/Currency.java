@@ -68,7 +68,8 @@ public class Currency {
 
     @Override
     public int hashCode() {
-        return Objects.hash(code, issuer);
+        // Consistent with equals, which compares issuers by public key.
+        return Objects.hash(code, issuer == null ? null : issuer.getPublicKey());
     }
 
     @Override
@@ -1,9 +1,13 @@
 package com.radynamics.dallipay.exchange;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
 
 public class CurrencyConverter {
-    private final ExchangeRate[] rates;
+    private final String pivotCcy;
+    // Rates by normalized "first/second", inverse pairs included. The first rate of a pair wins.
+    private final HashMap<String, IndexEntry> index = new HashMap<>();
 
     public static final double PRECISION = 1000000000d;
 
@@ -12,7 +16,27 @@ public class CurrencyConverter {
     }
 
     public CurrencyConverter(ExchangeRate[] rates) {
-        this.rates = rates;
+        this(rates, null);
+    }
+
+    /**
+     * Creates a converter also converting pairs without a direct rate by triangulating through pivotCcy (eg.
+     * XRP/CHF via XRP/USD and USD/CHF). pivotCcy may be null.
+     */
+    public CurrencyConverter(ExchangeRate[] rates, String pivotCcy) {
+        if (rates == null) throw new IllegalArgumentException("Parameter 'rates' cannot be null");
+        this.pivotCcy = pivotCcy == null || pivotCcy.length() == 0 ? null : pivotCcy;
+
+        for (var r : rates) {
+            var first = r.getPair().getFirstCode();
+            var second = r.getPair().getSecondCode();
+            index.putIfAbsent(key(first, second), new IndexEntry(r, false));
+            index.putIfAbsent(key(second, first), new IndexEntry(r, true));
+        }
+    }
+
+    private static String key(String first, String second) {
+        return first.toUpperCase(Locale.ROOT) + "/" + second.toUpperCase(Locale.ROOT);
     }
 
     public double convert(Money amount, Currency targetCcy) {
@@ -33,32 +57,75 @@ public class CurrencyConverter {
         }
 
         // TODO: improve rounding (ex. JPY)
-        for (var r : rates) {
-            if (r.getPair().getFirstCode().equalsIgnoreCase(sourceCcy) && r.getPair().getSecondCode().equalsIgnoreCase(targetCcy)) {
-                return Math.round(amount.doubleValue() * r.getRate() * PRECISION) / PRECISION;
-            }
-            if (r.getPair().getFirstCode().equalsIgnoreCase(targetCcy) && r.getPair().getSecondCode().equalsIgnoreCase(sourceCcy)) {
-                return Math.round(amount.doubleValue() / r.getRate() * PRECISION) / PRECISION;
-            }
+        var e = index.get(key(sourceCcy, targetCcy));
+        if (e != null) {
+            return Math.round(e.apply(amount.doubleValue()) * PRECISION) / PRECISION;
+        }
+
+        var path = pivotPath(sourceCcy, targetCcy);
+        if (path != null) {
+            // Rounded once at the end to not lose precision on the intermediate amount.
+            return Math.round(path[1].apply(path[0].apply(amount.doubleValue())) * PRECISION) / PRECISION;
         }
 
         throw new RuntimeException(String.format("No exchange rate for %s/%s available.", sourceCcy, targetCcy));
     }
 
+    private IndexEntry[] pivotPath(String sourceCcy, String targetCcy) {
+        if (pivotCcy == null || pivotCcy.equalsIgnoreCase(sourceCcy) || pivotCcy.equalsIgnoreCase(targetCcy)) {
+            return null;
+        }
+        var toPivot = index.get(key(sourceCcy, pivotCcy));
+        var fromPivot = toPivot == null ? null : index.get(key(pivotCcy, targetCcy));
+        if (fromPivot == null || toPivot.rate.isUndefined() || fromPivot.rate.isUndefined()) {
+            return null;
+        }
+        return new IndexEntry[]{toPivot, fromPivot};
+    }
+
     public boolean has(CurrencyPair pair) {
         return get(pair) != null;
     }
 
+    /**
+     * Returns the rate for pair as provided (possibly for the inverted pair) or a cross rate if pair can only be
+     * converted through the pivot currency.
+     */
     public ExchangeRate get(CurrencyPair pair) {
         if (pair == null) throw new IllegalArgumentException("Parameter 'pair' cannot be null");
 
-        for (var r : rates) {
-            var matches = r.getPair().getFirstCode().equalsIgnoreCase(pair.getFirstCode()) && r.getPair().getSecondCode().equalsIgnoreCase(pair.getSecondCode());
-            var matchesInverted = r.getPair().getFirstCode().equalsIgnoreCase(pair.getSecondCode()) && r.getPair().getSecondCode().equalsIgnoreCase(pair.getFirstCode());
-            if (matches || matchesInverted) {
-                return r;
-            }
+        var e = index.get(key(pair.getFirstCode(), pair.getSecondCode()));
+        if (e != null) {
+            return e.rate;
+        }
+
+        var path = pivotPath(pair.getFirstCode(), pair.getSecondCode());
+        if (path == null) {
+            return null;
+        }
+        // A cross rate is as old as its older leg.
+        var first = path[0].rate.getPointInTime();
+        var second = path[1].rate.getPointInTime();
+        var pointInTime = first == null || second == null ? null : first.isBefore(second) ? first : second;
+        return new ExchangeRate(pair, path[1].apply(path[0].apply(1)), pointInTime);
+    }
+
+    public String getPivotCcy() {
+        return pivotCcy;
+    }
+
+    private static class IndexEntry {
+        private final ExchangeRate rate;
+        private final boolean inverted;
+
+        public IndexEntry(ExchangeRate rate, boolean inverted) {
+            this.rate = rate;
+            this.inverted = inverted;
+        }
+
+        public double apply(double amount) {
+            // Rate is read on each call, as ExchangeRate is mutable.
+            return inverted ? amount / rate.getRate() : amount * rate.getRate();
         }
-        return null;
     }
 }
@@ -22,4 +22,10 @@ public interface ExchangeRateProvider {
     ExchangeRate[] latestRates();
 
     ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block);
+
+    /**
+     * Returns the rates of pair at all given points. The result has the same order as points and contains null for
+     * points without known rate.
+     */
+    ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points);
 }
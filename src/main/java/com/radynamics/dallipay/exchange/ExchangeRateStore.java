@@ -0,0 +1,244 @@
+package com.radynamics.dallipay.exchange;
+
+import com.radynamics.dallipay.DateTimeConvert;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
+import com.radynamics.dallipay.cryptoledger.Block;
+import com.radynamics.dallipay.db.Database;
+import com.radynamics.dallipay.db.ExchangeRateRepo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Historic exchange rates looked up before and shared by all instances of the same provider. Rates are indexed by the
+ * point in time they were requested for. Once a point is further back than the provider's search distance, no closer
+ * rate can be published anymore and its rate is persisted in the database. More recent rates are only kept in memory.
+ */
+public class ExchangeRateStore {
+    final static Logger log = LogManager.getLogger(ExchangeRateStore.class);
+    private static final ConcurrentHashMap<String, ExchangeRateStore> instances = new ConcurrentHashMap<>();
+    // Recorded tickers are only used as historic rate for points in time close to them.
+    public static final Duration TICKER_MAX_DISTANCE = Duration.ofMinutes(1);
+    public static final Duration TICKER_RETENTION = Duration.ofDays(1);
+
+    private final String providerKey;
+    private final Duration maxSearchDistance;
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, Entry>> pairs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> unsaved = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    /**
+     * Creates a store only held in memory.
+     */
+    public ExchangeRateStore() {
+        this(null, Duration.ZERO);
+    }
+
+    private ExchangeRateStore(String providerKey, Duration maxSearchDistance) {
+        this.providerKey = providerKey;
+        this.maxSearchDistance = maxSearchDistance;
+    }
+
+    /**
+     * Returns the store of a provider, that returns rates found within maxSearchDistance of the requested point in time.
+     */
+    public static ExchangeRateStore get(String providerKey, Duration maxSearchDistance) {
+        if (providerKey == null) throw new IllegalArgumentException("Parameter 'providerKey' cannot be null");
+        if (maxSearchDistance == null) throw new IllegalArgumentException("Parameter 'maxSearchDistance' cannot be null");
+        return instances.computeIfAbsent(providerKey, k -> new ExchangeRateStore(k, maxSearchDistance));
+    }
+
+    /**
+     * Returns the rate previously looked up for exactly the given point in time and block.
+     */
+    public ExchangeRate find(CurrencyPair pair, ZonedDateTime pointInTime, Block block) {
+        var e = getOrLoad(pair).get(pointInTime.toInstant().toEpochMilli());
+        if (e == null || !Objects.equals(e.getBlock(), block == null ? null : block.getId())) {
+            return null;
+        }
+        return e.toExchangeRate(pair);
+    }
+
+    /**
+     * Returns the rate nearest to the given point in time, if it was requested within maxDistance.
+     */
+    public ExchangeRate findNearest(CurrencyPair pair, ZonedDateTime pointInTime, Duration maxDistance) {
+        var entries = getOrLoad(pair);
+        var millis = pointInTime.toInstant().toEpochMilli();
+        var floor = entries.floorEntry(millis);
+        var ceiling = entries.ceilingEntry(millis);
+        var nearest = floor == null ? ceiling : ceiling == null || millis - floor.getKey() <= ceiling.getKey() - millis ? floor : ceiling;
+        if (nearest == null || Math.abs(nearest.getKey() - millis) > maxDistance.toMillis()) {
+            return null;
+        }
+        return nearest.getValue().toExchangeRate(pair);
+    }
+
+    /**
+     * Returns all rates requested between start and end (both inclusive) ordered by point in time.
+     */
+    public ExchangeRate[] list(CurrencyPair pair, ZonedDateTime start, ZonedDateTime end) {
+        var list = new ArrayList<ExchangeRate>();
+        for (var e : getOrLoad(pair).subMap(start.toInstant().toEpochMilli(), true, end.toInstant().toEpochMilli(), true).values()) {
+            list.add(e.toExchangeRate(pair));
+        }
+        return list.toArray(new ExchangeRate[0]);
+    }
+
+    public void add(CurrencyPair pair, ZonedDateTime pointInTime, Block block, ExchangeRate rate) {
+        if (rate == null) throw new IllegalArgumentException("Parameter 'rate' cannot be null");
+        var e = new Entry(pair.getDisplayText(), pointInTime.toInstant().toEpochMilli(), block == null ? null : block.getId(),
+                rate.getRate(), rate.getPointInTime().toInstant().toEpochMilli());
+        getOrLoad(pair).put(e.getPointInTime(), e);
+        if (providerKey == null || !isSettled(pointInTime, maxSearchDistance, ZonedDateTime.now())) {
+            return;
+        }
+        unsaved.add(e);
+        if (saveScheduled.compareAndSet(false, true)) {
+            ExecutorProvider.execute(Workload.Background, this::save);
+        }
+    }
+
+    /**
+     * Returns true if no rate closer to pointInTime can be published anymore.
+     */
+    public static boolean isSettled(ZonedDateTime pointInTime, Duration maxSearchDistance, ZonedDateTime now) {
+        return pointInTime.plus(maxSearchDistance).isBefore(now);
+    }
+
+    /**
+     * Removes all rates requested more than maxAge ago from memory. Rates already persisted are kept in the database.
+     */
+    public void prune(Duration maxAge) {
+        var before = System.currentTimeMillis() - maxAge.toMillis();
+        for (var entries : pairs.values()) {
+            entries.headMap(before).clear();
+        }
+    }
+
+    /**
+     * Returns the rates of all points. Only points not found in this store are passed to loader, rates loaded are
+     * added to this store.
+     */
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points, Function<RateLookup[], ExchangeRate[]> loader) {
+        var rates = new ExchangeRate[points.length];
+        var missing = new ArrayList<Integer>();
+        for (var i = 0; i < points.length; i++) {
+            rates[i] = find(pair, points[i].getPointInTime(), points[i].getBlock());
+            if (rates[i] == null) {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return rates;
+        }
+
+        var missingPoints = new RateLookup[missing.size()];
+        for (var i = 0; i < missingPoints.length; i++) {
+            missingPoints[i] = points[missing.get(i)];
+        }
+        var loaded = loader.apply(missingPoints);
+        for (var i = 0; i < missingPoints.length; i++) {
+            if (loaded[i] == null) {
+                continue;
+            }
+            rates[missing.get(i)] = loaded[i];
+            add(pair, missingPoints[i].getPointInTime(), missingPoints[i].getBlock(), loaded[i]);
+        }
+        log.trace(String.format("%s of %s rates for %s loaded from store", points.length - missing.size(), points.length, pair.getDisplayText()));
+        return rates;
+    }
+
+    private ConcurrentSkipListMap<Long, Entry> getOrLoad(CurrencyPair pair) {
+        return pairs.computeIfAbsent(pair.getDisplayText(), this::load);
+    }
+
+    private ConcurrentSkipListMap<Long, Entry> load(String pair) {
+        var entries = new ConcurrentSkipListMap<Long, Entry>();
+        // Never create a database just for caching purposes.
+        if (providerKey == null || !Database.exists()) {
+            return entries;
+        }
+        try (var repo = new ExchangeRateRepo()) {
+            for (var e : repo.list(providerKey, pair)) {
+                entries.put(e.getPointInTime(), e);
+            }
+            log.trace(String.format("Loaded %s rates of %s for %s", entries.size(), pair, providerKey));
+        } catch (Exception e) {
+            log.warn(String.format("Could not load rates of %s for %s. %s", pair, providerKey, e.getMessage()), e);
+        }
+        return entries;
+    }
+
+    private void save() {
+        saveScheduled.set(false);
+        var list = new ArrayList<Entry>();
+        Entry e;
+        while ((e = unsaved.poll()) != null) {
+            list.add(e);
+        }
+        if (list.isEmpty() || !Database.exists()) {
+            return;
+        }
+
+        try (var repo = new ExchangeRateRepo()) {
+            repo.saveAll(providerKey, list.toArray(new Entry[0]));
+            repo.commit();
+        } catch (Exception ex) {
+            log.warn(String.format("Could not save rates for %s. %s", providerKey, ex.getMessage()), ex);
+        }
+    }
+
+    public static class Entry {
+        private final String pair;
+        private final long pointInTime;
+        private final String block;
+        private final double rate;
+        private final long rateAt;
+
+        public Entry(String pair, long pointInTime, String block, double rate, long rateAt) {
+            this.pair = pair;
+            this.pointInTime = pointInTime;
+            this.block = block;
+            this.rate = rate;
+            this.rateAt = rateAt;
+        }
+
+        public String getPair() {
+            return pair;
+        }
+
+        public long getPointInTime() {
+            return pointInTime;
+        }
+
+        public String getBlock() {
+            return block;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public long getRateAt() {
+            return rateAt;
+        }
+
+        private ExchangeRate toExchangeRate(CurrencyPair pair) {
+            var at = DateTimeConvert.toUserTimeZone(ZonedDateTime.ofInstant(Instant.ofEpochMilli(rateAt), ZoneId.of("UTC")));
+            return new ExchangeRate(pair, rate, at);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.radynamics.dallipay.exchange;
 
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.iso20022.Payment;
 import com.radynamics.dallipay.transformation.TransformInstruction;
 import org.apache.logging.log4j.LogManager;
@@ -7,61 +9,174 @@ import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class HistoricExchangeRateLoader {
     final static Logger log = LogManager.getLogger(HistoricExchangeRateLoader.class);
     private final TransformInstruction transformInstruction;
     private final CurrencyConverter currencyConverter;
+    private RateBucket bucket = defaultBucket();
 
     public HistoricExchangeRateLoader(TransformInstruction transformInstruction, CurrencyConverter currencyConverter) {
         this.transformInstruction = transformInstruction;
         this.currencyConverter = currencyConverter;
     }
 
+    /**
+     * Loads historic rates of all payments. Payments of the same currency pair and bucket share one rate, therefore
+     * each distinct bucket is only looked up once and all buckets of a pair are requested in one batch.
+     */
     public CompletableFuture<Payment>[] loadAsync(Payment[] payments) {
-        var list = new ArrayList<CompletableFuture<Payment>>();
-        for (var t : payments) {
-            list.add(loadAsync(t));
+        var futures = (CompletableFuture<Payment>[]) Array.newInstance(CompletableFuture.class, payments.length);
+        var groups = new LinkedHashMap<String, PairGroup>();
+        for (var i = 0; i < payments.length; i++) {
+            var t = payments[i];
+            futures[i] = new CompletableFuture<>();
+            var ccyPair = t.createCcyPair();
+            if (ccyPair.isOneToOne()) {
+                t.setExchangeRate(ExchangeRate.OneToOne(ccyPair));
+                futures[i].complete(t);
+                continue;
+            }
+            if (t.getBooked() == null) {
+                log.info(String.format("No FX rate loaded for %s without booking date", ccyPair.getDisplayText()));
+                t.setAmountUnknown();
+                futures[i].complete(t);
+                continue;
+            }
+
+            var network = t.getLedger().getNetwork();
+            var groupKey = "%s_%s_%s".formatted(ccyPair.getDisplayText(), t.getLedger().getId().textId(), network == null ? "" : network.getId());
+            var group = groups.computeIfAbsent(groupKey, k -> new PairGroup(ccyPair));
+            group.add(bucket.keyOf(t), t, futures[i]);
         }
-        return list.toArray((CompletableFuture<Payment>[]) Array.newInstance(CompletableFuture.class, list.size()));
+
+        for (var group : groups.values()) {
+            ExecutorProvider.execute(Workload.FxLookup, () -> load(group));
+        }
+        return futures;
     }
 
     public CompletableFuture<Payment> loadAsync(Payment t) {
-        var completableFuture = new CompletableFuture<Payment>();
+        return loadAsync(new Payment[]{t})[0];
+    }
 
-        Executors.newCachedThreadPool().submit(() -> {
-            var ccyPair = t.createCcyPair();
-            if (ccyPair.isOneToOne()) {
-                t.setExchangeRate(ExchangeRate.OneToOne(ccyPair));
-                completableFuture.complete(t);
-                return;
+    private static RateBucket defaultBucket() {
+        var value = System.getProperty("dallipay.fx.bucket");
+        if (value == null) {
+            return RateBucket.Block;
+        }
+        try {
+            return RateBucket.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            log.warn(String.format("Unknown FX rate bucket %s, using %s instead", value, RateBucket.Block));
+            return RateBucket.Block;
+        }
+    }
+
+    private void load(PairGroup group) {
+        try {
+            loadRates(group);
+        } catch (Exception e) {
+            // Callers wait for all futures, therefore none must be left incomplete.
+            log.error(e.getMessage(), e);
+            for (var b : group.buckets) {
+                for (var f : b.futures) {
+                    f.completeExceptionally(e);
+                }
             }
+        }
+    }
 
-            var source = transformInstruction.getHistoricExchangeRateSource();
-            ExchangeRate rate;
-            try {
-                rate = CurrencyPair.contains(source.getSupportedPairs(), ccyPair) ? source.rateAt(ccyPair, t.getBooked(), t.getLedger().getNetwork(), t.getBlock()) : null;
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-                t.setHistoricExchangeRateException(e);
-                t.setAmountUnknown();
-                completableFuture.complete(t);
-                return;
+    private void loadRates(PairGroup group) {
+        var source = transformInstruction.getHistoricExchangeRateSource();
+        var ccyPair = group.ccyPair;
+        ExchangeRate[] rates;
+        try {
+            if (CurrencyPair.contains(source.getSupportedPairs(), ccyPair)) {
+                var points = new RateLookup[group.buckets.size()];
+                for (var i = 0; i < points.length; i++) {
+                    var first = group.buckets.get(i).payments.get(0);
+                    points[i] = new RateLookup(first.getBooked(), first.getLedger().getNetwork(), first.getBlock());
+                }
+                rates = source.ratesAt(ccyPair, points);
+                log.trace(String.format("%s FX rates for %s payments of %s loaded with %s", points.length, group.size(), ccyPair.getDisplayText(), source.getDisplayText()));
+            } else {
+                rates = new ExchangeRate[group.buckets.size()];
             }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            for (var b : group.buckets) {
+                for (var i = 0; i < b.payments.size(); i++) {
+                    var t = b.payments.get(i);
+                    t.setHistoricExchangeRateException(e);
+                    t.setAmountUnknown();
+                    b.futures.get(i).complete(t);
+                }
+            }
+            return;
+        }
 
+        for (var i = 0; i < group.buckets.size(); i++) {
+            var b = group.buckets.get(i);
+            var rate = rates[i];
             if (rate == null) {
-                log.info(String.format("No FX rate found for %s at %s with %s", ccyPair.getDisplayText(), t.getBooked(), source.getDisplayText()));
-                t.setAmountUnknown();
-                completableFuture.complete(t);
-                return;
+                log.info(String.format("No FX rate found for %s at %s with %s", ccyPair.getDisplayText(), b.payments.get(0).getBooked(), source.getDisplayText()));
             }
-            var cc = new CurrencyConverter(new ExchangeRate[]{rate});
-            t.setExchangeRate(cc.get(ccyPair));
-            completableFuture.complete(t);
-        });
+            var cc = rate == null ? null : new CurrencyConverter(new ExchangeRate[]{rate});
+            for (var j = 0; j < b.payments.size(); j++) {
+                var t = b.payments.get(j);
+                if (cc == null) {
+                    t.setAmountUnknown();
+                } else {
+                    t.setExchangeRate(cc.get(ccyPair));
+                }
+                b.futures.get(j).complete(t);
+            }
+        }
+    }
+
+    public RateBucket getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(RateBucket bucket) {
+        if (bucket == null) throw new IllegalArgumentException("Parameter 'bucket' cannot be null");
+        this.bucket = bucket;
+    }
+
+    private static class PairGroup {
+        private final CurrencyPair ccyPair;
+        private final LinkedHashMap<String, Bucket> byKey = new LinkedHashMap<>();
+        private final List<Bucket> buckets = new ArrayList<>();
+
+        public PairGroup(CurrencyPair ccyPair) {
+            this.ccyPair = ccyPair;
+        }
+
+        public void add(String key, Payment t, CompletableFuture<Payment> future) {
+            var b = byKey.computeIfAbsent(key, k -> {
+                var created = new Bucket();
+                buckets.add(created);
+                return created;
+            });
+            b.payments.add(t);
+            b.futures.add(future);
+        }
+
+        public int size() {
+            var count = 0;
+            for (var b : buckets) {
+                count += b.payments.size();
+            }
+            return count;
+        }
+    }
 
-        return completableFuture;
+    private static class Bucket {
+        private final List<Payment> payments = new ArrayList<>();
+        private final List<CompletableFuture<Payment>> futures = new ArrayList<>();
     }
 }
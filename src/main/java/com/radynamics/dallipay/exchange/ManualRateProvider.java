@@ -51,4 +51,9 @@ public class ManualRateProvider implements ExchangeRateProvider {
     public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
         return null;
     }
+
+    @Override
+    public ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+        return new ExchangeRate[points.length];
+    }
 }
@@ -3,18 +3,28 @@ package com.radynamics.dallipay.exchange;
 import java.util.*;
 
 public class Money {
-    private final Double number;
+    // Amount scaled by the currency's factor (see MoneyScale) or NOT_EXACT if it has more decimals than the currency.
+    private final long scaled;
+    // Only used for amounts not exactly representable as scaled long.
+    private final double inexact;
     private final Currency ccy;
 
-    private Money(Double number, Currency ccy) {
-        if (number == null) throw new IllegalArgumentException("Parameter 'number' cannot be null");
+    private Money(long scaled, double inexact, Currency ccy) {
         if (ccy == null) throw new IllegalArgumentException("Parameter 'ccy' cannot be null");
-        this.number = number;
+        this.scaled = scaled;
+        this.inexact = inexact;
         this.ccy = ccy;
     }
 
     public static Money of(Double number, Currency ccy) {
-        return new Money(number, ccy);
+        if (number == null) throw new IllegalArgumentException("Parameter 'number' cannot be null");
+        return of(number.doubleValue(), ccy);
+    }
+
+    public static Money of(double number, Currency ccy) {
+        if (ccy == null) throw new IllegalArgumentException("Parameter 'ccy' cannot be null");
+        var s = MoneyScale.toScaled(number, MoneyScale.factor(ccy));
+        return new Money(s, s == MoneyScale.NOT_EXACT ? number : 0, ccy);
     }
 
     public static Money zero(Money value) {
@@ -27,14 +37,14 @@ public class Money {
 
     public static Money[] sort(Money[] values) {
         var list = Arrays.asList(values);
-        Collections.sort(list, Comparator.comparingDouble(o -> o.getNumber().doubleValue()));
+        Collections.sort(list, Comparator.comparingDouble(Money::doubleValue));
         return list.toArray(new Money[0]);
     }
 
     public static Money[] removeZero(Money[] values) {
         var list = new ArrayList<Money>();
         for (var amt : values) {
-            if (amt.getNumber().doubleValue() != 0.0) {
+            if (amt.doubleValue() != 0.0) {
                 list.add(amt);
             }
         }
@@ -43,21 +53,28 @@ public class Money {
 
     public boolean lessThan(Money value) {
         assertSameCcy(value);
-        return getNumber().doubleValue() < value.getNumber().doubleValue();
+        return isExact() && value.isExact() ? scaled < value.scaled : doubleValue() < value.doubleValue();
     }
 
     public Money plus(Money value) {
         assertSameCcy(value);
-        return Money.of(getNumber().doubleValue() + value.getNumber().doubleValue(), getCcy());
+        return add(value.scaled, value.doubleValue());
     }
 
     public Money minus(Money value) {
         assertSameCcy(value);
-        return Money.of(getNumber().doubleValue() - value.getNumber().doubleValue(), getCcy());
+        return add(value.isExact() ? -value.scaled : MoneyScale.NOT_EXACT, -value.doubleValue());
+    }
+
+    private Money add(long otherScaled, double other) {
+        if (isExact() && otherScaled != MoneyScale.NOT_EXACT && MoneyScale.inRange(scaled + otherScaled)) {
+            return new Money(scaled + otherScaled, 0, ccy);
+        }
+        return Money.of(doubleValue() + other, ccy);
     }
 
     public Money multiply(Double value) {
-        return Money.of(getNumber().doubleValue() * value, getCcy());
+        return Money.of(doubleValue() * value, ccy);
     }
 
     private void assertSameCcy(Money value) {
@@ -72,22 +89,40 @@ public class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return Objects.equals(number, money.number) && Objects.equals(ccy, money.ccy);
+        return Double.compare(doubleValue(), money.doubleValue()) == 0 && Objects.equals(ccy, money.ccy);
     }
 
     public boolean equalsIgnoringIssuer(Money o) {
         if (this == o) return true;
         if (o == null) return false;
-        return Objects.equals(number, o.number) && Objects.equals(ccy.withoutIssuer(), o.getCcy().withoutIssuer());
+        return Double.compare(doubleValue(), o.doubleValue()) == 0 && Objects.equals(ccy.withoutIssuer(), o.getCcy().withoutIssuer());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(number, ccy);
+        return 31 * Double.hashCode(doubleValue()) + ccy.hashCode();
     }
 
     public Number getNumber() {
-        return number;
+        return doubleValue();
+    }
+
+    /**
+     * Same as getNumber().doubleValue() without boxing.
+     */
+    public double doubleValue() {
+        return isExact() ? MoneyScale.toDouble(scaled, MoneyScale.factor(ccy)) : inexact;
+    }
+
+    /**
+     * Returns the amount scaled by the currency's factor or MoneyScale.NOT_EXACT if it isn't exactly representable.
+     */
+    public long scaledValue() {
+        return scaled;
+    }
+
+    private boolean isExact() {
+        return scaled != MoneyScale.NOT_EXACT;
     }
 
     public Currency getCcy() {
@@ -96,6 +131,6 @@ public class Money {
 
     @Override
     public String toString() {
-        return String.format("{%s %s}", number, ccy);
+        return String.format("{%s %s}", doubleValue(), ccy);
     }
 }
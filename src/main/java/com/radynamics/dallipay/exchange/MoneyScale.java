@@ -0,0 +1,55 @@
+package com.radynamics.dallipay.exchange;
+
+/**
+ * Decimal places amounts of a currency are exact to (eg. drops, satoshis, cents). Amounts representable with these
+ * decimals are added as scaled longs, therefore sums don't accumulate floating point errors.
+ */
+public final class MoneyScale {
+    /**
+     * Returned by toScaled if an amount isn't exactly representable.
+     */
+    public static final long NOT_EXACT = Long.MIN_VALUE;
+
+    // Doubles represent every integer up to 2^53, scaled values beyond can't be converted without loss.
+    private static final long MAX_SCALED = 1L << 53;
+    private static final long[] FACTORS = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+
+    private MoneyScale() {
+    }
+
+    public static int decimals(Currency ccy) {
+        return switch (ccy.getCode()) {
+            case "XRP", "XAH" -> 6;
+            case "BTC" -> 8;
+            // Issued currencies on a ledger aren't limited to cents.
+            default -> ccy.getIssuer() == null ? 2 : 9;
+        };
+    }
+
+    public static long factor(Currency ccy) {
+        return FACTORS[decimals(ccy)];
+    }
+
+    /**
+     * Returns amount multiplied by factor or NOT_EXACT if amount has more decimals than factor allows.
+     */
+    public static long toScaled(double amount, long factor) {
+        var x = amount * factor;
+        if (!(Math.abs(x) < MAX_SCALED)) {
+            return NOT_EXACT;
+        }
+        var scaled = Math.round(x);
+        return toDouble(scaled, factor) == amount ? scaled : NOT_EXACT;
+    }
+
+    public static double toDouble(long scaled, long factor) {
+        return (double) scaled / factor;
+    }
+
+    /**
+     * Returns true if a scaled sum can still be converted to a double without loss.
+     */
+    public static boolean inRange(long scaled) {
+        return Math.abs(scaled) < MAX_SCALED;
+    }
+}
@@ -0,0 +1,31 @@
+package com.radynamics.dallipay.exchange;
+
+import com.radynamics.dallipay.iso20022.Payment;
+
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Granularity of historic exchange rates. Payments within the same bucket share one looked up rate.
+ */
+public enum RateBucket {
+    Block,
+    Minute,
+    Day;
+
+    private static final ZoneId utc = ZoneId.of("UTC");
+
+    public String keyOf(Payment p) {
+        switch (this) {
+            case Block:
+                // Payments without block (eg. not yet booked) fall back to their exact booking time.
+                return p.getBlock() == null ? p.getBooked().toInstant().toString() : p.getBlock().getId();
+            case Minute:
+                return p.getBooked().toInstant().truncatedTo(ChronoUnit.MINUTES).toString();
+            case Day:
+                return p.getBooked().withZoneSameInstant(utc).toLocalDate().toString();
+            default:
+                throw new IllegalStateException("Unexpected value: " + this);
+        }
+    }
+}
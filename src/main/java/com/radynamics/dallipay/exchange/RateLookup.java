@@ -0,0 +1,34 @@
+package com.radynamics.dallipay.exchange;
+
+import com.radynamics.dallipay.cryptoledger.Block;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Point in time a historic exchange rate is requested for.
+ */
+public class RateLookup {
+    private final ZonedDateTime pointInTime;
+    private final NetworkInfo blockNetwork;
+    private final Block block;
+
+    public RateLookup(ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
+        if (pointInTime == null) throw new IllegalArgumentException("Parameter 'pointInTime' cannot be null");
+        this.pointInTime = pointInTime;
+        this.blockNetwork = blockNetwork;
+        this.block = block;
+    }
+
+    public ZonedDateTime getPointInTime() {
+        return pointInTime;
+    }
+
+    public NetworkInfo getBlockNetwork() {
+        return blockNetwork;
+    }
+
+    public Block getBlock() {
+        return block;
+    }
+}
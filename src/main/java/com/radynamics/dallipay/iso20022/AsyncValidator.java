@@ -1,12 +1,13 @@
 package com.radynamics.dallipay.iso20022;
 
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class AsyncValidator {
     private PaymentValidator validator;
@@ -25,12 +26,6 @@ public class AsyncValidator {
     }
 
     public CompletableFuture<ImmutablePair<Payment, ValidationResult[]>> validate(Payment t) {
-        var completableFuture = new CompletableFuture<ImmutablePair<Payment, ValidationResult[]>>();
-
-        Executors.newCachedThreadPool().submit(() -> {
-            completableFuture.complete(new ImmutablePair<>(t, validator.validate(t)));
-        });
-
-        return completableFuture;
+        return ExecutorProvider.submit(Workload.Validation, () -> new ImmutablePair<>(t, validator.validate(t)));
     }
 }
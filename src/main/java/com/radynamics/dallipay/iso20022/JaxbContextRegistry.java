@@ -0,0 +1,103 @@
+package com.radynamics.dallipay.iso20022;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Holds one JAXBContext per generated document class. Creating a context for large generated packages is expensive,
+ * while contexts are thread-safe and can be shared. Marshallers/Unmarshallers are not thread-safe and therefore pooled.
+ */
+public final class JaxbContextRegistry {
+    final static Logger log = LogManager.getLogger(JaxbContextRegistry.class);
+
+    private static final ConcurrentHashMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentLinkedQueue<Marshaller>> marshallers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentLinkedQueue<Unmarshaller>> unmarshallers = new ConcurrentHashMap<>();
+
+    private JaxbContextRegistry() {
+    }
+
+    public static JAXBContext get(Class<?> documentClass) throws JAXBException {
+        if (documentClass == null) throw new IllegalArgumentException("Parameter 'documentClass' cannot be null");
+        var ctx = contexts.get(documentClass);
+        if (ctx != null) {
+            return ctx;
+        }
+
+        try {
+            return contexts.computeIfAbsent(documentClass, c -> {
+                try {
+                    return create(c);
+                } catch (JAXBException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof JAXBException) {
+                throw (JAXBException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static JAXBContext create(Class<?> documentClass) throws JAXBException {
+        var start = System.nanoTime();
+        var ctx = JAXBContext.newInstance(documentClass);
+        log.trace(String.format("JAXBContext for %s created in %sms", documentClass.getName(), (System.nanoTime() - start) / 1000000));
+        return ctx;
+    }
+
+    public static Marshaller acquireMarshaller(Class<?> documentClass) throws JAXBException {
+        var m = marshallers.computeIfAbsent(documentClass, k -> new ConcurrentLinkedQueue<>()).poll();
+        return m == null ? get(documentClass).createMarshaller() : m;
+    }
+
+    public static void releaseMarshaller(Class<?> documentClass, Marshaller m) {
+        if (m == null) {
+            return;
+        }
+        marshallers.computeIfAbsent(documentClass, k -> new ConcurrentLinkedQueue<>()).offer(m);
+    }
+
+    public static Unmarshaller acquireUnmarshaller(Class<?> documentClass) throws JAXBException {
+        var m = unmarshallers.computeIfAbsent(documentClass, k -> new ConcurrentLinkedQueue<>()).poll();
+        return m == null ? get(documentClass).createUnmarshaller() : m;
+    }
+
+    public static void releaseUnmarshaller(Class<?> documentClass, Unmarshaller m) {
+        if (m == null) {
+            return;
+        }
+        unmarshallers.computeIfAbsent(documentClass, k -> new ConcurrentLinkedQueue<>()).offer(m);
+    }
+
+    /**
+     * Creates contexts for the given document classes on a background thread, so the first import/export doesn't pay for it.
+     */
+    public static Thread prewarmAsync(Class<?>... documentClasses) {
+        var t = new Thread(() -> {
+            for (var c : documentClasses) {
+                try {
+                    get(c);
+                } catch (JAXBException e) {
+                    log.warn(e.getMessage(), e);
+                }
+            }
+        }, "jaxb-prewarm");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+        return t;
+    }
+
+    public static boolean isLoaded(Class<?> documentClass) {
+        return contexts.containsKey(documentClass);
+    }
+}
@@ -1,9 +1,11 @@
 package com.radynamics.dallipay.iso20022.camt054;
 
-import javax.xml.bind.JAXBContext;
+import com.radynamics.dallipay.iso20022.JaxbContextRegistry;
+
 import javax.xml.bind.JAXBException;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 public final class CamtConverter<T> {
     private Class<T> documentClass;
@@ -13,16 +15,29 @@ public final class CamtConverter<T> {
     }
 
     public <T> ByteArrayOutputStream toXml(T document) throws JAXBException {
-        var ctx = JAXBContext.newInstance(documentClass);
-        var m = ctx.createMarshaller();
         var stream = new ByteArrayOutputStream();
-        m.marshal(document, stream);
+        toXml(document, stream);
         return stream;
     }
 
+    /**
+     * Marshals the document directly into the given stream without buffering the whole xml in memory.
+     */
+    public <T> void toXml(T document, OutputStream output) throws JAXBException {
+        var m = JaxbContextRegistry.acquireMarshaller(documentClass);
+        try {
+            m.marshal(document, output);
+        } finally {
+            JaxbContextRegistry.releaseMarshaller(documentClass, m);
+        }
+    }
+
     public <T> T toDocument(InputStream input) throws JAXBException {
-        var ctx = JAXBContext.newInstance(documentClass);
-        var m = ctx.createUnmarshaller();
-        return (T) m.unmarshal(input);
+        var m = JaxbContextRegistry.acquireUnmarshaller(documentClass);
+        try {
+            return (T) m.unmarshal(input);
+        } finally {
+            JaxbContextRegistry.releaseUnmarshaller(documentClass, m);
+        }
     }
 }
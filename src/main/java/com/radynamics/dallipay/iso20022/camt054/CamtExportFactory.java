@@ -27,4 +27,13 @@ public class CamtExportFactory {
         }
         return export;
     }
+
+    public static Class<?>[] documentClasses() {
+        return new Class<?>[]{
+                com.radynamics.dallipay.iso20022.camt054.camt05300108.generated.Document.class,
+                com.radynamics.dallipay.iso20022.camt054.camt05400102.generated.Document.class,
+                com.radynamics.dallipay.iso20022.camt054.camt05400104.generated.Document.class,
+                com.radynamics.dallipay.iso20022.camt054.camt05400109.generated.Document.class,
+        };
+    }
 }
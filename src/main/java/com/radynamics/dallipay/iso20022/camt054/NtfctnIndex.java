@@ -0,0 +1,55 @@
+package com.radynamics.dallipay.iso20022.camt054;
+
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.iso20022.Account;
+import com.radynamics.dallipay.iso20022.Address;
+import com.radynamics.dallipay.iso20022.IbanAccount;
+import com.radynamics.dallipay.transformation.AccountMappingSourceException;
+import com.radynamics.dallipay.transformation.AccountMappingSourceHelper;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Groups notifications/statements of a camt document by (account, currency) in O(1) per entry. The account mapping of
+ * each receiver is looked up only once per document.
+ */
+public class NtfctnIndex<T> {
+    private final AccountMappingSourceHelper accountMappingSourceHelper;
+    private final HashMap<String, Account> accounts = new HashMap<>();
+    private final HashMap<String, T> items = new HashMap<>();
+
+    public NtfctnIndex(AccountMappingSourceHelper accountMappingSourceHelper) {
+        if (accountMappingSourceHelper == null) throw new IllegalArgumentException("Parameter 'accountMappingSourceHelper' cannot be null");
+        this.accountMappingSourceHelper = accountMappingSourceHelper;
+    }
+
+    public Account getAccount(Wallet receiver, Address address) throws AccountMappingSourceException {
+        var key = String.format("%s_%s", receiver == null ? "" : receiver.getPublicKey(), Address.createPartyIdOrEmpty(address));
+        if (accounts.containsKey(key)) {
+            return accounts.get(key);
+        }
+        var account = accountMappingSourceHelper.getAccountOrNull(receiver, address);
+        accounts.put(key, account);
+        return account;
+    }
+
+    public T get(Account account, Wallet receiver, String ccy) {
+        return items.get(createKey(account, receiver, ccy));
+    }
+
+    public void put(Account account, Wallet receiver, String ccy, T item) {
+        items.put(createKey(account, receiver, ccy), item);
+    }
+
+    private static String createKey(Account account, Wallet receiver, String ccy) {
+        // Same semantic as CashAccountCompare: IBAN and Othr are different ids, casing is ignored.
+        String id;
+        if (account == null) {
+            id = String.format("othr_%s", receiver.getPublicKey());
+        } else {
+            id = String.format("%s_%s", account instanceof IbanAccount ? "iban" : "othr", account.getUnformatted());
+        }
+        return String.format("%s_%s", id, ccy).toLowerCase(Locale.ROOT);
+    }
+}
@@ -9,7 +9,6 @@ import com.radynamics.dallipay.iso20022.*;
 import com.radynamics.dallipay.iso20022.camt054.*;
 import com.radynamics.dallipay.iso20022.camt054.camt05300108.generated.*;
 import com.radynamics.dallipay.iso20022.creditorreference.StructuredReference;
-import com.radynamics.dallipay.transformation.AccountMappingSourceException;
 import com.radynamics.dallipay.transformation.AccountMappingSourceHelper;
 import com.radynamics.dallipay.transformation.TransformInstruction;
 import org.apache.commons.lang3.NotImplementedException;
@@ -54,18 +53,20 @@ public class Camt05300108Writer implements Camt054Writer {
         d.getBkToCstmrStmt().getGrpHdr().getMsgPgntn().setPgNb("1");
         d.getBkToCstmrStmt().getGrpHdr().getMsgPgntn().setLastPgInd(true);
 
+        var index = new NtfctnIndex<AccountStatement9>(accountMappingSourceHelper);
         for (var t : transactions) {
             var receiver = t.getReceiverWallet();
-            var address = t.getReceiverAddress();
+            var account = index.getAccount(receiver, t.getReceiverAddress());
             var ccy = ledgerCurrencyConverter.getTargetCurrency(t.getUserCcy()).getCode();
-            var stmt = getNtfctnOrNull(d, receiver, address, ccy);
+            var stmt = index.get(account, receiver, ccy);
             if (stmt == null) {
                 stmt = new AccountStatement9();
                 d.getBkToCstmrStmt().getStmt().add(stmt);
                 stmt.setId(idGenerator.createStmId());
                 stmt.setElctrncSeqNb(BigDecimal.valueOf(0));
                 stmt.setCreDtTm(Utils.toXmlDateTime(creationDate));
-                stmt.setAcct(createAcct(receiver, address, ccy));
+                stmt.setAcct(createAcct(account, receiver, ccy));
+                index.put(account, receiver, ccy, stmt);
             }
 
             stmt.getNtry().add(createNtry(t));
@@ -79,19 +80,9 @@ public class Camt05300108Writer implements Camt054Writer {
         return transformInstruction;
     }
 
-    private AccountStatement9 getNtfctnOrNull(Document d, Wallet receiver, Address address, String ccy) throws AccountMappingSourceException {
-        for (var ntfctn : d.getBkToCstmrStmt().getStmt()) {
-            if (CashAccountCompare.isSame(ntfctn.getAcct(), createAcct(receiver, address, ccy))) {
-                return ntfctn;
-            }
-        }
-        return null;
-    }
-
-    private CashAccount39 createAcct(Wallet receiver, Address address, String ccy) throws AccountMappingSourceException {
+    private CashAccount39 createAcct(Account account, Wallet receiver, String ccy) {
         var acct = new CashAccount39();
         acct.setId(new AccountIdentification4Choice());
-        var account = accountMappingSourceHelper.getAccountOrNull(receiver, address);
         if (account == null) {
             acct.getId().setOthr(new GenericAccountIdentification1());
             acct.getId().getOthr().setId(receiver.getPublicKey());
@@ -9,7 +9,6 @@ import com.radynamics.dallipay.iso20022.*;
 import com.radynamics.dallipay.iso20022.camt054.*;
 import com.radynamics.dallipay.iso20022.camt054.camt05400109.generated.*;
 import com.radynamics.dallipay.iso20022.creditorreference.StructuredReference;
-import com.radynamics.dallipay.transformation.AccountMappingSourceException;
 import com.radynamics.dallipay.transformation.AccountMappingSourceHelper;
 import com.radynamics.dallipay.transformation.TransformInstruction;
 import org.apache.commons.lang3.NotImplementedException;
@@ -54,18 +53,20 @@ public class Camt05400109Writer implements Camt054Writer {
         d.getBkToCstmrDbtCdtNtfctn().getGrpHdr().getMsgPgntn().setPgNb("1");
         d.getBkToCstmrDbtCdtNtfctn().getGrpHdr().getMsgPgntn().setLastPgInd(true);
 
+        var index = new NtfctnIndex<AccountNotification19>(accountMappingSourceHelper);
         for (var t : transactions) {
             var receiver = t.getReceiverWallet();
-            var address = t.getReceiverAddress();
+            var account = index.getAccount(receiver, t.getReceiverAddress());
             var ccy = ledgerCurrencyConverter.getTargetCurrency(t.getUserCcy()).getCode();
-            var stmt = getNtfctnOrNull(d, receiver, address, ccy);
+            var stmt = index.get(account, receiver, ccy);
             if (stmt == null) {
                 stmt = new AccountNotification19();
                 d.getBkToCstmrDbtCdtNtfctn().getNtfctn().add(stmt);
                 stmt.setId(idGenerator.createStmId());
                 stmt.setElctrncSeqNb(BigDecimal.valueOf(0));
                 stmt.setCreDtTm(Utils.toXmlDateTime(creationDate));
-                stmt.setAcct(createAcct(receiver, address, ccy));
+                stmt.setAcct(createAcct(account, receiver, ccy));
+                index.put(account, receiver, ccy, stmt);
             }
 
             stmt.getNtry().add(createNtry(t));
@@ -79,19 +80,9 @@ public class Camt05400109Writer implements Camt054Writer {
         return transformInstruction;
     }
 
-    private AccountNotification19 getNtfctnOrNull(Document d, Wallet receiver, Address address, String ccy) throws AccountMappingSourceException {
-        for (var ntfctn : d.getBkToCstmrDbtCdtNtfctn().getNtfctn()) {
-            if (CashAccountCompare.isSame(ntfctn.getAcct(), createAcct(receiver, address, ccy))) {
-                return ntfctn;
-            }
-        }
-        return null;
-    }
-
-    private CashAccount41 createAcct(Wallet receiver, Address address, String ccy) throws AccountMappingSourceException {
+    private CashAccount41 createAcct(Account account, Wallet receiver, String ccy) {
         var acct = new CashAccount41();
         acct.setId(new AccountIdentification4Choice());
-        var account = this.accountMappingSourceHelper.getAccountOrNull(receiver, address);
         if (account == null) {
             acct.getId().setOthr(new GenericAccountIdentification1());
             acct.getId().getOthr().setId(receiver.getPublicKey());
@@ -9,6 +9,7 @@ import com.radynamics.dallipay.iso20022.camt054.LedgerCurrencyFormat;
 import com.radynamics.dallipay.iso20022.creditorreference.ReferenceType;
 import com.radynamics.dallipay.iso20022.creditorreference.StructuredReferenceFactory;
 import com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.CashAccount16;
+import com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.CreditTransferTransactionInformation10;
 import com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.CreditorReferenceInformation2;
 import com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.Document;
 import com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.PartyIdentification32;
@@ -17,12 +18,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 public class Pain001Reader implements PaymentInstructionReader {
     final static Logger log = LogManager.getLogger(Pain001Reader.class);
@@ -33,79 +34,112 @@ public class Pain001Reader implements PaymentInstructionReader {
     }
 
     public Payment[] read(InputStream pain001) throws Exception {
-        var doc = fromXml(pain001);
-
-        if (doc.getCstmrCdtTrfInitn() == null) {
-            return new Payment[0];
-        }
-
         var list = new ArrayList<Payment>();
-        for (var pmtInf : doc.getCstmrCdtTrfInitn().getPmtInf()) {
-            var senderAccount = getAccount(pmtInf.getDbtrAcct());
-            var senderAddress = getAddress(pmtInf.getDbtr());
-            for (var cdtTrfTxInf : pmtInf.getCdtTrfTxInf()) {
-                var receiverAccount = getAccount(cdtTrfTxInf.getCdtrAcct());
-                var sourceCcy = cdtTrfTxInf.getAmt().getInstdAmt() == null ? null : cdtTrfTxInf.getAmt().getInstdAmt().getCcy();
-                var sourceAmt = cdtTrfTxInf.getAmt().getInstdAmt() == null ? null : cdtTrfTxInf.getAmt().getInstdAmt().getValue();
-                var eqvtAmt = cdtTrfTxInf.getAmt().getEqvtAmt();
-                if (eqvtAmt != null) {
-                    sourceCcy = eqvtAmt.getAmt() == null ? null : eqvtAmt.getAmt().getCcy();
-                    sourceAmt = eqvtAmt.getAmt() == null ? null : eqvtAmt.getAmt().getValue();
-                }
+        read(pain001, list::add);
+        log.trace(String.format("%s payments read from pain001", list.size()));
+        return list.toArray(new Payment[0]);
+    }
 
-                var t = new Payment(ledger.createTransaction());
-                t.setEndToEndId(cdtTrfTxInf.getPmtId().getEndToEndId());
-                t.setSenderAccount(senderAccount);
-                t.setSenderWallet(ReaderUtils.toValidWalletOrNull(ledger, senderAccount));
-                t.setSenderAddress(senderAddress);
-                t.setReceiverAccount(receiverAccount);
-                t.setReceiverWallet(ReaderUtils.toValidWalletOrNull(ledger, receiverAccount));
-                t.setReceiverAddress(getAddress(cdtTrfTxInf.getCdtr()));
-                t.setOrigin(Origin.Imported);
-                if (sourceAmt == null || sourceCcy == null) {
-                    t.setAmountUnknown();
-                } else {
-                    var lcc = ledger.createLedgerCurrencyConverter(LedgerCurrencyFormat.Native);
-                    // Accept smaller unit and convert into native one (eg. Sat to Bitcoin).
-                    // Ignore casing, due various products export currency codes in various casings.
-                    if (lcc.getSmallestUnitCcy().getCode().equalsIgnoreCase(sourceCcy)) {
-                        t.setAmount(lcc.convert(Money.of(sourceAmt.doubleValue(), new Currency(sourceCcy))));
-                    } else {
-                        t.setAmount(Money.of(sourceAmt.doubleValue(), new Currency(sourceCcy)));
+    /**
+     * Reads the given pain.001 stream transaction by transaction and passes each payment to the consumer as soon as it
+     * was read. Only one CdtTrfTxInf is held in memory at a time, regardless of the file size.
+     */
+    @Override
+    public void read(InputStream pain001, Consumer<Payment> consumer) throws Exception {
+        var xsr = createXmlStreamReader(pain001);
+        var unmarshaller = JaxbContextRegistry.acquireUnmarshaller(Document.class);
+        try {
+            var inPmtInf = false;
+            Account senderAccount = null;
+            Address senderAddress = null;
+            while (xsr.hasNext()) {
+                if (xsr.isStartElement()) {
+                    var name = xsr.getLocalName();
+                    if (name.equals("PmtInf")) {
+                        inPmtInf = true;
+                        senderAccount = null;
+                        senderAddress = null;
+                    } else if (inPmtInf && name.equals("Dbtr")) {
+                        // Unmarshal moves the reader behind the end element of the subtree.
+                        senderAddress = getAddress(unmarshaller.unmarshal(xsr, PartyIdentification32.class).getValue());
+                        continue;
+                    } else if (inPmtInf && name.equals("DbtrAcct")) {
+                        senderAccount = getAccount(unmarshaller.unmarshal(xsr, CashAccount16.class).getValue());
+                        continue;
+                    } else if (inPmtInf && name.equals("CdtTrfTxInf")) {
+                        var cdtTrfTxInf = unmarshaller.unmarshal(xsr, CreditTransferTransactionInformation10.class).getValue();
+                        consumer.accept(toPayment(senderAccount, senderAddress, cdtTrfTxInf));
+                        continue;
                     }
+                } else if (xsr.isEndElement() && xsr.getLocalName().equals("PmtInf")) {
+                    inPmtInf = false;
                 }
+                xsr.next();
+            }
+        } finally {
+            xsr.close();
+            JaxbContextRegistry.releaseUnmarshaller(Document.class, unmarshaller);
+        }
+    }
 
-                var rmtInf = cdtTrfTxInf.getRmtInf();
-                if (rmtInf != null) {
-                    if (rmtInf.getStrd() != null) {
-                        for (var strd : rmtInf.getStrd()) {
-                            var cdtrRefInf = strd.getCdtrRefInf();
-                            if (cdtrRefInf == null) {
-                                continue;
-                            }
-                            var typeText = getReferenceType(cdtrRefInf);
-                            var reference = cdtrRefInf.getRef();
-                            t.addStructuredReference(StructuredReferenceFactory.create(typeText, reference));
-
-                            for (var addtlRmtInf : strd.getAddtlRmtInf()) {
-                                t.addMessage(addtlRmtInf);
-                            }
-                        }
+    private Payment toPayment(Account senderAccount, Address senderAddress, CreditTransferTransactionInformation10 cdtTrfTxInf) {
+        var receiverAccount = getAccount(cdtTrfTxInf.getCdtrAcct());
+        var sourceCcy = cdtTrfTxInf.getAmt().getInstdAmt() == null ? null : cdtTrfTxInf.getAmt().getInstdAmt().getCcy();
+        var sourceAmt = cdtTrfTxInf.getAmt().getInstdAmt() == null ? null : cdtTrfTxInf.getAmt().getInstdAmt().getValue();
+        var eqvtAmt = cdtTrfTxInf.getAmt().getEqvtAmt();
+        if (eqvtAmt != null) {
+            sourceCcy = eqvtAmt.getAmt() == null ? null : eqvtAmt.getAmt().getCcy();
+            sourceAmt = eqvtAmt.getAmt() == null ? null : eqvtAmt.getAmt().getValue();
+        }
+
+        var t = new Payment(ledger.createTransaction());
+        t.setEndToEndId(cdtTrfTxInf.getPmtId().getEndToEndId());
+        t.setSenderAccount(senderAccount);
+        t.setSenderWallet(ReaderUtils.toValidWalletOrNull(ledger, senderAccount));
+        t.setSenderAddress(senderAddress);
+        t.setReceiverAccount(receiverAccount);
+        t.setReceiverWallet(ReaderUtils.toValidWalletOrNull(ledger, receiverAccount));
+        t.setReceiverAddress(getAddress(cdtTrfTxInf.getCdtr()));
+        t.setOrigin(Origin.Imported);
+        if (sourceAmt == null || sourceCcy == null) {
+            t.setAmountUnknown();
+        } else {
+            var lcc = ledger.createLedgerCurrencyConverter(LedgerCurrencyFormat.Native);
+            // Accept smaller unit and convert into native one (eg. Sat to Bitcoin).
+            // Ignore casing, due various products export currency codes in various casings.
+            if (lcc.getSmallestUnitCcy().getCode().equalsIgnoreCase(sourceCcy)) {
+                t.setAmount(lcc.convert(Money.of(sourceAmt.doubleValue(), new Currency(sourceCcy))));
+            } else {
+                t.setAmount(Money.of(sourceAmt.doubleValue(), new Currency(sourceCcy)));
+            }
+        }
+
+        var rmtInf = cdtTrfTxInf.getRmtInf();
+        if (rmtInf != null) {
+            if (rmtInf.getStrd() != null) {
+                for (var strd : rmtInf.getStrd()) {
+                    var cdtrRefInf = strd.getCdtrRefInf();
+                    if (cdtrRefInf == null) {
+                        continue;
                     }
+                    var typeText = getReferenceType(cdtrRefInf);
+                    var reference = cdtrRefInf.getRef();
+                    t.addStructuredReference(StructuredReferenceFactory.create(typeText, reference));
 
-                    if (rmtInf.getUstrd() != null) {
-                        for (var ustrd : rmtInf.getUstrd()) {
-                            t.addMessage(ustrd);
-                        }
+                    for (var addtlRmtInf : strd.getAddtlRmtInf()) {
+                        t.addMessage(addtlRmtInf);
                     }
                 }
+            }
 
-                list.add(t);
+            if (rmtInf.getUstrd() != null) {
+                for (var ustrd : rmtInf.getUstrd()) {
+                    t.addMessage(ustrd);
+                }
             }
         }
 
-        log.trace(String.format("%s payments read from pain001", list.size()));
-        return list.toArray(new Payment[0]);
+        return t;
     }
 
     private Address getAddress(PartyIdentification32 obj) {
@@ -166,15 +200,11 @@ public class Pain001Reader implements PaymentInstructionReader {
         return id.getIBAN() != null ? new IbanAccount(id.getIBAN()) : new OtherAccount(id.getOthr().getId());
     }
 
-    private Document fromXml(InputStream input) throws JAXBException, XMLStreamException {
+    private XMLStreamReader createXmlStreamReader(InputStream input) throws XMLStreamException {
         // TODO: RST 2021-12-31 manually ensure input matches ISO version (ex "pain.001.001.03") without regional derived xsd.
         var xif = XMLInputFactory.newFactory();
         xif.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
-        var xsr = xif.createXMLStreamReader(input);
-
-        var ctx = JAXBContext.newInstance(Document.class);
-        var jaxbUnmarshaller = ctx.createUnmarshaller();
-        return (Document) jaxbUnmarshaller.unmarshal(xsr);
+        return xif.createXMLStreamReader(input);
     }
 
     public Ledger getLedger() {
@@ -5,10 +5,20 @@ import com.radynamics.dallipay.iso20022.Payment;
 
 import javax.swing.*;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 public interface PaymentInstructionReader {
     Payment[] read(InputStream input) throws Exception;
 
+    /**
+     * Passes every read payment to the given consumer. Readers supporting streaming emit payments while still reading the input.
+     */
+    default void read(InputStream input, Consumer<Payment> consumer) throws Exception {
+        for (var p : read(input)) {
+            consumer.accept(p);
+        }
+    }
+
     Ledger getLedger();
 
     JPanel createParameterPanel();
@@ -31,4 +31,8 @@ public final class PaymentInstructionReaderFactory {
         var ext = Files.getFileExtension(file.getName()).toLowerCase(Locale.ROOT);
         return ext.equals("xml");
     }
+
+    public static Class<?>[] documentClasses() {
+        return new Class<?>[]{com.radynamics.dallipay.iso20022.pain001.pain00100103.generated.Document.class};
+    }
 }
@@ -10,12 +10,21 @@ import com.radynamics.dallipay.exchange.Money;
 import com.radynamics.dallipay.iso20022.Payment;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 public class PaymentValidator implements com.radynamics.dallipay.iso20022.PaymentValidator {
+    private final static Logger log = LogManager.getLogger(PaymentValidator.class);
     private final WalletHistoryValidator historyValidator;
+    private final WalletHistoryValidator historyValidatorView = new HistoryValidator();
     private final ArrayList<Pair<Ledger, com.radynamics.dallipay.iso20022.PaymentValidator>> ledgerSpecificValidators = new ArrayList<>();
+    // Results of rules involving ledger lookups, reused as long as the inputs they depend on didn't change. Payment
+    // doesn't override equals, entries are dropped once a payment isn't referenced anymore.
+    private final Map<Payment, Entry> results = Collections.synchronizedMap(new WeakHashMap<>());
+    private final SenderSums senderSums = new SenderSums();
 
     private final ResourceBundle res = ResourceBundle.getBundle("i18n.Validations");
 
@@ -24,19 +33,29 @@ public class PaymentValidator implements com.radynamics.dallipay.iso20022.Paymen
     }
 
     public ValidationResult[] validate(Payment t) {
+        var entry = results.computeIfAbsent(t, k -> new Entry());
+        synchronized (entry) {
+            var actual = ValidationInputs.of(t);
+            entry.invalidate(actual.changed(entry.inputs));
+            entry.inputs = actual;
+            return validate(t, entry);
+        }
+    }
+
+    private ValidationResult[] validate(Payment t, Entry entry) {
         var list = new ArrayList<ValidationResult>();
         list.addAll(Arrays.asList(new Validator().validate(t)));
 
         var wv = t.getLedger().createWalletValidator();
         if (t.getReceiverWallet() != null) {
-            var walletValidations = wv.validate(t.getReceiverWallet(), res.getString("receiver"));
+            var walletValidations = entry.get(Rule.ReceiverWallet, () -> wv.validate(t.getReceiverWallet(), res.getString("receiver")));
             list.addAll(Arrays.asList(walletValidations));
         }
 
         if (t.getSenderWallet() == null) {
             list.add(new ValidationResult(ValidationState.Error, res.getString("senderWalletMissing")));
         } else {
-            var walletValidations = wv.validate(t.getSenderWallet(), res.getString("sender"));
+            var walletValidations = entry.get(Rule.SenderWallet, () -> wv.validate(t.getSenderWallet(), res.getString("sender")));
             list.addAll(Arrays.asList(walletValidations));
 
             if (walletValidations.length == 0) {
@@ -55,7 +74,13 @@ public class PaymentValidator implements com.radynamics.dallipay.iso20022.Paymen
                 }
             }
 
-            list.addAll(Arrays.asList(historyValidator.validate(t)));
+            try {
+                list.addAll(Arrays.asList(entry.get(Rule.History, () -> historyValidator.validate(t))));
+            } catch (RuntimeException e) {
+                // Not cached, the next validation loads the history again.
+                log.error(e.getMessage(), e);
+                list.add(new ValidationResult(ValidationState.Warning, String.format(res.getString("historyLoadError"), e.getMessage())));
+            }
         }
 
         if (t.getExchangeRate() == null && !t.isUserCcyEqualTransactionCcy()) {
@@ -69,23 +94,29 @@ public class PaymentValidator implements com.radynamics.dallipay.iso20022.Paymen
 
         var ledgerSpecific = getOrCreateLedgerSpecific(t.getLedger());
         if (ledgerSpecific != null) {
-            list.addAll(Arrays.asList(ledgerSpecific.validate(t)));
+            list.addAll(Arrays.asList(entry.get(Rule.LedgerSpecific, () -> ledgerSpecific.validate(t))));
         }
 
         if (t.getExpectedCurrency() != null) {
-            var expected = t.getExpectedCurrency().getIssuer();
-            var actualCcy = t.getAmountTransaction().getCcy();
-            if (!WalletCompare.isSame(expected, actualCcy.getIssuer())) {
-                var aggregator = new WalletInfoAggregator(t.getLedger().getInfoProvider());
-                var issuerText = WalletInfoFormatter.format(expected, aggregator.getNameOrDomain(expected), true);
-                var msg = String.format(res.getString("receiverExpectsAmtInCcy"), issuerText, actualCcy);
-                list.add(new ValidationResult(ValidationState.Info, msg));
-            }
+            list.addAll(Arrays.asList(entry.get(Rule.ExpectedCurrency, () -> validateExpectedCurrency(t))));
         }
 
         return list.toArray(new ValidationResult[0]);
     }
 
+    private ValidationResult[] validateExpectedCurrency(Payment t) {
+        var expected = t.getExpectedCurrency().getIssuer();
+        var actualCcy = t.getAmountTransaction().getCcy();
+        if (WalletCompare.isSame(expected, actualCcy.getIssuer())) {
+            return new ValidationResult[0];
+        }
+
+        var aggregator = new WalletInfoAggregator(t.getLedger().getInfoProvider());
+        var issuerText = WalletInfoFormatter.format(expected, aggregator.getNameOrDomain(expected), true);
+        var msg = String.format(res.getString("receiverExpectsAmtInCcy"), issuerText, actualCcy);
+        return new ValidationResult[]{new ValidationResult(ValidationState.Info, msg)};
+    }
+
     private com.radynamics.dallipay.iso20022.PaymentValidator getOrCreateLedgerSpecific(Ledger ledger) {
         for (var p : ledgerSpecificValidators) {
             if (p.getKey().getId().equals(ledger.getId())) {
@@ -103,32 +134,41 @@ public class PaymentValidator implements com.radynamics.dallipay.iso20022.Paymen
 
         list.addAll(validateReceiverWalletsUnique(payments));
 
-        var sendingWallets = PaymentUtils.distinctSendingWallets(payments);
-        for (var w : sendingWallets) {
-            var affectedPayments = PaymentUtils.fromSender(w, payments);
-            if (affectedPayments.get(0).getSubmitter().supportsPathFinding()) {
-                continue;
-            }
-            var sums = PaymentUtils.sumLedgerUnit(affectedPayments);
-            for (var ccy : sums.currencies()) {
-                // If sender is issuer of the transferred ccy, its balance doesn't matter due it can issue always more.
-                if (WalletCompare.isSame(w, ccy.getIssuer())) {
-                    continue;
-                }
-                var balance = w.getBalances().get(ccy).orElseGet(() -> Money.zero(ccy));
-                var paymentsSum = sums.sum(ccy);
-                if (balance.lessThan(paymentsSum)) {
-                    var numberFormat = affectedPayments.get(0).getLedger().getNativeCcyNumberFormat();
-                    var paymentsSumText = MoneyFormatter.formatLedger(numberFormat, paymentsSum);
-                    var balanceText = MoneyFormatter.formatLedger(numberFormat, balance);
-                    list.add(new ValidationResult(ValidationState.Error, String.format(res.getString("paymentSumExeeds"), w.getPublicKey(), paymentsSumText, balanceText)));
-                }
+        synchronized (senderSums) {
+            for (var sender : senderSums.update(payments)) {
+                list.addAll(validateBalance(sender));
             }
         }
 
         return list.toArray(new ValidationResult[0]);
     }
 
+    private ArrayList<ValidationResult> validateBalance(SenderSums.Sender sender) {
+        var list = new ArrayList<ValidationResult>();
+        var w = sender.getWallet();
+        var first = sender.getFirst();
+        if (first.getSubmitter().supportsPathFinding()) {
+            return list;
+        }
+        // Balances are not part of the cached sums, as they change independent of payments.
+        var sums = sender.getSums();
+        for (var ccy : sums.currencies()) {
+            // If sender is issuer of the transferred ccy, its balance doesn't matter due it can issue always more.
+            if (WalletCompare.isSame(w, ccy.getIssuer())) {
+                continue;
+            }
+            var balance = w.getBalances().get(ccy).orElseGet(() -> Money.zero(ccy));
+            var paymentsSum = sums.sum(ccy);
+            if (balance.lessThan(paymentsSum)) {
+                var numberFormat = first.getLedger().getNativeCcyNumberFormat();
+                var paymentsSumText = MoneyFormatter.formatLedger(numberFormat, paymentsSum);
+                var balanceText = MoneyFormatter.formatLedger(numberFormat, balance);
+                list.add(new ValidationResult(ValidationState.Error, String.format(res.getString("paymentSumExeeds"), w.getPublicKey(), paymentsSumText, balanceText)));
+            }
+        }
+        return list;
+    }
+
     private Collection<? extends ValidationResult> validateReceiverWalletsUnique(Payment[] payments) {
         var list = new ArrayList<ValidationResult>();
 
@@ -152,12 +192,110 @@ public class PaymentValidator implements com.radynamics.dallipay.iso20022.Paymen
     }
 
     public WalletHistoryValidator getHistoryValidator() {
-        return historyValidator;
+        return historyValidatorView;
+    }
+
+    private void invalidate(Rule rule) {
+        Entry[] entries;
+        synchronized (results) {
+            entries = results.values().toArray(new Entry[0]);
+        }
+        for (var entry : entries) {
+            synchronized (entry) {
+                entry.invalidate(rule);
+            }
+        }
+    }
+
+    /**
+     * Forgets results of rules depending on ledger state (eg. existing wallets, trustlines) for t. Results of rules
+     * only depending on the payment itself are kept.
+     */
+    public void invalidateLedgerState(Payment t) {
+        var entry = results.get(t);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.invalidateLedgerState();
+            }
+        }
+        for (var p : ledgerSpecificValidators) {
+            p.getValue().clearCache();
+        }
     }
 
     public void clearCache() {
+        results.clear();
         for (var p : ledgerSpecificValidators) {
             p.getValue().clearCache();
         }
     }
+
+    /**
+     * Validation rules whose results are cached and the inputs they depend on. All other rules are cheap and always
+     * evaluated.
+     */
+    private enum Rule {
+        ReceiverWallet(EnumSet.of(ValidationInput.ReceiverWallet), true),
+        SenderWallet(EnumSet.of(ValidationInput.SenderWallet), true),
+        History(EnumSet.of(ValidationInput.SenderWallet, ValidationInput.ReceiverWallet, ValidationInput.Amount, ValidationInput.Currency), false),
+        LedgerSpecific(EnumSet.of(ValidationInput.ReceiverWallet, ValidationInput.Amount, ValidationInput.Currency), true),
+        ExpectedCurrency(EnumSet.of(ValidationInput.ReceiverWallet, ValidationInput.Currency), false);
+
+        private final EnumSet<ValidationInput> dependsOn;
+        // Result also depends on ledger state (eg. existing wallets, trustlines), which changes independent of the payment.
+        private final boolean ledgerState;
+
+        Rule(EnumSet<ValidationInput> dependsOn, boolean ledgerState) {
+            this.dependsOn = dependsOn;
+            this.ledgerState = ledgerState;
+        }
+    }
+
+    private static class Entry {
+        private ValidationInputs inputs;
+        private final EnumMap<Rule, ValidationResult[]> results = new EnumMap<>(Rule.class);
+
+        public void invalidate(EnumSet<ValidationInput> changed) {
+            results.keySet().removeIf(r -> !Collections.disjoint(r.dependsOn, changed));
+        }
+
+        public void invalidateLedgerState() {
+            results.keySet().removeIf(r -> r.ledgerState);
+        }
+
+        public void invalidate(Rule rule) {
+            results.remove(rule);
+        }
+
+        public ValidationResult[] get(Rule rule, Supplier<ValidationResult[]> validate) {
+            return results.computeIfAbsent(rule, r -> validate.get());
+        }
+    }
+
+    /**
+     * Forgets cached history results whenever the histories they're based on are outdated.
+     */
+    private class HistoryValidator implements WalletHistoryValidator {
+        @Override
+        public ValidationResult[] validate(Payment p) {
+            return historyValidator.validate(p);
+        }
+
+        @Override
+        public void loadHistory(Ledger ledger, Wallet wallet) {
+            historyValidator.loadHistory(ledger, wallet);
+        }
+
+        @Override
+        public void clearCache() {
+            historyValidator.clearCache();
+            invalidate(Rule.History);
+        }
+
+        @Override
+        public void setNetwork(NetworkInfo networkInfo) {
+            historyValidator.setNetwork(networkInfo);
+            invalidate(Rule.History);
+        }
+    }
 }
@@ -6,18 +6,29 @@ import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
 import com.radynamics.dallipay.cryptoledger.transaction.ValidationState;
 import com.radynamics.dallipay.iso20022.Payment;
 import com.radynamics.dallipay.iso20022.Utils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 public class SenderHistoryValidator implements WalletHistoryValidator {
-    private Cache<PaymentHistoryProvider> cache;
+    private final static Logger log = LogManager.getLogger(SenderHistoryValidator.class);
+    private String networkKey;
+    // Histories are kept across reloads and refreshed incrementally once they're outdated.
+    private final ConcurrentHashMap<String, PaymentHistoryProvider> histories = new ConcurrentHashMap<>();
+    private final Set<String> upToDate = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, CompletableFuture<PaymentHistoryProvider>> loading = new ConcurrentHashMap<>();
+    private final Semaphore loadPermits = new Semaphore(Integer.getInteger("dallipay.history.parallelism", 4));
     private final DateTimeFormatter df = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.MEDIUM);
 
     private final ResourceBundle res = ResourceBundle.getBundle("i18n.Validations");
@@ -26,15 +37,21 @@ public class SenderHistoryValidator implements WalletHistoryValidator {
         initCache(network);
     }
 
-    private void initCache(NetworkInfo network) {
-        cache = new Cache<>(network == null ? "unknown" : network.getUrl().toString(), ChronoUnit.FOREVER.getDuration());
+    private synchronized void initCache(NetworkInfo network) {
+        var key = network == null ? "unknown" : network.getUrl().toString();
+        if (key.equals(networkKey)) {
+            return;
+        }
+        networkKey = key;
+        histories.clear();
+        upToDate.clear();
     }
 
     public ValidationResult[] validate(Payment[] payments) {
         var list = new ArrayList<ValidationResult>();
 
-        for (var senderWallet : PaymentUtils.distinctSendingWallets(payments)) {
-            for (var p : PaymentUtils.fromSender(senderWallet, payments)) {
+        for (var sender : PaymentIndex.of(payments).bySender()) {
+            for (var p : sender.getItems()) {
                 list.addAll(Arrays.asList(validate(p)));
             }
         }
@@ -53,9 +70,7 @@ public class SenderHistoryValidator implements WalletHistoryValidator {
             return new ValidationResult[0];
         }
 
-        loadHistory(ledger, p.getSenderWallet());
-
-        var paymentHistory = cache.get(new WalletKey(p.getSenderWallet()));
+        var paymentHistory = getOrLoad(ledger, p.getSenderWallet());
         var similar = paymentHistory.oldestSimilarOrDefault(p);
         if (similar != null) {
             list.add(new ValidationResult(ValidationState.Warning, String.format(res.getString("similarPaymentSent"), df.format(DateTimeConvert.toUserTimeZone(similar.getBooked())))));
@@ -64,8 +79,11 @@ public class SenderHistoryValidator implements WalletHistoryValidator {
         return list.toArray(new ValidationResult[0]);
     }
 
+    /**
+     * Marks all loaded histories as outdated. They're refreshed incrementally when used next.
+     */
     public void clearCache() {
-        cache.clear();
+        upToDate.clear();
     }
 
     @Override
@@ -77,21 +95,65 @@ public class SenderHistoryValidator implements WalletHistoryValidator {
         if (wallet == null) {
             return;
         }
+        try {
+            getOrLoad(ledger, wallet);
+        } catch (RuntimeException e) {
+            // Loaded again by the next validation.
+            log.error(String.format("Loading history of %s failed", wallet.getPublicKey()), e);
+        }
+    }
+
+    private PaymentHistoryProvider getOrLoad(Ledger ledger, Wallet wallet) {
+        var key = new WalletKey(wallet).get();
+        if (upToDate.contains(key)) {
+            return histories.get(key);
+        }
 
-        synchronized (this) {
-            var key = new WalletKey(wallet);
-            if (!cache.isPresent(key)) {
-                var paymentHistory = ledger.getPaymentHistoryProvider();
+        // Concurrent requests for the same wallet share one load, other wallets load in parallel.
+        var future = new CompletableFuture<PaymentHistoryProvider>();
+        var existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.join();
+        }
 
-                var desired = ZonedDateTime.now().minusDays(40);
-                var availableSince = ledger.getNetwork().historyAvailableSince();
-                var since = desired.isBefore(availableSince) ? availableSince : desired;
+        try {
+            future.complete(upToDate.contains(key) ? histories.get(key) : load(ledger, wallet, key));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+        return future.join();
+    }
 
-                // Use endOfDay to ensure data until latest ledger is loaded. Ignoring time improves cache hits.
-                var sinceDaysAgo = Duration.between(Utils.endOfDay(since), ZonedDateTime.now()).toDays();
-                paymentHistory.load(ledger, wallet, sinceDaysAgo);
-                cache.add(key, paymentHistory);
-            }
+    private PaymentHistoryProvider load(Ledger ledger, Wallet wallet, String key) {
+        try {
+            loadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        try {
+            var paymentHistory = histories.computeIfAbsent(key, k -> ledger.getPaymentHistoryProvider());
+
+            var desired = ZonedDateTime.now().minusDays(40);
+            var availableSince = ledger.getNetwork().historyAvailableSince();
+            var since = desired.isBefore(availableSince) ? availableSince : desired;
+
+            // Use endOfDay to ensure data until latest ledger is loaded. Ignoring time improves cache hits.
+            var sinceDaysAgo = Duration.between(Utils.endOfDay(since), ZonedDateTime.now()).toDays();
+            // Loading an already loaded history only fetches transactions since the latest one known.
+            paymentHistory.load(ledger, wallet, sinceDaysAgo);
+            upToDate.add(key);
+            log.trace(String.format("History of %s loaded", key));
+            return paymentHistory;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            loadPermits.release();
         }
     }
 }
\ No newline at end of file
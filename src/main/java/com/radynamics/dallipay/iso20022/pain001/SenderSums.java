@@ -0,0 +1,103 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+import com.radynamics.dallipay.cryptoledger.MoneySums;
+import com.radynamics.dallipay.cryptoledger.PaymentUtils;
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.iso20022.Payment;
+
+import java.util.*;
+
+/**
+ * Sums of amounts and fees per sending wallet, kept up to date between validations. Only senders of added, removed or
+ * edited payments are summed up again.
+ */
+public class SenderSums {
+    private final IdentityHashMap<Payment, ValidationInputs> inputs = new IdentityHashMap<>();
+    private final LinkedHashMap<String, Sender> senders = new LinkedHashMap<>();
+
+    /**
+     * Updates the sums to the given payments. Payments without sender are ignored.
+     */
+    public synchronized Sender[] update(Payment[] payments) {
+        var current = Collections.newSetFromMap(new IdentityHashMap<Payment, Boolean>());
+        current.addAll(Arrays.asList(payments));
+        for (var p : new ArrayList<>(inputs.keySet())) {
+            if (!current.contains(p)) {
+                remove(p, inputs.remove(p));
+            }
+        }
+
+        for (var p : payments) {
+            var actual = ValidationInputs.of(p);
+            var previous = inputs.get(p);
+            var changed = actual.changed(previous);
+            if (previous != null && !changed.contains(ValidationInput.SenderWallet) && !changed.contains(ValidationInput.Amount)) {
+                continue;
+            }
+
+            remove(p, previous);
+            inputs.put(p, actual);
+            if (actual.getSenderWallet() == null) {
+                continue;
+            }
+            var s = senders.computeIfAbsent(actual.getSenderWallet(), k -> new Sender());
+            s.add(p);
+        }
+
+        for (var s : senders.values()) {
+            if (s.sums == null) {
+                s.sums = PaymentUtils.sumLedgerUnit(s.payments);
+            }
+        }
+        return senders.values().toArray(new Sender[0]);
+    }
+
+    private void remove(Payment p, ValidationInputs previous) {
+        if (previous == null || previous.getSenderWallet() == null) {
+            return;
+        }
+        var s = senders.get(previous.getSenderWallet());
+        s.remove(p);
+        if (s.payments.isEmpty()) {
+            senders.remove(previous.getSenderWallet());
+        }
+    }
+
+    public static class Sender {
+        // Identity based, as Payment doesn't override equals.
+        private final LinkedHashSet<Payment> payments = new LinkedHashSet<>();
+        private MoneySums sums;
+
+        private void add(Payment p) {
+            payments.add(p);
+            if (sums != null) {
+                sums.plus(p.getAmountTransaction());
+                for (var fee : p.getFees()) {
+                    sums.plus(fee.getAmount());
+                }
+            }
+        }
+
+        private void remove(Payment p) {
+            payments.remove(p);
+            // Sums are exact only if added up again.
+            sums = null;
+        }
+
+        public Wallet getWallet() {
+            return getFirst().getSenderWallet();
+        }
+
+        public Payment getFirst() {
+            return payments.iterator().next();
+        }
+
+        public int size() {
+            return payments.size();
+        }
+
+        public MoneySums getSums() {
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+/**
+ * Inputs of a payment validation results depend on.
+ */
+public enum ValidationInput {
+    SenderWallet,
+    ReceiverWallet,
+    Amount,
+    Currency,
+    ExchangeRate
+}
@@ -0,0 +1,73 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+import com.radynamics.dallipay.cryptoledger.PaymentIndex;
+import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.iso20022.Payment;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+
+/**
+ * Snapshot of the inputs of a payment at the time it was validated. Comparing snapshots tells which cached validation
+ * results are outdated after a payment was edited.
+ */
+public class ValidationInputs {
+    private final String senderWallet;
+    private final String receiverWallet;
+    private final Money amount;
+    private final Money[] fees;
+    private final String ccy;
+    private final Double rate;
+
+    private ValidationInputs(String senderWallet, String receiverWallet, Money amount, Money[] fees, String ccy, Double rate) {
+        this.senderWallet = senderWallet;
+        this.receiverWallet = receiverWallet;
+        this.amount = amount;
+        this.fees = fees;
+        this.ccy = ccy;
+        this.rate = rate;
+    }
+
+    public static ValidationInputs of(Payment p) {
+        if (p == null) throw new IllegalArgumentException("Parameter 'p' cannot be null");
+        var sender = p.getSenderWallet() == null ? null : PaymentIndex.keyOf(p.getSenderWallet());
+        var receiver = p.getReceiverWallet() == null ? null : String.format("%s_%s", p.getReceiverWallet().getPublicKey(), p.getDestinationTag());
+        var fees = Arrays.stream(p.getFees()).map(o -> o.getAmount()).toArray(Money[]::new);
+        var expected = p.getExpectedCurrency() == null || p.getExpectedCurrency().getIssuer() == null ? null : p.getExpectedCurrency().getIssuer().getPublicKey();
+        var ccy = String.format("%s_%s_%s", p.getAmountTransaction().getCcy(), p.getUserCcy(), expected);
+        var rate = p.getExchangeRate() == null ? null : p.getExchangeRate().getRate();
+        return new ValidationInputs(sender, receiver, p.getAmountTransaction(), fees, ccy, rate);
+    }
+
+    /**
+     * Returns all inputs differing from previous. All inputs are returned if previous is null.
+     */
+    public EnumSet<ValidationInput> changed(ValidationInputs previous) {
+        if (previous == null) {
+            return EnumSet.allOf(ValidationInput.class);
+        }
+
+        var changed = EnumSet.noneOf(ValidationInput.class);
+        if (!Objects.equals(senderWallet, previous.senderWallet)) {
+            changed.add(ValidationInput.SenderWallet);
+        }
+        if (!Objects.equals(receiverWallet, previous.receiverWallet)) {
+            changed.add(ValidationInput.ReceiverWallet);
+        }
+        if (!Objects.equals(amount, previous.amount) || !Arrays.equals(fees, previous.fees)) {
+            changed.add(ValidationInput.Amount);
+        }
+        if (!Objects.equals(ccy, previous.ccy)) {
+            changed.add(ValidationInput.Currency);
+        }
+        if (!Objects.equals(rate, previous.rate)) {
+            changed.add(ValidationInput.ExchangeRate);
+        }
+        return changed;
+    }
+
+    public String getSenderWallet() {
+        return senderWallet;
+    }
+}
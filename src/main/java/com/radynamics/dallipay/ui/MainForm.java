@@ -377,7 +377,7 @@ public class MainForm extends JFrame {
         var provider = transformInstruction.getExchangeRateProvider();
         provider.load();
 
-        sendingPanel.init(transformInstruction, new CurrencyConverter(provider.latestRates()));
+        sendingPanel.init(transformInstruction, new CurrencyConverter(provider.latestRates(), transformInstruction.getLedger().getNativeCcySymbol()));
         receivingPanel.init(transformInstruction, new CurrencyConverter());
         optionsPanel.init(transformInstruction.getLedger());
         optionsPanel.load();
@@ -2,6 +2,8 @@ package com.radynamics.dallipay.ui;
 
 import com.alexandriasoftware.swing.action.SplitButtonClickedActionListener;
 import com.formdev.flatlaf.extras.FlatSVGIcon;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.EndpointInfo;
 import com.radynamics.dallipay.cryptoledger.Ledger;
 import com.radynamics.dallipay.cryptoledger.NetworkInfo;
@@ -21,7 +23,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class NetworkPopMenu {
     private final static Logger log = LogManager.getLogger(NetworkPopMenu.class);
@@ -123,7 +124,7 @@ public class NetworkPopMenu {
 
     private CompletableFuture<EndpointInfo> loadAsync(NetworkInfo networkInfo) {
         var future = new CompletableFuture<EndpointInfo>();
-        Executors.newCachedThreadPool().submit(() -> {
+        ExecutorProvider.execute(Workload.LedgerRpc, () -> {
             try {
                 future.complete(ledger.getEndpointInfo(networkInfo));
             } catch (Exception e) {
@@ -4,6 +4,8 @@ import com.alexandriasoftware.swing.JSplitButton;
 import com.alexandriasoftware.swing.action.SplitButtonClickedActionListener;
 import com.radynamics.dallipay.DateTimeConvert;
 import com.radynamics.dallipay.MoneyFormatter;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.LookupProviderException;
 import com.radynamics.dallipay.cryptoledger.LookupProviderFactory;
 import com.radynamics.dallipay.cryptoledger.PaymentPath;
@@ -22,7 +24,6 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class PaymentDetailForm extends JDialog {
     private final Payment payment;
@@ -331,7 +332,7 @@ public class PaymentDetailForm extends JDialog {
             refreshPaymentPaths(paymentPaths);
         });
 
-        Executors.newCachedThreadPool().submit(() -> {
+        ExecutorProvider.execute(Workload.LedgerRpc, () -> {
             future.complete(payment.getLedger().createPaymentPathFinder().find(currencyConverter, payment));
         });
     }
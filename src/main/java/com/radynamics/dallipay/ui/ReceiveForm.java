@@ -6,6 +6,8 @@ import com.github.lgooddatepicker.components.DateTimePicker;
 import com.github.lgooddatepicker.components.TimePickerSettings;
 import com.radynamics.dallipay.DateTimeRange;
 import com.radynamics.dallipay.VersionController;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.TransactionResult;
 import com.radynamics.dallipay.cryptoledger.Wallet;
 import com.radynamics.dallipay.cryptoledger.xrpl.XrplPriceOracleConfig;
@@ -28,6 +30,7 @@ import java.awt.event.ItemEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.text.SimpleDateFormat;
@@ -38,7 +41,6 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class ReceiveForm extends JPanel implements MainFormPane {
     private TransformInstruction transformInstruction;
@@ -391,10 +393,10 @@ public class ReceiveForm extends JPanel implements MainFormPane {
             }
             var camtConverter = camtExport.getConverter();
             accountMappingSource.open();
-            var s = camtConverter.toXml(w.createDocument(table.checkedPayments()));
-            var outputStream = new FileOutputStream(targetFileName);
-            s.writeTo(outputStream);
-            outputStream.close();
+            var document = w.createDocument(table.checkedPayments());
+            try (var outputStream = new BufferedOutputStream(new FileOutputStream(targetFileName))) {
+                camtConverter.toXml(document, outputStream);
+            }
 
             JOptionPane.showMessageDialog(table, String.format(res.getString("exportSuccess"), targetFileName));
         } catch (Exception e) {
@@ -525,7 +527,7 @@ public class ReceiveForm extends JPanel implements MainFormPane {
                         ExceptionDialog.show(this, e);
                     }
                 });
-        Executors.newCachedThreadPool().submit(() -> {
+        ExecutorProvider.execute(Workload.LedgerRpc, () -> {
             try {
                 cf.complete(transformInstruction.getLedger().listPaymentsReceived(walletInput, period));
             } catch (Exception e) {
@@ -142,14 +142,11 @@ public class SendConfirmationForm extends JDialog {
         }
 
         {
-            var sendingWallets = PaymentUtils.distinctSendingWallets(payments);
-            pnlContent.setPreferredSize(new Dimension(100, sendingWallets.size() * (ENTRY_HEIGHT + ENTRY_VERTICAL_SPACING)));
-            for (var w : sendingWallets) {
-                var payments = PaymentUtils.fromSender(w, this.payments);
-                if (payments.size() == 0) {
-                    continue;
-                }
-                createRow(w, getSenderAccount(payments), getSenderAddress(payments), payments);
+            var senders = PaymentIndex.of(payments).bySender();
+            pnlContent.setPreferredSize(new Dimension(100, senders.size() * (ENTRY_HEIGHT + ENTRY_VERTICAL_SPACING)));
+            for (var sender : senders) {
+                var payments = sender.getItems();
+                createRow(sender.getWallet(), getSenderAccount(payments), getSenderAddress(payments), payments);
             }
         }
         {
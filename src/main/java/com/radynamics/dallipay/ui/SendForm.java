@@ -3,6 +3,8 @@ package com.radynamics.dallipay.ui;
 import com.alexandriasoftware.swing.JSplitButton;
 import com.alexandriasoftware.swing.action.SplitButtonClickedActionListener;
 import com.formdev.flatlaf.extras.FlatSVGIcon;
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.*;
 import com.radynamics.dallipay.cryptoledger.bitcoin.api.ApiException;
 import com.radynamics.dallipay.cryptoledger.signing.NullSubmitter;
@@ -43,7 +45,6 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 public class SendForm extends JPanel implements MainFormPane, MappingChangedListener {
@@ -399,7 +400,7 @@ public class SendForm extends JPanel implements MainFormPane, MappingChangedList
                         ExceptionDialog.show(this, e, res.getString("readPain001Failed"));
                     }
                 });
-        Executors.newCachedThreadPool().submit(() -> {
+        ExecutorProvider.execute(Workload.Background, () -> {
             try (var repo = new ConfigRepo()) {
                 var ledger = reader.getLedger();
                 transactionTranslator.setDefaultSenderWallet(ledger.getId(), repo.getDefaultSenderWallet(ledger));
@@ -491,9 +492,7 @@ public class SendForm extends JPanel implements MainFormPane, MappingChangedList
             fr.refresh();
 
             // Ensure payments are still valid (ex changed exchange rates leading to not enough funds)
-            Executors.newCachedThreadPool().submit(() -> {
-                table.refresh(payments).thenRun(() -> sendPayments(payments));
-            });
+            table.refresh(payments).thenRun(() -> SwingUtilities.invokeLater(() -> sendPayments(payments)));
         } catch (ApiException e) {
             ExceptionDialog.show(this, e);
         } finally {
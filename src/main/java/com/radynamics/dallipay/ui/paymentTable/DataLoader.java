@@ -1,5 +1,7 @@
 package com.radynamics.dallipay.ui.paymentTable;
 
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.Workload;
 import com.radynamics.dallipay.cryptoledger.AsyncWalletInfoLoader;
 import com.radynamics.dallipay.cryptoledger.BalanceRefresher;
 import com.radynamics.dallipay.exchange.HistoricExchangeRateLoader;
@@ -7,15 +9,19 @@ import com.radynamics.dallipay.iso20022.AsyncValidator;
 import com.radynamics.dallipay.iso20022.Payment;
 import com.radynamics.dallipay.iso20022.PaymentValidator;
 import com.radynamics.dallipay.transformation.TransactionTranslator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
 
 public class DataLoader {
+    final static Logger log = LogManager.getLogger(DataLoader.class);
     private final PaymentTableModel model;
     private HistoricExchangeRateLoader exchangeRateLoader;
     private PaymentValidator validator;
@@ -30,6 +36,7 @@ public class DataLoader {
     }
 
     public void loadAsync(Record[] payments) {
+        cancelPending();
         this.payments.clear();
         this.payments.addAll(List.of(payments));
         if (payments.length == 0) {
@@ -50,8 +57,10 @@ public class DataLoader {
     private void load(Record[] payments) {
         raiseProgress(new Progress(0, payments.length));
         var br = new BalanceRefresher(payments[0].payment.getLedger().getNetwork());
-        for (var p : payments) {
-            var future = loadAsync(p, br);
+        var loadBalances = loadBalancesAsync(payments, br);
+        var loadExchangeRates = loadExchangeRatesAsync(payments);
+        for (var i = 0; i < payments.length; i++) {
+            var future = loadAsync(payments[i], br, loadBalances, loadExchangeRates[i]);
             future.thenAccept((result) -> {
                 synchronized (this) {
                     queue.remove(future);
@@ -64,13 +73,52 @@ public class DataLoader {
         }
     }
 
-    private CompletableFuture<Payment> loadAsync(Record item, BalanceRefresher br) {
+    private CompletableFuture<Void> loadBalancesAsync(Record[] payments, BalanceRefresher br) {
+        // When fetching received payments balances are not needed and shouldn't be loaded for better performance.
+        if (model.getActor() != Actor.Sender) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var list = new ArrayList<Payment>();
+        for (var p : payments) {
+            list.add(p.payment);
+        }
+        // Fetch all involved wallets at once instead of one after another per payment.
+        return ExecutorProvider.execute(Workload.Background, () -> br.refresh(list.toArray(new Payment[0])))
+                .exceptionally(e -> {
+                    log.error(e.getMessage(), e);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Void>[] loadExchangeRatesAsync(Record[] payments) {
+        var futures = (CompletableFuture<Void>[]) Array.newInstance(CompletableFuture.class, payments.length);
+        // Historic rates are only needed for received payments.
+        if (model.getActor() != Actor.Receiver) {
+            Arrays.fill(futures, CompletableFuture.completedFuture(null));
+            return futures;
+        }
+
+        var list = new Payment[payments.length];
+        for (var i = 0; i < payments.length; i++) {
+            list[i] = payments[i].payment;
+        }
+        // Load all payments at once, so payments sharing the same rate are only looked up once.
+        var loaded = exchangeRateLoader.loadAsync(list);
+        for (var i = 0; i < payments.length; i++) {
+            futures[i] = loaded[i].thenAccept(model::onTransactionChanged);
+        }
+        return futures;
+    }
+
+    private CompletableFuture<Payment> loadAsync(Record item, BalanceRefresher br, CompletableFuture<Void> loadBalances, CompletableFuture<Void> loadExchangeRate) {
         var p = item.payment;
-        var loadBalancesAndHistory = CompletableFuture.runAsync(() -> {
+        var loadBalancesAndHistory = loadBalances.thenCompose(v -> ExecutorProvider.execute(Workload.LedgerRpc, () -> {
             // When fetching received payments following data is not needed and shouldn't be loaded for better performance.
             if (model.getActor() != Actor.Sender) {
                 return;
             }
+            // Balances are already cached by loadBalancesAsync.
             br.refresh(p);
 
             // Available payment paths are loaded inside. To ensure caching works call api sequentially.
@@ -79,27 +127,34 @@ public class DataLoader {
                 transactionTranslator.applyUserCcy(p);
             }
             validator.getHistoryValidator().loadHistory(p.getLedger(), p.getSenderWallet());
-        });
+        }));
 
         var loadWalletInfo = loadWalletInfoAsync(item);
-        var loadExchangeRate = new CompletableFuture<Void>();
-        if (model.getActor() == Actor.Receiver) {
-            loadExchangeRate = exchangeRateLoader.loadAsync(p).thenAccept(t -> model.onTransactionChanged(p));
-        } else {
-            loadExchangeRate.complete(null);
-        }
 
         var future = new CompletableFuture<Payment>();
-        var finalLoadExchangeRate = loadExchangeRate;
-        Executors.newCachedThreadPool().submit(() -> {
-            CompletableFuture.allOf(loadBalancesAndHistory).join();
-            CompletableFuture.allOf(loadWalletInfo, finalLoadExchangeRate).join();
-            // Validation can start after loadExchangeRate completed.
-            validateAsync(item).thenAccept((result) -> future.complete(p));
+        var sources = new CompletableFuture<?>[]{loadBalancesAndHistory, loadWalletInfo, loadExchangeRate};
+        // Validation can start after loadExchangeRate completed. Chained instead of blocking a thread per payment.
+        CompletableFuture.allOf(sources)
+                .thenCompose(v -> future.isDone() ? CompletableFuture.completedFuture(null) : validateAsync(item))
+                .whenComplete((result, e) -> future.complete(p));
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                for (var f : sources) {
+                    f.cancel(true);
+                }
+            }
         });
         return future;
     }
 
+    private void cancelPending() {
+        // Results of a previous load are obsolete, don't waste pool capacity on them.
+        CompletableFuture<Payment> f;
+        while ((f = queue.poll()) != null) {
+            f.cancel(true);
+        }
+    }
+
     private CompletableFuture<Void> loadWalletInfoAsync(Record item) {
         return walletInfoLoader.load(item.payment).thenAccept(result -> {
             var senderCellValue = new WalletCellValue(item.payment.getSenderWallet(), null, result.getSenderInfos());
@@ -116,7 +171,7 @@ public class DataLoader {
     }
 
     public void onAccountOrWalletsChanged(Payment t) {
-        Executors.newCachedThreadPool().submit(() -> {
+        ExecutorProvider.execute(Workload.Background, () -> {
             onAccountOrWalletsChangedAsync(t);
         });
     }
@@ -135,10 +190,18 @@ public class DataLoader {
     }
 
     public CompletableFuture<Void> onTransactionChanged(Payment t) {
-        validator.clearCache();
+        // Validator only re-evaluates rules depending on inputs of t that changed since its last validation.
         return validateAsync(getRecord(t).orElseThrow());
     }
 
+    /**
+     * Validates t again, including all rules depending on ledger state (eg. after balances or wallets were reloaded).
+     */
+    public CompletableFuture<Void> onLedgerStateChanged(Payment t) {
+        validator.invalidateLedgerState(t);
+        return onTransactionChanged(t);
+    }
+
     public void addProgressListener(ProgressListener l) {
         progressListener.add(l);
     }
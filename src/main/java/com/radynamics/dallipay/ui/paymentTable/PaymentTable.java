@@ -30,7 +30,6 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 
 public class PaymentTable extends JPanel {
     final static Logger log = LogManager.getLogger(PaymentTable.class);
@@ -366,13 +365,7 @@ public class PaymentTable extends JPanel {
             list.add(refresh(p));
         }
 
-        var f = new CompletableFuture<Void>();
-        Executors.newCachedThreadPool().submit(() -> {
-            CompletableFuture.allOf(list.toArray(new CompletableFuture[0]));
-            f.complete(null);
-        });
-
-        return f;
+        return CompletableFuture.allOf(list.toArray(new CompletableFuture[0]));
     }
 
     public CompletableFuture<Void> refresh(Payment t) {
@@ -385,7 +378,8 @@ public class PaymentTable extends JPanel {
         // Ensure changed wallets are refreshed in dataLoader.loadWalletInfoAsync
         dataLoader.onAccountOrWalletsChangedAsync(t)
                 .thenRun(() -> model.onTransactionChanged(t));
-        return dataLoader.onTransactionChanged(t);
+        // Refreshed explicitly, eg. before sending. Ledger state may have changed since the last validation.
+        return dataLoader.onLedgerStateChanged(t);
     }
 
     private int getRow(Payment t) {
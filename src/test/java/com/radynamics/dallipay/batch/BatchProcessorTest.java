@@ -0,0 +1,73 @@
+package com.radynamics.dallipay.batch;
+
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationState;
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.PaymentValidator;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestPaymentFactory;
+import com.radynamics.dallipay.iso20022.pain001.WalletHistoryValidator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchProcessorTest {
+    private final TestLedger ledger = new TestLedger();
+
+    private static class CountingValidator implements PaymentValidator {
+        private final ConcurrentHashMap<Payment, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private final Payment invalid;
+
+        public CountingValidator(Payment invalid) {
+            this.invalid = invalid;
+        }
+
+        @Override
+        public ValidationResult[] validate(Payment t) {
+            calls.computeIfAbsent(t, k -> new AtomicInteger()).incrementAndGet();
+            return t == invalid
+                    ? new ValidationResult[]{new ValidationResult(ValidationState.Error, "invalid")}
+                    : new ValidationResult[0];
+        }
+
+        @Override
+        public WalletHistoryValidator getHistoryValidator() {
+            return null;
+        }
+
+        @Override
+        public void clearCache() {
+        }
+    }
+
+    @Test
+    public void validateOnce() {
+        var payments = new Payment[]{create(10.0), create(20.0), create(30.0)};
+        var validator = new CountingValidator(payments[1]);
+
+        var validation = BatchProcessor.validate(validator, payments);
+
+        for (var p : payments) {
+            Assertions.assertEquals(1, validator.calls.get(p).get());
+        }
+        Assertions.assertArrayEquals(new Payment[]{payments[0], payments[2]}, validation.getValid());
+        Assertions.assertTrue(validation.hasErrors());
+        Assertions.assertEquals(0, validation.getErrors().size());
+    }
+
+    @Test
+    public void validateWithoutErrors() {
+        var payments = new Payment[]{create(10.0), create(20.0)};
+
+        var validation = BatchProcessor.validate(new CountingValidator(null), payments);
+
+        Assertions.assertArrayEquals(payments, validation.getValid());
+        Assertions.assertFalse(validation.hasErrors());
+    }
+
+    private Payment create(double amount) {
+        return TestPaymentFactory.create(ledger, "aaa", "bbb", amount);
+    }
+}
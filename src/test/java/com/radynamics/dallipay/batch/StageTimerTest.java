@@ -0,0 +1,53 @@
+package com.radynamics.dallipay.batch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class StageTimerTest {
+    @Test
+    public void time() throws Exception {
+        var timer = new StageTimer();
+        Assertions.assertEquals(Duration.ZERO, timer.get("a"));
+        Assertions.assertEquals(0, timer.count("a"));
+
+        Assertions.assertEquals(1, timer.time("a", () -> {
+            Thread.sleep(20);
+            return 1;
+        }));
+        timer.time("a", () -> Thread.sleep(20));
+        timer.time("b", () -> {
+        });
+
+        Assertions.assertEquals(2, timer.count("a"));
+        Assertions.assertTrue(timer.get("a").toMillis() >= 40);
+        Assertions.assertEquals(1, timer.count("b"));
+    }
+
+    @Test
+    public void timeException() {
+        var timer = new StageTimer();
+        Assertions.assertThrows(IllegalStateException.class, () -> timer.time("a", () -> {
+            throw new IllegalStateException();
+        }));
+        Assertions.assertEquals(1, timer.count("a"));
+    }
+
+    @Test
+    public void format() throws Exception {
+        var timer = new StageTimer();
+        timer.time("ledger", () -> {
+        });
+        timer.time("validate", () -> {
+        });
+        timer.time("validate", () -> {
+        });
+
+        var lines = timer.format();
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.get(0).startsWith("ledger"));
+        Assertions.assertTrue(lines.get(1).startsWith("validate"));
+        Assertions.assertTrue(lines.get(1).endsWith("(2)"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.radynamics.dallipay.concurrent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ExecutorProviderTest {
+    @Test
+    public void submit() throws ExecutionException, InterruptedException {
+        Assertions.assertEquals("a", ExecutorProvider.submit(Workload.Background, () -> "a").get());
+        var threadName = ExecutorProvider.submit(Workload.Background, () -> Thread.currentThread().getName()).get();
+        Assertions.assertTrue(threadName.startsWith(Workload.Background.getThreadName()));
+    }
+
+    @Test
+    public void submitException() {
+        var f = ExecutorProvider.submit(Workload.Background, () -> {
+            throw new IllegalStateException("test");
+        });
+        var e = Assertions.assertThrows(ExecutionException.class, f::get);
+        Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void cancelQueued() throws InterruptedException {
+        var size = Workload.Validation.getPoolSize();
+        var block = new CountDownLatch(1);
+        var started = new CountDownLatch(size);
+        for (var i = 0; i < size; i++) {
+            ExecutorProvider.execute(Workload.Validation, () -> {
+                started.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        var executed = new AtomicBoolean();
+        var queued = ExecutorProvider.execute(Workload.Validation, () -> executed.set(true));
+        queued.cancel(true);
+        block.countDown();
+
+        ExecutorProvider.execute(Workload.Validation, () -> {
+        }).join();
+        Assertions.assertFalse(executed.get());
+        Assertions.assertTrue(ExecutorProvider.getStats(Workload.Validation).getCancelledCount() >= 1);
+    }
+
+    @Test
+    public void invokeAllNested() throws InterruptedException, ExecutionException, TimeoutException {
+        // All threads of the pool fan out at the same time, nested tasks only complete if callers help.
+        var size = Workload.LedgerRpc.getPoolSize();
+        var started = new CountDownLatch(size);
+        var count = new AtomicInteger();
+        var outer = new ArrayList<CompletableFuture<Void>>();
+        for (var i = 0; i < size; i++) {
+            outer.add(ExecutorProvider.execute(Workload.LedgerRpc, () -> {
+                started.countDown();
+                try {
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                var tasks = new ArrayList<Runnable>();
+                for (var j = 0; j < size * 2; j++) {
+                    tasks.add(count::incrementAndGet);
+                }
+                ExecutorProvider.invokeAll(Workload.LedgerRpc, tasks, 8);
+            }));
+        }
+
+        CompletableFuture.allOf(outer.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(size * size * 2, count.get());
+    }
+
+    @Test
+    public void invokeAllException() {
+        var tasks = new ArrayList<Runnable>();
+        tasks.add(() -> {
+        });
+        tasks.add(() -> {
+            throw new IllegalStateException("test");
+        });
+        Assertions.assertThrows(IllegalStateException.class, () -> ExecutorProvider.invokeAll(Workload.Background, tasks, 2));
+    }
+
+    @Test
+    public void saturatedRejectsEventDispatchThread() throws Exception {
+        var size = Workload.Validation.getPoolSize();
+        var block = new CountDownLatch(1);
+        var started = new CountDownLatch(size);
+        for (var i = 0; i < size; i++) {
+            ExecutorProvider.execute(Workload.Validation, () -> {
+                started.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        while (ExecutorProvider.getStats(Workload.Validation).getQueueSize() < 10000) {
+            ExecutorProvider.execute(Workload.Validation, () -> {
+            });
+        }
+
+        var executed = new AtomicBoolean();
+        var result = new AtomicReference<CompletableFuture<Void>>();
+        SwingUtilities.invokeAndWait(() -> result.set(ExecutorProvider.execute(Workload.Validation, () -> executed.set(true))));
+        block.countDown();
+
+        var e = Assertions.assertThrows(ExecutionException.class, () -> result.get().get(5, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        Assertions.assertFalse(executed.get());
+    }
+
+    @Test
+    public void poolSize() {
+        Assertions.assertTrue(Workload.LedgerRpc.getPoolSize() > 0);
+        Assertions.assertTrue(Workload.Validation.getPoolSize() >= 2);
+    }
+
+    @Test
+    public void scheduleWithFixedDelay() throws InterruptedException {
+        var runs = new CountDownLatch(3);
+        var threadName = new AtomicReference<String>();
+        var task = ExecutorProvider.scheduleWithFixedDelay(Workload.Background, () -> {
+            threadName.set(Thread.currentThread().getName());
+            runs.countDown();
+            throw new IllegalStateException("Must not stop further runs");
+        }, Duration.ZERO, Duration.ofMillis(5));
+        Assertions.assertTrue(runs.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(threadName.get().startsWith(Workload.Background.getThreadName()));
+
+        task.cancel();
+        Assertions.assertTrue(task.isCancelled());
+        var executed = new AtomicInteger();
+        var cancelled = ExecutorProvider.scheduleWithFixedDelay(Workload.Background, executed::incrementAndGet, Duration.ofMillis(50), Duration.ofMillis(5));
+        cancelled.cancel();
+        Thread.sleep(100);
+        Assertions.assertEquals(0, executed.get());
+    }
+}
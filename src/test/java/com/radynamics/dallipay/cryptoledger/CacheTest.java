@@ -0,0 +1,122 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class CacheTest {
+    private static Key key(String value) {
+        return () -> value;
+    }
+
+    @Test
+    public void ctrArgs() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Cache<String>("", null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Cache<String>("", Duration.ofSeconds(1), 0));
+    }
+
+    @Test
+    public void addGet() {
+        var cache = new Cache<String>("test");
+        Assertions.assertNull(cache.get(key("a")));
+        Assertions.assertFalse(cache.isPresent(key("a")));
+
+        cache.add(key("a"), "A");
+        Assertions.assertEquals("A", cache.get(key("a")));
+        Assertions.assertTrue(cache.isPresent(key("a")));
+        Assertions.assertFalse(cache.isMissing(key("a")));
+
+        cache.add(key("a"), "A2");
+        Assertions.assertEquals("A2", cache.get(key("a")));
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void missing() {
+        var cache = new Cache<String>("test");
+        cache.addMissing(key("a"));
+        Assertions.assertNull(cache.get(key("a")));
+        Assertions.assertTrue(cache.isPresent(key("a")));
+        Assertions.assertTrue(cache.isMissing(key("a")));
+        Assertions.assertEquals(0, cache.list(key("a"), new String[0]).length);
+
+        cache.add(key("b"), null);
+        Assertions.assertTrue(cache.isMissing(key("b")));
+    }
+
+    @Test
+    public void expired() throws InterruptedException {
+        var cache = new Cache<String>("test", Duration.ofHours(1));
+        cache.add(key("a"), "A", Duration.ofMillis(1));
+        cache.add(key("b"), "B");
+        Thread.sleep(10);
+
+        Assertions.assertNull(cache.get(key("a")));
+        Assertions.assertEquals("B", cache.get(key("b")));
+        Assertions.assertEquals(1, cache.getStats().getExpirations());
+
+        cache.add(key("c"), "C", Duration.ofMillis(1));
+        Thread.sleep(10);
+        cache.evictOutdated();
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void forever() {
+        var cache = new Cache<String>("test", java.time.temporal.ChronoUnit.FOREVER.getDuration());
+        cache.add(key("a"), "A");
+        Assertions.assertEquals("A", cache.get(key("a")));
+    }
+
+    @Test
+    public void maxSizeEvictsLeastRecentlyUsed() {
+        var cache = new Cache<String>("test", Duration.ofHours(1), 2);
+        cache.add(key("a"), "A");
+        cache.add(key("b"), "B");
+        cache.get(key("a"));
+        cache.add(key("c"), "C");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals("A", cache.get(key("a")));
+        Assertions.assertNull(cache.get(key("b")));
+        Assertions.assertEquals("C", cache.get(key("c")));
+        Assertions.assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void stats() {
+        var cache = new Cache<String>("test");
+        cache.add(key("a"), "A");
+        cache.get(key("a"));
+        cache.get(key("a"));
+        cache.get(key("b"));
+
+        Assertions.assertEquals(2, cache.getStats().getHits());
+        Assertions.assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void lookup() {
+        var cache = new Cache<String>("test");
+        cache.add(key("a"), "A");
+        cache.addMissing(key("b"));
+
+        Assertions.assertEquals("A", cache.lookup(key("a")).getValue());
+        var missing = cache.lookup(key("b"));
+        Assertions.assertTrue(missing.isMissing());
+        Assertions.assertNull(missing.getValue());
+        Assertions.assertNull(cache.lookup(key("c")));
+
+        Assertions.assertEquals(2, cache.getStats().getHits());
+        Assertions.assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void evict() {
+        var cache = new Cache<String>("test");
+        cache.add(key("a"), "A");
+        cache.evict(key("a"));
+        Assertions.assertFalse(cache.isPresent(key("a")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+public class ConfirmationServiceTest {
+    @Test
+    public void await() throws Exception {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a = service.await("A", 105);
+        var b = service.await("B", 105);
+        Assertions.assertEquals(1, feed.starts);
+        Assertions.assertEquals(2, service.pendingCount());
+
+        feed.publish(101, "X", "A");
+        Assertions.assertEquals(101, a.get());
+        Assertions.assertFalse(b.isDone());
+        Assertions.assertTrue(feed.running);
+
+        feed.publish(102, "B");
+        Assertions.assertEquals(102, b.get());
+        Assertions.assertEquals(0, service.pendingCount());
+        // No load while nothing is pending.
+        Assertions.assertFalse(feed.running);
+        Assertions.assertEquals(102, service.getValidatedIndex());
+    }
+
+    @Test
+    public void expired() {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a = service.await("A", 103);
+        feed.publish(102);
+        Assertions.assertFalse(a.isDone());
+        // Could still be included in its LastLedgerSequence.
+        feed.publish(103);
+        var e = Assertions.assertThrows(ExecutionException.class, a::get);
+        Assertions.assertInstanceOf(LedgerException.class, e.getCause());
+        Assertions.assertFalse(feed.running);
+    }
+
+    @Test
+    public void expiredWithoutLastLedgerSequence() {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a = service.await("A");
+        for (var i = 0; i < 10; i++) {
+            feed.publish(200 + i);
+            Assertions.assertFalse(a.isDone());
+        }
+        feed.publish(210);
+        Assertions.assertTrue(a.isCompletedExceptionally());
+    }
+
+    @Test
+    public void sameTransactionAwaitedTwice() throws Exception {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a1 = service.await("A", 110);
+        var a2 = service.await("A", 110);
+        Assertions.assertEquals(1, service.pendingCount());
+
+        feed.publish(101, "A");
+        Assertions.assertEquals(101, a1.get());
+        Assertions.assertEquals(101, a2.get());
+    }
+
+    @Test
+    public void cancel() {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a = service.await("A", 110);
+        a.cancel(false);
+        Assertions.assertEquals(0, service.pendingCount());
+        Assertions.assertFalse(feed.running);
+
+        service.await("B", 110);
+        Assertions.assertEquals(2, feed.starts);
+    }
+
+    @Test
+    public void ignoresOldLedgers() {
+        var feed = new FakeFeed();
+        var service = new ConfirmationService(feed);
+
+        var a = service.await("A", 110);
+        feed.publish(105);
+        feed.publish(104, "A");
+        Assertions.assertFalse(a.isDone());
+    }
+
+    @Test
+    public void argNull() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfirmationService(null));
+        var service = new ConfirmationService(new FakeFeed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.await(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.await(null, 1));
+    }
+
+    private static class FakeFeed implements LedgerFeed {
+        private Consumer<ValidatedLedger> listener;
+        private boolean running;
+        private int starts;
+
+        @Override
+        public void start(Consumer<ValidatedLedger> listener) {
+            this.listener = listener;
+            running = true;
+            starts++;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+        }
+
+        public void publish(long index, String... transactionIds) {
+            listener.accept(new ValidatedLedger(index, List.of(transactionIds)));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MoneySumsTest {
+    private static final Currency xrp = new Currency("XRP");
+    private static final Currency usd = new Currency("USD");
+
+    @Test
+    public void sum() {
+        var sums = new MoneySums();
+        for (var i = 0; i < 10; i++) {
+            sums.plus(Money.of(0.1, xrp));
+            sums.plus(Money.of(0.01, usd));
+        }
+
+        Assertions.assertEquals(1.0, sums.sum(xrp).doubleValue());
+        Assertions.assertEquals(0.1, sums.sum(usd).doubleValue());
+        Assertions.assertEquals(0, sums.sum(new Currency("EUR")).doubleValue());
+        Assertions.assertArrayEquals(new Currency[]{xrp, usd}, sums.currencies());
+        Assertions.assertEquals(2, sums.sum().length);
+        Assertions.assertEquals("size: 20", sums.toString());
+    }
+
+    @Test
+    public void sumNotExact() {
+        var sums = new MoneySums();
+        sums.plus(Money.of(0.5, usd));
+        // Not representable with 2 decimals, further amounts are added as double.
+        sums.plus(Money.of(0.001, usd));
+        sums.plus(Money.of(0.25, usd));
+
+        Assertions.assertEquals(0.5 + 0.001 + 0.25, sums.sum(usd).doubleValue());
+    }
+
+    @Test
+    public void manyCurrencies() {
+        var sums = new MoneySums();
+        for (var i = 0; i < 20; i++) {
+            sums.plus(Money.of(i, new Currency("C" + i)));
+        }
+
+        Assertions.assertEquals(20, sums.currencies().length);
+        Assertions.assertEquals(19, sums.sum(new Currency("C19")).doubleValue());
+    }
+
+    @Test
+    public void sameIssuerOtherInstance() {
+        var ledger = new TestLedger();
+        var first = new Currency("USD", ledger.createWallet("rvYAfWj5gh67oV6fW32ZzP3Aw4Eubs59B", null));
+        var second = new Currency("USD", ledger.createWallet("rvYAfWj5gh67oV6fW32ZzP3Aw4Eubs59B", null));
+        var other = new Currency("USD", ledger.createWallet("rhub8VRN55s94qWKDv6jmDy1pUykJzF3wq", null));
+
+        var sums = new MoneySums();
+        sums.plus(Money.of(10.0, first));
+        sums.plus(Money.of(5.0, second));
+        sums.plus(Money.of(1.0, other));
+
+        Assertions.assertEquals(2, sums.currencies().length);
+        Assertions.assertEquals(15.0, sums.sum(first).doubleValue());
+        Assertions.assertEquals(15.0, sums.sum(second).doubleValue());
+        Assertions.assertEquals(1.0, sums.sum(other).doubleValue());
+    }
+}
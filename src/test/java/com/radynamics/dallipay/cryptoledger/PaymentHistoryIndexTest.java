@@ -0,0 +1,55 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestPaymentFactory;
+import com.radynamics.dallipay.iso20022.pain001.TestTransaction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+
+public class PaymentHistoryIndexTest {
+    private final TestLedger ledger = new TestLedger();
+    private final ZonedDateTime start = ZonedDateTime.now().minusDays(10);
+
+    @Test
+    public void oldestSimilarOrDefault() {
+        var history = new Transaction[]{
+                create("bbb", null, 100.0, 0), create("bbb", null, 101.0, 1), create("bbb", "1", 100.0, 2),
+                create("ccc", null, 100.0, 3), create("bbb", null, 50.0, 4)};
+        var index = new PaymentHistoryIndex(history);
+
+        Assertions.assertSame(history[0], index.oldestSimilarOrDefault(createPayment("bbb", null, 100.0)));
+        // Within 2% of 101 but not of 100.
+        Assertions.assertSame(history[1], index.oldestSimilarOrDefault(createPayment("bbb", null, 103.0)));
+        Assertions.assertNull(index.oldestSimilarOrDefault(createPayment("bbb", null, 104.0)));
+        Assertions.assertSame(history[2], index.oldestSimilarOrDefault(createPayment("bbb", "1", 99.0)));
+        Assertions.assertNull(index.oldestSimilarOrDefault(createPayment("bbb", "2", 100.0)));
+        Assertions.assertSame(history[3], index.oldestSimilarOrDefault(createPayment("ccc", null, 100.0)));
+        Assertions.assertSame(history[4], index.oldestSimilarOrDefault(createPayment("bbb", null, 50.5)));
+        Assertions.assertNull(index.oldestSimilarOrDefault(createPayment("ddd", null, 100.0)));
+    }
+
+    @Test
+    public void oldestSimilarOrDefaultOtherCcy() {
+        var t = create("bbb", null, 100.0, 0);
+        t.setAmount(Money.of(100.0, new Currency("USD", ledger.createWallet("aaa", null))));
+        var index = new PaymentHistoryIndex(new Transaction[]{t});
+
+        Assertions.assertNull(index.oldestSimilarOrDefault(createPayment("bbb", null, 100.0)));
+    }
+
+    private TestTransaction create(String receiver, String destinationTag, double amount, int daysAfterStart) {
+        var t = TestPaymentFactory.createTransaction(ledger, "aaa", receiver, amount);
+        t.setDestinationTag(destinationTag);
+        t.setBooked(start.plusDays(daysAfterStart));
+        return t;
+    }
+
+    private Payment createPayment(String receiver, String destinationTag, double amount) {
+        return TestPaymentFactory.create(create(receiver, destinationTag, amount, 20));
+    }
+}
@@ -0,0 +1,55 @@
+package com.radynamics.dallipay.cryptoledger;
+
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestPaymentFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PaymentIndexTest {
+    private final TestLedger ledger = new TestLedger();
+
+    @Test
+    public void bySender() {
+        var payments = new Payment[]{create("aaa", "bbb"), create("bbb", "aaa"), create("aaa", "ccc"), create(null, "ccc")};
+        var index = PaymentIndex.of(payments);
+
+        var wallets = index.sendingWallets();
+        Assertions.assertEquals(3, wallets.size());
+        Assertions.assertEquals("aaa", wallets.get(0).getPublicKey());
+        Assertions.assertEquals("bbb", wallets.get(1).getPublicKey());
+        Assertions.assertNull(wallets.get(2));
+
+        var fromSender = index.fromSender(ledger.createWallet("aaa", null));
+        Assertions.assertEquals(2, fromSender.size());
+        Assertions.assertSame(payments[0], fromSender.get(0));
+        Assertions.assertSame(payments[2], fromSender.get(1));
+        Assertions.assertSame(payments[3], index.fromSender(null).get(0));
+        Assertions.assertEquals(0, index.fromSender(ledger.createWallet("ddd", null)).size());
+    }
+
+    @Test
+    public void byReceiver() {
+        var payments = new Payment[]{create("aaa", "bbb"), create("bbb", "aaa"), create("aaa", "ccc"), create("bbb", "ccc")};
+        var index = PaymentIndex.of(payments);
+
+        Assertions.assertEquals(3, index.byReceiver().size());
+        var toReceiver = index.toReceiver(ledger.createWallet("ccc", null));
+        Assertions.assertEquals(2, toReceiver.size());
+        Assertions.assertSame(payments[3], toReceiver.get(1));
+    }
+
+    @Test
+    public void ledgers() {
+        var payments = new Payment[]{create("aaa", "bbb"), create("bbb", "aaa")};
+        var index = PaymentIndex.of(payments);
+
+        Assertions.assertEquals(1, index.ledgers().length);
+        Assertions.assertSame(ledger, index.getLedger(ledger.createWallet("aaa", null)).orElseThrow());
+        Assertions.assertTrue(index.getLedger(ledger.createWallet("ccc", null)).isEmpty());
+    }
+
+    private Payment create(String sender, String receiver) {
+        return TestPaymentFactory.create(ledger, sender, receiver, 1.0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+
+public class AddressIndexTest {
+    private static class FakeSource implements AddressIndex.Source {
+        private final LinkedHashMap<String, List<String>> wallets = new LinkedHashMap<>();
+        private int builds;
+
+        @Override
+        public List<String> walletNames() {
+            builds++;
+            return new ArrayList<>(wallets.keySet());
+        }
+
+        @Override
+        public List<String> addresses(String walletName) {
+            return wallets.get(walletName);
+        }
+    }
+
+    @Test
+    public void hit() {
+        var source = new FakeSource();
+        source.wallets.put("w1", List.of("a1", "a2"));
+        source.wallets.put("w2", List.of("b1", "a1"));
+        var index = new AddressIndex(source, Duration.ofSeconds(60));
+        index.rebuild();
+
+        Assertions.assertEquals(Optional.of("w1"), index.walletNameOf("a2"));
+        // Address held by multiple wallets is resolved to the first one.
+        Assertions.assertEquals(Optional.of("w1"), index.walletNameOf("a1"));
+        Assertions.assertEquals(Optional.of("w2"), index.walletNameOf("b1"));
+        Assertions.assertEquals(List.of("a1", "a2", "b1"), index.addresses());
+        Assertions.assertEquals(1, source.builds);
+    }
+
+    @Test
+    public void missRebuilds() {
+        var source = new FakeSource();
+        source.wallets.put("w1", List.of("a1"));
+        var index = new AddressIndex(source, Duration.ZERO);
+        index.rebuild();
+
+        // Wallet created in bitcoinCore after the index was built.
+        source.wallets.put("w2", List.of("b1"));
+        Assertions.assertEquals(Optional.of("w2"), index.walletNameOf("b1"));
+        Assertions.assertEquals(2, source.builds);
+
+        Assertions.assertEquals(Optional.empty(), index.walletNameOf("unknown"));
+        Assertions.assertEquals(3, source.builds);
+    }
+
+    @Test
+    public void missThrottled() {
+        var source = new FakeSource();
+        source.wallets.put("w1", List.of("a1"));
+        var index = new AddressIndex(source, Duration.ofSeconds(60));
+
+        // Never built before, therefore built on the first miss.
+        Assertions.assertEquals(Optional.of("w1"), index.walletNameOf("a1"));
+        Assertions.assertEquals(1, source.builds);
+
+        source.wallets.put("w1", List.of("a1", "a2"));
+        for (var i = 0; i < 10; i++) {
+            Assertions.assertEquals(Optional.empty(), index.walletNameOf("a2"));
+        }
+        Assertions.assertEquals(1, source.builds);
+
+        index.add("w1", List.of("a2"));
+        Assertions.assertEquals(Optional.of("w1"), index.walletNameOf("a2"));
+        Assertions.assertEquals(1, source.builds);
+    }
+}
@@ -0,0 +1,94 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.cryptoledger.bitcoin.Ledger;
+import com.radynamics.dallipay.cryptoledger.generic.Transaction;
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.Money;
+import okhttp3.HttpUrl;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+public class JsonRpcApiTest {
+    private static final String singleInput = "a".repeat(64);
+    private static final String coinbase = "b".repeat(64);
+    private static final String multiInput = "e".repeat(64);
+
+    private final Ledger ledger = new Ledger();
+    private final JsonRpcApi api = new JsonRpcApi(ledger, NetworkInfo.createTestnet(HttpUrl.get("http://localhost:18443"), "Test"));
+
+    /**
+     * Raw transactions recorded from bitcoinCore (regtest), keyed by txid.
+     */
+    private Map<String, RawTransaction> loadRawTransactions() {
+        var in = getClass().getClassLoader().getResourceAsStream("bitcoin/getrawtransaction.json");
+        var fixtures = new JSONObject(new JSONTokener(in));
+        var rawTxs = new HashMap<String, RawTransaction>();
+        for (var txId : fixtures.keySet()) {
+            rawTxs.put(txId, RawTransaction.of(fixtures.getJSONObject(txId).getJSONObject("result")));
+        }
+        return rawTxs;
+    }
+
+    @Test
+    public void getSenderSingleInput() {
+        var rawTxs = loadRawTransactions();
+
+        var sender = api.getSender(null, new BigDecimal("0.0001"), rawTxs.get(singleInput), rawTxs);
+        Assertions.assertEquals("bcrt1qpu4k448zc0z2ru7khr56psd9u06tddk8ay3k0d", sender.map(Wallet::getPublicKey).orElse(null));
+    }
+
+    @Test
+    public void getSenderMultipleInputs() {
+        var rawTxs = loadRawTransactions();
+        var tx = rawTxs.get(multiInput);
+
+        // The input spending the transferred amount.
+        var sender = api.getSender(null, new BigDecimal("0.00009"), tx, rawTxs);
+        Assertions.assertEquals("mpXwg4jMtRhuSpVq4xS3HFHmCmWp9NyGKt", sender.map(Wallet::getPublicKey).orElse(null));
+        sender = api.getSender(null, new BigDecimal("0.5"), tx, rawTxs);
+        Assertions.assertEquals("2N5MVKHNfGn5QTv6tyYT3b6u6f7w3x4VNsv", sender.map(Wallet::getPublicKey).orElse(null));
+
+        // No input matches the amount.
+        Assertions.assertTrue(api.getSender(null, new BigDecimal("0.50008"), tx, rawTxs).isEmpty());
+    }
+
+    @Test
+    public void getSenderUnknown() {
+        var rawTxs = loadRawTransactions();
+
+        Assertions.assertTrue(api.getSender(null, new BigDecimal("0.5"), rawTxs.get(coinbase), rawTxs).isEmpty());
+        // Spent transaction not loaded.
+        var singleInputOnly = Map.of(singleInput, rawTxs.get(singleInput));
+        Assertions.assertTrue(api.getSender(null, new BigDecimal("0.0001"), rawTxs.get(singleInput), singleInputOnly).isEmpty());
+    }
+
+    @Test
+    public void getSenderAccount() {
+        var rawTxs = loadRawTransactions();
+
+        var sender = api.getSender("mpXwg4jMtRhuSpVq4xS3HFHmCmWp9NyGKt", new BigDecimal("0.5"), rawTxs.get(multiInput), rawTxs);
+        Assertions.assertEquals("mpXwg4jMtRhuSpVq4xS3HFHmCmWp9NyGKt", sender.map(Wallet::getPublicKey).orElse(null));
+    }
+
+    @Test
+    public void addMemos() {
+        var rawTxs = loadRawTransactions();
+
+        var trx = new Transaction(ledger, Money.zero(new Currency("BTC")));
+        JsonRpcApi.addMemos(trx, rawTxs.get(singleInput));
+        Assertions.assertArrayEquals(new String[]{"Hello World"}, trx.getMessages());
+
+        // No OP_RETURN output.
+        trx = new Transaction(ledger, Money.zero(new Currency("BTC")));
+        JsonRpcApi.addMemos(trx, rawTxs.get(multiInput));
+        Assertions.assertEquals(0, trx.getMessages().length);
+    }
+}
@@ -0,0 +1,135 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RawTransactionCacheTest {
+    private static final String confirmed = "a".repeat(64);
+    private static final String input = "b".repeat(64);
+    private static final String unconfirmed = "c".repeat(64);
+    private static final String unknown = "d".repeat(64);
+
+    @Test
+    public void getAll() throws Exception {
+        var transport = new FixtureTransport();
+        var cache = new RawTransactionCache(new BatchJsonRpcClient(transport));
+
+        var result = cache.getAll(List.of(confirmed, unconfirmed, unknown, confirmed));
+        Assertions.assertEquals(1, transport.requests.size());
+        Assertions.assertEquals(3, transport.requests.get(0).length());
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertFalse(result.containsKey(unknown));
+        Assertions.assertTrue(result.get(confirmed).isConfirmed());
+        Assertions.assertFalse(result.get(unconfirmed).isConfirmed());
+        Assertions.assertEquals(1, cache.size());
+
+        // Only unconfirmed transactions are loaded again.
+        result = cache.getAll(List.of(confirmed, unconfirmed));
+        Assertions.assertEquals(2, transport.requests.size());
+        Assertions.assertEquals(1, transport.requests.get(1).length());
+        Assertions.assertEquals(unconfirmed, transport.requests.get(1).getJSONObject(0).getJSONArray("params").getString(0));
+        Assertions.assertEquals(2, result.size());
+
+        cache.getAll(List.of(confirmed));
+        Assertions.assertEquals(2, transport.requests.size());
+    }
+
+    @Test
+    public void getAllWithInputs() throws Exception {
+        var transport = new FixtureTransport();
+        var cache = new RawTransactionCache(new BatchJsonRpcClient(transport));
+
+        var result = cache.getAllWithInputs(List.of(confirmed));
+        Assertions.assertEquals(2, transport.requests.size());
+        Assertions.assertEquals(2, result.size());
+
+        var tx = result.get(confirmed);
+        var in = tx.getVIn().get(0);
+        Assertions.assertEquals(input, in.getTxId());
+        var spent = result.get(in.getTxId()).getVOut(in.getVOut()).orElseThrow();
+        Assertions.assertEquals("bcrt1qpu4k448zc0z2ru7khr56psd9u06tddk8ay3k0d", spent.getAddress());
+        Assertions.assertEquals(0, new BigDecimal("0.00012").compareTo(spent.getValue()));
+        Assertions.assertTrue(result.get(input).getVIn().get(0).isCoinbase());
+
+        // Inputs already known aren't requested again.
+        cache.getAllWithInputs(List.of(confirmed, input));
+        Assertions.assertEquals(2, transport.requests.size());
+    }
+
+    @Test
+    public void decodeOutputs() throws Exception {
+        var cache = new RawTransactionCache(new BatchJsonRpcClient(new FixtureTransport()));
+        var tx = cache.getAll(List.of(confirmed)).get(confirmed);
+
+        Assertions.assertEquals(2, tx.getVOut().size());
+        var payment = tx.getVOut(0).orElseThrow();
+        Assertions.assertEquals(ScriptDecoder.Type.WitnessV0KeyHash, ScriptDecoder.type(payment.getScriptHex()));
+        Assertions.assertTrue(ScriptDecoder.opReturnData(payment.getScriptHex()).isEmpty());
+
+        var memo = tx.getVOut(1).orElseThrow();
+        Assertions.assertNull(memo.getAddress());
+        Assertions.assertEquals("Hello World", new String(ScriptDecoder.opReturnData(memo.getScriptHex()).orElseThrow(), StandardCharsets.UTF_8));
+        Assertions.assertTrue(tx.getVOut(2).isEmpty());
+    }
+
+    @Test
+    public void batchSize() throws Exception {
+        var transport = new FixtureTransport();
+        var client = new BatchJsonRpcClient(transport);
+        var params = new ArrayList<Object[]>();
+        for (var i = 0; i < 250; i++) {
+            params.add(new Object[]{unknown, true});
+        }
+
+        var results = client.call("getrawtransaction", params);
+        Assertions.assertEquals(3, transport.requests.size());
+        Assertions.assertEquals(50, transport.requests.get(2).length());
+        Assertions.assertEquals(250, results.length);
+    }
+
+    /**
+     * Answers getrawtransaction batches with responses recorded from bitcoinCore (regtest). Responses are returned in
+     * reverse order, like bitcoinCore may do.
+     */
+    private static class FixtureTransport implements BatchJsonRpcClient.Transport {
+        private final JSONObject fixtures;
+        private final ArrayList<JSONArray> requests = new ArrayList<>();
+
+        public FixtureTransport() {
+            var in = getClass().getClassLoader().getResourceAsStream("bitcoin/getrawtransaction.json");
+            fixtures = new JSONObject(new JSONTokener(in));
+        }
+
+        @Override
+        public String post(String body) {
+            var request = new JSONArray(body);
+            requests.add(request);
+
+            var response = new JSONArray();
+            for (var i = request.length() - 1; i >= 0; i--) {
+                var call = request.getJSONObject(i);
+                Assertions.assertEquals("getrawtransaction", call.getString("method"));
+                var txId = call.getJSONArray("params").getString(0);
+                var o = new JSONObject();
+                o.put("id", call.get("id"));
+                if (fixtures.has(txId)) {
+                    o.put("result", fixtures.getJSONObject(txId).getJSONObject("result"));
+                    o.put("error", JSONObject.NULL);
+                } else {
+                    o.put("result", JSONObject.NULL);
+                    o.put("error", new JSONObject().put("code", -5).put("message", "No such mempool or blockchain transaction. Use gettransaction for wallet transactions."));
+                }
+                response.put(o);
+            }
+            return response.toString();
+        }
+    }
+}
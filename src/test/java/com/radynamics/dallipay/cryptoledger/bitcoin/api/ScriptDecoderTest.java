@@ -0,0 +1,76 @@
+package com.radynamics.dallipay.cryptoledger.bitcoin.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+
+public class ScriptDecoderTest {
+    @ParameterizedTest
+    @CsvSource({
+            "6a0b48656c6c6f20576f726c64,NullData",
+            "6a,NullData",
+            "76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac,PubKeyHash",
+            "a91489abcdefabbaabbaabbaabbaabbaabbaabbaabba87,ScriptHash",
+            "0014751e76e8199196d454941c45d1b3a323f1433bd6,WitnessV0KeyHash",
+            "00201863143c14c5166804bd19203356da136c985678cd4d27a1b8c6329604903262,WitnessV0ScriptHash",
+            "5120a60869f0dbcf1dc659c9cecbaf8050135ea9e8cdc487053f1dc6880949dc684c,WitnessV1Taproot",
+            "0014751e76e8199196d454941c45d1b3a323f1433b,NonStandard",
+            "'',NonStandard",
+    })
+    public void type(String scriptHex, ScriptDecoder.Type expected) {
+        Assertions.assertEquals(expected, ScriptDecoder.type(scriptHex));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Direct push
+            "6a0b48656c6c6f20576f726c64,Hello World",
+            // OP_PUSHDATA1
+            "6a4c0b48656c6c6f20576f726c64,Hello World",
+            // OP_PUSHDATA2
+            "6a4d0b0048656c6c6f20576f726c64,Hello World",
+            // OP_PUSHDATA4
+            "6a4e0b00000048656c6c6f20576f726c64,Hello World",
+            // Multiple pushes are concatenated
+            "6a0548656c6c6f0620576f726c64,Hello World",
+            // Short pushes shown as number by decodescript's asm
+            "6a0448656c6c,Hell",
+    })
+    public void opReturnData(String scriptHex, String expected) {
+        var data = ScriptDecoder.opReturnData(scriptHex);
+        Assertions.assertTrue(data.isPresent());
+        Assertions.assertEquals(expected, new String(data.get(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void opReturnDataEmpty() {
+        Assertions.assertEquals(0, ScriptDecoder.opReturnData("6a").orElseThrow().length);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Not an OP_RETURN script
+            "0014751e76e8199196d454941c45d1b3a323f1433bd6",
+            "''",
+            // Push exceeds script
+            "6a0c48656c6c6f20576f726c64",
+            "6a4c",
+            "6a4d0b",
+            "6a4effffffff48",
+            // Non push opcode
+            "6a0548656c6c6fac",
+    })
+    public void opReturnDataInvalid(String scriptHex) {
+        Assertions.assertTrue(ScriptDecoder.opReturnData(scriptHex).isEmpty());
+    }
+
+    @Test
+    public void invalidHex() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ScriptDecoder.type("6a0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ScriptDecoder.opReturnData("zz"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ScriptDecoder.type(null));
+    }
+}
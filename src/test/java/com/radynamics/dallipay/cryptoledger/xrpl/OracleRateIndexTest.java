@@ -0,0 +1,56 @@
+package com.radynamics.dallipay.cryptoledger.xrpl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OracleRateIndexTest {
+    private static OracleRateIndex create() {
+        // Intentionally not sorted.
+        return new OracleRateIndex(100, 200, new long[]{150, 110, 130}, new double[]{0.55, 0.51, 0.53}, new long[]{15, 11, 13});
+    }
+
+    @Test
+    public void sorted() {
+        var index = create();
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(110, index.getPosition(0));
+        Assertions.assertEquals(0.51, index.getRate(0));
+        Assertions.assertEquals(11, index.getBookedMillis(0));
+        Assertions.assertEquals(150, index.getPosition(2));
+        Assertions.assertEquals(0.55, index.getRate(2));
+    }
+
+    @Test
+    public void nearest() {
+        var index = create();
+        Assertions.assertEquals(110, index.getPosition(index.nearest(100)));
+        Assertions.assertEquals(110, index.getPosition(index.nearest(110)));
+        Assertions.assertEquals(110, index.getPosition(index.nearest(119)));
+        // Equal distance returns the earlier one.
+        Assertions.assertEquals(110, index.getPosition(index.nearest(120)));
+        Assertions.assertEquals(130, index.getPosition(index.nearest(121)));
+        Assertions.assertEquals(150, index.getPosition(index.nearest(141)));
+        Assertions.assertEquals(150, index.getPosition(index.nearest(500)));
+    }
+
+    @Test
+    public void nearestEmpty() {
+        var index = new OracleRateIndex(100, 200, new long[0], new double[0], new long[0]);
+        Assertions.assertEquals(-1, index.nearest(150));
+    }
+
+    @Test
+    public void covers() {
+        var index = create();
+        Assertions.assertTrue(index.covers(100, 200));
+        Assertions.assertTrue(index.covers(120, 180));
+        Assertions.assertFalse(index.covers(99, 150));
+        Assertions.assertFalse(index.covers(150, 201));
+    }
+
+    @Test
+    public void ctrLengthMismatch() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OracleRateIndex(0, 1, new long[]{1}, new double[0], new long[]{1}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OracleRateIndex(0, 1, new long[]{1}, new double[]{1}, new long[0]));
+    }
+}
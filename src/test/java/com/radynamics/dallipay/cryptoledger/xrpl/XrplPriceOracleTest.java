@@ -0,0 +1,148 @@
+package com.radynamics.dallipay.cryptoledger.xrpl;
+
+import com.radynamics.dallipay.DateTimeRange;
+import com.radynamics.dallipay.cryptoledger.LedgerId;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.cryptoledger.Transaction;
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.exchange.CurrencyPair;
+import com.radynamics.dallipay.exchange.ExchangeRateStore;
+import com.radynamics.dallipay.exchange.RateLookup;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestTransaction;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class XrplPriceOracleTest {
+    private static final CurrencyPair pair = new CurrencyPair("XRP", "USD");
+    private static final ZonedDateTime start = ZonedDateTime.of(2024, 3, 1, 10, 0, 0, 0, ZoneId.of("UTC"));
+
+    private static class OracleLedger extends Ledger {
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<DateTimeRange> requested = new ArrayList<>();
+        private DateTimeRange failing;
+
+        OracleLedger() {
+            setNetwork(NetworkInfo.createTestnet(HttpUrl.get("https://localhost"), "Test"));
+        }
+
+        void addRate(ZonedDateTime booked, double rate) {
+            var t = new TestTransaction(new TestLedger(), 1d, "USD");
+            t.setBooked(booked);
+            t.addMessage("%s;%s".formatted(rate, rate));
+            transactions.add(t);
+        }
+
+        @Override
+        public Transaction[] listTrustlineTransactions(com.radynamics.dallipay.cryptoledger.generic.Wallet wallet, DateTimeRange period, Wallet ccyIssuer, String ccy) throws Exception {
+            requested.add(period);
+            if (failing != null && period.isBetween(failing.getStart())) {
+                throw new Exception("oracle transactions not available");
+            }
+            var list = new ArrayList<Transaction>();
+            for (var t : transactions) {
+                if (!t.getBooked().isBefore(period.getStart()) && !t.getBooked().isAfter(period.getEnd())) {
+                    list.add(t);
+                }
+            }
+            return list.toArray(new Transaction[0]);
+        }
+    }
+
+    private static XrplPriceOracle create(OracleLedger ledger) {
+        var oracle = new XrplPriceOracle(ledger) {
+            private final ExchangeRateStore store = new ExchangeRateStore();
+
+            @Override
+            ExchangeRateStore getStore(IssuedCurrency issuedCcy) {
+                return store;
+            }
+        };
+        var issuer = new com.radynamics.dallipay.cryptoledger.generic.Wallet(LedgerId.Xrpl, "rhub8VRN55s94qWKDv6jmDy1pUykJzF3wq");
+        var receiver = new com.radynamics.dallipay.cryptoledger.generic.Wallet(LedgerId.Xrpl, "rPEPPER7kfTD9w2To4CQk6UCfuHM9c6GDY");
+        oracle.add(new IssuedCurrency(pair, issuer, receiver));
+        return oracle;
+    }
+
+    private static RateLookup at(ZonedDateTime pointInTime) {
+        // Without a block, points are matched by time.
+        return new RateLookup(pointInTime, null, null);
+    }
+
+    @Test
+    public void ratesAtClustersDistantPoints() {
+        var ledger = new OracleLedger();
+        ledger.addRate(start, 0.5);
+        ledger.addRate(start.plusMinutes(20), 0.51);
+        ledger.addRate(start.plusDays(10), 0.6);
+        var oracle = create(ledger);
+
+        var rates = oracle.ratesAt(pair, new RateLookup[]{at(start.plusDays(10)), at(start.plusMinutes(1)), at(start.plusMinutes(19))});
+
+        // Points close to each other are loaded at once, the distant one separately.
+        Assertions.assertEquals(2, ledger.requested.size());
+        Assertions.assertEquals(0.6, rates[0].getRate());
+        Assertions.assertEquals(0.5, rates[1].getRate());
+        Assertions.assertEquals(0.51, rates[2].getRate());
+        Assertions.assertEquals(2, oracle.getNetworkCalls());
+        Assertions.assertEquals(1, oracle.getSavedNetworkCalls());
+    }
+
+    @Test
+    public void ratesAtFailedCluster() {
+        var ledger = new OracleLedger();
+        ledger.addRate(start, 0.5);
+        ledger.addRate(start.plusDays(10), 0.6);
+        ledger.failing = DateTimeRange.of(start.plusDays(10), start.plusDays(10));
+        var oracle = create(ledger);
+
+        var rates = oracle.ratesAt(pair, new RateLookup[]{at(start), at(start.plusDays(10))});
+
+        Assertions.assertEquals(0.5, rates[0].getRate());
+        Assertions.assertNull(rates[1]);
+    }
+
+    @Test
+    public void reusePrefetched() {
+        var ledger = new OracleLedger();
+        ledger.addRate(start.minusMinutes(30), 0.5);
+        ledger.addRate(start.plusMinutes(5), 0.51);
+        ledger.addRate(start.plusMinutes(30), 0.52);
+        var oracle = create(ledger);
+
+        oracle.ratesAt(pair, new RateLookup[]{at(start.minusMinutes(30)), at(start.plusMinutes(30))});
+        Assertions.assertEquals(1, ledger.requested.size());
+        Assertions.assertEquals(1, oracle.getSavedNetworkCalls());
+
+        // Within the range loaded before.
+        var rates = oracle.ratesAt(pair, new RateLookup[]{at(start)});
+        Assertions.assertEquals(0.51, rates[0].getRate());
+        Assertions.assertEquals(0.51, oracle.rateAt(pair, start.plusMinutes(10), null, null).getRate());
+
+        Assertions.assertEquals(1, ledger.requested.size());
+        Assertions.assertEquals(1, oracle.getNetworkCalls());
+        Assertions.assertEquals(3, oracle.getSavedNetworkCalls());
+    }
+
+    @Test
+    public void recentNotReused() {
+        var now = ZonedDateTime.now(ZoneId.of("UTC"));
+        var ledger = new OracleLedger();
+        ledger.addRate(now.minusMinutes(10), 0.5);
+        var oracle = create(ledger);
+
+        oracle.ratesAt(pair, new RateLookup[]{at(now.minusMinutes(10)), at(now.minusMinutes(2))});
+        // Published after the first lookup, within the range loaded before.
+        ledger.addRate(now.minusMinutes(5), 0.6);
+        var rates = oracle.ratesAt(pair, new RateLookup[]{at(now.minusMinutes(6))});
+
+        Assertions.assertEquals(2, ledger.requested.size());
+        Assertions.assertEquals(0.6, rates[0].getRate());
+    }
+}
@@ -0,0 +1,103 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.radynamics.dallipay.cryptoledger.LedgerId;
+import com.radynamics.dallipay.cryptoledger.generic.Wallet;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestTransaction;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xrpl.xrpl4j.client.XrplClient;
+import org.xrpl.xrpl4j.model.client.accounts.AccountTransactionsRequestParams;
+import org.xrpl.xrpl4j.model.client.accounts.AccountTransactionsResult;
+import org.xrpl.xrpl4j.model.jackson.ObjectMapperFactory;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccountTransactionScannerTest {
+    private static AccountTransactionScanner create() {
+        var scanner = new AccountTransactionScanner(new XrplClient(HttpUrl.get("https://localhost")));
+        scanner.setParallelism(4);
+        return scanner;
+    }
+
+    private static Wallet wallet() {
+        return new Wallet(LedgerId.Xrpl, "rPEPPER7kfTD9w2To4CQk6UCfuHM9c6GDY");
+    }
+
+    @Test
+    public void createSplit() {
+        var scan = create().create(wallet(), 0, 199999, true);
+        var ranges = scan.getRanges();
+        Assertions.assertEquals(4, ranges.size());
+        Assertions.assertEquals(150000, ranges.get(0).getMin());
+        Assertions.assertEquals(199999, ranges.get(0).getMax());
+        for (var i = 1; i < ranges.size(); i++) {
+            Assertions.assertEquals(ranges.get(i - 1).getMin() - 1, ranges.get(i).getMax());
+        }
+        Assertions.assertEquals(0, ranges.get(ranges.size() - 1).getMin());
+        Assertions.assertFalse(scan.isDone());
+    }
+
+    @Test
+    public void createNotSplit() {
+        Assertions.assertEquals(1, create().create(wallet(), 0, 199999, false).getRanges().size());
+        Assertions.assertEquals(1, create().create(wallet(), 0, 99998, true).getRanges().size());
+        Assertions.assertEquals(1, create().create(wallet(), 100, -1, true).getRanges().size());
+    }
+
+    @Test
+    public void resumeAfterFailureWithinPage() throws Exception {
+        var requests = new AtomicInteger();
+        var scanner = new AccountTransactionScanner(new XrplClient(HttpUrl.get("https://localhost")) {
+            @Override
+            public AccountTransactionsResult accountTransactions(AccountTransactionsRequestParams params) {
+                requests.incrementAndGet();
+                return load(params.marker().isEmpty() ? "xrpl/account_tx_page1.json" : "xrpl/account_tx_page2.json");
+            }
+        });
+        var scan = scanner.create(wallet(), 45000000, 45000010, true);
+
+        // Fails on the second transaction of the second page, after the first one was converted.
+        var failed = new AtomicBoolean();
+        var ledger = new TestLedger();
+        var converted = new AtomicInteger();
+        Assertions.assertThrows(IllegalStateException.class, () -> scanner.scan(scan, Integer.MAX_VALUE, (t, amt) -> {
+            if (converted.incrementAndGet() == 4 && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("conversion failed");
+            }
+            var trx = new TestTransaction(ledger, 1d, "XRP");
+            trx.setId(t.hash().value());
+            return trx;
+        }));
+        Assertions.assertEquals(2, scan.getResult().size());
+        Assertions.assertFalse(scan.isDone());
+
+        scanner.scan(scan, Integer.MAX_VALUE, (t, amt) -> {
+            var trx = new TestTransaction(ledger, 1d, "XRP");
+            trx.setId(t.hash().value());
+            return trx;
+        });
+
+        Assertions.assertTrue(scan.isDone());
+        Assertions.assertEquals(3, requests.get());
+        var ids = new HashSet<String>();
+        for (var t : scan.getResult().transactions()) {
+            Assertions.assertTrue(ids.add(t.getId()), "Duplicate " + t.getId());
+        }
+        Assertions.assertEquals(4, ids.size());
+    }
+
+    private AccountTransactionsResult load(String resourceName) {
+        var objectMapper = ObjectMapperFactory.create();
+        try {
+            var json = objectMapper.readTree(getClass().getClassLoader().getResourceAsStream(resourceName));
+            return objectMapper.treeToValue(json.get("result"), AccountTransactionsResult.class);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
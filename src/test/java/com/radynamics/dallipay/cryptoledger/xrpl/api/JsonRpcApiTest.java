@@ -0,0 +1,114 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import com.google.common.primitives.UnsignedInteger;
+import com.radynamics.dallipay.cryptoledger.LedgerId;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.cryptoledger.generic.Wallet;
+import com.radynamics.dallipay.cryptoledger.xrpl.Ledger;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xrpl.xrpl4j.client.JsonRpcClientErrorException;
+import org.xrpl.xrpl4j.client.XrplClient;
+import org.xrpl.xrpl4j.model.client.accounts.AccountInfoRequestParams;
+import org.xrpl.xrpl4j.model.client.accounts.AccountInfoResult;
+import org.xrpl.xrpl4j.model.client.accounts.AccountLinesRequestParams;
+import org.xrpl.xrpl4j.model.client.accounts.AccountLinesResult;
+import org.xrpl.xrpl4j.model.client.accounts.TrustLine;
+import org.xrpl.xrpl4j.model.transactions.Address;
+import org.xrpl.xrpl4j.model.transactions.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JsonRpcApiTest {
+    private static final String WALLET = "rPEPPER7kfTD9w2To4CQk6UCfuHM9c6GDY";
+    private static final String ISSUER = "rhub8VRN55s94qWKDv6jmDy1pUykJzF3wq";
+
+    private static JsonRpcApi create(XrplClient client) {
+        return new JsonRpcApi(new Ledger(), NetworkInfo.createTestnet(HttpUrl.get("https://localhost"), "Test"), client);
+    }
+
+    @Test
+    public void accountInfoSingleFlight() throws Exception {
+        var threads = 8;
+        var started = new CountDownLatch(threads);
+        var calls = new AtomicInteger();
+        var api = create(new XrplClient(HttpUrl.get("https://localhost")) {
+            @Override
+            public AccountInfoResult accountInfo(AccountInfoRequestParams params) throws JsonRpcClientErrorException {
+                calls.incrementAndGet();
+                try {
+                    // Give all callers time to request the same wallet while this request is running.
+                    started.await(5, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new JsonRpcClientErrorException("Account not found.");
+            }
+        });
+
+        var results = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < threads; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                started.countDown();
+                return api.exists(new Wallet(LedgerId.Xrpl, WALLET));
+            }));
+        }
+
+        for (var r : results) {
+            Assertions.assertFalse(r.get(10, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void accountLinesPaged() {
+        var requested = new ArrayList<AccountLinesRequestParams>();
+        var api = create(new XrplClient(HttpUrl.get("https://localhost")) {
+            @Override
+            public AccountLinesResult accountLines(AccountLinesRequestParams params) {
+                requested.add(params);
+                return params.marker().isEmpty()
+                        ? createPage(trustLine("USD"), Marker.of("page2"))
+                        : createPage(trustLine("EUR"), null);
+            }
+        });
+
+        var trustlines = api.listTrustlines(new Wallet(LedgerId.Xrpl, WALLET));
+
+        Assertions.assertEquals(2, requested.size());
+        Assertions.assertEquals(Marker.of("page2"), requested.get(1).marker().orElse(null));
+        Assertions.assertEquals(2, trustlines.length);
+        Assertions.assertEquals("USD", trustlines[0].getBalance().getCcy().getCode());
+        Assertions.assertEquals("EUR", trustlines[1].getBalance().getCcy().getCode());
+        Assertions.assertEquals(ISSUER, trustlines[1].getBalance().getCcy().getIssuer().getPublicKey());
+    }
+
+    private static AccountLinesResult createPage(TrustLine line, Marker marker) {
+        return AccountLinesResult.builder()
+                .account(Address.of(WALLET))
+                .lines(List.of(line))
+                .marker(Optional.ofNullable(marker))
+                .build();
+    }
+
+    private static TrustLine trustLine(String ccy) {
+        // Limit 0 avoids loading the transfer fee of the issuer.
+        return TrustLine.builder()
+                .account(Address.of(ISSUER))
+                .balance("10")
+                .currency(ccy)
+                .limit("0")
+                .limitPeer("0")
+                .qualityIn(UnsignedInteger.ZERO)
+                .qualityOut(UnsignedInteger.ZERO)
+                .build();
+    }
+}
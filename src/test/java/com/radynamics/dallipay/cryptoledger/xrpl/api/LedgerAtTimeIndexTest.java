@@ -0,0 +1,80 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LedgerAtTimeIndexTest {
+    @Test
+    public void exact() {
+        var index = new LedgerAtTimeIndex();
+        Assertions.assertTrue(index.exact(1000).isEmpty());
+
+        index.add(1000, 10);
+        index.add(5000, 10);
+        index.add(9000, 12);
+
+        Assertions.assertEquals(10, index.exact(1000).getAsLong());
+        Assertions.assertEquals(10, index.exact(3000).getAsLong());
+        Assertions.assertEquals(10, index.exact(5000).getAsLong());
+        Assertions.assertTrue(index.exact(6000).isEmpty());
+        Assertions.assertTrue(index.exact(999).isEmpty());
+        Assertions.assertEquals(12, index.exact(9000).getAsLong());
+        Assertions.assertTrue(index.exact(9001).isEmpty());
+    }
+
+    @Test
+    public void addUnsorted() {
+        var index = new LedgerAtTimeIndex();
+        for (var i = 200; i > 0; i--) {
+            Assertions.assertTrue(index.add(i * 1000L, i));
+        }
+        Assertions.assertFalse(index.add(5000, 5));
+        Assertions.assertEquals(200, index.size());
+
+        for (var i = 1; i <= 200; i++) {
+            Assertions.assertEquals(i, index.exact(i * 1000L).getAsLong());
+        }
+    }
+
+    @Test
+    public void addSameTime() {
+        var index = new LedgerAtTimeIndex();
+        index.add(1000, 10);
+        // Multiple ledgers closed at the same time, the latest one counts.
+        Assertions.assertTrue(index.add(1000, 11));
+        Assertions.assertEquals(11, index.exact(1000).getAsLong());
+        index.add(1000, 10);
+        Assertions.assertEquals(11, index.exact(1000).getAsLong());
+        Assertions.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void floorHigher() {
+        var index = new LedgerAtTimeIndex();
+        index.add(1000, 10);
+        index.add(5000, 20);
+
+        Assertions.assertNull(index.floor(999));
+        Assertions.assertEquals(10, index.floor(1000).getLedgerIndex());
+        Assertions.assertEquals(10, index.floor(4999).getLedgerIndex());
+        Assertions.assertEquals(20, index.floor(6000).getLedgerIndex());
+
+        Assertions.assertEquals(10, index.higher(999).getLedgerIndex());
+        Assertions.assertEquals(20, index.higher(1000).getLedgerIndex());
+        Assertions.assertNull(index.higher(5000));
+    }
+
+    @Test
+    public void estimate() {
+        var index = new LedgerAtTimeIndex();
+        index.add(0, 100);
+        Assertions.assertTrue(index.estimate(500).isEmpty());
+
+        index.add(40000, 110);
+        Assertions.assertEquals(100, index.estimate(0).getAsLong());
+        Assertions.assertEquals(105, index.estimate(20000).getAsLong());
+        Assertions.assertEquals(109, index.estimate(36000).getAsLong());
+        Assertions.assertTrue(index.estimate(-1).isEmpty());
+        Assertions.assertTrue(index.estimate(40000).isEmpty());
+    }
+}
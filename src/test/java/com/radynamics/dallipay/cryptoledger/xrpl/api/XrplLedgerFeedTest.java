@@ -0,0 +1,28 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.api;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+public class XrplLedgerFeedTest {
+    @Test
+    public void toValidatedLedger() throws IOException {
+        var ledger = XrplLedgerFeed.toValidatedLedger(load("xrpl/ledger_validated.json"));
+        Assertions.assertEquals(45123456, ledger.getIndex());
+        Assertions.assertEquals(2, ledger.size());
+        Assertions.assertTrue(ledger.contains("E08D6E9754025BA2534A78707605E0601F03ACE063687A0CA1BDDACFCD1698C7"));
+        Assertions.assertFalse(ledger.contains("E08D6E9754025BA2534A78707605E0601F03ACE063687A0CA1BDDACFCD1698C8"));
+    }
+
+    @Test
+    public void toValidatedLedgerError() {
+        Assertions.assertThrows(IOException.class, () -> XrplLedgerFeed.toValidatedLedger(load("xrpl/ledger_notFound.json")));
+    }
+
+    private JSONObject load(String resourceName) {
+        return new JSONObject(new JSONTokener(getClass().getClassLoader().getResourceAsStream(resourceName)));
+    }
+}
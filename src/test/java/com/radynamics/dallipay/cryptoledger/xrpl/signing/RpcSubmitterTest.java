@@ -0,0 +1,37 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.signing;
+
+import com.radynamics.dallipay.cryptoledger.xrpl.Ledger;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xrpl.xrpl4j.client.JsonRpcClientErrorException;
+import org.xrpl.xrpl4j.client.XrplClient;
+import org.xrpl.xrpl4j.model.client.transactions.TransactionRequestParams;
+import org.xrpl.xrpl4j.model.client.transactions.TransactionResult;
+import org.xrpl.xrpl4j.model.transactions.Transaction;
+
+public class RpcSubmitterTest {
+    private static final String hash = "E08D6E9754025BA2534A78707605E0601F03ACE063687A0CA1BDDACFCD1698C7";
+
+    private static RpcSubmitter.XrplChannel create(String error) {
+        var submitter = new RpcSubmitter(new Ledger(), null);
+        return submitter.new XrplChannel(new XrplClient(HttpUrl.get("https://localhost")) {
+            @Override
+            public <T extends Transaction> TransactionResult<T> transaction(TransactionRequestParams params, Class<T> transactionType) throws JsonRpcClientErrorException {
+                throw new JsonRpcClientErrorException(error);
+            }
+        });
+    }
+
+    @Test
+    public void statusNotFound() throws Exception {
+        Assertions.assertFalse(create("Transaction not found.").status(hash).isValidated());
+    }
+
+    @Test
+    public void statusOtherError() {
+        // Eg. server overloaded, the transaction may have been applied.
+        var e = Assertions.assertThrows(JsonRpcClientErrorException.class, () -> create("Too many requests.").status(hash));
+        Assertions.assertEquals("Too many requests.", e.getMessage());
+    }
+}
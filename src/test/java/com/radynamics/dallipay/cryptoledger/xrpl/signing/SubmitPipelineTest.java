@@ -0,0 +1,333 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.signing;
+
+import com.radynamics.dallipay.concurrent.ExecutorProvider;
+import com.radynamics.dallipay.concurrent.ScheduledTask;
+import com.radynamics.dallipay.concurrent.Workload;
+import com.radynamics.dallipay.cryptoledger.ConfirmationService;
+import com.radynamics.dallipay.cryptoledger.LedgerException;
+import com.radynamics.dallipay.cryptoledger.LedgerFeed;
+import com.radynamics.dallipay.cryptoledger.ValidatedLedger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+public class SubmitPipelineTest {
+    private static final String account = "rwYb1M4hZcSG6tcAuhvgEwSpsiACKv6BG8";
+
+    @Test
+    public void submitAhead() {
+        var ledger = new FakeLedger();
+        var callback = new RecordingCallback();
+        var items = items(25);
+
+        create(ledger, 10).run(account, items, callback);
+
+        Assertions.assertEquals(1, ledger.accountInfoCalls);
+        Assertions.assertEquals(new HashSet<>(items), new HashSet<>(callback.succeeded));
+        Assertions.assertEquals(items, ledger.applied);
+        Assertions.assertTrue(callback.failed.isEmpty());
+        Assertions.assertEquals(10, ledger.maxPending);
+        Assertions.assertEquals(125, ledger.accountSequence);
+        // Status is only requested once per transaction, no polling.
+        Assertions.assertEquals(25, ledger.statusCalls);
+        Assertions.assertFalse(ledger.isRunning());
+    }
+
+    @Test
+    public void windowOfOne() {
+        var ledger = new FakeLedger();
+        var callback = new RecordingCallback();
+
+        create(ledger, 1).run(account, items(5), callback);
+
+        Assertions.assertEquals(5, callback.succeeded.size());
+        Assertions.assertEquals(1, ledger.maxPending);
+    }
+
+    @Test
+    public void rejectedOnSubmit() {
+        var ledger = new FakeLedger();
+        ledger.rejected.add("3");
+        var callback = new RecordingCallback();
+
+        create(ledger, 10).run(account, items(8), callback);
+
+        Assertions.assertEquals(List.of("3"), callback.failed);
+        Assertions.assertEquals(7, callback.succeeded.size());
+        // Sequence of the rejected transaction was used by the next one.
+        Assertions.assertEquals(107, ledger.accountSequence);
+    }
+
+    @Test
+    public void failedButIncluded() {
+        var ledger = new FakeLedger();
+        ledger.tec.add("2");
+        var callback = new RecordingCallback();
+
+        create(ledger, 10).run(account, items(5), callback);
+
+        Assertions.assertEquals(List.of("2"), callback.validatedFailure);
+        Assertions.assertEquals(4, callback.succeeded.size());
+        Assertions.assertEquals(105, ledger.accountSequence);
+    }
+
+    @Test
+    public void expiredInTheMiddle() {
+        var ledger = new FakeLedger();
+        ledger.dropped.add("2");
+        var callback = new RecordingCallback();
+        var items = items(8);
+
+        create(ledger, 10).run(account, items, callback);
+
+        Assertions.assertEquals(List.of("2"), callback.failed);
+        Assertions.assertInstanceOf(LedgerException.class, callback.exceptions.get(0));
+        var expected = new ArrayList<>(items);
+        expected.remove("2");
+        Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(callback.succeeded));
+        // Every transaction was applied once in order, following ones were submitted again with new sequences.
+        Assertions.assertEquals(expected, ledger.applied);
+        Assertions.assertEquals(107, ledger.accountSequence);
+        Assertions.assertEquals(2, ledger.accountInfoCalls);
+        Assertions.assertEquals(2, callback.submitted.stream().filter("5"::equals).count());
+    }
+
+    @Test
+    public void accountInfoFailed() {
+        var ledger = new FakeLedger();
+        ledger.accountInfoAvailable = false;
+        var callback = new RecordingCallback();
+
+        create(ledger, 10).run(account, items(3), callback);
+
+        Assertions.assertEquals(3, callback.failed.size());
+        Assertions.assertTrue(ledger.pool.isEmpty());
+    }
+
+    @Test
+    public void validatedLedgerFailedOnce() {
+        var ledger = new FakeLedger();
+        // Fails while transactions are in flight.
+        ledger.failValidatedLedgerAt = 2;
+        var callback = new RecordingCallback();
+        var items = items(25);
+
+        create(ledger, 10).run(account, items, callback);
+
+        Assertions.assertTrue(ledger.validatedLedgerCalls > 2);
+        Assertions.assertTrue(callback.failed.isEmpty());
+        Assertions.assertEquals(items, ledger.applied);
+        Assertions.assertEquals(new HashSet<>(items), new HashSet<>(callback.succeeded));
+    }
+
+    @Test
+    public void includedButStatusLate() {
+        var ledger = new FakeLedger();
+        ledger.statusLate.put("2", 2);
+        ledger.statusFails.put("4", 1);
+        var callback = new RecordingCallback();
+        var items = items(6);
+
+        create(ledger, 10).run(account, items, callback);
+
+        // Never treated as expired and submitted again, therefore applied once.
+        Assertions.assertTrue(callback.failed.isEmpty());
+        Assertions.assertEquals(items, ledger.applied);
+        Assertions.assertEquals(new HashSet<>(items), new HashSet<>(callback.succeeded));
+        Assertions.assertEquals(6, callback.submitted.size());
+    }
+
+    @Test
+    public void ctrArgs() {
+        var ledger = new FakeLedger();
+        var confirmations = new ConfirmationService(ledger);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SubmitPipeline<String>(null, confirmations, 1, 1, Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SubmitPipeline<>(ledger, null, 1, 1, Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SubmitPipeline<>(ledger, confirmations, 0, 1, Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SubmitPipeline<>(ledger, confirmations, 1, 0, Duration.ZERO));
+    }
+
+    @Test
+    public void feedStalled() {
+        var ledger = new FakeLedger();
+        ledger.stalled = true;
+        var callback = new RecordingCallback();
+
+        // Falls back to requesting the status directly.
+        new SubmitPipeline<>(ledger, new ConfirmationService(ledger), 10, 4, Duration.ofMillis(20)).run(account, items(3), callback);
+
+        Assertions.assertEquals(3, callback.succeeded.size());
+    }
+
+    private static SubmitPipeline<String> create(FakeLedger ledger, int window) {
+        return new SubmitPipeline<>(ledger, new ConfirmationService(ledger), window, 4, Duration.ofSeconds(10));
+    }
+
+    private static List<String> items(int count) {
+        var list = new ArrayList<String>();
+        for (var i = 0; i < count; i++) {
+            list.add(String.valueOf(i));
+        }
+        return list;
+    }
+
+    /**
+     * Closes a ledger every millisecond and applies pending transactions in sequence order, like rippled does.
+     */
+    private static class FakeLedger implements SubmitPipeline.Channel<String>, LedgerFeed {
+        private ScheduledTask feed;
+        private boolean stalled;
+        private int statusCalls;
+        private long index = 100;
+        private long accountSequence = 100;
+        private boolean accountInfoAvailable = true;
+        private int failValidatedLedgerAt = -1;
+        private int validatedLedgerCalls;
+        // Number of status requests answered as not validated (resp. failing) although included.
+        private final HashMap<String, Integer> statusLate = new HashMap<>();
+        private final HashMap<String, Integer> statusFails = new HashMap<>();
+        private int accountInfoCalls;
+        private int maxPending;
+        private final HashSet<String> rejected = new HashSet<>();
+        private final HashSet<String> tec = new HashSet<>();
+        private final HashSet<String> dropped = new HashSet<>();
+        private final ArrayList<Pending> pool = new ArrayList<>();
+        private final HashMap<String, SubmitPipeline.Status> validated = new HashMap<>();
+        private final ArrayList<String> applied = new ArrayList<>();
+
+        @Override
+        public synchronized void start(Consumer<ValidatedLedger> listener) {
+            feed = ExecutorProvider.scheduleWithFixedDelay(Workload.Background, () -> {
+                var ledger = close();
+                if (!stalled) {
+                    listener.accept(ledger);
+                }
+            }, Duration.ZERO, Duration.ofMillis(1));
+        }
+
+        @Override
+        public synchronized void stop() {
+            feed.cancel();
+            feed = null;
+        }
+
+        public synchronized boolean isRunning() {
+            return feed != null;
+        }
+
+        private synchronized ValidatedLedger close() {
+            index++;
+            var included = new ArrayList<String>();
+            pool.removeIf(p -> p.lastLedgerSequence < index);
+            var applying = true;
+            while (applying) {
+                applying = false;
+                for (var p : pool) {
+                    if (p.sequence == accountSequence && !dropped.contains(p.item)) {
+                        pool.remove(p);
+                        applied.add(p.item);
+                        included.add(p.hash);
+                        validated.put(p.hash, SubmitPipeline.Status.validated(tec.contains(p.item) ? "tecNO_DST" : "tesSUCCESS", index));
+                        accountSequence++;
+                        applying = true;
+                        break;
+                    }
+                }
+            }
+            return new ValidatedLedger(index, included);
+        }
+
+        @Override
+        public synchronized long validatedLedgerIndex() throws LedgerException {
+            validatedLedgerCalls++;
+            if (validatedLedgerCalls == failValidatedLedgerAt) {
+                throw new LedgerException("Connection reset");
+            }
+            return index;
+        }
+
+        @Override
+        public synchronized long accountSequence(String account) throws LedgerException {
+            accountInfoCalls++;
+            if (!accountInfoAvailable) {
+                throw new LedgerException("actNotFound");
+            }
+            return accountSequence;
+        }
+
+        @Override
+        public synchronized SubmitPipeline.Signed sign(String item, long sequence, long lastLedgerSequence) {
+            return new SubmitPipeline.Signed(item + "#" + sequence, new Pending(item, item + "#" + sequence, sequence, lastLedgerSequence));
+        }
+
+        @Override
+        public synchronized String submit(SubmitPipeline.Signed signed) {
+            var p = (Pending) signed.getTransaction();
+            if (rejected.contains(p.item)) {
+                return "temBAD_AMOUNT";
+            }
+            if (p.sequence < accountSequence) {
+                return "tefPAST_SEQ";
+            }
+            pool.add(p);
+            maxPending = Math.max(maxPending, pool.size());
+            return p.sequence == accountSequence ? "tesSUCCESS" : "terPRE_SEQ";
+        }
+
+        @Override
+        public synchronized SubmitPipeline.Status status(String hash) throws LedgerException {
+            statusCalls++;
+            var item = hash.substring(0, hash.indexOf('#'));
+            if (validated.containsKey(hash) && statusFails.getOrDefault(item, 0) > 0) {
+                statusFails.merge(item, -1, Integer::sum);
+                throw new LedgerException("Connection reset");
+            }
+            if (validated.containsKey(hash) && statusLate.getOrDefault(item, 0) > 0) {
+                statusLate.merge(item, -1, Integer::sum);
+                return SubmitPipeline.Status.notValidated();
+            }
+            return validated.getOrDefault(hash, SubmitPipeline.Status.notValidated());
+        }
+    }
+
+    private static class Pending {
+        private final String item;
+        private final String hash;
+        private final long sequence;
+        private final long lastLedgerSequence;
+
+        public Pending(String item, String hash, long sequence, long lastLedgerSequence) {
+            this.item = item;
+            this.hash = hash;
+            this.sequence = sequence;
+            this.lastLedgerSequence = lastLedgerSequence;
+        }
+    }
+
+    private static class RecordingCallback implements SubmitPipeline.Callback<String> {
+        private final ArrayList<String> submitted = new ArrayList<>();
+        private final ArrayList<String> succeeded = new ArrayList<>();
+        private final ArrayList<String> validatedFailure = new ArrayList<>();
+        private final ArrayList<String> failed = new ArrayList<>();
+        private final ArrayList<Exception> exceptions = new ArrayList<>();
+
+        @Override
+        public void onSubmitted(String item, String hash) {
+            submitted.add(item);
+        }
+
+        @Override
+        public void onValidated(String item, SubmitPipeline.Status status) {
+            (status.isSuccess() ? succeeded : validatedFailure).add(item);
+        }
+
+        @Override
+        public void onFailed(String item, Exception e) {
+            failed.add(item);
+            exceptions.add(e);
+        }
+    }
+}
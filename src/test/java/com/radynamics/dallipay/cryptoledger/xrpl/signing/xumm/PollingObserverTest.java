@@ -0,0 +1,171 @@
+package com.radynamics.dallipay.cryptoledger.xrpl.signing.xumm;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class PollingObserverTest {
+    private static class FakeXummApi extends XummApi {
+        private final ConcurrentHashMap<UUID, AtomicInteger> polls = new ConcurrentHashMap<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final int signedAfter;
+
+        public FakeXummApi(int signedAfter) {
+            this.signedAfter = signedAfter;
+        }
+
+        @Override
+        public JSONObject status(UUID payloadId) throws InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+                var count = polls.computeIfAbsent(payloadId, k -> new AtomicInteger()).incrementAndGet();
+                var signed = count >= signedAfter;
+
+                var json = new JSONObject();
+                var meta = new JSONObject();
+                json.put("meta", meta);
+                meta.put("resolved", signed);
+                meta.put("signed", signed);
+                meta.put("expired", false);
+                var response = new JSONObject();
+                json.put("response", response);
+                response.put("dispatched_result", signed ? "tesSUCCESS" : "");
+                response.put("txid", signed ? "tx-" + payloadId : JSONObject.NULL);
+                return json;
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        public int pollCount() {
+            return polls.values().stream().mapToInt(AtomicInteger::get).sum();
+        }
+    }
+
+    private static class Listener implements StateListener<Integer> {
+        private final List<Integer> accepted = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> expired = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onExpired(Integer payload) {
+            expired.add(payload);
+        }
+
+        @Override
+        public void onAccepted(Integer payload, String txid) {
+            accepted.add(payload);
+        }
+
+        @Override
+        public void onRejected(Integer payload) {
+        }
+
+        @Override
+        public void onException(Integer payload, Exception e) {
+        }
+    }
+
+    @Test
+    public void observeMany() throws Exception {
+        var api = new FakeXummApi(3);
+        var observer = new PollingObserver<Integer>(api);
+        observer.setPollInterval(Duration.ofMillis(20), Duration.ofMillis(50));
+        var listener = new Listener();
+        observer.addStateListener(listener);
+
+        var threadsBefore = Thread.activeCount();
+        final var count = 100;
+        for (var i = 0; i < count; i++) {
+            observer.observe(i, UUID.randomUUID());
+        }
+        Assertions.assertEquals(count, observer.countListening());
+        Assertions.assertTrue(Thread.activeCount() - threadsBefore < count);
+
+        observer.whenIdle().get(10, TimeUnit.SECONDS);
+        waitFor(() -> listener.accepted.size() == count);
+
+        Assertions.assertEquals(0, observer.countListening());
+        Assertions.assertEquals(count, new HashSet<>(listener.accepted).size());
+        Assertions.assertEquals(count * 3, api.pollCount());
+        Assertions.assertTrue(api.maxRunning.get() <= 4);
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        var api = new FakeXummApi(Integer.MAX_VALUE);
+        var observer = new PollingObserver<Integer>(api);
+        observer.setPollInterval(Duration.ofMillis(20), Duration.ofMillis(100));
+        observer.setTimeout(Duration.ofMillis(500));
+        var listener = new Listener();
+        observer.addStateListener(listener);
+
+        observer.observe(1, UUID.randomUUID());
+        observer.whenIdle().get(5, TimeUnit.SECONDS);
+        waitFor(() -> listener.expired.size() == 1);
+
+        Assertions.assertEquals(0, listener.accepted.size());
+        // Without backoff a payload would have been polled about 25 times.
+        Assertions.assertTrue(api.pollCount() < 12, "polled " + api.pollCount());
+
+        // Nothing is polled anymore once all payloads are resolved.
+        var polled = api.pollCount();
+        Thread.sleep(100);
+        Assertions.assertEquals(polled, api.pollCount());
+    }
+
+    @Test
+    public void slowListener() throws Exception {
+        var api = new FakeXummApi(2);
+        var observer = new PollingObserver<Integer>(api);
+        observer.setPollInterval(Duration.ofMillis(20), Duration.ofMillis(50));
+        Listener listener = new Listener() {
+            @Override
+            public void onAccepted(Integer payload, String txid) {
+                // Blocks like verifying a transaction onchain, until all other payloads were polled to their end.
+                try {
+                    waitFor(() -> observer.countListening() == 0);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                super.onAccepted(payload, txid);
+            }
+        };
+        observer.addStateListener(listener);
+
+        // More payloads than polling threads.
+        final var count = 40;
+        for (var i = 0; i < count; i++) {
+            observer.observe(i, UUID.randomUUID());
+        }
+
+        observer.whenIdle().get(3, TimeUnit.SECONDS);
+        waitFor(() -> listener.accepted.size() == count);
+        Assertions.assertEquals(count, listener.accepted.size());
+    }
+
+    @Test
+    public void whenIdleWithoutPayloads() {
+        var observer = new PollingObserver<Integer>(new FakeXummApi(1));
+        Assertions.assertTrue(observer.whenIdle().isDone());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        var until = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < until) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.radynamics.dallipay.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTest {
+    @TempDir
+    Path dir;
+
+    private ConnectionPool create(int maxIdle) {
+        var file = dir.resolve("test.db").toFile();
+        return new ConnectionPool(file, null, maxIdle, () -> open(file));
+    }
+
+    private static Connection open(File file) throws Exception {
+        var conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    @Test
+    public void reuseConnection() throws Exception {
+        var pool = create(2);
+        var initialized = new AtomicInteger();
+        ConnectionPool.Initializer init = conn -> {
+            initialized.incrementAndGet();
+            conn.createStatement().execute("CREATE TABLE config (key text PRIMARY KEY, value text)");
+            conn.commit();
+        };
+
+        for (var i = 0; i < 5; i++) {
+            try (var conn = pool.checkout(init)) {
+                var ps = Database.prepareCached(conn, "INSERT OR REPLACE INTO config (key, value) VALUES (?, ?)");
+                ps.setString(1, "key");
+                ps.setString(2, "value" + i);
+                ps.executeUpdate();
+                conn.commit();
+            }
+        }
+
+        Assertions.assertEquals(1, initialized.get());
+        var stats = pool.getStats();
+        Assertions.assertEquals(1, stats.getOpenedCount());
+        Assertions.assertEquals(5, stats.getCheckoutCount());
+        Assertions.assertEquals(5, stats.getQueryCount());
+        Assertions.assertEquals(1, stats.getIdleCount());
+    }
+
+    @Test
+    public void uncommittedDiscardedOnClose() throws Exception {
+        var pool = create(1);
+        ConnectionPool.Initializer init = conn -> {
+            conn.createStatement().execute("CREATE TABLE config (key text PRIMARY KEY, value text)");
+            conn.commit();
+        };
+
+        try (var conn = pool.checkout(init)) {
+            conn.prepareStatement("INSERT INTO config (key, value) VALUES ('a', 'b')").executeUpdate();
+        }
+        try (var conn = pool.checkout(init)) {
+            var rs = conn.prepareStatement("SELECT COUNT(*) FROM config").executeQuery();
+            rs.next();
+            Assertions.assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void concurrentCheckoutOpensNew() throws Exception {
+        var pool = create(1);
+        ConnectionPool.Initializer init = conn -> {
+        };
+
+        var a = pool.checkout(init);
+        var b = pool.checkout(init);
+        Assertions.assertNotSame(a, b);
+        a.close();
+        b.close();
+
+        var stats = pool.getStats();
+        Assertions.assertEquals(2, stats.getOpenedCount());
+        Assertions.assertEquals(1, stats.getIdleCount());
+        Assertions.assertThrows(SQLException.class, () -> a.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    public void statementsClosedOnRelease() throws Exception {
+        var pool = create(1);
+        ConnectionPool.Initializer init = conn -> {
+        };
+
+        var conn = pool.checkout(init);
+        var st = conn.createStatement();
+        var ps = conn.prepareStatement("SELECT 1");
+        var rs = ps.executeQuery();
+        var cached = Database.prepareCached(conn, "SELECT 2");
+        conn.close();
+
+        Assertions.assertTrue(st.isClosed());
+        Assertions.assertTrue(ps.isClosed());
+        Assertions.assertTrue(rs.isClosed());
+        // Cached statements are kept for the next user of the connection.
+        Assertions.assertFalse(cached.isClosed());
+        Assertions.assertEquals(1, pool.getStats().getIdleCount());
+    }
+}
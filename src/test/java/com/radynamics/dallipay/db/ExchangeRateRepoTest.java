@@ -0,0 +1,68 @@
+package com.radynamics.dallipay.db;
+
+import com.radynamics.dallipay.exchange.ExchangeRateStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+public class ExchangeRateRepoTest {
+    @TempDir
+    Path dir;
+
+    private Connection open() throws Exception {
+        var conn = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("test.db").toFile());
+        conn.setAutoCommit(false);
+        Database.initialize(conn);
+        return conn;
+    }
+
+    @Test
+    public void saveAndList() throws Exception {
+        try (var repo = new ExchangeRateRepo(open())) {
+            repo.saveAll("provider", new ExchangeRateStore.Entry[]{
+                    new ExchangeRateStore.Entry("XRP/USD", 2000, "100", 0.6, 1990),
+                    new ExchangeRateStore.Entry("XRP/USD", 1000, null, 0.5, 1010),
+                    new ExchangeRateStore.Entry("XRP/EUR", 1000, null, 0.4, 1000),
+            });
+            repo.saveAll("other", new ExchangeRateStore.Entry[]{new ExchangeRateStore.Entry("XRP/USD", 1000, null, 0.7, 1000)});
+            repo.commit();
+        }
+
+        try (var repo = new ExchangeRateRepo(open())) {
+            var entries = repo.list("provider", "XRP/USD");
+            Assertions.assertEquals(2, entries.length);
+            Assertions.assertEquals("XRP/USD", entries[0].getPair());
+            Assertions.assertEquals(1000, entries[0].getPointInTime());
+            Assertions.assertNull(entries[0].getBlock());
+            Assertions.assertEquals(0.5, entries[0].getRate());
+            Assertions.assertEquals(1010, entries[0].getRateAt());
+            Assertions.assertEquals(2000, entries[1].getPointInTime());
+            Assertions.assertEquals("100", entries[1].getBlock());
+            Assertions.assertEquals(0.6, entries[1].getRate());
+            Assertions.assertEquals(1990, entries[1].getRateAt());
+
+            Assertions.assertEquals(0.4, repo.list("provider", "XRP/EUR")[0].getRate());
+            Assertions.assertEquals(0.7, repo.list("other", "XRP/USD")[0].getRate());
+            Assertions.assertEquals(0, repo.list("provider", "XRP/JPY").length);
+        }
+    }
+
+    @Test
+    public void saveReplacesSamePointInTime() throws Exception {
+        try (var repo = new ExchangeRateRepo(open())) {
+            repo.saveAll("provider", new ExchangeRateStore.Entry[]{new ExchangeRateStore.Entry("XRP/USD", 1000, null, 0.5, 1010)});
+            repo.saveAll("provider", new ExchangeRateStore.Entry[]{new ExchangeRateStore.Entry("XRP/USD", 1000, "100", 0.6, 1000)});
+            repo.commit();
+
+            var entries = repo.list("provider", "XRP/USD");
+            Assertions.assertEquals(1, entries.length);
+            Assertions.assertEquals("100", entries[0].getBlock());
+            Assertions.assertEquals(0.6, entries[0].getRate());
+            Assertions.assertEquals(1000, entries[0].getRateAt());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.radynamics.dallipay.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ScannedRangeTest {
+    @Test
+    public void missingWithin() {
+        Assertions.assertEquals(0, new ScannedRange(100, 200).missing(120, 180).length);
+        Assertions.assertEquals(0, new ScannedRange(100, 200).missing(100, 200).length);
+    }
+
+    @Test
+    public void missingBeforeAndAfter() {
+        var missing = new ScannedRange(100, 200).missing(50, 250);
+        Assertions.assertEquals(2, missing.length);
+        Assertions.assertEquals(50, missing[0].getFromBlock());
+        Assertions.assertEquals(99, missing[0].getToBlock());
+        Assertions.assertEquals(201, missing[1].getFromBlock());
+        Assertions.assertEquals(250, missing[1].getToBlock());
+    }
+
+    @Test
+    public void missingAdjoining() {
+        var missing = new ScannedRange(100, 200).missing(201, 300);
+        Assertions.assertEquals(1, missing.length);
+        Assertions.assertEquals(201, missing[0].getFromBlock());
+        Assertions.assertEquals(300, missing[0].getToBlock());
+    }
+
+    @Test
+    public void missingDisjoint() {
+        var missing = new ScannedRange(100, 200).missing(300, 400);
+        Assertions.assertEquals(1, missing.length);
+        Assertions.assertEquals(300, missing[0].getFromBlock());
+        Assertions.assertEquals(400, missing[0].getToBlock());
+    }
+
+    @Test
+    public void extend() {
+        var r = new ScannedRange(100, 200).extend(150, 300);
+        Assertions.assertEquals(100, r.getFromBlock());
+        Assertions.assertEquals(300, r.getToBlock());
+
+        r = new ScannedRange(100, 200).extend(300, 400);
+        Assertions.assertEquals(300, r.getFromBlock());
+        Assertions.assertEquals(400, r.getToBlock());
+    }
+}
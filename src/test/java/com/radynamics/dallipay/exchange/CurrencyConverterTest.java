@@ -94,4 +94,50 @@ public class CurrencyConverterTest {
 
         Assertions.assertNull(ccyConverter.get(new CurrencyPair("USD", "TEST")));
     }
+
+    @Test
+    public void convertPivot() {
+        ExchangeRate[] rates = {
+                new ExchangeRate("XRP", "USD", 0.5, ZonedDateTime.now()),
+                new ExchangeRate("CHF", "USD", 1.25, ZonedDateTime.now()),
+        };
+        var ccyConverter = new CurrencyConverter(rates, "USD");
+
+        assertEquals(40, ccyConverter.convert(BigDecimal.valueOf(100), "XRP", "CHF"), 0);
+        assertEquals(250, ccyConverter.convert(BigDecimal.valueOf(100), "CHF", "XRP"), 0);
+        assertEquals(50, ccyConverter.convert(BigDecimal.valueOf(100), "xrp", "usd"), 0);
+        Assertions.assertThrows(RuntimeException.class, () -> ccyConverter.convert(BigDecimal.valueOf(100), "XRP", "EUR"));
+        Assertions.assertThrows(RuntimeException.class, () -> new CurrencyConverter(rates).convert(BigDecimal.valueOf(100), "XRP", "CHF"));
+    }
+
+    @Test
+    public void getPivot() {
+        var older = ZonedDateTime.now().minusHours(1);
+        ExchangeRate[] rates = {
+                new ExchangeRate("XRP", "USD", 0.5, older),
+                new ExchangeRate("CHF", "USD", 1.25, ZonedDateTime.now()),
+        };
+        var ccyConverter = new CurrencyConverter(rates, "USD");
+
+        var r = ccyConverter.get(new CurrencyPair("XRP", "CHF"));
+        Assertions.assertNotNull(r);
+        Assertions.assertEquals("XRP", r.getPair().getFirstCode());
+        Assertions.assertEquals("CHF", r.getPair().getSecondCode());
+        Assertions.assertEquals(0.4, r.getRate(), 1e-12);
+        Assertions.assertEquals(older, r.getPointInTime());
+
+        // Direct rates are returned as provided.
+        Assertions.assertSame(rates[0], ccyConverter.get(new CurrencyPair("USD", "XRP")));
+        assertTrue(ccyConverter.has(new CurrencyPair("CHF", "XRP")));
+        assertFalse(ccyConverter.has(new CurrencyPair("EUR", "XRP")));
+    }
+
+    @Test
+    public void rateChanged() {
+        var rate = new ExchangeRate("XRP", "USD", 0.5, ZonedDateTime.now());
+        var ccyConverter = new CurrencyConverter(new ExchangeRate[]{rate});
+
+        rate.setRate(0.6);
+        assertEquals(60, ccyConverter.convert(BigDecimal.valueOf(100), "XRP", "USD"), 0);
+    }
 }
@@ -0,0 +1,110 @@
+package com.radynamics.dallipay.exchange;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExchangeRateStoreTest {
+    private static final CurrencyPair pair = new CurrencyPair("XRP", "USD");
+    private static final ZonedDateTime start = ZonedDateTime.of(2024, 3, 1, 10, 0, 0, 0, ZoneId.of("UTC"));
+
+    private static ExchangeRate rate(double value, ZonedDateTime pointInTime) {
+        return new ExchangeRate(pair, value, pointInTime);
+    }
+
+    @Test
+    public void find() {
+        var store = new ExchangeRateStore();
+        store.add(pair, start, null, rate(0.5, start.minusSeconds(3)));
+        store.add(pair, start.plusMinutes(1), () -> "100", rate(0.6, start.plusMinutes(1)));
+
+        Assertions.assertEquals(0.5, store.find(pair, start, null).getRate());
+        Assertions.assertEquals(start.minusSeconds(3).toInstant(), store.find(pair, start, null).getPointInTime().toInstant());
+        Assertions.assertEquals(0.6, store.find(pair, start.plusMinutes(1), () -> "100").getRate());
+        Assertions.assertNull(store.find(pair, start.plusMinutes(1), null));
+        Assertions.assertNull(store.find(pair, start.plusMinutes(1), () -> "101"));
+        Assertions.assertNull(store.find(pair, start.plusSeconds(1), null));
+        Assertions.assertNull(store.find(pair.invert(), start, null));
+    }
+
+    @Test
+    public void findNearest() {
+        var store = new ExchangeRateStore();
+        store.add(pair, start, null, rate(0.5, start));
+        store.add(pair, start.plusMinutes(10), null, rate(0.6, start.plusMinutes(10)));
+
+        var maxDistance = Duration.ofMinutes(2);
+        Assertions.assertEquals(0.5, store.findNearest(pair, start.minusMinutes(1), maxDistance).getRate());
+        Assertions.assertEquals(0.5, store.findNearest(pair, start.plusMinutes(2), maxDistance).getRate());
+        Assertions.assertNull(store.findNearest(pair, start.plusMinutes(5), maxDistance));
+        Assertions.assertEquals(0.6, store.findNearest(pair, start.plusMinutes(9), maxDistance).getRate());
+        Assertions.assertEquals(0.5, store.findNearest(pair, start.plusMinutes(5), Duration.ofMinutes(5)).getRate());
+        Assertions.assertNull(store.findNearest(pair.invert(), start, maxDistance));
+    }
+
+    @Test
+    public void prune() {
+        var store = new ExchangeRateStore();
+        var now = ZonedDateTime.now(ZoneId.of("UTC"));
+        store.add(pair, now.minusDays(2), null, rate(0.5, now.minusDays(2)));
+        store.add(pair, now.minusHours(1), null, rate(0.6, now.minusHours(1)));
+
+        store.prune(Duration.ofDays(1));
+
+        Assertions.assertNull(store.find(pair, now.minusDays(2), null));
+        Assertions.assertEquals(0.6, store.find(pair, now.minusHours(1), null).getRate());
+    }
+
+    @Test
+    public void list() {
+        var store = new ExchangeRateStore();
+        for (var i = 0; i < 5; i++) {
+            store.add(pair, start.plusMinutes(i), null, rate(i, start.plusMinutes(i)));
+        }
+
+        var rates = store.list(pair, start.plusMinutes(1), start.plusMinutes(3));
+        Assertions.assertEquals(3, rates.length);
+        Assertions.assertEquals(1, rates[0].getRate());
+        Assertions.assertEquals(3, rates[2].getRate());
+        Assertions.assertEquals(0, store.list(pair, start.plusHours(1), start.plusHours(2)).length);
+    }
+
+    @Test
+    public void ratesAt() {
+        var store = new ExchangeRateStore();
+        store.add(pair, start, null, rate(0.5, start));
+
+        var calls = new AtomicInteger();
+        var points = new RateLookup[]{
+                new RateLookup(start, null, null), new RateLookup(start.plusMinutes(1), null, null), new RateLookup(start.plusMinutes(2), null, null)};
+        var rates = store.ratesAt(pair, points, missing -> {
+            calls.incrementAndGet();
+            Assertions.assertEquals(2, missing.length);
+            // No rate known for the last point.
+            return new ExchangeRate[]{rate(0.6, missing[0].getPointInTime()), null};
+        });
+
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(0.5, rates[0].getRate());
+        Assertions.assertEquals(0.6, rates[1].getRate());
+        Assertions.assertNull(rates[2]);
+
+        rates = store.ratesAt(pair, new RateLookup[]{points[1]}, missing -> {
+            throw new AssertionError("Must be served from store");
+        });
+        Assertions.assertEquals(0.6, rates[0].getRate());
+    }
+
+    @Test
+    public void isSettled() {
+        var maxSearchDistance = Duration.ofMinutes(64);
+        Assertions.assertTrue(ExchangeRateStore.isSettled(start, maxSearchDistance, start.plusMinutes(65)));
+        Assertions.assertFalse(ExchangeRateStore.isSettled(start, maxSearchDistance, start.plusMinutes(64)));
+        Assertions.assertFalse(ExchangeRateStore.isSettled(start, maxSearchDistance, start.plusMinutes(10)));
+        Assertions.assertFalse(ExchangeRateStore.isSettled(start, maxSearchDistance, start.minusMinutes(10)));
+    }
+}
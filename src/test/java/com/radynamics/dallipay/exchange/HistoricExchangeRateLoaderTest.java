@@ -0,0 +1,211 @@
+package com.radynamics.dallipay.exchange;
+
+import com.radynamics.dallipay.Config;
+import com.radynamics.dallipay.cryptoledger.Block;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.db.ConfigRepo;
+import com.radynamics.dallipay.iso20022.Payment;
+import com.radynamics.dallipay.iso20022.pain001.TestLedger;
+import com.radynamics.dallipay.iso20022.pain001.TestPaymentFactory;
+import com.radynamics.dallipay.transformation.MemoryAccountMappingSource;
+import com.radynamics.dallipay.transformation.TransformInstruction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class HistoricExchangeRateLoaderTest {
+    private static final ZonedDateTime start = ZonedDateTime.of(2024, 3, 1, 10, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void loadAsyncBlock() {
+        var provider = new CountingProvider();
+        var loader = create(provider, RateBucket.Block);
+        var payments = new Payment[]{
+                create(start, "100"), create(start.plusSeconds(4), "101"), create(start.plusSeconds(8), "101"),
+                create(start.plusMinutes(5), "175")};
+
+        CompletableFuture.allOf(loader.loadAsync(payments)).join();
+
+        Assertions.assertEquals(1, provider.calls);
+        Assertions.assertEquals(3, provider.points.size());
+        Assertions.assertEquals(100, payments[0].getExchangeRate().getRate());
+        Assertions.assertEquals(104, payments[1].getExchangeRate().getRate());
+        Assertions.assertEquals(104, payments[2].getExchangeRate().getRate());
+        Assertions.assertEquals(400, payments[3].getExchangeRate().getRate());
+    }
+
+    @Test
+    public void loadAsyncMinute() {
+        var provider = new CountingProvider();
+        var loader = create(provider, RateBucket.Minute);
+        var payments = new Payment[]{
+                create(start, "100"), create(start.plusSeconds(30), "107"), create(start.plusSeconds(59), "114"),
+                create(start.plusMinutes(1), "115")};
+
+        CompletableFuture.allOf(loader.loadAsync(payments)).join();
+
+        Assertions.assertEquals(1, provider.calls);
+        Assertions.assertEquals(2, provider.points.size());
+        Assertions.assertEquals(100, payments[2].getExchangeRate().getRate());
+        Assertions.assertEquals(160, payments[3].getExchangeRate().getRate());
+    }
+
+    @Test
+    public void loadAsyncDay() {
+        var provider = new CountingProvider();
+        var loader = create(provider, RateBucket.Day);
+        var payments = new Payment[]{
+                create(start, "100"), create(start.plusHours(13).plusMinutes(59), "309"), create(start.plusHours(14), "310")};
+
+        CompletableFuture.allOf(loader.loadAsync(payments)).join();
+
+        Assertions.assertEquals(1, provider.calls);
+        Assertions.assertEquals(2, provider.points.size());
+        Assertions.assertEquals(100, payments[1].getExchangeRate().getRate());
+        Assertions.assertEquals(50500, payments[2].getExchangeRate().getRate());
+    }
+
+    @Test
+    public void loadAsyncNoRate() {
+        var provider = new CountingProvider();
+        provider.available = false;
+        var loader = create(provider, RateBucket.Block);
+        var payments = new Payment[]{create(start, "100"), create(start, "100")};
+
+        CompletableFuture.allOf(loader.loadAsync(payments)).join();
+
+        Assertions.assertEquals(1, provider.points.size());
+        for (var p : payments) {
+            Assertions.assertTrue(p.isAmountUnknown());
+        }
+    }
+
+    @Test
+    public void loadAsyncException() {
+        var provider = new CountingProvider();
+        provider.fail = true;
+        var loader = create(provider, RateBucket.Block);
+        var payments = new Payment[]{create(start, "100"), create(start.plusMinutes(1), "115")};
+
+        CompletableFuture.allOf(loader.loadAsync(payments)).join();
+
+        for (var p : payments) {
+            Assertions.assertTrue(p.isAmountUnknown());
+            Assertions.assertNotNull(p.getHistoricExchangeRateException());
+        }
+    }
+
+    @Test
+    public void loadAsyncUnexpectedException() {
+        var provider = new CountingProvider();
+        // Fewer rates than requested let applying them fail after the lookup.
+        provider.truncated = true;
+        var loader = create(provider, RateBucket.Block);
+        var payments = new Payment[]{create(start, "100"), create(start.plusMinutes(1), "115")};
+
+        var futures = loader.loadAsync(payments);
+
+        for (var f : futures) {
+            Assertions.assertThrows(CompletionException.class, f::join);
+        }
+    }
+
+    @Test
+    public void invalidBucketProperty() {
+        System.setProperty("dallipay.fx.bucket", "invalid");
+        try {
+            Assertions.assertEquals(RateBucket.Block, new HistoricExchangeRateLoader(null, new CurrencyConverter()).getBucket());
+        } finally {
+            System.clearProperty("dallipay.fx.bucket");
+        }
+    }
+
+    private static HistoricExchangeRateLoader create(ExchangeRateProvider provider, RateBucket bucket) {
+        var ledger = new TestLedger();
+        var ti = new TransformInstruction(ledger, Config.fallback(ledger), new MemoryAccountMappingSource());
+        ti.setHistoricExchangeRateSource(provider);
+        var loader = new HistoricExchangeRateLoader(ti, new CurrencyConverter());
+        loader.setBucket(bucket);
+        return loader;
+    }
+
+    private static Payment create(ZonedDateTime booked, String blockId) {
+        var t = TestPaymentFactory.createTransaction(new TestLedger(), null, null, 10.0);
+        t.setBooked(booked);
+        t.setBlock(() -> blockId);
+        var p = TestPaymentFactory.create(t);
+        p.setUserCcy(new Currency("USD"));
+        return p;
+    }
+
+    private static class CountingProvider implements ExchangeRateProvider {
+        private int calls;
+        private final ArrayList<RateLookup> points = new ArrayList<>();
+        private boolean available = true;
+        private boolean fail;
+        private boolean truncated;
+
+        @Override
+        public String getId() {
+            return "counting";
+        }
+
+        @Override
+        public String getDisplayText() {
+            return "Counting";
+        }
+
+        @Override
+        public CurrencyPair[] getSupportedPairs() {
+            return new CurrencyPair[]{new CurrencyPair("TEST", "USD")};
+        }
+
+        @Override
+        public boolean supportsRateAt() {
+            return true;
+        }
+
+        @Override
+        public void init(ConfigRepo repo) {
+        }
+
+        @Override
+        public void load() {
+        }
+
+        @Override
+        public ExchangeRate[] latestRates() {
+            return new ExchangeRate[0];
+        }
+
+        @Override
+        public ExchangeRate rateAt(CurrencyPair pair, ZonedDateTime pointInTime, NetworkInfo blockNetwork, Block block) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized ExchangeRate[] ratesAt(CurrencyPair pair, RateLookup[] points) {
+            calls++;
+            this.points.addAll(List.of(points));
+            if (fail) {
+                throw new RuntimeException("Lookup failed");
+            }
+            if (truncated) {
+                return new ExchangeRate[0];
+            }
+            var rates = new ExchangeRate[points.length];
+            for (var i = 0; i < points.length; i++) {
+                // Rate derived from point in time, to verify each payment got the rate of its bucket.
+                var seconds = points[i].getPointInTime().toEpochSecond() - start.toEpochSecond();
+                rates[i] = available ? new ExchangeRate(pair, 100 + seconds, points[i].getPointInTime()) : null;
+            }
+            return rates;
+        }
+    }
+}
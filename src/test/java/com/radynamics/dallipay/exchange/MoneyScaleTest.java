@@ -0,0 +1,35 @@
+package com.radynamics.dallipay.exchange;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MoneyScaleTest {
+    private static final Currency xrp = new Currency("XRP");
+    private static final Currency usd = new Currency("USD");
+
+    @Test
+    public void decimals() {
+        Assertions.assertEquals(6, MoneyScale.decimals(xrp));
+        Assertions.assertEquals(8, MoneyScale.decimals(new Currency("BTC")));
+        Assertions.assertEquals(2, MoneyScale.decimals(usd));
+    }
+
+    @Test
+    public void toScaled() {
+        Assertions.assertEquals(100000, MoneyScale.toScaled(0.1, MoneyScale.factor(xrp)));
+        Assertions.assertEquals(-1234, MoneyScale.toScaled(-12.34, MoneyScale.factor(usd)));
+        Assertions.assertEquals(MoneyScale.NOT_EXACT, MoneyScale.toScaled(12.345, MoneyScale.factor(usd)));
+        Assertions.assertEquals(MoneyScale.NOT_EXACT, MoneyScale.toScaled(1e300, MoneyScale.factor(usd)));
+        Assertions.assertEquals(MoneyScale.NOT_EXACT, MoneyScale.toScaled(Double.NaN, MoneyScale.factor(usd)));
+    }
+
+    @Test
+    public void moneyPlus() {
+        var sum = Money.zero(xrp);
+        for (var i = 0; i < 10; i++) {
+            sum = sum.plus(Money.of(0.1, xrp));
+        }
+        Assertions.assertEquals(1.0, sum.doubleValue());
+        Assertions.assertEquals(0.7, Money.of(1.0, xrp).minus(Money.of(0.3, xrp)).doubleValue());
+    }
+}
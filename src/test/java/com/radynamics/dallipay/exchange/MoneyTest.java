@@ -0,0 +1,34 @@
+package com.radynamics.dallipay.exchange;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MoneyTest {
+    private static final Currency xrp = new Currency("XRP");
+    private static final Currency usd = new Currency("USD");
+
+    @Test
+    public void plusExact() {
+        Assertions.assertEquals(0.3, Money.of(0.1, xrp).plus(Money.of(0.2, xrp)).doubleValue());
+        Assertions.assertEquals(300000, Money.of(0.1, xrp).plus(Money.of(0.2, xrp)).scaledValue());
+        Assertions.assertEquals(0.1, Money.of(0.3, usd).minus(Money.of(0.2, usd)).doubleValue());
+    }
+
+    @Test
+    public void notExact() {
+        var amt = Money.of(0.001, usd);
+        Assertions.assertEquals(MoneyScale.NOT_EXACT, amt.scaledValue());
+        Assertions.assertEquals(0.001, amt.doubleValue());
+        Assertions.assertEquals(0.5 + 0.001, Money.of(0.5, usd).plus(amt).doubleValue());
+        Assertions.assertEquals(0.5 - 0.001, Money.of(0.5, usd).minus(amt).doubleValue());
+    }
+
+    @Test
+    public void compare() {
+        Assertions.assertTrue(Money.of(0.1, xrp).lessThan(Money.of(0.2, xrp)));
+        Assertions.assertTrue(Money.of(0.001, usd).lessThan(Money.of(0.01, usd)));
+        Assertions.assertEquals(Money.of(1.5, usd), Money.of(1.0, usd).plus(Money.of(0.5, usd)));
+        Assertions.assertEquals(Money.of(1.5, usd).hashCode(), Money.of(1.0, usd).plus(Money.of(0.5, usd)).hashCode());
+        Assertions.assertEquals(2.5, Money.of(1.25, usd).multiply(2.0).doubleValue());
+    }
+}
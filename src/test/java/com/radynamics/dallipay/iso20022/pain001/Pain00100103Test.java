@@ -6,6 +6,7 @@ import com.radynamics.dallipay.exchange.ExchangeRate;
 import com.radynamics.dallipay.iso20022.Address;
 import com.radynamics.dallipay.iso20022.IbanAccount;
 import com.radynamics.dallipay.iso20022.OtherAccount;
+import com.radynamics.dallipay.iso20022.Payment;
 import com.radynamics.dallipay.iso20022.camt054.TestFactory;
 import com.radynamics.dallipay.iso20022.creditorreference.ReferenceType;
 import com.radynamics.dallipay.transformation.MemoryAccountMappingSource;
@@ -17,6 +18,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -310,4 +312,44 @@ public class Pain00100103Test {
         assertEquals("TEST", t.getUserCcy().getCode());
         assertEquals(100, t.getAmount().doubleValue(), 0);
     }
+
+    @Test
+    public void readStreaming() throws Exception {
+        var r = new Pain001Reader(new TestLedger());
+
+        var actual = new ArrayList<Payment>();
+        r.read(getClass().getClassLoader().getResourceAsStream("pain001/pain00100103ch02/pain001ExampleZA6Scor.xml"), actual::add);
+
+        assertEquals(4, actual.size());
+        assertStreamed(actual.get(0), "E2E65e21077567d4052a1dbfebabae93989", "GB96MIDL40271522859882", 5000.00);
+        assertEquals(1, actual.get(0).getStructuredReferences().length);
+        assertEquals("RF712348231", actual.get(0).getStructuredReferences()[0].getUnformatted());
+        assertStreamed(actual.get(1), "E2E7cf7017fed674b90b6e563e184297734", "40271522859882", 6000.00);
+        assertStreamed(actual.get(2), "E2Ebe39e86378e44bf2be10791280981b88", "GB96MIDL40271522859882", 7000.00);
+        assertStreamed(actual.get(3), "E2E3fb331a1a4424d08aa94dd1a64bdcafe", "GB96MIDL40271522859882", 8000.00);
+    }
+
+    private static void assertStreamed(Payment actual, String endToEndId, String receiverAccount, double amount) {
+        assertEquals(endToEndId, actual.getEndToEndId());
+        assertEquals(receiverAccount, actual.getReceiverAccount().getUnformatted());
+        assertEquals(amount, actual.getAmount(), 0);
+        assertEquals("GBP", actual.getUserCcy().getCode());
+        Assertion.assertEquals(actual.getSenderAddress(), new Address("MUSTER AG"));
+    }
+
+    @Test
+    public void readStreamingConsumerFails() {
+        var r = new Pain001Reader(new TestLedger());
+
+        var accepted = new ArrayList<Payment>();
+        var e = Assertions.assertThrows(IllegalStateException.class, () -> r.read(getClass().getClassLoader().getResourceAsStream("pain001/pain00100103ch02/pain001ExampleZA6Scor.xml"), p -> {
+            accepted.add(p);
+            throw new IllegalStateException("stop");
+        }));
+
+        assertEquals("stop", e.getMessage());
+        // Reading stops with the first payment instead of collecting the whole document first.
+        assertEquals(1, accepted.size());
+        assertEquals("E2E65e21077567d4052a1dbfebabae93989", accepted.get(0).getEndToEndId());
+    }
 }
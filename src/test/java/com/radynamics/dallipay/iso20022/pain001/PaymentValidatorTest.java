@@ -0,0 +1,204 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+import com.radynamics.dallipay.cryptoledger.Ledger;
+import com.radynamics.dallipay.cryptoledger.NetworkInfo;
+import com.radynamics.dallipay.cryptoledger.Wallet;
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationResult;
+import com.radynamics.dallipay.cryptoledger.transaction.ValidationState;
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.exchange.Money;
+import com.radynamics.dallipay.iso20022.Payment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class PaymentValidatorTest {
+    private final TestLedger ledger = new TestLedger();
+
+    @Test
+    public void validateCached() {
+        var history = new CountingHistoryValidator();
+        var validator = new PaymentValidator(history);
+        var p = create("aaa", "bbb", 10.0);
+
+        validator.validate(p);
+        validator.validate(p);
+        Assertions.assertEquals(1, history.calls);
+
+        // Not a dependency of the history rule.
+        p.addMessage("test");
+        validator.validate(p);
+        Assertions.assertEquals(1, history.calls);
+
+        p.setAmount(Money.of(20.0, new Currency("TEST")));
+        validator.validate(p);
+        Assertions.assertEquals(2, history.calls);
+
+        p.setReceiverWallet(ledger.createWallet("rNZtEviqTua4FcJebLkhq9hS7fkuxaodya", null));
+        validator.validate(p);
+        Assertions.assertEquals(3, history.calls);
+
+        validator.clearCache();
+        validator.validate(p);
+        Assertions.assertEquals(4, history.calls);
+    }
+
+    @Test
+    public void validateOtherPaymentsUnaffected() {
+        var history = new CountingHistoryValidator();
+        var validator = new PaymentValidator(history);
+        var p1 = create("aaa", "bbb", 10.0);
+        var p2 = create("aaa", "bbb", 10.0);
+
+        validator.validate(p1);
+        validator.validate(p2);
+        p1.setAmount(Money.of(20.0, new Currency("TEST")));
+        validator.validate(p1);
+        validator.validate(p2);
+        Assertions.assertEquals(3, history.calls);
+    }
+
+    @Test
+    public void historyRefreshed() {
+        var history = new CountingHistoryValidator();
+        var validator = new PaymentValidator(history);
+        var p = create("aaa", "bbb", 10.0);
+
+        validator.validate(p);
+        validator.getHistoryValidator().clearCache();
+        validator.validate(p);
+        Assertions.assertEquals(1, history.cleared);
+        Assertions.assertEquals(2, history.calls);
+
+        validator.getHistoryValidator().setNetwork(null);
+        validator.validate(p);
+        Assertions.assertEquals(3, history.calls);
+    }
+
+    @Test
+    public void historyFailureNotCached() {
+        var history = new CountingHistoryValidator();
+        history.failing = true;
+        var validator = new PaymentValidator(history);
+        var p = create("aaa", "bbb", 10.0);
+
+        var results = validator.validate(p);
+        Assertions.assertTrue(Arrays.stream(results).anyMatch(r -> r.getStatus() == ValidationState.Warning));
+
+        history.failing = false;
+        validator.validate(p);
+        validator.validate(p);
+        Assertions.assertEquals(2, history.calls);
+    }
+
+    @Test
+    public void invalidateLedgerState() {
+        var ledgerSpecific = new CountingPaymentValidator();
+        var ledger = new TestLedger() {
+            @Override
+            public com.radynamics.dallipay.iso20022.PaymentValidator createPaymentValidator() {
+                return ledgerSpecific;
+            }
+        };
+        var history = new CountingHistoryValidator();
+        var validator = new PaymentValidator(history);
+        var p = TestPaymentFactory.create(ledger, "aaa", "bbb", 10.0);
+
+        validator.validate(p);
+        validator.validate(p);
+        Assertions.assertEquals(1, ledgerSpecific.calls);
+
+        validator.invalidateLedgerState(p);
+        validator.validate(p);
+        Assertions.assertEquals(2, ledgerSpecific.calls);
+        Assertions.assertEquals(1, ledgerSpecific.cleared);
+        // Not depending on ledger state.
+        Assertions.assertEquals(1, history.calls);
+    }
+
+    @Test
+    public void senderSums() {
+        var sums = new SenderSums();
+        var p1 = create("aaa", "bbb", 10.0);
+        var p2 = create("aaa", "bbb", 5.0);
+        var p3 = create("bbb", "aaa", 1.0);
+        var ccy = new Currency("TEST");
+
+        var senders = sums.update(new Payment[]{p1, p2, p3});
+        Assertions.assertEquals(2, senders.length);
+        Assertions.assertEquals(2, senders[0].size());
+        Assertions.assertEquals(15.0, senders[0].getSums().sum(ccy).doubleValue());
+        Assertions.assertEquals(1.0, senders[1].getSums().sum(ccy).doubleValue());
+
+        p2.setAmount(Money.of(7.0, ccy));
+        senders = sums.update(new Payment[]{p1, p2, p3});
+        Assertions.assertEquals(17.0, senders[0].getSums().sum(ccy).doubleValue());
+
+        p3.setSenderWallet(ledger.createWallet("aaa", null));
+        senders = sums.update(new Payment[]{p1, p2, p3});
+        Assertions.assertEquals(1, senders.length);
+        Assertions.assertEquals(18.0, senders[0].getSums().sum(ccy).doubleValue());
+
+        senders = sums.update(new Payment[]{p3});
+        Assertions.assertEquals(1, senders.length);
+        Assertions.assertEquals(1.0, senders[0].getSums().sum(ccy).doubleValue());
+    }
+
+    private Payment create(String sender, String receiver, double amount) {
+        var p = TestPaymentFactory.create(ledger, sender, receiver, amount);
+        p.getSenderWallet().getBalances().set(Money.of(1000.0, new Currency("TEST")));
+        return p;
+    }
+
+    private static class CountingHistoryValidator implements WalletHistoryValidator {
+        private int calls;
+        private int cleared;
+        private boolean failing;
+
+        @Override
+        public synchronized ValidationResult[] validate(Payment p) {
+            calls++;
+            if (failing) {
+                throw new RuntimeException("history not available");
+            }
+            return new ValidationResult[0];
+        }
+
+        @Override
+        public void loadHistory(Ledger ledger, Wallet wallet) {
+            // do nothing
+        }
+
+        @Override
+        public void clearCache() {
+            cleared++;
+        }
+
+        @Override
+        public void setNetwork(NetworkInfo networkInfo) {
+            // do nothing
+        }
+    }
+
+    private static class CountingPaymentValidator implements com.radynamics.dallipay.iso20022.PaymentValidator {
+        private int calls;
+        private int cleared;
+
+        @Override
+        public synchronized ValidationResult[] validate(Payment t) {
+            calls++;
+            return new ValidationResult[0];
+        }
+
+        @Override
+        public WalletHistoryValidator getHistoryValidator() {
+            return null;
+        }
+
+        @Override
+        public void clearCache() {
+            cleared++;
+        }
+    }
+}
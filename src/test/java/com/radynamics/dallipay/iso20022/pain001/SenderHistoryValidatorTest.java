@@ -0,0 +1,114 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+import com.radynamics.dallipay.cryptoledger.*;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SenderHistoryValidatorTest {
+    @Test
+    public void loadHistorySameWalletOnce() throws Exception {
+        var ledger = new HistoryLedger();
+        ledger.block = new CountDownLatch(1);
+        var validator = new SenderHistoryValidator(ledger.getNetwork());
+        var wallet = ledger.createWallet("aaa", null);
+
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        for (var i = 0; i < 4; i++) {
+            futures.add(CompletableFuture.runAsync(() -> validator.loadHistory(ledger, wallet)));
+        }
+        Assertions.assertTrue(ledger.entered.await(5, TimeUnit.SECONDS));
+        ledger.block.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(1, ledger.calls.size());
+        validator.loadHistory(ledger, wallet);
+        Assertions.assertEquals(1, ledger.calls.size());
+    }
+
+    @Test
+    public void loadHistoryWalletsInParallel() throws Exception {
+        var ledger = new HistoryLedger();
+        ledger.entered = new CountDownLatch(2);
+        ledger.block = new CountDownLatch(1);
+        var validator = new SenderHistoryValidator(ledger.getNetwork());
+
+        var first = CompletableFuture.runAsync(() -> validator.loadHistory(ledger, ledger.createWallet("aaa", null)));
+        var second = CompletableFuture.runAsync(() -> validator.loadHistory(ledger, ledger.createWallet("bbb", null)));
+        // Both loads must be running at the same time.
+        Assertions.assertTrue(ledger.entered.await(5, TimeUnit.SECONDS));
+        ledger.block.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(2, ledger.calls.size());
+    }
+
+    @Test
+    public void clearCacheRefreshesIncrementally() {
+        var ledger = new HistoryLedger();
+        var validator = new SenderHistoryValidator(ledger.getNetwork());
+        var wallet = ledger.createWallet("aaa", null);
+
+        validator.loadHistory(ledger, wallet);
+        validator.clearCache();
+        validator.loadHistory(ledger, wallet);
+
+        Assertions.assertEquals(2, ledger.calls.size());
+        Assertions.assertTrue(ledger.calls.get(0) > 1);
+        Assertions.assertEquals(1, ledger.calls.get(1));
+    }
+
+    @Test
+    public void validateRetriesFailedLoad() {
+        var ledger = new HistoryLedger();
+        ledger.failing = true;
+        var validator = new SenderHistoryValidator(ledger.getNetwork());
+        var p = TestPaymentFactory.create(ledger, "aaa", "bbb", 10.0);
+
+        Assertions.assertThrows(RuntimeException.class, () -> validator.validate(p));
+        // Prefetching doesn't fail, validation reports it.
+        validator.loadHistory(ledger, p.getSenderWallet());
+        Assertions.assertEquals(2, ledger.calls.size());
+
+        ledger.failing = false;
+        Assertions.assertEquals(0, validator.validate(p).length);
+        validator.validate(p);
+        Assertions.assertEquals(3, ledger.calls.size());
+    }
+
+    private static class HistoryLedger extends TestLedger {
+        private final List<Long> calls = Collections.synchronizedList(new ArrayList<>());
+        private CountDownLatch entered = new CountDownLatch(1);
+        private CountDownLatch block;
+        private volatile boolean failing;
+
+        public HistoryLedger() {
+            setNetwork(NetworkInfo.create(HttpUrl.get("https://localhost"), "test"));
+        }
+
+        @Override
+        public TransactionResult listPaymentsSent(Wallet wallet, long sinceDaysAgo, int limit) throws Exception {
+            calls.add(sinceDaysAgo);
+            entered.countDown();
+            if (block != null && !block.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Not released");
+            }
+            if (failing) {
+                throw new Exception("payments not available");
+            }
+            return new TransactionResult();
+        }
+
+        @Override
+        public PaymentHistoryProvider getPaymentHistoryProvider() {
+            return new LedgerPaymentHistoryProvider();
+        }
+    }
+}
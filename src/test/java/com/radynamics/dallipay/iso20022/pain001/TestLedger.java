@@ -150,6 +150,11 @@ public class TestLedger implements Ledger {
         // do nothing;
     }
 
+    @Override
+    public void refreshBalances(Wallet[] wallets, boolean useCache) {
+        // do nothing;
+    }
+
     @Override
     public TransactionResult listPaymentsSent(Wallet wallet, long sinceDaysAgo, int limit) throws Exception {
         return new TransactionResult();
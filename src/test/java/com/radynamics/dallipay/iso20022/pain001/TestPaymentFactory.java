@@ -0,0 +1,24 @@
+package com.radynamics.dallipay.iso20022.pain001;
+
+import com.radynamics.dallipay.cryptoledger.Ledger;
+import com.radynamics.dallipay.exchange.Currency;
+import com.radynamics.dallipay.iso20022.Payment;
+
+public class TestPaymentFactory {
+    public static TestTransaction createTransaction(Ledger ledger, String sender, String receiver, double amount) {
+        var t = new TestTransaction(ledger, amount, "TEST");
+        t.setSenderWallet(sender == null ? null : ledger.createWallet(sender, null));
+        t.setReceiverWallet(receiver == null ? null : ledger.createWallet(receiver, null));
+        return t;
+    }
+
+    public static Payment create(Ledger ledger, String sender, String receiver, double amount) {
+        return create(createTransaction(ledger, sender, receiver, amount));
+    }
+
+    public static Payment create(TestTransaction t) {
+        var p = new Payment(t);
+        p.setUserCcy(new Currency("TEST"));
+        return p;
+    }
+}